@@ -0,0 +1,100 @@
+package io.vinipx.testngdoc;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Benchmark comparing the explanation engine with the original regular expression implementation
+ * on generated test methods, reporting time and allocated bytes per explanation
+ *
+ * Usage: ExplanationBenchmark [number-of-methods] [rounds]
+ */
+public class ExplanationBenchmark {
+
+    private static final String[] NAME_STYLES = {
+            "testVerifyFeature%dWorks", "TC%02d_verifyUserCanLogin", "user_can_update_profile_%d",
+            "givenUser%d_whenLoggingIn_thenDashboardIsShown"
+    };
+
+    public static void main(String[] args) {
+        int methodCount = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        List<String> names = new ArrayList<>();
+        List<String> bodies = new ArrayList<>();
+        for (int i = 0; i < methodCount; i++) {
+            names.add(String.format(NAME_STYLES[i % NAME_STYLES.length], i));
+            bodies.add("{\n"
+                    + "    // Exercise feature " + i + "\n"
+                    + "    int value = service.compute(" + i + ");\n"
+                    + "    Assert.assertNotNull(service.lastResult());\n"
+                    + "    Assert.assertEquals(value, " + (i * 2) + ", \"Value should be doubled\");\n"
+                    + "    assertTrue(value > 0);\n"
+                    + "}");
+        }
+
+        Map<String, String> patternReplacements = new HashMap<>();
+        ExplanationEngine engine = new ExplanationEngine(patternReplacements);
+        for (int i = 0; i < methodCount; i++) {
+            if (!engine.explain(bodies.get(i), names.get(i))
+                    .equals(RegexExplanation.explain(bodies.get(i), names.get(i), patternReplacements))) {
+                System.out.println("Output differs for " + names.get(i));
+                return;
+            }
+        }
+        System.out.println("Explained " + methodCount + " methods with identical output, " + rounds + " rounds each");
+
+        // Warm up the JIT before measuring
+        for (int round = 0; round < rounds; round++) {
+            runRegex(names, bodies, patternReplacements);
+            runEngine(names, bodies, engine);
+        }
+
+        long[] regex = measure(() -> runRegex(names, bodies, patternReplacements), rounds);
+        long[] engineResult = measure(() -> runEngine(names, bodies, engine), rounds);
+        long calls = (long) methodCount * rounds;
+        System.out.printf("regular expressions: %6d ns/explanation, %6d bytes/explanation%n",
+                regex[0] / calls, regex[1] / calls);
+        System.out.printf("explanation engine:  %6d ns/explanation, %6d bytes/explanation (%.2fx faster)%n",
+                engineResult[0] / calls, engineResult[1] / calls, (double) regex[0] / engineResult[0]);
+    }
+
+    private static long runRegex(List<String> names, List<String> bodies, Map<String, String> patternReplacements) {
+        long length = 0;
+        for (int i = 0; i < names.size(); i++) {
+            length += RegexExplanation.explain(bodies.get(i), names.get(i), patternReplacements).length();
+        }
+        return length;
+    }
+
+    private static long runEngine(List<String> names, List<String> bodies, ExplanationEngine engine) {
+        long length = 0;
+        for (int i = 0; i < names.size(); i++) {
+            length += engine.explain(bodies.get(i), names.get(i)).length();
+        }
+        return length;
+    }
+
+    /**
+     * @return The elapsed nanoseconds and the allocated bytes, or 0 bytes if the JVM cannot report them
+     */
+    private static long[] measure(Runnable run, int rounds) {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        com.sun.management.ThreadMXBean allocations = threads instanceof com.sun.management.ThreadMXBean
+                ? (com.sun.management.ThreadMXBean) threads : null;
+        long threadId = Thread.currentThread().getId();
+
+        long allocatedBefore = allocations != null ? allocations.getThreadAllocatedBytes(threadId) : 0;
+        long start = System.nanoTime();
+        for (int round = 0; round < rounds; round++) {
+            run.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = allocations != null ? allocations.getThreadAllocatedBytes(threadId) - allocatedBefore : 0;
+        return new long[]{elapsed, allocated};
+    }
+}
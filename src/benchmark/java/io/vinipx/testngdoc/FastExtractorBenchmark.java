@@ -0,0 +1,79 @@
+package io.vinipx.testngdoc;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Benchmark comparing the fast source extractor with a full JavaParser parse of every test file,
+ * and checking that both produce the same documentation
+ *
+ * Usage: FastExtractorBenchmark [number-of-test-files]
+ */
+public class FastExtractorBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int fileCount = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+
+        Path sourceDir = Files.createTempDirectory("testng-doc-bench");
+        try {
+            SyntheticSourceTree.createTestClasses(sourceDir, fileCount);
+            System.out.println("Generated " + fileCount + " test classes in " + sourceDir);
+
+            // Warm up the JIT before measuring
+            scan(sourceDir, false);
+            scan(sourceDir, true);
+
+            long start = System.nanoTime();
+            List<TestNGDocGenerator.TestClassInfo> parsed = scan(sourceDir, false);
+            long javaParser = (System.nanoTime() - start) / 1_000_000;
+
+            start = System.nanoTime();
+            List<TestNGDocGenerator.TestClassInfo> extracted = scan(sourceDir, true);
+            long fast = (System.nanoTime() - start) / 1_000_000;
+
+            System.out.printf("JavaParser:     %6d ms%n", javaParser);
+            System.out.printf("fast extractor: %6d ms (%.2fx faster)%n", fast, (double) javaParser / fast);
+            System.out.println("Identical output: " + sameDocumentation(parsed, extracted));
+        } finally {
+            SyntheticSourceTree.delete(sourceDir);
+        }
+    }
+
+    private static List<TestNGDocGenerator.TestClassInfo> scan(Path sourceDir, boolean fastExtraction) {
+        TestNGDocGenerator generator = new TestNGDocGenerator().useFastSourceExtraction(fastExtraction);
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            return generator.scanForTestClassesFromSource(sourceDir.toString());
+        } finally {
+            System.setOut(out);
+        }
+    }
+
+    private static boolean sameDocumentation(List<TestNGDocGenerator.TestClassInfo> expected,
+                                             List<TestNGDocGenerator.TestClassInfo> actual) {
+        if (expected.size() != actual.size()) {
+            return false;
+        }
+        for (int i = 0; i < expected.size(); i++) {
+            List<TestNGDocGenerator.TestMethodInfo> expectedMethods = expected.get(i).getTestMethods();
+            List<TestNGDocGenerator.TestMethodInfo> actualMethods = actual.get(i).getTestMethods();
+            if (!expected.get(i).getClassName().equals(actual.get(i).getClassName())
+                    || expectedMethods.size() != actualMethods.size()) {
+                return false;
+            }
+            for (int j = 0; j < expectedMethods.size(); j++) {
+                if (!expectedMethods.get(j).getName().equals(actualMethods.get(j).getName())
+                        || !expectedMethods.get(j).getDescription().equals(actualMethods.get(j).getDescription())
+                        || !expectedMethods.get(j).getTags().equals(actualMethods.get(j).getTags())) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
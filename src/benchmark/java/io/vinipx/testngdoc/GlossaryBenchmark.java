@@ -0,0 +1,126 @@
+package io.vinipx.testngdoc;
+
+import io.vinipx.testngdoc.util.Glossary;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Benchmark comparing the compiled glossary with one {@link String#replace} call per term on generated
+ * descriptions, for glossaries of increasing size
+ *
+ * Usage: GlossaryBenchmark [largest-glossary-size] [number-of-descriptions] [rounds]
+ */
+public class GlossaryBenchmark {
+
+    private static final String[] WORDS = {
+            "verifies", "that", "the", "user", "can", "login", "with", "valid", "credentials", "and", "sees",
+            "dashboard", "after", "request", "returns", "status", "response", "contains", "expected", "value"
+    };
+
+    public static void main(String[] args) {
+        int largestGlossary = args.length > 0 ? Integer.parseInt(args[0]) : 3000;
+        int descriptionCount = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        // Fixed-length terms, so that no term contains another and both approaches give the same result
+        Map<String, String> allTerms = new LinkedHashMap<>();
+        for (int i = 0; i < largestGlossary; i++) {
+            allTerms.put(String.format("GL%05d", i), "glossary term " + i);
+        }
+
+        Random random = new Random(42);
+        List<String> descriptions = new ArrayList<>();
+        for (int i = 0; i < descriptionCount; i++) {
+            StringBuilder description = new StringBuilder("This test ");
+            for (int word = 0; word < 40; word++) {
+                if (random.nextInt(8) == 0) {
+                    description.append(String.format("GL%05d", random.nextInt(largestGlossary)));
+                } else {
+                    description.append(WORDS[random.nextInt(WORDS.length)]);
+                }
+                description.append(word % 10 == 9 ? ".\n" : " ");
+            }
+            descriptions.add(description.toString());
+        }
+
+        List<Integer> sizes = new ArrayList<>();
+        for (int size = 10; size < largestGlossary; size *= 10) {
+            sizes.add(size);
+        }
+        sizes.add(largestGlossary);
+
+        // Warm up both code paths once, so that the first glossary size is not measured while the JIT compiles
+        Glossary largest = Glossary.compile(allTerms);
+        for (int round = 0; round < 2 * rounds; round++) {
+            runGlossary(descriptions, largest);
+            runReplaceEach(descriptions.subList(0, descriptionCount / 10), allTerms);
+        }
+
+        System.out.println("Replacing terms in " + descriptionCount + " descriptions");
+        for (int size : sizes) {
+            Map<String, String> terms = new LinkedHashMap<>();
+            for (Map.Entry<String, String> entry : allTerms.entrySet()) {
+                if (terms.size() == size) {
+                    break;
+                }
+                terms.put(entry.getKey(), entry.getValue());
+            }
+            Glossary glossary = Glossary.compile(terms);
+            for (String description : descriptions) {
+                if (!glossary.replaceAll(description).equals(replaceEach(description, terms))) {
+                    System.out.println("Output differs for a glossary of " + size + " terms");
+                    return;
+                }
+            }
+
+            // Let the JIT adapt to this glossary before measuring
+            for (int round = 0; round < rounds; round++) {
+                runGlossary(descriptions, glossary);
+                runReplaceEach(descriptions, terms);
+            }
+
+            long start = System.nanoTime();
+            for (int round = 0; round < rounds; round++) {
+                runReplaceEach(descriptions, terms);
+            }
+            long replaceEach = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int round = 0; round < rounds; round++) {
+                runGlossary(descriptions, glossary);
+            }
+            long compiled = System.nanoTime() - start;
+            long calls = (long) descriptionCount * rounds;
+            System.out.printf("%5d terms: String.replace per term %9d ns/description, glossary %6d ns/description "
+                            + "(%.1fx faster)%n", size, replaceEach / calls, compiled / calls,
+                    (double) replaceEach / compiled);
+        }
+    }
+
+    private static String replaceEach(String text, Map<String, String> terms) {
+        String result = text;
+        for (Map.Entry<String, String> entry : terms.entrySet()) {
+            result = result.replace(entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
+
+    private static long runReplaceEach(List<String> descriptions, Map<String, String> terms) {
+        long length = 0;
+        for (String description : descriptions) {
+            length += replaceEach(description, terms).length();
+        }
+        return length;
+    }
+
+    private static long runGlossary(List<String> descriptions, Glossary glossary) {
+        long length = 0;
+        for (String description : descriptions) {
+            length += glossary.replaceAll(description).length();
+        }
+        return length;
+    }
+}
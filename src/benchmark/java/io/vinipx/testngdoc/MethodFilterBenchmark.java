@@ -0,0 +1,133 @@
+package io.vinipx.testngdoc;
+
+import io.vinipx.testngdoc.util.MethodFilter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmark comparing the compiled method filter with calling {@link String#matches} for every method and tag
+ * against every pattern, on generated method names and tags
+ *
+ * Usage: MethodFilterBenchmark [number-of-methods] [patterns-per-set] [rounds]
+ */
+public class MethodFilterBenchmark {
+
+    private static final String[] WORDS = {
+            "login", "logout", "payment", "refund", "order", "cart", "search", "profile", "settings", "report"
+    };
+
+    public static void main(String[] args) {
+        int methodCount = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        int patternCount = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        List<String> includeMethods = new ArrayList<>();
+        List<String> excludeMethods = new ArrayList<>();
+        List<String> includeTags = new ArrayList<>();
+        List<String> excludeTags = new ArrayList<>();
+        for (int i = 0; i < patternCount; i++) {
+            includeMethods.add("test" + capitalize(WORDS[i % WORDS.length]) + ".*");
+            excludeMethods.add(".*Legacy" + i);
+            includeTags.add("feature-" + i + "(-.*)?");
+            excludeTags.add("(?i)slow-" + i);
+        }
+
+        // Many methods share a few hundred distinct tags, as in a large suite
+        Random random = new Random(42);
+        List<String> names = new ArrayList<>(methodCount);
+        List<List<String>> tags = new ArrayList<>(methodCount);
+        for (int i = 0; i < methodCount; i++) {
+            String name = "test" + capitalize(WORDS[random.nextInt(WORDS.length)]) + i;
+            names.add(random.nextInt(50) == 0 ? name + "Legacy" + random.nextInt(patternCount) : name);
+            tags.add(random.nextInt(4) == 0 ? Collections.emptyList() : Arrays.asList(
+                    "feature-" + random.nextInt(2 * patternCount) + "-" + random.nextInt(20),
+                    (random.nextInt(10) == 0 ? "Slow-" : "team-") + random.nextInt(patternCount)));
+        }
+
+        MethodFilter filter = MethodFilter.compile(includeMethods, excludeMethods, includeTags, excludeTags);
+        for (int i = 0; i < methodCount; i++) {
+            if (filter.accepts(names.get(i), tags.get(i))
+                    != matchEach(names.get(i), tags.get(i), includeMethods, excludeMethods, includeTags, excludeTags)) {
+                System.out.println("Filters disagree on " + names.get(i) + " " + tags.get(i));
+                return;
+            }
+        }
+
+        // Warm up both code paths, so that neither is measured while the JIT compiles
+        for (int round = 0; round < rounds; round++) {
+            runCompiled(names, tags, includeMethods, excludeMethods, includeTags, excludeTags);
+            runMatchEach(names, tags, includeMethods, excludeMethods, includeTags, excludeTags);
+        }
+
+        long start = System.nanoTime();
+        int matchedEach = 0;
+        for (int round = 0; round < rounds; round++) {
+            matchedEach = runMatchEach(names, tags, includeMethods, excludeMethods, includeTags, excludeTags);
+        }
+        long matchEach = System.nanoTime() - start;
+        start = System.nanoTime();
+        int matchedCompiled = 0;
+        for (int round = 0; round < rounds; round++) {
+            matchedCompiled = runCompiled(names, tags, includeMethods, excludeMethods, includeTags, excludeTags);
+        }
+        long compiled = System.nanoTime() - start;
+
+        long calls = (long) methodCount * rounds;
+        System.out.println("Filtering " + methodCount + " methods with " + patternCount + " patterns per set, "
+                + matchedCompiled + " (" + matchedEach + ") documented");
+        System.out.printf("String.matches per pattern %6d ns/method, compiled filter %5d ns/method (%.1fx faster)%n",
+                matchEach / calls, compiled / calls, (double) matchEach / compiled);
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+
+    /**
+     * Compiles the filter once per run, like the generator does, and filters every method
+     */
+    private static int runCompiled(List<String> names, List<List<String>> tags, List<String> includeMethods,
+                                   List<String> excludeMethods, List<String> includeTags, List<String> excludeTags) {
+        MethodFilter filter = MethodFilter.compile(includeMethods, excludeMethods, includeTags, excludeTags);
+        int documented = 0;
+        for (int i = 0; i < names.size(); i++) {
+            if (filter.accepts(names.get(i), tags.get(i))) {
+                documented++;
+            }
+        }
+        return documented;
+    }
+
+    private static int runMatchEach(List<String> names, List<List<String>> tags, List<String> includeMethods,
+                                    List<String> excludeMethods, List<String> includeTags, List<String> excludeTags) {
+        int documented = 0;
+        for (int i = 0; i < names.size(); i++) {
+            if (matchEach(names.get(i), tags.get(i), includeMethods, excludeMethods, includeTags, excludeTags)) {
+                documented++;
+            }
+        }
+        return documented;
+    }
+
+    /**
+     * The filter as it was written before patterns were compiled
+     */
+    private static boolean matchEach(String name, List<String> tags, List<String> includeMethods,
+                                     List<String> excludeMethods, List<String> includeTags, List<String> excludeTags) {
+        if (!includeMethods.isEmpty() && includeMethods.stream().noneMatch(name::matches)) {
+            return false;
+        }
+        if (excludeMethods.stream().anyMatch(name::matches)) {
+            return false;
+        }
+        if (!includeTags.isEmpty() && !tags.isEmpty()
+                && tags.stream().noneMatch(tag -> includeTags.stream().anyMatch(tag::matches))) {
+            return false;
+        }
+        return tags.stream().noneMatch(tag -> excludeTags.stream().anyMatch(tag::matches));
+    }
+}
@@ -0,0 +1,62 @@
+package io.vinipx.testngdoc;
+
+import freemarker.template.TemplateException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Benchmark comparing sequential and parallel rendering of class pages on a synthetic source tree.
+ * Scanning uses the same number of threads in every run, so the differences come from rendering,
+ * which includes building the descriptions of the test methods.
+ *
+ * Usage: ParallelRenderBenchmark [number-of-files] [max-threads]
+ */
+public class ParallelRenderBenchmark {
+
+    public static void main(String[] args) throws IOException, TemplateException {
+        int fileCount = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        Path sourceDir = Files.createTempDirectory("testng-doc-bench");
+        Path outputDir = Files.createTempDirectory("testng-doc-bench-out");
+        try {
+            SyntheticSourceTree.createTestClasses(sourceDir, fileCount);
+            System.out.println("Generated " + fileCount + " synthetic test classes in " + sourceDir);
+
+            // Warm up the JIT before measuring
+            generate(sourceDir, outputDir, maxThreads, 1);
+
+            long baseline = generate(sourceDir, outputDir, maxThreads, 1);
+            System.out.printf("render-threads=%-3d time=%6d ms speedup=%.2fx%n", 1, baseline, 1.0);
+            for (int threads = 2; threads <= maxThreads; threads *= 2) {
+                long elapsed = generate(sourceDir, outputDir, maxThreads, threads);
+                System.out.printf("render-threads=%-3d time=%6d ms speedup=%.2fx%n", threads, elapsed,
+                        (double) baseline / elapsed);
+            }
+        } finally {
+            SyntheticSourceTree.delete(sourceDir);
+            SyntheticSourceTree.delete(outputDir);
+        }
+    }
+
+    private static long generate(Path sourceDir, Path outputDir, int scanThreads, int renderThreads)
+            throws IOException, TemplateException {
+        TestNGDocGenerator generator = new TestNGDocGenerator()
+                .setOutputDirectory(outputDir.toString())
+                .useParallelScanning(scanThreads)
+                .useParallelRendering(renderThreads);
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            long start = System.nanoTime();
+            generator.generateDocumentationFromSource(sourceDir.toString());
+            return (System.nanoTime() - start) / 1_000_000;
+        } finally {
+            System.setOut(out);
+        }
+    }
+}
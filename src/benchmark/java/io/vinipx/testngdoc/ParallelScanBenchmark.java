@@ -0,0 +1,57 @@
+package io.vinipx.testngdoc;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Benchmark comparing sequential and parallel source scanning on a synthetic source tree
+ *
+ * Usage: ParallelScanBenchmark [number-of-files] [max-threads]
+ */
+public class ParallelScanBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int fileCount = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        Path sourceDir = Files.createTempDirectory("testng-doc-bench");
+        try {
+            SyntheticSourceTree.createTestClasses(sourceDir, fileCount);
+            System.out.println("Generated " + fileCount + " synthetic test classes in " + sourceDir);
+
+            // Warm up the JIT before measuring
+            scan(sourceDir, 1);
+
+            long baseline = scan(sourceDir, 1);
+            System.out.printf("threads=%-3d time=%6d ms speedup=%.2fx%n", 1, baseline, 1.0);
+            for (int threads = 2; threads <= maxThreads; threads *= 2) {
+                long elapsed = scan(sourceDir, threads);
+                System.out.printf("threads=%-3d time=%6d ms speedup=%.2fx%n", threads, elapsed,
+                        (double) baseline / elapsed);
+            }
+        } finally {
+            SyntheticSourceTree.delete(sourceDir);
+        }
+    }
+
+    private static long scan(Path sourceDir, int threads) {
+        TestNGDocGenerator generator = new TestNGDocGenerator().useParallelScanning(threads);
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            long start = System.nanoTime();
+            List<TestNGDocGenerator.TestClassInfo> classes = generator.scanForTestClassesFromSource(sourceDir.toString());
+            long elapsed = (System.nanoTime() - start) / 1_000_000;
+            if (classes.isEmpty()) {
+                throw new IllegalStateException("No test classes found in synthetic tree");
+            }
+            return elapsed;
+        } finally {
+            System.setOut(out);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package io.vinipx.testngdoc;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Benchmark measuring how much parse time the lexical pre-filter saves on a source tree
+ * that mostly contains production code
+ *
+ * Usage: PreFilterBenchmark [number-of-files] [percentage-of-test-files]
+ */
+public class PreFilterBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int fileCount = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int testPercentage = args.length > 1 ? Integer.parseInt(args[1]) : 15;
+        int testFiles = fileCount * testPercentage / 100;
+
+        Path sourceDir = Files.createTempDirectory("testng-doc-bench");
+        try {
+            SyntheticSourceTree.createTestClasses(sourceDir, testFiles);
+            SyntheticSourceTree.createProductionClasses(sourceDir, fileCount - testFiles);
+            System.out.println("Generated " + testFiles + " test classes and " + (fileCount - testFiles)
+                    + " production classes in " + sourceDir);
+
+            // Warm up the JIT before measuring
+            scan(sourceDir, false);
+            scan(sourceDir, true);
+
+            long withoutFilter = scan(sourceDir, false);
+            long withFilter = scan(sourceDir, true);
+            System.out.printf("pre-filter disabled: %6d ms%n", withoutFilter);
+            System.out.printf("pre-filter enabled:  %6d ms (%.2fx faster)%n", withFilter,
+                    (double) withoutFilter / withFilter);
+        } finally {
+            SyntheticSourceTree.delete(sourceDir);
+        }
+    }
+
+    private static long scan(Path sourceDir, boolean preFilter) {
+        TestNGDocGenerator generator = new TestNGDocGenerator().useSourcePreFilter(preFilter);
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            long start = System.nanoTime();
+            generator.scanForTestClassesFromSource(sourceDir.toString());
+            return (System.nanoTime() - start) / 1_000_000;
+        } finally {
+            System.setOut(out);
+        }
+    }
+}
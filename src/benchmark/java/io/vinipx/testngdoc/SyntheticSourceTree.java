@@ -0,0 +1,90 @@
+package io.vinipx.testngdoc;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Helper for benchmarks that need a large generated source tree
+ */
+class SyntheticSourceTree {
+
+    private SyntheticSourceTree() {
+    }
+
+    /**
+     * Creates TestNG test classes with ten test methods each
+     *
+     * @param root      The root directory of the source tree
+     * @param fileCount The number of test classes to create
+     * @throws IOException If a file cannot be written
+     */
+    static void createTestClasses(Path root, int fileCount) throws IOException {
+        for (int i = 0; i < fileCount; i++) {
+            Path packageDir = root.resolve("com/example/bench/p" + (i % 50));
+            Files.createDirectories(packageDir);
+            StringBuilder source = new StringBuilder();
+            source.append("package com.example.bench.p").append(i % 50).append(";\n\n")
+                    .append("import org.testng.Assert;\n")
+                    .append("import org.testng.annotations.Test;\n\n")
+                    .append("public class Synthetic").append(i).append("Test {\n");
+            for (int m = 0; m < 10; m++) {
+                source.append("    @Test\n")
+                        .append("    public void testVerifyFeature").append(m).append("Works() {\n")
+                        .append("        // Exercise feature ").append(m).append("\n")
+                        .append("        int value = ").append(m).append(" * 2;\n")
+                        .append("        Assert.assertEquals(value, ").append(m * 2)
+                        .append(", \"Value should be doubled\");\n")
+                        .append("    }\n\n");
+            }
+            source.append("}\n");
+            Files.write(packageDir.resolve("Synthetic" + i + "Test.java"), source.toString().getBytes());
+        }
+    }
+
+    /**
+     * Creates production classes without any test annotations
+     *
+     * @param root      The root directory of the source tree
+     * @param fileCount The number of production classes to create
+     * @throws IOException If a file cannot be written
+     */
+    static void createProductionClasses(Path root, int fileCount) throws IOException {
+        for (int i = 0; i < fileCount; i++) {
+            Path packageDir = root.resolve("com/example/app/p" + (i % 50));
+            Files.createDirectories(packageDir);
+            StringBuilder source = new StringBuilder();
+            source.append("package com.example.app.p").append(i % 50).append(";\n\n")
+                    .append("import java.util.ArrayList;\n")
+                    .append("import java.util.List;\n\n")
+                    .append("public class Service").append(i).append(" {\n")
+                    .append("    private final List<String> items = new ArrayList<>();\n\n");
+            for (int m = 0; m < 10; m++) {
+                source.append("    /** Adds item ").append(m).append(" when it is not present yet */\n")
+                        .append("    @Override\n")
+                        .append("    public boolean addItem").append(m).append("(String item) {\n")
+                        .append("        if (items.contains(item)) {\n")
+                        .append("            return false;\n")
+                        .append("        }\n")
+                        .append("        return items.add(item + \"-").append(m).append("\");\n")
+                        .append("    }\n\n");
+            }
+            source.append("}\n");
+            Files.write(packageDir.resolve("Service" + i + ".java"), source.toString().getBytes());
+        }
+    }
+
+    /**
+     * Deletes a generated source tree
+     *
+     * @param root The root directory of the source tree
+     * @throws IOException If the tree cannot be walked
+     */
+    static void delete(Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package io.vinipx.testngdoc;
+
+import freemarker.template.TemplateException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Benchmark comparing FreeMarker and the precompiled renderers for the built-in templates on a synthetic
+ * source tree. Each generator renders the tree several times, so templates are parsed only once and the
+ * differences come from rendering the pages.
+ *
+ * Usage: TemplateRenderBenchmark [number-of-files] [runs]
+ */
+public class TemplateRenderBenchmark {
+
+    public static void main(String[] args) throws IOException, TemplateException {
+        int fileCount = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        Path sourceDir = Files.createTempDirectory("testng-doc-bench");
+        Path outputDir = Files.createTempDirectory("testng-doc-bench-out");
+        try {
+            SyntheticSourceTree.createTestClasses(sourceDir, fileCount);
+            System.out.println("Generated " + fileCount + " synthetic test classes in " + sourceDir);
+
+            TestNGDocGenerator freeMarker = new TestNGDocGenerator()
+                    .setOutputDirectory(outputDir.toString())
+                    .displayTagsChart()
+                    .useSourceCache();
+            TestNGDocGenerator precompiled = new TestNGDocGenerator()
+                    .setOutputDirectory(outputDir.toString())
+                    .displayTagsChart()
+                    .useSourceCache()
+                    .usePrecompiledTemplates();
+
+            // Warm up the JIT and fill the source cache before measuring
+            generate(freeMarker, sourceDir);
+            generate(precompiled, sourceDir);
+
+            long freeMarkerTime = 0;
+            long precompiledTime = 0;
+            for (int run = 0; run < runs; run++) {
+                freeMarkerTime += generate(freeMarker, sourceDir);
+                precompiledTime += generate(precompiled, sourceDir);
+            }
+            System.out.printf("freemarker  time=%6d ms%n", freeMarkerTime / runs);
+            System.out.printf("precompiled time=%6d ms speedup=%.2fx%n", precompiledTime / runs,
+                    (double) freeMarkerTime / precompiledTime);
+        } finally {
+            SyntheticSourceTree.delete(sourceDir);
+            SyntheticSourceTree.delete(outputDir);
+        }
+    }
+
+    private static long generate(TestNGDocGenerator generator, Path sourceDir) throws IOException, TemplateException {
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            long start = System.nanoTime();
+            generator.generateDocumentationFromSource(sourceDir.toString());
+            return (System.nanoTime() - start) / 1_000_000;
+        } finally {
+            System.setOut(out);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package io.vinipx.testngdoc;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseResult;
+import com.github.javaparser.ast.CompilationUnit;
+import io.vinipx.testngdoc.ConstantTable.TypeReference;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Finds the string constants of other source files by the fully qualified name of their type, for one scan.
+ * Types are looked up by path under the source roots, and under the root of the file they are used in, like the
+ * compiler's source path. Files scanned in this run register the table built while they were scanned; any other
+ * file is parsed once, for its constants only, without resolving types or reading method bodies.
+ * <p>
+ * The index is shared by all scanning threads.
+ */
+class ConstantIndex {
+
+    private final List<Path> sourceRoots = new ArrayList<>();
+    private final Map<Path, Optional<ConstantTable>> tables = new ConcurrentHashMap<>();
+
+    /**
+     * @param sourceRoots The directories searched for source files, such as the configured source roots and the
+     *                    scanned source directory
+     */
+    ConstantIndex(List<String> sourceRoots) {
+        for (String sourceRoot : sourceRoots) {
+            Path root = Paths.get(sourceRoot).toAbsolutePath().normalize();
+            if (Files.isDirectory(root) && !this.sourceRoots.contains(root)) {
+                this.sourceRoots.add(root);
+            }
+        }
+    }
+
+    /**
+     * Makes the table built while scanning a file available to the other files
+     *
+     * @param table The constant table of a scanned file
+     */
+    void register(ConstantTable table) {
+        if (table.getFile() != null) {
+            tables.putIfAbsent(table.getFile().toAbsolutePath().normalize(), Optional.of(table));
+        }
+    }
+
+    /**
+     * Finds a type by its fully qualified name
+     *
+     * @param qualifiedName The name, e.g. com.example.Tags or com.example.Tags.Inner
+     * @param from          The table of the file the name is used in
+     * @param probed        Receives the paths looked at, whether or not a file exists there, as a change to any
+     *                      of them can change the result
+     * @return The type, or null if no source file declares it
+     */
+    TypeReference findType(String qualifiedName, ConstantTable from, Set<Path> probed) {
+        String[] segments = qualifiedName.split("\\.");
+        // Any segment can be the top level type, with the segments before it as the package
+        for (int top = segments.length - 1; top >= 0; top--) {
+            String packageName = String.join(".", Arrays.copyOfRange(segments, 0, top));
+            String relativePath = (packageName.isEmpty() ? "" : packageName.replace('.', '/') + "/")
+                    + segments[top] + ".java";
+            for (Path root : rootsFor(from)) {
+                Path candidate = root.resolve(relativePath).normalize();
+                probed.add(candidate);
+                Optional<ConstantTable> table = tables.computeIfAbsent(candidate, this::parse);
+                if (table.isPresent() && table.get().getPackageName().equals(packageName)) {
+                    TypeReference type = table.get().findOwnType(qualifiedName);
+                    if (type != null) {
+                        return type;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private Set<Path> rootsFor(ConstantTable from) {
+        Set<Path> roots = new LinkedHashSet<>();
+        Path file = from.getFile();
+        if (file != null) {
+            // The root of a file is its directory, less one level per package name segment
+            Path root = file.toAbsolutePath().normalize().getParent();
+            String packageName = from.getPackageName();
+            for (int i = 0; root != null && !packageName.isEmpty() && i < packageName.split("\\.").length; i++) {
+                root = root.getParent();
+            }
+            if (root != null) {
+                roots.add(root);
+            }
+        }
+        roots.addAll(sourceRoots);
+        return roots;
+    }
+
+    private Optional<ConstantTable> parse(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        try {
+            ParseResult<CompilationUnit> result = new JavaParser().parse(file);
+            if (result.getResult().isPresent()) {
+                return Optional.of(ConstantTable.of(result.getResult().get(), file, this));
+            }
+            System.err.println("Could not parse " + file + " for constants: " + result.getProblems());
+        } catch (Exception e) {
+            System.err.println("Could not read " + file + " for constants: " + e.getMessage());
+        }
+        return Optional.empty();
+    }
+}
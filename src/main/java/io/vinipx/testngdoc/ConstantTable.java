@@ -0,0 +1,536 @@
+package io.vinipx.testngdoc;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.ImportDeclaration;
+import com.github.javaparser.ast.body.AnnotationDeclaration;
+import com.github.javaparser.ast.body.BodyDeclaration;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.EnumDeclaration;
+import com.github.javaparser.ast.body.FieldDeclaration;
+import com.github.javaparser.ast.body.RecordDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.ast.body.VariableDeclarator;
+import com.github.javaparser.ast.expr.BinaryExpr;
+import com.github.javaparser.ast.expr.EnclosedExpr;
+import com.github.javaparser.ast.expr.Expression;
+import com.github.javaparser.ast.expr.FieldAccessExpr;
+import com.github.javaparser.ast.expr.NameExpr;
+import com.github.javaparser.ast.expr.StringLiteralExpr;
+import com.github.javaparser.ast.type.ClassOrInterfaceType;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The compile-time string constants of one source file, with the imports and supertypes needed to resolve the
+ * names used in @Docs tags. It is filled while the file is scanned, by the fast source extractor or the JavaParser
+ * visitor, so that constants cost no extra pass over the file.
+ * <p>
+ * Names are resolved like the compiler would for the constants that can appear in tags: fields of the enclosing
+ * classes and their supertypes, static imports, and qualified names of types in the same file, the same package,
+ * imported packages or other source files found through a {@link ConstantIndex}. Only string literals, names and
+ * their concatenation are evaluated; anything else is left unresolved.
+ */
+class ConstantTable {
+
+    private final Path file;
+    private final ConstantIndex index;
+    private String packageName = "";
+    private final Map<String, String> typeImports = new HashMap<>();
+    private final List<String> packageImports = new ArrayList<>();
+    private final Map<String, String> staticImports = new HashMap<>();
+    private final List<String> staticPackageImports = new ArrayList<>();
+    // Types by their name within the file, e.g. Outer.Inner
+    private final Map<String, TypeConstants> types = new HashMap<>();
+    private final Set<Path> dependencies = new LinkedHashSet<>();
+
+    /**
+     * @param file  The source file, or null if it is not read from disk
+     * @param index The index used to find constants in other files, or null to resolve names within the file only
+     */
+    ConstantTable(Path file, ConstantIndex index) {
+        this.file = file;
+        this.index = index;
+    }
+
+    /**
+     * Builds the table of a file that is only read for its constants
+     *
+     * @param cu    The parsed file
+     * @param file  The source file
+     * @param index The index used to find constants in other files
+     * @return The constant table of the file
+     */
+    static ConstantTable of(CompilationUnit cu, Path file, ConstantIndex index) {
+        ConstantTable table = new ConstantTable(file, index);
+        cu.getPackageDeclaration().ifPresent(declaration -> table.setPackageName(declaration.getNameAsString()));
+        for (ImportDeclaration importDeclaration : cu.getImports()) {
+            table.addImport(importDeclaration);
+        }
+        for (TypeDeclaration<?> type : cu.getTypes()) {
+            table.addTypeDeclaration(null, type);
+        }
+        return table;
+    }
+
+    private void addTypeDeclaration(String outerType, TypeDeclaration<?> type) {
+        String typeName = nestedName(outerType, type.getNameAsString());
+        addType(typeName, supertypesOf(type));
+        for (BodyDeclaration<?> member : type.getMembers()) {
+            if (member instanceof FieldDeclaration) {
+                addFields(typeName, (FieldDeclaration) member);
+            } else if (member instanceof TypeDeclaration) {
+                addTypeDeclaration(typeName, (TypeDeclaration<?>) member);
+            }
+        }
+    }
+
+    // ----- Filling the table -----
+
+    String getPackageName() {
+        return packageName;
+    }
+
+    void setPackageName(String packageName) {
+        this.packageName = packageName;
+    }
+
+    /**
+     * Records an import declaration
+     *
+     * @param name     The imported name, without a trailing .*
+     * @param isStatic Whether it is a static import
+     * @param onDemand Whether it ends with .*
+     */
+    void addImport(String name, boolean isStatic, boolean onDemand) {
+        if (onDemand) {
+            (isStatic ? staticPackageImports : packageImports).add(name);
+            return;
+        }
+        int dot = name.lastIndexOf('.');
+        if (dot < 0) {
+            return;
+        }
+        if (isStatic) {
+            staticImports.putIfAbsent(name.substring(dot + 1), name.substring(0, dot));
+        } else {
+            typeImports.putIfAbsent(name.substring(dot + 1), name);
+        }
+    }
+
+    void addImport(ImportDeclaration importDeclaration) {
+        addImport(importDeclaration.getNameAsString(), importDeclaration.isStatic(), importDeclaration.isAsterisk());
+    }
+
+    /**
+     * Records a type declared in the file
+     *
+     * @param typeName   The name of the type within the file, e.g. Outer.Inner
+     * @param supertypes The names of its supertypes as written, without type arguments
+     */
+    void addType(String typeName, List<String> supertypes) {
+        types.computeIfAbsent(typeName, name -> new TypeConstants()).supertypes.addAll(supertypes);
+    }
+
+    /**
+     * Records a string constant
+     *
+     * @param typeName  The name of the declaring type within the file
+     * @param fieldName The field name
+     * @param value     The initializer of the field
+     */
+    void addConstant(String typeName, String fieldName, Concatenation value) {
+        types.computeIfAbsent(typeName, name -> new TypeConstants()).fields.putIfAbsent(fieldName, value);
+    }
+
+    /**
+     * Records the string constants of a field declaration: static final String fields, or String fields of
+     * interfaces and annotation types, which are implicitly static and final
+     *
+     * @param typeName The name of the declaring type within the file
+     * @param field    The field declaration
+     */
+    void addFields(String typeName, FieldDeclaration field) {
+        boolean implicitlyConstant = field.getParentNode()
+                .map(parent -> parent instanceof AnnotationDeclaration
+                        || parent instanceof ClassOrInterfaceDeclaration
+                        && ((ClassOrInterfaceDeclaration) parent).isInterface())
+                .orElse(false);
+        if (typeName == null || !implicitlyConstant && !(field.isStatic() && field.isFinal())) {
+            return;
+        }
+        for (VariableDeclarator variable : field.getVariables()) {
+            String type = variable.getType().asString();
+            if (!type.equals("String") && !type.equals("java.lang.String")) {
+                continue;
+            }
+            Concatenation value = variable.getInitializer().map(ConstantTable::concatenationOf).orElse(null);
+            if (value != null) {
+                addConstant(typeName, variable.getNameAsString(), value);
+            }
+        }
+    }
+
+    /**
+     * @param type A type declaration
+     * @return The names of the classes and interfaces it extends or implements, as written
+     */
+    static List<String> supertypesOf(TypeDeclaration<?> type) {
+        List<ClassOrInterfaceType> supertypes = new ArrayList<>();
+        if (type instanceof ClassOrInterfaceDeclaration) {
+            supertypes.addAll(((ClassOrInterfaceDeclaration) type).getExtendedTypes());
+            supertypes.addAll(((ClassOrInterfaceDeclaration) type).getImplementedTypes());
+        } else if (type instanceof EnumDeclaration) {
+            supertypes.addAll(((EnumDeclaration) type).getImplementedTypes());
+        } else if (type instanceof RecordDeclaration) {
+            supertypes.addAll(((RecordDeclaration) type).getImplementedTypes());
+        }
+        List<String> names = new ArrayList<>(supertypes.size());
+        for (ClassOrInterfaceType supertype : supertypes) {
+            names.add(supertype.getNameWithScope());
+        }
+        return names;
+    }
+
+    /**
+     * Reads an expression as a concatenation of string literals and names
+     *
+     * @param expression The expression, e.g. an element of tags = {...} or a field initializer
+     * @return The concatenation, or null if the expression is anything else
+     */
+    static Concatenation concatenationOf(Expression expression) {
+        Concatenation concatenation = new Concatenation();
+        return addTerms(expression, concatenation) ? concatenation : null;
+    }
+
+    private static boolean addTerms(Expression expression, Concatenation concatenation) {
+        if (expression instanceof StringLiteralExpr) {
+            concatenation.addLiteral(((StringLiteralExpr) expression).getValue());
+            return true;
+        }
+        if (expression instanceof EnclosedExpr) {
+            return addTerms(((EnclosedExpr) expression).getInner(), concatenation);
+        }
+        if (expression instanceof BinaryExpr && ((BinaryExpr) expression).getOperator() == BinaryExpr.Operator.PLUS) {
+            BinaryExpr binary = (BinaryExpr) expression;
+            return addTerms(binary.getLeft(), concatenation) && addTerms(binary.getRight(), concatenation);
+        }
+        String name = nameOf(expression);
+        if (name != null) {
+            concatenation.addName(name);
+            return true;
+        }
+        return false;
+    }
+
+    private static String nameOf(Expression expression) {
+        if (expression instanceof NameExpr) {
+            return ((NameExpr) expression).getNameAsString();
+        }
+        if (expression instanceof FieldAccessExpr) {
+            FieldAccessExpr fieldAccess = (FieldAccessExpr) expression;
+            String scope = nameOf(fieldAccess.getScope());
+            return scope == null ? null : scope + "." + fieldAccess.getNameAsString();
+        }
+        return null;
+    }
+
+    // ----- Resolving names -----
+
+    /**
+     * @return The other source files looked at to resolve names so far, including paths where no file exists yet,
+     * since adding, removing or changing any of them can change the resolved values
+     */
+    Set<Path> getDependencies() {
+        return dependencies;
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    boolean hasType(String typeName) {
+        return types.containsKey(typeName);
+    }
+
+    /**
+     * Evaluates the tags of a test method in order. Tags that cannot be resolved are reported and left out.
+     *
+     * @param tags       The elements of the tags member of its @Docs annotation
+     * @param typeName   The name within the file of the class declaring the method
+     * @param methodName The method name
+     * @return The tag values
+     */
+    List<String> resolveTags(List<Concatenation> tags, String typeName, String methodName) {
+        List<String> values = new ArrayList<>(tags.size());
+        for (Concatenation tag : tags) {
+            String value = resolve(tag, typeName);
+            if (value != null) {
+                values.add(value);
+            } else {
+                System.out.println("  Could not resolve tag " + tag + " of method " + methodName
+                        + " to a string constant, leaving it out");
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Evaluates a concatenation used in the file
+     *
+     * @param value    The concatenation
+     * @param typeName The name within the file of the type where it is used
+     * @return The string value, or null if a name cannot be resolved to a string constant
+     */
+    String resolve(Concatenation value, String typeName) {
+        return evaluate(value, typeName, new Resolution(this));
+    }
+
+    private String evaluate(Concatenation value, String typeName, Resolution resolution) {
+        if (value.terms.size() == 1 && value.isLiteral.get(0)) {
+            return value.terms.get(0);
+        }
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < value.terms.size(); i++) {
+            String term = value.terms.get(i);
+            if (!value.isLiteral.get(i)) {
+                term = resolveName(term, typeName, resolution);
+                if (term == null) {
+                    return null;
+                }
+            }
+            result.append(term);
+        }
+        return result.toString();
+    }
+
+    private String resolveName(String name, String typeName, Resolution resolution) {
+        int dot = name.lastIndexOf('.');
+        if (dot >= 0) {
+            TypeReference type = resolveType(name.substring(0, dot), typeName, resolution);
+            return type == null ? null : type.table.fieldValue(type.name, name.substring(dot + 1), resolution);
+        }
+
+        for (String type = typeName; type != null; type = outerType(type)) {
+            String value = fieldValue(type, name, resolution);
+            if (value != null) {
+                return value;
+            }
+        }
+        String importedFrom = staticImports.get(name);
+        if (importedFrom != null) {
+            TypeReference type = resolution.findType(importedFrom, this);
+            String value = type == null ? null : type.table.fieldValue(type.name, name, resolution);
+            if (value != null) {
+                return value;
+            }
+        }
+        for (String importedType : staticPackageImports) {
+            TypeReference type = resolution.findType(importedType, this);
+            String value = type == null ? null : type.table.fieldValue(type.name, name, resolution);
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Looks up a field in a type of this file and, if it is inherited, in its supertypes
+     */
+    private String fieldValue(String typeName, String fieldName, Resolution resolution) {
+        TypeConstants type = types.get(typeName);
+        if (type == null) {
+            return null;
+        }
+        String key = file + "#" + typeName + "." + fieldName;
+        if (!resolution.visiting.add(key)) {
+            // A cyclic definition or supertype hierarchy
+            return null;
+        }
+        try {
+            Concatenation value = type.fields.get(fieldName);
+            if (value != null) {
+                return evaluate(value, typeName, resolution);
+            }
+            for (String supertypeName : type.supertypes) {
+                TypeReference supertype = resolveType(supertypeName, outerType(typeName), resolution);
+                String inherited = supertype == null ? null
+                        : supertype.table.fieldValue(supertype.name, fieldName, resolution);
+                if (inherited != null) {
+                    return inherited;
+                }
+            }
+            return null;
+        } finally {
+            resolution.visiting.remove(key);
+        }
+    }
+
+    /**
+     * Resolves a simple or qualified type name used in a type of this file
+     */
+    private TypeReference resolveType(String name, String typeName, Resolution resolution) {
+        String[] segments = name.split("\\.");
+        TypeReference type = resolveSimpleType(segments[0], typeName, resolution);
+        int next = 1;
+        // Otherwise the name starts with a package: take the shortest prefix that names a type
+        while (type == null && next < segments.length) {
+            next++;
+            type = resolution.findType(String.join(".", Arrays.copyOfRange(segments, 0, next)), this);
+        }
+        for (; type != null && next < segments.length; next++) {
+            String nested = type.name + "." + segments[next];
+            type = type.table.hasType(nested) ? new TypeReference(type.table, nested) : null;
+        }
+        return type;
+    }
+
+    private TypeReference resolveSimpleType(String simpleName, String typeName, Resolution resolution) {
+        for (String type = typeName; type != null; type = outerType(type)) {
+            if (types.containsKey(type + "." + simpleName)) {
+                return new TypeReference(this, type + "." + simpleName);
+            }
+            if (simpleNameOf(type).equals(simpleName)) {
+                return new TypeReference(this, type);
+            }
+        }
+        if (types.containsKey(simpleName)) {
+            return new TypeReference(this, simpleName);
+        }
+        String imported = typeImports.get(simpleName);
+        if (imported != null) {
+            return resolution.findType(imported, this);
+        }
+        TypeReference samePackage = resolution.findType(nestedName(packageName.isEmpty() ? null : packageName,
+                simpleName), this);
+        if (samePackage != null) {
+            return samePackage;
+        }
+        for (String importedPackage : packageImports) {
+            TypeReference type = resolution.findType(importedPackage + "." + simpleName, this);
+            if (type != null) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds a type of this file by its fully qualified name
+     */
+    TypeReference findOwnType(String qualifiedName) {
+        String typeName = qualifiedName;
+        if (!packageName.isEmpty()) {
+            if (!qualifiedName.startsWith(packageName + ".")) {
+                return null;
+            }
+            typeName = qualifiedName.substring(packageName.length() + 1);
+        }
+        return types.containsKey(typeName) ? new TypeReference(this, typeName) : null;
+    }
+
+    static String nestedName(String outerType, String simpleName) {
+        return outerType == null ? simpleName : outerType + "." + simpleName;
+    }
+
+    private static String outerType(String typeName) {
+        int dot = typeName.lastIndexOf('.');
+        return dot < 0 ? null : typeName.substring(0, dot);
+    }
+
+    private static String simpleNameOf(String typeName) {
+        return typeName.substring(typeName.lastIndexOf('.') + 1);
+    }
+
+    /**
+     * A string literal, a name, or a concatenation of them with +. Literals are kept as written between the
+     * quotes, the same way tags given as literals are.
+     */
+    static final class Concatenation {
+        private final List<String> terms = new ArrayList<>();
+        private final List<Boolean> isLiteral = new ArrayList<>();
+
+        void addLiteral(String literal) {
+            terms.add(literal);
+            isLiteral.add(true);
+        }
+
+        void addName(String name) {
+            terms.add(name);
+            isLiteral.add(false);
+        }
+
+        /**
+         * @return Whether the value is a single string literal, which needs no resolution
+         */
+        boolean isLiteral() {
+            return terms.size() == 1 && isLiteral.get(0);
+        }
+
+        @Override
+        public String toString() {
+            List<String> written = new ArrayList<>(terms.size());
+            for (int i = 0; i < terms.size(); i++) {
+                written.add(isLiteral.get(i) ? "\"" + terms.get(i) + "\"" : terms.get(i));
+            }
+            return String.join(" + ", written);
+        }
+    }
+
+    /**
+     * A type declared in a source file
+     */
+    static final class TypeReference {
+        private final ConstantTable table;
+        private final String name;
+
+        TypeReference(ConstantTable table, String name) {
+            this.table = table;
+            this.name = name;
+        }
+    }
+
+    private static final class TypeConstants {
+        private final List<String> supertypes = new ArrayList<>();
+        private final Map<String, Concatenation> fields = new HashMap<>();
+    }
+
+    /**
+     * The state of resolving one name: the table it is used in, and the fields being evaluated
+     */
+    private static final class Resolution {
+        private final ConstantTable origin;
+        private final Set<String> visiting = new HashSet<>();
+
+        private Resolution(ConstantTable origin) {
+            this.origin = origin;
+        }
+
+        private TypeReference findType(String qualifiedName, ConstantTable from) {
+            TypeReference type = from.findOwnType(qualifiedName);
+            if (type == null && origin != from) {
+                type = origin.findOwnType(qualifiedName);
+            }
+            if (type != null || origin.index == null) {
+                return type;
+            }
+            Set<Path> probed = new LinkedHashSet<>();
+            type = origin.index.findType(qualifiedName, from, probed);
+            Path originFile = origin.file == null ? null : origin.file.toAbsolutePath().normalize();
+            for (Path path : probed) {
+                if (!path.equals(originFile)) {
+                    origin.dependencies.add(path);
+                }
+            }
+            return type;
+        }
+    }
+}
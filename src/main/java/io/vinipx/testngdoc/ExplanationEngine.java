@@ -0,0 +1,625 @@
+package io.vinipx.testngdoc;
+
+import io.vinipx.testngdoc.assertions.AssertionCall;
+import io.vinipx.testngdoc.assertions.AssertionTranslators;
+import io.vinipx.testngdoc.util.Glossary;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Turns the name and body of a test method into a human-readable explanation.
+ * <p>
+ * The body is either given as {@link MethodLogic} read from the syntax tree, whose assertion calls are described
+ * by the {@link AssertionTranslators}, or as printed code. The method
+ * name and printed code are each read in a single pass over the original strings, and the intermediate text is
+ * kept in buffers that are reused by every call on the same thread, so an explanation allocates little more than
+ * the resulting string. Pattern replacements are compiled into a {@link Glossary} and applied in one pass.
+ * Explanations of printed code are identical to the original implementation based on chained regular expression
+ * replacements, except where pattern replacements overlap.
+ * <p>
+ * Explanations of {@link MethodLogic} can be memoized: bodies with equal logic share one rendering of their
+ * comments and assertions, and methods whose bodies and name-derived descriptions are equal share one
+ * explanation string, so repeated bodies such as those of data-driven tests are only explained once.
+ */
+class ExplanationEngine {
+
+    // Only needed for the rare inputs the single-pass readers do not handle, such as line terminators in a name
+    private static final Pattern TEST_CASE_ID = Pattern.compile("^(TC\\d+)_(.*)$");
+    private static final Pattern LEADING_BRACE = Pattern.compile("^\\{\\s*");
+    private static final Pattern TRAILING_BRACE = Pattern.compile("\\s*\\}$");
+
+    // Assertion method names, matched anywhere in a line of printed code, and how their descriptions start
+    private static final String[][] ASSERTION_DESCRIPTIONS = {
+            {"assertEquals", "Verifies that "},
+            {"assertTrue", "Confirms that "},
+            {"assertFalse", "Ensures that "},
+            {"assertNotNull", "Validates that "},
+            {"assertNull", "Checks that "}
+    };
+
+    private final Map<String, String> patternReplacements;
+    private final ThreadLocal<Buffers> buffers = ThreadLocal.withInitial(Buffers::new);
+    private volatile AssertionTranslators translators = AssertionTranslators.load();
+    // Compiled from the pattern replacements on first use after they change
+    private volatile Glossary glossary;
+    // Memoized explanations: the rendered fragments of each distinct body, and each distinct explanation
+    private volatile boolean memoize = true;
+    private final Map<MethodLogic, BodyFragments> bodyFragments = new ConcurrentHashMap<>();
+    private final Map<ExplanationKey, String> explanations = new ConcurrentHashMap<>();
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+
+    /**
+     * Creates an engine
+     *
+     * @param patternReplacements Replacements applied to every explanation; call {@link #replacementsChanged()}
+     *                            after changing them
+     */
+    ExplanationEngine(Map<String, String> patternReplacements) {
+        this.patternReplacements = patternReplacements;
+    }
+
+    /**
+     * Discards the compiled pattern replacements, so that they are compiled again before the next explanation
+     */
+    void replacementsChanged() {
+        glossary = null;
+        explanations.clear();
+    }
+
+    /**
+     * Sets the translators that describe the assertion calls of {@link MethodLogic}
+     *
+     * @param translators The assertion translators
+     */
+    void setTranslators(AssertionTranslators translators) {
+        this.translators = translators;
+        clearMemo();
+    }
+
+    /**
+     * @return The translators that describe the assertion calls of {@link MethodLogic}
+     */
+    AssertionTranslators getTranslators() {
+        return translators;
+    }
+
+    /**
+     * Enables or disables memoization of explanations of {@link MethodLogic}
+     *
+     * @param enabled Whether to memoize explanations
+     */
+    void setMemoize(boolean enabled) {
+        memoize = enabled;
+        clearMemo();
+    }
+
+    /**
+     * @return Whether explanations of {@link MethodLogic} are memoized
+     */
+    boolean isMemoized() {
+        return memoize;
+    }
+
+    /**
+     * @return The number of explanations that were reused since the memo was last cleared
+     */
+    int getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return The number of explanations that were built since the memo was last cleared
+     */
+    int getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return The number of distinct method bodies explained since the memo was last cleared
+     */
+    int getDistinctBodies() {
+        return bodyFragments.size();
+    }
+
+    /**
+     * Discards the memoized explanations and resets the counters
+     */
+    void clearMemo() {
+        bodyFragments.clear();
+        explanations.clear();
+        hits.set(0);
+        misses.set(0);
+    }
+
+    private Glossary glossary() {
+        Glossary compiled = glossary;
+        if (compiled == null) {
+            synchronized (this) {
+                compiled = glossary;
+                if (compiled == null) {
+                    compiled = Glossary.compile(patternReplacements);
+                    glossary = compiled;
+                }
+            }
+        }
+        return compiled;
+    }
+
+    /**
+     * Text buffers of one thread
+     */
+    private static class Buffers {
+        private final StringBuilder explanation = new StringBuilder(256);
+        private final StringBuilder assertions = new StringBuilder(128);
+        private final StringBuilder name = new StringBuilder(64);
+        private final StringBuilder description = new StringBuilder(128);
+    }
+
+    /**
+     * The rendered comments and assertion descriptions of a method body, shared by all bodies with equal logic
+     */
+    private static class BodyFragments {
+        private final String comments;
+        private final String assertions;
+
+        BodyFragments(String comments, String assertions) {
+            this.comments = comments;
+            this.assertions = assertions;
+        }
+    }
+
+    /**
+     * Identifies an explanation by the fragments of the body and the description derived from the method name
+     */
+    private static class ExplanationKey {
+        private final BodyFragments body;
+        private final String nameDescription;
+
+        ExplanationKey(BodyFragments body, String nameDescription) {
+            this.body = body;
+            this.nameDescription = nameDescription;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ExplanationKey)) {
+                return false;
+            }
+            // Fragments are shared per distinct body, so they compare by identity
+            ExplanationKey other = (ExplanationKey) o;
+            return body == other.body && nameDescription.equals(other.nameDescription);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(body) + nameDescription.hashCode();
+        }
+    }
+
+    /**
+     * Generates a human-readable explanation of a test method
+     *
+     * @param rawCode    The printed body of the test method, including its braces
+     * @param methodName The name of the test method
+     * @return A human-readable explanation of the test method logic
+     */
+    String explain(String rawCode, String methodName) {
+        Buffers buffers = this.buffers.get();
+        buffers.explanation.setLength(0);
+        buffers.assertions.setLength(0);
+
+        readBody(rawCode, buffers.explanation, buffers.assertions);
+        return explainMethodName(buffers, methodName);
+    }
+
+    /**
+     * Generates a human-readable explanation of a test method from the comments and assertions of its body
+     *
+     * @param logic      The comments and assertion calls of the method body
+     * @param methodName The name of the test method
+     * @return A human-readable explanation of the test method logic
+     */
+    String explain(MethodLogic logic, String methodName) {
+        Buffers buffers = this.buffers.get();
+        if (!memoize) {
+            buffers.explanation.setLength(0);
+            buffers.assertions.setLength(0);
+            appendBody(logic, buffers.explanation, buffers.assertions);
+            return explainMethodName(buffers, methodName);
+        }
+
+        BodyFragments body = bodyFragments.get(logic);
+        if (body == null) {
+            buffers.explanation.setLength(0);
+            buffers.assertions.setLength(0);
+            appendBody(logic, buffers.explanation, buffers.assertions);
+            BodyFragments rendered = new BodyFragments(buffers.explanation.toString(), buffers.assertions.toString());
+            body = bodyFragments.putIfAbsent(logic, rendered);
+            if (body == null) {
+                body = rendered;
+            }
+        }
+
+        StringBuilder description = buffers.description;
+        boolean replacesComments = describeMethodName(buffers, methodName, description);
+        ExplanationKey key = new ExplanationKey(body, description.toString());
+        String explanation = explanations.get(key);
+        if (explanation != null) {
+            hits.incrementAndGet();
+            return explanation;
+        }
+
+        StringBuilder text = buffers.explanation;
+        text.setLength(0);
+        if (!replacesComments) {
+            text.append(body.comments);
+        }
+        text.append(description).append(body.assertions);
+        explanation = glossary().replaceAll(text.toString());
+        String shared = explanations.putIfAbsent(key, explanation);
+        if (shared != null) {
+            hits.incrementAndGet();
+            return shared;
+        }
+        misses.incrementAndGet();
+        return explanation;
+    }
+
+    /**
+     * Generates a human-readable explanation of a test method from its name alone, as {@link #explain} would
+     * for a method whose body has no comments or assertions
+     *
+     * @param methodName The name of the test method
+     * @return A human-readable explanation of the test method name
+     */
+    String explainName(String methodName) {
+        Buffers buffers = this.buffers.get();
+        buffers.explanation.setLength(0);
+        buffers.assertions.setLength(0);
+        return explainMethodName(buffers, methodName);
+    }
+
+    /**
+     * Appends the comments of a method body to the explanation and its assertion descriptions to the assertions
+     */
+    private void appendBody(MethodLogic logic, StringBuilder explanation, StringBuilder assertions) {
+        for (String comment : logic.getComments()) {
+            explanation.append(comment).append('\n');
+        }
+        AssertionTranslators translators = this.translators;
+        for (AssertionCall assertion : logic.getAssertions()) {
+            String description = translators.translate(assertion);
+            if (description != null) {
+                assertions.append("- ").append(description).append('\n');
+            }
+        }
+    }
+
+    /**
+     * Completes the explanation in the buffers, which hold the comments and the assertion descriptions,
+     * with the description derived from the method name
+     */
+    private String explainMethodName(Buffers buffers, String methodName) {
+        StringBuilder explanation = buffers.explanation;
+        StringBuilder description = buffers.description;
+        if (describeMethodName(buffers, methodName, description)) {
+            explanation.setLength(0);
+        }
+        explanation.append(description).append(buffers.assertions);
+
+        // Apply pattern replacements to make the explanation more readable, all in one pass
+        return glossary().replaceAll(explanation.toString());
+    }
+
+    /**
+     * Writes the description derived from a method name to the given buffer, replacing its content
+     *
+     * @return Whether the description replaces the comments, as it does for Gherkin-style names
+     */
+    private static boolean describeMethodName(Buffers buffers, String methodName, StringBuilder description) {
+        description.setLength(0);
+
+        // Check for test case ID pattern (e.g., TC01_, TC02_, etc.)
+        String testCaseId = null;
+        String name = methodName;
+        int nameStart = 0;
+        int separator = testCaseIdEnd(methodName);
+        if (separator > 0) {
+            if (containsLineTerminator(methodName, separator + 1)) {
+                Matcher matcher = TEST_CASE_ID.matcher(methodName);
+                if (matcher.find()) {
+                    testCaseId = matcher.group(1);
+                    name = matcher.group(2);
+                }
+            } else {
+                testCaseId = methodName.substring(0, separator);
+                nameStart = separator + 1;
+            }
+        }
+
+        StringBuilder readableName = buffers.name;
+        appendReadableName(name, nameStart, readableName);
+        int readableStart = 0;
+        int readableEnd = readableName.length();
+        while (readableStart < readableEnd && readableName.charAt(readableStart) <= ' ') {
+            readableStart++;
+        }
+        while (readableEnd > readableStart && readableName.charAt(readableEnd - 1) <= ' ') {
+            readableEnd--;
+        }
+
+        if (readableName.indexOf("given") >= 0 && readableName.indexOf("when") >= 0
+                && readableName.indexOf("then") >= 0) {
+            // Gherkin-style names replace the comments with a structured title
+            String gherkin = readableName.substring(readableStart, readableEnd)
+                    .replace("given", "\nGiven ")
+                    .replace("when", "\nWhen ")
+                    .replace("then", "\nThen ")
+                    .replace("test", "")
+                    .replace('_', ' ')
+                    .trim();
+
+            description.append("Method: ").append(methodName).append("\n\n");
+            if (testCaseId != null) {
+                description.append(testCaseId).append("\n");
+            }
+            description.append(gherkin).append("\n\n");
+            return true;
+        }
+
+        description.append("This test ");
+        if (testCaseId != null) {
+            description.append("(").append(testCaseId).append(") ");
+        }
+        for (int i = readableStart; i < readableEnd; i++) {
+            char c = readableName.charAt(i);
+            description.append(c == '_' ? ' ' : c);
+        }
+        description.append(".\n\n");
+        return false;
+    }
+
+    /**
+     * Reads the comment and assertion lines of a method body. Comments are appended to the explanation and
+     * assertion descriptions to the assertions buffer.
+     */
+    private static void readBody(String rawCode, StringBuilder comments, StringBuilder assertions) {
+        String code = rawCode;
+        int start = 0;
+        if (code.startsWith("{")) {
+            start = 1;
+            while (start < code.length() && isRegexWhitespace(code.charAt(start))) {
+                start++;
+            }
+        }
+
+        // A closing brace is removed when it ends the body or is followed by a single final line terminator
+        int end = code.length();
+        int terminator = finalLineTerminatorLength(code, start);
+        int brace = end - terminator - 1;
+        if (brace >= start && code.charAt(brace) == '}') {
+            if (terminator > 0 && code.charAt(end - 1) > ' ') {
+                // A Unicode line terminator would stay on the last line, so clean up as the regular expressions do
+                code = TRAILING_BRACE.matcher(LEADING_BRACE.matcher(code).replaceAll("")).replaceAll("").trim();
+                start = 0;
+                end = code.length();
+            } else {
+                end = brace;
+                while (end > start && isRegexWhitespace(code.charAt(end - 1))) {
+                    end--;
+                }
+            }
+        }
+
+        // Next occurrences of the assertion markers, found once for the whole body
+        int nextAssert = -1;
+        int nextAssertClass = -1;
+
+        int lineStart = start;
+        while (lineStart <= end) {
+            int lineEnd = code.indexOf('\n', lineStart);
+            if (lineEnd < 0 || lineEnd > end) {
+                lineEnd = end;
+            }
+
+            int from = lineStart;
+            int to = lineEnd;
+            while (from < to && code.charAt(from) <= ' ') {
+                from++;
+            }
+            while (to > from && code.charAt(to - 1) <= ' ') {
+                to--;
+            }
+
+            if (code.startsWith("//", from) && from + 2 <= to) {
+                appendTrimmed(comments, code, from + 2, to);
+                comments.append('\n');
+            }
+
+            if (nextAssert != Integer.MAX_VALUE && nextAssert < from) {
+                nextAssert = indexOrMax(code.indexOf("assert", from));
+            }
+            if (nextAssertClass != Integer.MAX_VALUE && nextAssertClass < from) {
+                nextAssertClass = indexOrMax(code.indexOf("Assert.", from));
+            }
+            if (nextAssert <= to - 6 || nextAssertClass <= to - 7) {
+                describeAssertion(code, from, to, assertions);
+            }
+
+            lineStart = lineEnd + 1;
+        }
+    }
+
+    /**
+     * Appends the description of an assertion line, if it uses one of the known assertions
+     */
+    private static void describeAssertion(String code, int from, int to, StringBuilder assertions) {
+        String prefix = null;
+        for (String[] description : ASSERTION_DESCRIPTIONS) {
+            if (regionContains(code, from, to, description[0])) {
+                prefix = description[1];
+                break;
+            }
+        }
+        if (prefix == null) {
+            return;
+        }
+        assertions.append("- ").append(prefix);
+
+        // The message, if any, often contains a good explanation
+        int messageStart = indexOf(code, '"', from, to);
+        if (messageStart >= 0) {
+            int messageEnd = indexOf(code, '"', messageStart + 1, to);
+            if (messageEnd >= 0) {
+                assertions.append(code, messageStart + 1, messageEnd).append('\n');
+                return;
+            }
+        }
+
+        // Otherwise describe the values being compared
+        int paramsStart = indexOf(code, '(', from, to);
+        if (paramsStart >= 0) {
+            int paramsEnd = lastIndexOf(code, ')', from, to);
+            // A closing parenthesis before the opening one, as in a continued line, has no values to describe
+            if (paramsEnd > paramsStart) {
+                assertions.append("the test condition is validated: ").append(code, paramsStart + 1, paramsEnd)
+                        .append('\n');
+                return;
+            }
+        }
+        assertions.append("the test condition is validated").append('\n');
+    }
+
+    /**
+     * Appends the readable form of a method name: occurrences of "test" removed, a space before each capital
+     * letter, and lower case, without trimming
+     */
+    private static void appendReadableName(String name, int from, StringBuilder readableName) {
+        readableName.setLength(0);
+        boolean ascii = true;
+        int i = from;
+        while (i < name.length()) {
+            if (name.startsWith("test", i)) {
+                i += 4;
+                continue;
+            }
+            char c = name.charAt(i++);
+            if (c >= 'A' && c <= 'Z') {
+                readableName.append(' ');
+            } else if (c >= 0x80) {
+                ascii = false;
+            }
+            readableName.append(c);
+        }
+
+        String language = Locale.getDefault().getLanguage();
+        if (ascii && !language.equals("tr") && !language.equals("az")) {
+            for (int j = 0; j < readableName.length(); j++) {
+                char c = readableName.charAt(j);
+                if (c >= 'A' && c <= 'Z') {
+                    readableName.setCharAt(j, (char) (c + ('a' - 'A')));
+                }
+            }
+        } else {
+            // Locale-specific lower case mappings can change the length of the text
+            String lowerCase = readableName.toString().toLowerCase();
+            readableName.setLength(0);
+            readableName.append(lowerCase);
+        }
+    }
+
+    /**
+     * @return The index of the underscore after a TC01-style test case ID at the start of the name, or -1
+     */
+    private static int testCaseIdEnd(String methodName) {
+        if (!methodName.startsWith("TC")) {
+            return -1;
+        }
+        int i = 2;
+        while (i < methodName.length() && methodName.charAt(i) >= '0' && methodName.charAt(i) <= '9') {
+            i++;
+        }
+        return i > 2 && i < methodName.length() && methodName.charAt(i) == '_' ? i : -1;
+    }
+
+    private static boolean containsLineTerminator(String text, int from) {
+        for (int i = from; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return The length of the line terminator at the end of the text, as matched by {@code $}
+     */
+    private static int finalLineTerminatorLength(String text, int from) {
+        int length = text.length();
+        if (length - from >= 2 && text.charAt(length - 2) == '\r' && text.charAt(length - 1) == '\n') {
+            return 2;
+        }
+        if (length - from >= 1) {
+            char c = text.charAt(length - 1);
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                return 1;
+            }
+        }
+        return 0;
+    }
+
+    private static boolean isRegexWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static void appendTrimmed(StringBuilder target, String text, int from, int to) {
+        while (from < to && text.charAt(from) <= ' ') {
+            from++;
+        }
+        while (to > from && text.charAt(to - 1) <= ' ') {
+            to--;
+        }
+        target.append(text, from, to);
+    }
+
+    private static int indexOrMax(int index) {
+        return index < 0 ? Integer.MAX_VALUE : index;
+    }
+
+    private static boolean regionContains(String text, int from, int to, String target) {
+        for (int i = from; i <= to - target.length(); i++) {
+            if (text.startsWith(target, i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int indexOf(String text, char c, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (text.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int lastIndexOf(String text, char c, int from, int to) {
+        for (int i = to - 1; i >= from; i--) {
+            if (text.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
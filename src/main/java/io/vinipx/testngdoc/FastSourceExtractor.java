@@ -0,0 +1,1138 @@
+package io.vinipx.testngdoc;
+
+import com.github.javaparser.utils.StringEscapeUtils;
+import io.vinipx.testngdoc.ConstantTable.Concatenation;
+import io.vinipx.testngdoc.TestNGDocGenerator.TestClassInfo;
+import io.vinipx.testngdoc.TestNGDocGenerator.TestMethodInfo;
+import io.vinipx.testngdoc.assertions.AssertionCall;
+import io.vinipx.testngdoc.assertions.AssertionTranslators;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+
+/**
+ * Extracts test classes from a Java source file with a hand-written tokenizer instead of a full JavaParser parse.
+ * Only what the documentation needs is recovered: the package, class scopes, test methods, their @Docs tags,
+ * and the line comments and assertion calls of each test method body, as {@link MethodLogic} would read them.
+ * Imports, supertypes and string constants are recorded in the {@link ConstantTable} of the file on the way, so
+ * tags given as constants are resolved once the whole file has been read.
+ * <p>
+ * The extractor is deliberately conservative. Whenever it meets a construct it cannot reproduce exactly, such as
+ * enums, records, interfaces, annotation types, text blocks or nested blocks in a test method, it gives up and
+ * the caller falls back to JavaParser, so both paths produce identical results.
+ */
+class FastSourceExtractor {
+
+    private static final Set<String> TEST_ANNOTATIONS = new HashSet<>(Arrays.asList(
+            "Test", "org.testng.annotations.Test"));
+    private static final Set<String> DOCS_ANNOTATIONS = new HashSet<>(Arrays.asList(
+            "Docs", "io.vinipx.testngdoc.annotations.Docs"));
+
+    // Keywords that can end an operand, so a following + or - is a binary operator
+    private static final Set<String> OPERAND_KEYWORDS = new HashSet<>(Arrays.asList(
+            "this", "super", "true", "false", "null", "class"));
+
+    // Keywords that can directly precede an array creation or array access
+    private static final Set<String> ARRAY_ACCESS_KEYWORDS = new HashSet<>(Arrays.asList(
+            "new", "return", "throw", "assert"));
+
+    private static final Set<String> KEYWORDS = new HashSet<>(Arrays.asList(
+            "abstract", "assert", "boolean", "break", "byte", "case", "catch", "char", "class", "const",
+            "continue", "default", "do", "double", "else", "enum", "extends", "final", "finally", "float",
+            "for", "goto", "if", "implements", "import", "instanceof", "int", "interface", "long", "native",
+            "new", "package", "private", "protected", "public", "return", "short", "static", "strictfp",
+            "super", "switch", "synchronized", "this", "throw", "throws", "transient", "try", "void",
+            "volatile", "while", "true", "false", "null"));
+
+    private static final Set<String> BINARY_OPERATORS = new HashSet<>(Arrays.asList(
+            "+", "-", "*", "/", "%", "==", "!=", "<", ">", "<=", ">=", "&&", "||", "&", "|", "^",
+            "<<", ">>", ">>>", "=", "+=", "-=", "*=", "/=", "%=", "&=", "|=", "^=", "<<=", ">>=", ">>>="));
+
+    // Longest operators first, so that the tokenizer always takes the longest match
+    private static final String[] OPERATORS = {
+            ">>>=", "<<=", ">>=", ">>>", "...", "->", "::", "++", "--", "&&", "||", "==", "!=", "<=", ">=",
+            "+=", "-=", "*=", "/=", "%=", "&=", "|=", "^=", "<<", ">>",
+            "(", ")", "{", "}", "[", "]", ";", ",", ".", "@", "=", ">", "<", "!", "~", "?", ":",
+            "+", "-", "*", "/", "&", "|", "^", "%"};
+
+    private enum Kind { WORD, NUMBER, STRING, CHAR, OPERATOR, LINE_COMMENT, BLOCK_COMMENT }
+
+    private static final class Token {
+        private final Kind kind;
+        private final String text;
+        private final int line;
+
+        private Token(Kind kind, String text, int line) {
+            this.kind = kind;
+            this.text = text;
+            this.line = line;
+        }
+
+        private boolean is(String value) {
+            return (kind == Kind.OPERATOR || kind == Kind.WORD) && text.equals(value);
+        }
+
+        private boolean isComment() {
+            return kind == Kind.LINE_COMMENT || kind == Kind.BLOCK_COMMENT;
+        }
+
+        private boolean isAtom() {
+            return kind == Kind.WORD || kind == Kind.NUMBER || kind == Kind.STRING || kind == Kind.CHAR;
+        }
+    }
+
+    /**
+     * Thrown when the source uses a construct the extractor does not handle
+     */
+    private static final class UnsupportedSourceException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private UnsupportedSourceException() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final UnsupportedSourceException UNSUPPORTED = new UnsupportedSourceException();
+
+    /**
+     * A test method whose tags are resolved at the end of the file
+     */
+    private static final class PendingMethod {
+        private final TestClassInfo scope;
+        private final String typeName;
+        private final TestMethodInfo methodInfo;
+        private final List<Concatenation> tags;
+        private final boolean hasBody;
+        private final MethodLogic methodLogic;
+
+        private PendingMethod(TestClassInfo scope, String typeName, TestMethodInfo methodInfo,
+                              List<Concatenation> tags, boolean hasBody, MethodLogic methodLogic) {
+            this.scope = scope;
+            this.typeName = typeName;
+            this.methodInfo = methodInfo;
+            this.tags = tags;
+            this.hasBody = hasBody;
+            this.methodLogic = methodLogic;
+        }
+    }
+
+    private final List<Token> tokens;
+    private final AssertionTranslators translators;
+    private final boolean readBodies;
+    private final Predicate<TestMethodInfo> filter;
+    private final BiFunction<MethodLogic, String, String> explainer;
+    private final ConstantTable constants;
+    private final SourceFileBudget budget;
+    private final List<TestClassInfo> classes = new ArrayList<>();
+    // Names within the file of the enclosing types, innermost first
+    private final Deque<String> typeNames = new ArrayDeque<>();
+    // Test methods with tags given as constants, which are filtered and described at the end of the file
+    private final List<PendingMethod> pendingMethods = new ArrayList<>();
+    private String packageName = "";
+    private int pos;
+
+    private FastSourceExtractor(List<Token> tokens, AssertionTranslators translators, boolean readBodies,
+                                Predicate<TestMethodInfo> filter, BiFunction<MethodLogic, String, String> explainer,
+                                ConstantTable constants, SourceFileBudget budget) {
+        this.tokens = tokens;
+        this.translators = translators;
+        this.readBodies = readBodies;
+        this.filter = filter;
+        this.explainer = explainer;
+        this.constants = constants;
+        this.budget = budget;
+    }
+
+    /**
+     * Extracts the test classes from a source file
+     *
+     * @param source      The content of the source file
+     * @param translators The translators that tell which calls are assertions
+     * @param readBodies  Whether the comments and assertions of test method bodies are read; if not, bodies are
+     *                    skipped and the explainer is given null
+     * @param filter      Tells which test methods are documented, from their names and tags
+     * @param explainer   Generates the description of a test method from its logic and name,
+     *                    when the description is first used
+     * @param constants   The empty constant table of the file, which is filled while it is read
+     * @param budget      The time allowed for the file
+     * @return The classes in the order their declarations start, each with its own test methods,
+     * or null if the file must be parsed with JavaParser instead
+     * @throws SourceFileBudget.ExceededException If the file takes longer than its budget allows
+     */
+    static List<TestClassInfo> extract(String source, AssertionTranslators translators, boolean readBodies,
+                                       Predicate<TestMethodInfo> filter, BiFunction<MethodLogic, String, String> explainer,
+                                       ConstantTable constants, SourceFileBudget budget) {
+        try {
+            FastSourceExtractor extractor = new FastSourceExtractor(tokenize(source, budget), translators, readBodies,
+                    filter, explainer, constants, budget);
+            extractor.parseCompilationUnit();
+            extractor.resolvePendingMethods();
+            return extractor.classes;
+        } catch (UnsupportedSourceException e) {
+            return null;
+        }
+    }
+
+    // ----- Tokenizer -----
+
+    private static List<Token> tokenize(String source, SourceFileBudget budget) {
+        List<Token> tokens = new ArrayList<>(source.length() / 4);
+        int length = source.length();
+        int line = 1;
+        int i = 0;
+        while (i < length) {
+            if ((tokens.size() & 1023) == 0) {
+                budget.check();
+            }
+            char c = source.charAt(i);
+            if (c == '\n') {
+                line++;
+                i++;
+            } else if (c == '\r') {
+                if (i + 1 >= length || source.charAt(i + 1) != '\n') {
+                    line++;
+                }
+                i++;
+            } else if (c == ' ' || c == '\t' || c == '\f') {
+                i++;
+            } else if (c == '/' && i + 1 < length && source.charAt(i + 1) == '/') {
+                int end = i + 2;
+                while (end < length && source.charAt(end) != '\n' && source.charAt(end) != '\r') {
+                    end++;
+                }
+                tokens.add(new Token(Kind.LINE_COMMENT, source.substring(i + 2, end), line));
+                i = end;
+            } else if (c == '/' && i + 1 < length && source.charAt(i + 1) == '*') {
+                int end = source.indexOf("*/", i + 2);
+                if (end < 0) {
+                    throw UNSUPPORTED;
+                }
+                tokens.add(new Token(Kind.BLOCK_COMMENT, source.substring(i, end + 2), line));
+                for (int j = i; j < end; j++) {
+                    if (source.charAt(j) == '\n') {
+                        line++;
+                    }
+                }
+                i = end + 2;
+            } else if (c == '"' || c == '\'') {
+                if (c == '"' && source.startsWith("\"\"\"", i)) {
+                    // Text blocks
+                    throw UNSUPPORTED;
+                }
+                int end = i + 1;
+                while (end < length && source.charAt(end) != c) {
+                    char literalChar = source.charAt(end);
+                    if (literalChar == '\n' || literalChar == '\r') {
+                        throw UNSUPPORTED;
+                    }
+                    end += literalChar == '\\' ? 2 : 1;
+                }
+                if (end >= length) {
+                    throw UNSUPPORTED;
+                }
+                tokens.add(new Token(c == '"' ? Kind.STRING : Kind.CHAR, source.substring(i, end + 1), line));
+                i = end + 1;
+            } else if (Character.isJavaIdentifierStart(c)) {
+                int end = i + 1;
+                while (end < length && Character.isJavaIdentifierPart(source.charAt(end))) {
+                    end++;
+                }
+                tokens.add(new Token(Kind.WORD, source.substring(i, end), line));
+                i = end;
+            } else if (Character.isDigit(c) || (c == '.' && i + 1 < length && Character.isDigit(source.charAt(i + 1)))) {
+                int end = scanNumber(source, i);
+                tokens.add(new Token(Kind.NUMBER, source.substring(i, end), line));
+                i = end;
+            } else {
+                String operator = matchOperator(source, i);
+                if (operator == null) {
+                    // Unicode escapes and other characters the extractor does not interpret
+                    throw UNSUPPORTED;
+                }
+                tokens.add(new Token(Kind.OPERATOR, operator, line));
+                i += operator.length();
+            }
+        }
+        return tokens;
+    }
+
+    private static int scanNumber(String source, int start) {
+        boolean hex = source.startsWith("0x", start) || source.startsWith("0X", start);
+        int end = start;
+        while (end < source.length()) {
+            char c = source.charAt(end);
+            if (Character.isLetterOrDigit(c) || c == '_' || c == '.') {
+                end++;
+            } else if ((c == '+' || c == '-') && end > start && isExponent(source.charAt(end - 1), hex)) {
+                end++;
+            } else {
+                break;
+            }
+        }
+        return end;
+    }
+
+    private static boolean isExponent(char c, boolean hex) {
+        return hex ? (c == 'p' || c == 'P') : (c == 'e' || c == 'E');
+    }
+
+    private static String matchOperator(String source, int start) {
+        for (String operator : OPERATORS) {
+            if (source.startsWith(operator, start)) {
+                return operator;
+            }
+        }
+        return null;
+    }
+
+    // ----- Declarations -----
+
+    private Token nextSignificant() {
+        if ((pos & 1023) == 0) {
+            budget.check();
+        }
+        while (pos < tokens.size()) {
+            Token token = tokens.get(pos++);
+            if (!token.isComment()) {
+                return token;
+            }
+        }
+        return null;
+    }
+
+    private Token peekSignificant() {
+        int saved = pos;
+        Token token = nextSignificant();
+        pos = saved;
+        return token;
+    }
+
+    private Token expect(Kind kind) {
+        Token token = nextSignificant();
+        if (token == null || token.kind != kind) {
+            throw UNSUPPORTED;
+        }
+        return token;
+    }
+
+    private void parseCompilationUnit() {
+        Token first = peekSignificant();
+        if (first != null && first.is("@")) {
+            // Package or module annotations
+            throw UNSUPPORTED;
+        }
+        if (first != null && first.is("package")) {
+            nextSignificant();
+            StringBuilder name = new StringBuilder(expect(Kind.WORD).text);
+            Token token;
+            while ((token = nextSignificant()) != null && token.is(".")) {
+                name.append('.').append(expect(Kind.WORD).text);
+            }
+            if (token == null || !token.is(";")) {
+                throw UNSUPPORTED;
+            }
+            packageName = name.toString();
+            constants.setPackageName(packageName);
+        }
+
+        Token token;
+        while ((token = peekSignificant()) != null && token.is("import")) {
+            nextSignificant();
+            boolean isStatic = peekSignificant() != null && peekSignificant().is("static");
+            if (isStatic) {
+                nextSignificant();
+            }
+            StringBuilder name = new StringBuilder(expect(Kind.WORD).text);
+            boolean onDemand = false;
+            while ((token = nextSignificant()) != null && token.is(".") && !onDemand) {
+                if (peekSignificant() != null && peekSignificant().is("*")) {
+                    nextSignificant();
+                    onDemand = true;
+                } else {
+                    name.append('.').append(expect(Kind.WORD).text);
+                }
+            }
+            if (token == null || !token.is(";")) {
+                throw UNSUPPORTED;
+            }
+            constants.addImport(name.toString(), isStatic, onDemand);
+        }
+
+        parseMembers(null);
+    }
+
+    /**
+     * Resolves the constant tags of test methods, now that all constants of the file are known, and then filters
+     * and describes the methods
+     */
+    private void resolvePendingMethods() {
+        for (PendingMethod pending : pendingMethods) {
+            TestMethodInfo methodInfo = pending.methodInfo;
+            for (String tag : constants.resolveTags(pending.tags, pending.typeName, methodInfo.getName())) {
+                methodInfo.addTag(tag);
+            }
+            if (!filter.test(methodInfo)) {
+                pending.scope.getTestMethods().remove(methodInfo);
+            } else if (pending.hasBody) {
+                describe(methodInfo, pending.methodLogic);
+            }
+        }
+    }
+
+    private void describe(TestMethodInfo methodInfo, MethodLogic methodLogic) {
+        String methodName = methodInfo.getName();
+        methodInfo.setDescriptionSupplier(() -> explainer.apply(methodLogic, methodName));
+    }
+
+    /**
+     * Parses type members until the closing brace of the class, or the end of the file at top level
+     */
+    private void parseMembers(TestClassInfo scope) {
+        while (true) {
+            Token token = peekSignificant();
+            if (token == null) {
+                if (scope != null) {
+                    throw UNSUPPORTED;
+                }
+                return;
+            }
+            if (token.is("}")) {
+                if (scope == null) {
+                    throw UNSUPPORTED;
+                }
+                nextSignificant();
+                return;
+            }
+            if (token.is(";")) {
+                nextSignificant();
+                continue;
+            }
+            parseMember(scope);
+        }
+    }
+
+    private void parseMember(TestClassInfo scope) {
+        // Collect the member header up to its body, initializer or terminating semicolon
+        List<Token> header = new ArrayList<>();
+        int depth = 0;
+        Token end;
+        while (true) {
+            Token token = nextSignificant();
+            if (token == null) {
+                throw UNSUPPORTED;
+            }
+            if (token.is("(")) {
+                depth++;
+            } else if (token.is(")") && --depth < 0) {
+                throw UNSUPPORTED;
+            }
+            if (depth == 0 && (token.is(";") || token.is("{") || token.is("="))) {
+                end = token;
+                break;
+            }
+            if (depth == 0 && token.is("}")) {
+                throw UNSUPPORTED;
+            }
+            header.add(token);
+        }
+
+        // Separate the annotations from the rest of the declaration
+        List<String> annotationNames = new ArrayList<>();
+        List<List<Token>> annotationArguments = new ArrayList<>();
+        List<Token> declaration = new ArrayList<>();
+        depth = 0;
+        for (int i = 0; i < header.size(); i++) {
+            Token token = header.get(i);
+            if (depth == 0 && token.is("@")) {
+                if (i + 1 >= header.size() || header.get(i + 1).kind != Kind.WORD || header.get(i + 1).is("interface")) {
+                    throw UNSUPPORTED;
+                }
+                StringBuilder name = new StringBuilder(header.get(++i).text);
+                while (i + 2 < header.size() && header.get(i + 1).is(".") && header.get(i + 2).kind == Kind.WORD) {
+                    name.append('.').append(header.get(i + 2).text);
+                    i += 2;
+                }
+                List<Token> arguments = null;
+                if (i + 1 < header.size() && header.get(i + 1).is("(")) {
+                    arguments = new ArrayList<>();
+                    int argumentDepth = 0;
+                    for (i = i + 1; i < header.size(); i++) {
+                        Token argument = header.get(i);
+                        if (argument.is("(")) {
+                            argumentDepth++;
+                        } else if (argument.is(")")) {
+                            argumentDepth--;
+                        }
+                        if (argumentDepth == 0) {
+                            break;
+                        }
+                        if (argumentDepth > 1 || !argument.is("(")) {
+                            arguments.add(argument);
+                        }
+                    }
+                }
+                annotationNames.add(name.toString());
+                annotationArguments.add(arguments);
+                continue;
+            }
+            if (token.is("(")) {
+                depth++;
+            } else if (token.is(")")) {
+                depth--;
+            }
+            declaration.add(token);
+        }
+
+        for (int i = 0; i < declaration.size(); i++) {
+            Token token = declaration.get(i);
+            // Interfaces are left to JavaParser, which validates what their bodies may contain
+            if (token.is("enum") || token.is("interface") || (token.is("record") && i + 1 < declaration.size()
+                    && declaration.get(i + 1).kind == Kind.WORD)) {
+                throw UNSUPPORTED;
+            }
+        }
+
+        int typeKeyword = indexOfTypeKeyword(declaration);
+        if (typeKeyword >= 0) {
+            if (!end.is("{") || typeKeyword + 1 >= declaration.size()
+                    || declaration.get(typeKeyword + 1).kind != Kind.WORD) {
+                throw UNSUPPORTED;
+            }
+            String className = declaration.get(typeKeyword + 1).text;
+            String typeName = ConstantTable.nestedName(typeNames.peek(), className);
+            constants.addType(typeName, supertypesOf(declaration, typeKeyword + 2));
+            TestClassInfo classInfo = new TestClassInfo(className, packageName, new ArrayList<>());
+            classes.add(classInfo);
+            typeNames.push(typeName);
+            parseMembers(classInfo);
+            typeNames.pop();
+            return;
+        }
+
+        if (scope == null) {
+            // Only type declarations can appear at top level
+            throw UNSUPPORTED;
+        }
+
+        if (end.is("=")) {
+            // Field initializer
+            List<Token> initializer = readUntilSemicolon();
+            if (isStringConstant(declaration)) {
+                addConstants(declaration.get(declaration.size() - 1).text, initializer);
+            }
+            return;
+        }
+
+        int parameters = indexOf(declaration, "(");
+        if (parameters >= 0) {
+            if (parameters == 0 || declaration.get(parameters - 1).kind != Kind.WORD) {
+                throw UNSUPPORTED;
+            }
+            String methodName = declaration.get(parameters - 1).text;
+            if (!containsAny(annotationNames, TEST_ANNOTATIONS)) {
+                if (end.is("{")) {
+                    skipBlock();
+                }
+                return;
+            }
+
+            TestMethodInfo methodInfo = new TestMethodInfo();
+            methodInfo.setName(methodName);
+            List<Concatenation> tags = new ArrayList<>();
+            for (int i = 0; i < annotationNames.size(); i++) {
+                if (DOCS_ANNOTATIONS.contains(annotationNames.get(i))) {
+                    addTags(annotationArguments.get(i), tags);
+                    break;
+                }
+            }
+            boolean constantTags = false;
+            for (Concatenation tag : tags) {
+                constantTags |= !tag.isLiteral();
+            }
+            // Bodies are read or skipped even for filtered methods, so unsupported ones still fall back to JavaParser
+            MethodLogic methodLogic = null;
+            if (end.is("{")) {
+                if (readBodies) {
+                    methodLogic = readTestMethodBody();
+                } else {
+                    skipBlock();
+                }
+            }
+            if (constantTags) {
+                // Keep the place of the method in its class until its tags can be resolved
+                scope.getTestMethods().add(methodInfo);
+                pendingMethods.add(new PendingMethod(scope, typeNames.peek(), methodInfo, tags, end.is("{"),
+                        methodLogic));
+                return;
+            }
+            for (Concatenation tag : tags) {
+                methodInfo.addTag(constants.resolve(tag, typeNames.peek()));
+            }
+            if (!filter.test(methodInfo)) {
+                return;
+            }
+            if (end.is("{")) {
+                describe(methodInfo, methodLogic);
+            }
+            scope.getTestMethods().add(methodInfo);
+            return;
+        }
+
+        if (end.is("{")) {
+            // Initializer block
+            if (!declaration.isEmpty() && !(declaration.size() == 1 && declaration.get(0).is("static"))) {
+                throw UNSUPPORTED;
+            }
+            skipBlock();
+        }
+    }
+
+    private static int indexOfTypeKeyword(List<Token> declaration) {
+        for (int i = 0; i < declaration.size(); i++) {
+            if (declaration.get(i).is("class")) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int indexOf(List<Token> declaration, String value) {
+        for (int i = 0; i < declaration.size(); i++) {
+            if (declaration.get(i).is(value)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean containsAny(List<String> names, Set<String> candidates) {
+        for (String name : names) {
+            if (candidates.contains(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads the names of a class's supertypes from the tokens after its name, without type arguments
+     */
+    private static List<String> supertypesOf(List<Token> declaration, int start) {
+        List<String> supertypes = new ArrayList<>();
+        StringBuilder name = new StringBuilder();
+        boolean inList = false;
+        int angleDepth = 0;
+        for (int i = start; i <= declaration.size(); i++) {
+            Token token = i < declaration.size() ? declaration.get(i) : null;
+            if (token != null && token.kind == Kind.OPERATOR && token.text.matches("<|>+")) {
+                angleDepth += token.is("<") ? 1 : -token.text.length();
+                continue;
+            }
+            if (angleDepth > 0) {
+                continue;
+            }
+            boolean separator = token == null || token.is(",") || token.is("extends") || token.is("implements")
+                    || token.is("permits");
+            if (separator) {
+                if (inList && name.length() > 0) {
+                    supertypes.add(name.toString());
+                }
+                name.setLength(0);
+                if (token != null && !token.is(",")) {
+                    inList = !token.is("permits");
+                }
+            } else if (inList && (token.kind == Kind.WORD || token.is("."))) {
+                name.append(token.text);
+            }
+        }
+        return supertypes;
+    }
+
+    /**
+     * Tells whether a field declared with an initializer is a static final String, whose value can be a constant
+     */
+    private static boolean isStringConstant(List<Token> declaration) {
+        int name = declaration.size() - 1;
+        if (name < 1 || declaration.get(name).kind != Kind.WORD || indexOf(declaration, "static") < 0
+                || indexOf(declaration, "final") < 0 || !declaration.get(name - 1).is("String")) {
+            return false;
+        }
+        if (name < 2 || !declaration.get(name - 2).is(".")) {
+            return true;
+        }
+        return name >= 5 && declaration.get(name - 3).is("lang") && declaration.get(name - 4).is(".")
+                && declaration.get(name - 5).is("java") && (name == 5 || !declaration.get(name - 6).is("."));
+    }
+
+    /**
+     * Records the constants of a field declaration, given the name of its first variable and the tokens of its
+     * initializer, which may be followed by further variables
+     */
+    private void addConstants(String firstName, List<Token> initializer) {
+        String typeName = typeNames.peek();
+        String name = firstName;
+        for (List<Token> variable : splitTopLevel(initializer)) {
+            if (name == null) {
+                // A further variable of the declaration, name = initializer
+                if (variable.size() < 3 || variable.get(0).kind != Kind.WORD || !variable.get(1).is("=")) {
+                    continue;
+                }
+                name = variable.get(0).text;
+                variable = variable.subList(2, variable.size());
+            }
+            Concatenation value = concatenationOf(variable);
+            if (value != null) {
+                constants.addConstant(typeName, name, value);
+            }
+            name = null;
+        }
+    }
+
+    /**
+     * Reads the values of a tags = ... member, like the JavaParser visitor does: each element of an array
+     * initializer, or the single value
+     */
+    private static void addTags(List<Token> arguments, List<Concatenation> tags) {
+        if (arguments == null) {
+            return;
+        }
+        for (List<Token> pair : splitTopLevel(arguments)) {
+            if (pair.size() < 2 || !pair.get(1).is("=")) {
+                // A single member value has no tags element
+                return;
+            }
+            if (pair.get(0).is("tags")) {
+                List<Token> value = pair.subList(2, pair.size());
+                List<List<Token>> elements = Collections.singletonList(value);
+                if (!value.isEmpty() && value.get(0).is("{") && value.get(value.size() - 1).is("}")) {
+                    elements = splitTopLevel(value.subList(1, value.size() - 1));
+                }
+                for (List<Token> element : elements) {
+                    // Other expressions cannot be constants and are skipped by JavaParser too
+                    Concatenation tag = concatenationOf(element);
+                    if (tag != null) {
+                        tags.add(tag);
+                    }
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Splits tokens at the commas outside any brackets
+     */
+    private static List<List<Token>> splitTopLevel(List<Token> tokens) {
+        List<List<Token>> parts = new ArrayList<>();
+        int depth = 0;
+        int partStart = 0;
+        for (int i = 0; i <= tokens.size(); i++) {
+            Token token = i < tokens.size() ? tokens.get(i) : null;
+            if (token != null && (token.is("(") || token.is("{") || token.is("["))) {
+                depth++;
+            } else if (token != null && (token.is(")") || token.is("}") || token.is("]"))) {
+                depth--;
+            } else if (token == null || (depth == 0 && token.is(","))) {
+                if (token != null || i > partStart) {
+                    parts.add(tokens.subList(partStart, i));
+                }
+                partStart = i + 1;
+            }
+        }
+        return parts;
+    }
+
+    /**
+     * Reads string literals and names joined by +, with optional parentheses, as
+     * {@link ConstantTable#concatenationOf} reads them from the syntax tree
+     *
+     * @return The concatenation, or null if the tokens are any other expression
+     */
+    private static Concatenation concatenationOf(List<Token> expression) {
+        Concatenation concatenation = new Concatenation();
+        return addTerms(expression, concatenation) ? concatenation : null;
+    }
+
+    private static boolean addTerms(List<Token> expression, Concatenation concatenation) {
+        int depth = 0;
+        int termStart = 0;
+        for (int i = 0; i <= expression.size(); i++) {
+            Token token = i < expression.size() ? expression.get(i) : null;
+            if (token != null && token.is("(")) {
+                depth++;
+            } else if (token != null && token.is(")")) {
+                if (--depth < 0) {
+                    return false;
+                }
+            } else if (token == null || (depth == 0 && token.is("+"))) {
+                if (!addTerm(expression.subList(termStart, i), concatenation)) {
+                    return false;
+                }
+                termStart = i + 1;
+            }
+        }
+        return depth == 0;
+    }
+
+    private static boolean addTerm(List<Token> term, Concatenation concatenation) {
+        if (term.isEmpty()) {
+            return false;
+        }
+        Token first = term.get(0);
+        if (term.size() == 1 && first.kind == Kind.STRING) {
+            concatenation.addLiteral(first.text.substring(1, first.text.length() - 1));
+            return true;
+        }
+        if (first.is("(") && term.get(term.size() - 1).is(")")) {
+            return addTerms(term.subList(1, term.size() - 1), concatenation);
+        }
+        // A simple or qualified name
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < term.size(); i++) {
+            Token token = term.get(i);
+            boolean expectName = i % 2 == 0;
+            if (expectName ? token.kind != Kind.WORD || KEYWORDS.contains(token.text) : !token.is(".")) {
+                return false;
+            }
+            name.append(token.text);
+        }
+        if (term.size() % 2 == 0) {
+            return false;
+        }
+        concatenation.addName(name.toString());
+        return true;
+    }
+
+    // ----- Bodies -----
+
+    private void skipBlock() {
+        int depth = 1;
+        while (depth > 0) {
+            Token token = nextSignificant();
+            if (token == null) {
+                throw UNSUPPORTED;
+            }
+            checkNotTestAnnotation(token);
+            if (token.is("{")) {
+                depth++;
+            } else if (token.is("}")) {
+                depth--;
+            }
+        }
+    }
+
+    private List<Token> readUntilSemicolon() {
+        List<Token> read = new ArrayList<>();
+        int depth = 0;
+        while (true) {
+            Token token = nextSignificant();
+            if (token == null) {
+                throw UNSUPPORTED;
+            }
+            checkNotTestAnnotation(token);
+            if (token.is("(") || token.is("{") || token.is("[")) {
+                depth++;
+            } else if (token.is(")") || token.is("}") || token.is("]")) {
+                depth--;
+            } else if (depth == 0 && token.is(";")) {
+                return read;
+            }
+            read.add(token);
+        }
+    }
+
+    private void checkNotTestAnnotation(Token token) {
+        // Test methods in anonymous or local classes would have to be attributed to a scope
+        if (token.is("@")) {
+            Token name = peekSignificant();
+            if (name != null && (name.is("Test") || name.is("org"))) {
+                throw UNSUPPORTED;
+            }
+        }
+    }
+
+    /**
+     * Reads the comments and assertion calls of a test method body
+     *
+     * @return The logic of the body, as {@link MethodLogic#of} reads it from the syntax tree
+     */
+    private MethodLogic readTestMethodBody() {
+        MethodLogic logic = new MethodLogic();
+        List<Token> code = new ArrayList<>();
+
+        while (true) {
+            if (pos >= tokens.size()) {
+                throw UNSUPPORTED;
+            }
+            Token token = tokens.get(pos++);
+            if (token.kind == Kind.LINE_COMMENT) {
+                logic.addComment(token.text);
+            } else if (token.is("{")) {
+                // Nested blocks, lambda bodies, anonymous classes and array initializers
+                throw UNSUPPORTED;
+            } else if (token.is("}")) {
+                readAssertions(code, logic);
+                return logic;
+            } else if (!token.isComment()) {
+                code.add(token);
+            }
+        }
+    }
+
+    /**
+     * Adds the assertion calls in the code of a method body to its logic, skipping assertions nested in the
+     * arguments of another assertion or of a call chained on one
+     */
+    private void readAssertions(List<Token> code, MethodLogic logic) {
+        for (int i = 0; i + 1 < code.size(); i++) {
+            Token name = code.get(i);
+            if (name.kind != Kind.WORD || !code.get(i + 1).is("(") || !translators.isAssertion(name.text)) {
+                continue;
+            }
+
+            // Constructors and annotations with the name of an assertion are not method calls
+            int qualifiedStart = i;
+            while (qualifiedStart >= 2 && code.get(qualifiedStart - 1).is(".")
+                    && code.get(qualifiedStart - 2).kind == Kind.WORD) {
+                qualifiedStart -= 2;
+            }
+            Token beforeName = qualifiedStart > 0 ? code.get(qualifiedStart - 1) : null;
+            if (beforeName != null && (beforeName.is("new") || beforeName.is("@"))) {
+                throw UNSUPPORTED;
+            }
+
+            int close = closingParenthesis(code, i + 1);
+
+            // Calls chained on the assertion, up to the next assertion in the chain
+            List<AssertionCall> chain = new ArrayList<>();
+            int end = close + 1;
+            while (end + 1 < code.size() && code.get(end).is(".")) {
+                Token chained = code.get(end + 1);
+                if (chained.is("<")) {
+                    // Explicit type arguments
+                    throw UNSUPPORTED;
+                }
+                if (chained.kind != Kind.WORD || end + 2 >= code.size() || !code.get(end + 2).is("(")
+                        || translators.isAssertion(chained.text)) {
+                    break;
+                }
+                int chainedClose = closingParenthesis(code, end + 2);
+                chain.add(readCall(code.subList(end + 1, chainedClose + 1), new ArrayList<>()));
+                end = chainedClose + 1;
+            }
+            logic.addAssertion(readCall(code.subList(i, close + 1), chain));
+            i = end - 1;
+        }
+    }
+
+    /**
+     * @return The index of the parenthesis closing the one at the given index
+     */
+    private static int closingParenthesis(List<Token> code, int open) {
+        int depth = 0;
+        for (int i = open; i < code.size(); i++) {
+            if (code.get(i).is("(")) {
+                depth++;
+            } else if (code.get(i).is(")") && --depth == 0) {
+                return i;
+            }
+        }
+        throw UNSUPPORTED;
+    }
+
+    /**
+     * Reads a call from its name to its closing parenthesis, as {@link MethodLogic#of} reads it from the syntax tree
+     */
+    private static AssertionCall readCall(List<Token> call, List<AssertionCall> chain) {
+        List<Token> argumentTokens = call.subList(2, call.size() - 1);
+        String message = null;
+        for (Token token : argumentTokens) {
+            if (token.kind == Kind.STRING) {
+                message = StringEscapeUtils.unescapeJava(token.text.substring(1, token.text.length() - 1));
+                break;
+            }
+        }
+
+        List<String> arguments = new ArrayList<>();
+        List<AssertionCall> argumentCalls = new ArrayList<>();
+        for (List<Token> argument : splitArguments(argumentTokens)) {
+            arguments.add(printExpression(argument));
+            argumentCalls.add(asCall(argument));
+        }
+        return new AssertionCall(call.get(0).text, message, arguments, argumentCalls, chain);
+    }
+
+    private static List<List<Token>> splitArguments(List<Token> arguments) {
+        List<List<Token>> split = new ArrayList<>();
+        if (arguments.isEmpty()) {
+            return split;
+        }
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i < arguments.size(); i++) {
+            Token token = arguments.get(i);
+            if (token.is("(") || token.is("[")) {
+                depth++;
+            } else if (token.is(")") || token.is("]")) {
+                depth--;
+            } else if (token.is(",") && depth == 0) {
+                split.add(arguments.subList(start, i));
+                start = i + 1;
+            }
+        }
+        split.add(arguments.subList(start, arguments.size()));
+        return split;
+    }
+
+    /**
+     * Reads an argument that is a method call, such as a Hamcrest matcher
+     *
+     * @return The call, or null if the argument is not a method call
+     */
+    private static AssertionCall asCall(List<Token> argument) {
+        int last = argument.size() - 1;
+        if (last < 2 || !argument.get(last).is(")")) {
+            return null;
+        }
+        int open = last;
+        int depth = 0;
+        do {
+            if (argument.get(open).is(")")) {
+                depth++;
+            } else if (argument.get(open).is("(")) {
+                depth--;
+            }
+        } while (depth > 0 && --open >= 0);
+        int name = open - 1;
+        if (name < 0 || argument.get(name).kind != Kind.WORD) {
+            return null;
+        }
+
+        if (name > 0) {
+            // The scope of the call, which must not be an operand of an operator or a qualified type after new
+            if (!argument.get(name - 1).is(".")) {
+                return null;
+            }
+            int qualifiedStart = name;
+            while (qualifiedStart >= 2 && argument.get(qualifiedStart - 1).is(".")
+                    && argument.get(qualifiedStart - 2).kind == Kind.WORD) {
+                qualifiedStart -= 2;
+            }
+            if (qualifiedStart > 0 && argument.get(qualifiedStart - 1).is("new")) {
+                return null;
+            }
+            int scopeDepth = 0;
+            for (int i = 0; i < name - 1; i++) {
+                Token token = argument.get(i);
+                if (token.is("(") || token.is("[")) {
+                    scopeDepth++;
+                } else if (token.is(")") || token.is("]")) {
+                    scopeDepth--;
+                } else if (scopeDepth == 0 && ((token.kind == Kind.OPERATOR && !token.is("."))
+                        || token.is("instanceof"))) {
+                    return null;
+                }
+            }
+        }
+        return readCall(argument.subList(name, argument.size()), new ArrayList<>());
+    }
+
+    /**
+     * Prints the arguments of a call the way JavaParser prints them
+     */
+    private static String printExpression(List<Token> expression) {
+        boolean diamond = false;
+        for (Token token : expression) {
+            diamond |= token.is("new");
+        }
+
+        StringBuilder printed = new StringBuilder();
+        boolean pendingSpace = false;
+        Token previous = null;
+        Token beforePrevious = null;
+        for (int i = 0; i < expression.size(); i++) {
+            Token token = expression.get(i);
+            if (pendingSpace) {
+                printed.append(' ');
+                pendingSpace = false;
+            }
+
+            if (token.isAtom()) {
+                if (previous != null && (previous.isAtom() || previous.is(")") || previous.is("]"))) {
+                    printed.append(' ');
+                }
+                printed.append(token.text);
+            } else if (token.is("(")) {
+                if (previous == null || previous.kind != Kind.WORD
+                        || (KEYWORDS.contains(previous.text) && !previous.is("this") && !previous.is("super"))) {
+                    // Casts and parenthesized expressions
+                    throw UNSUPPORTED;
+                }
+                printed.append('(');
+            } else if (token.is(")") || token.is("]")) {
+                printed.append(token.text);
+            } else if (token.is("[")) {
+                if (previous == null || !(previous.isAtom() || previous.is(")") || previous.is("]"))
+                        || (previous.kind == Kind.WORD && beforePrevious != null && beforePrevious.kind == Kind.WORD
+                        && !ARRAY_ACCESS_KEYWORDS.contains(beforePrevious.text))) {
+                    // C-style array declarators are printed as array types
+                    throw UNSUPPORTED;
+                }
+                printed.append('[');
+            } else if (token.is(".")) {
+                if (previous == null || i + 1 >= expression.size() || expression.get(i + 1).kind != Kind.WORD) {
+                    throw UNSUPPORTED;
+                }
+                printed.append('.');
+            } else if (token.is(",")) {
+                printed.append(',');
+                pendingSpace = true;
+            } else if ((token.is("+") || token.is("-") || token.is("!") || token.is("~")) && !endsOperand(previous)) {
+                // Unary operator
+                Token next = i + 1 < expression.size() ? expression.get(i + 1) : null;
+                if (next == null || next.is(token.text) || (token.is("-") && next.is("+")) || (token.is("+") && next.is("-"))) {
+                    throw UNSUPPORTED;
+                }
+                if (previous != null && previous.isAtom()) {
+                    printed.append(' ');
+                }
+                printed.append(token.text);
+            } else if (BINARY_OPERATORS.contains(token.text) && token.kind == Kind.OPERATOR) {
+                if (!endsOperand(previous)) {
+                    throw UNSUPPORTED;
+                }
+                if (token.is("<") && (diamond || previous.is(".")
+                        || (previous.kind == Kind.WORD && Character.isUpperCase(previous.text.charAt(0))))) {
+                    // Type arguments
+                    throw UNSUPPORTED;
+                }
+                printed.append(' ').append(token.text);
+                pendingSpace = true;
+            } else {
+                // Lambdas, method references, conditionals, increments, annotations and labels
+                throw UNSUPPORTED;
+            }
+            beforePrevious = previous;
+            previous = token;
+        }
+        return printed.toString();
+    }
+
+    private static boolean endsOperand(Token token) {
+        if (token == null) {
+            return false;
+        }
+        if (token.kind == Kind.WORD) {
+            return !KEYWORDS.contains(token.text) || OPERAND_KEYWORDS.contains(token.text);
+        }
+        return token.isAtom() || token.is(")") || token.is("]");
+    }
+}
@@ -0,0 +1,124 @@
+package io.vinipx.testngdoc;
+
+import freemarker.cache.TemplateLoader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Loads templates from override directories, falling back to the built-in templates, one template at a time.
+ * A template file in the first override directory that has one wins; any other template comes from memory.
+ * Override files are read as they are, and preprocessed in memory like the built-in templates, so loading
+ * templates never writes to disk.
+ * <p>
+ * Override files are checked for changes by their modification time; built-in templates never change.
+ */
+class LayeredTemplateLoader implements TemplateLoader {
+
+    private final List<File> overrideDirectories = new ArrayList<>();
+    private final Function<String, String> builtInTemplates;
+    private final BiFunction<String, String, String> preprocessor;
+
+    /**
+     * @param overrideDirectories The directories whose templates override the built-in ones, in lookup order
+     * @param builtInTemplates    The preprocessed built-in template of a name, or null if there is none
+     * @param preprocessor        Prepares the content of an override file for rendering, given its template name
+     */
+    LayeredTemplateLoader(List<Path> overrideDirectories, Function<String, String> builtInTemplates,
+                          BiFunction<String, String, String> preprocessor) {
+        for (Path directory : overrideDirectories) {
+            this.overrideDirectories.add(directory.toFile());
+        }
+        this.builtInTemplates = builtInTemplates;
+        this.preprocessor = preprocessor;
+    }
+
+    @Override
+    public Object findTemplateSource(String name) {
+        for (File directory : overrideDirectories) {
+            File file = new File(directory, name);
+            if (file.isFile()) {
+                return new TemplateSource(name, file, null);
+            }
+        }
+        String content = builtInTemplates.apply(name);
+        return content == null ? null : new TemplateSource(name, null, content);
+    }
+
+    /**
+     * @param name The template name
+     * @return Whether an override directory has the template, so the built-in template is not used
+     */
+    boolean isOverridden(String name) {
+        for (File directory : overrideDirectories) {
+            if (new File(directory, name).isFile()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public long getLastModified(Object templateSource) {
+        TemplateSource source = (TemplateSource) templateSource;
+        return source.file != null ? source.file.lastModified() : 0;
+    }
+
+    @Override
+    public Reader getReader(Object templateSource, String encoding) throws IOException {
+        TemplateSource source = (TemplateSource) templateSource;
+        if (source.file == null) {
+            return new StringReader(source.content);
+        }
+        System.out.println("Using template override: " + source.file.getAbsolutePath());
+        String content = new String(Files.readAllBytes(source.file.toPath()), Charset.forName(encoding));
+        return new StringReader(preprocessor.apply(source.name, content));
+    }
+
+    @Override
+    public void closeTemplateSource(Object templateSource) {
+        // Sources hold no open resources
+    }
+
+    /**
+     * A template file, or the content of a built-in template
+     */
+    private static final class TemplateSource {
+        private final String name;
+        private final File file;
+        private final String content;
+
+        private TemplateSource(String name, File file, String content) {
+            this.name = name;
+            this.file = file;
+            this.content = content;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TemplateSource)) {
+                return false;
+            }
+            TemplateSource other = (TemplateSource) o;
+            return name.equals(other.name) && Objects.equals(file, other.file) && content == other.content;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, file);
+        }
+    }
+}
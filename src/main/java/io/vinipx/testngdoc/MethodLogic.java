@@ -0,0 +1,195 @@
+package io.vinipx.testngdoc;
+
+import com.github.javaparser.Position;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.comments.Comment;
+import com.github.javaparser.ast.comments.LineComment;
+import com.github.javaparser.ast.expr.Expression;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.expr.StringLiteralExpr;
+import com.github.javaparser.ast.stmt.BlockStmt;
+import com.github.javaparser.printer.DefaultPrettyPrinter;
+import com.github.javaparser.printer.Printer;
+import com.github.javaparser.printer.configuration.DefaultConfigurationOption;
+import com.github.javaparser.printer.configuration.DefaultPrinterConfiguration;
+import com.github.javaparser.printer.configuration.DefaultPrinterConfiguration.ConfigOption;
+import io.vinipx.testngdoc.assertions.AssertionCall;
+import io.vinipx.testngdoc.assertions.AssertionTranslators;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The parts of a test method body that its explanation is built from: the line comments and the assertion
+ * calls, each in source order. It is read directly from the syntax tree of the body, or from the tokens of the
+ * body by the fast source extractor, so that bodies never have to be printed and split into lines.
+ * <p>
+ * Two method bodies have equal logic when they have the same comments and assertion calls, even if the rest of
+ * their code differs, which lets their explanations be shared.
+ */
+class MethodLogic {
+
+    // Only the arguments of assertions are printed, without the comments attached to them
+    private static final Printer ARGUMENT_PRINTER = new DefaultPrettyPrinter(new DefaultPrinterConfiguration()
+            .removeOption(new DefaultConfigurationOption(ConfigOption.PRINT_COMMENTS)));
+
+    private static final Comparator<Node> BY_POSITION = Comparator.comparing(
+            node -> node.getBegin().orElse(Position.HOME));
+
+    private final List<String> comments = new ArrayList<>();
+    private final List<AssertionCall> assertions = new ArrayList<>();
+
+    /**
+     * Reads the comments and assertion calls of a method body
+     *
+     * @param body        The method body
+     * @param translators The translators that tell which calls are assertions
+     * @return The logic of the body
+     */
+    static MethodLogic of(BlockStmt body, AssertionTranslators translators) {
+        MethodLogic logic = new MethodLogic();
+
+        // A comment can be both attached to a node and listed as an orphan of its parent
+        Set<Comment> comments = Collections.newSetFromMap(new IdentityHashMap<>());
+        comments.addAll(body.getAllContainedComments());
+        List<Comment> sortedComments = new ArrayList<>(comments);
+        sortedComments.sort(BY_POSITION);
+        for (Comment comment : sortedComments) {
+            if (comment instanceof LineComment) {
+                logic.addComment(comment.getContent());
+            }
+        }
+
+        List<MethodCallExpr> calls = new ArrayList<>();
+        for (MethodCallExpr call : body.findAll(MethodCallExpr.class)) {
+            if (translators.isAssertion(call.getNameAsString()) && !isAssertionArgument(call, translators)) {
+                calls.add(call);
+            }
+        }
+        // Calls are ordered by their name, as an assertion in the scope of another one starts at the same position
+        calls.sort(Comparator.comparing(call -> call.getName().getBegin().orElse(Position.HOME)));
+        for (MethodCallExpr call : calls) {
+            // Calls chained on the assertion, up to the next assertion in the chain
+            List<AssertionCall> chain = new ArrayList<>();
+            Node scope = call;
+            Node parent = call.getParentNode().orElse(null);
+            while (parent instanceof MethodCallExpr && ((MethodCallExpr) parent).getScope().orElse(null) == scope
+                    && !translators.isAssertion(((MethodCallExpr) parent).getNameAsString())) {
+                chain.add(toAssertionCall((MethodCallExpr) parent, new ArrayList<>()));
+                scope = parent;
+                parent = parent.getParentNode().orElse(null);
+            }
+            logic.addAssertion(toAssertionCall(call, chain));
+        }
+        return logic;
+    }
+
+    /**
+     * @return Whether the node is part of an argument of an assertion call or of a call chained on an assertion
+     */
+    private static boolean isAssertionArgument(Node node, AssertionTranslators translators) {
+        Node child = node;
+        Node parent = node.getParentNode().orElse(null);
+        while (parent != null) {
+            if (parent instanceof MethodCallExpr && isAssertionOrChained((MethodCallExpr) parent, translators)) {
+                // Nodes compare by structure, so the argument is looked up by identity
+                for (Expression argument : ((MethodCallExpr) parent).getArguments()) {
+                    if (argument == child) {
+                        return true;
+                    }
+                }
+            }
+            child = parent;
+            parent = parent.getParentNode().orElse(null);
+        }
+        return false;
+    }
+
+    private static boolean isAssertionOrChained(MethodCallExpr call, AssertionTranslators translators) {
+        Expression current = call;
+        while (current instanceof MethodCallExpr) {
+            if (translators.isAssertion(((MethodCallExpr) current).getNameAsString())) {
+                return true;
+            }
+            current = ((MethodCallExpr) current).getScope().orElse(null);
+        }
+        return false;
+    }
+
+    private static AssertionCall toAssertionCall(MethodCallExpr call, List<AssertionCall> chain) {
+        List<String> arguments = new ArrayList<>();
+        List<AssertionCall> argumentCalls = new ArrayList<>();
+        for (Expression argument : call.getArguments()) {
+            arguments.add(ARGUMENT_PRINTER.print(argument));
+            argumentCalls.add(argument instanceof MethodCallExpr
+                    ? toAssertionCall((MethodCallExpr) argument, new ArrayList<>()) : null);
+        }
+        return new AssertionCall(call.getNameAsString(), firstStringLiteral(call.getArguments()), arguments,
+                argumentCalls, chain);
+    }
+
+    private static String firstStringLiteral(List<Expression> arguments) {
+        StringLiteralExpr first = null;
+        for (Expression argument : arguments) {
+            for (StringLiteralExpr literal : argument.findAll(StringLiteralExpr.class)) {
+                if (first == null || BY_POSITION.compare(literal, first) < 0) {
+                    first = literal;
+                }
+            }
+        }
+        return first != null ? first.asString() : null;
+    }
+
+    /**
+     * Adds a line comment
+     *
+     * @param content The text after the comment marker
+     */
+    void addComment(String content) {
+        comments.add(content.trim());
+    }
+
+    /**
+     * Adds an assertion call
+     *
+     * @param assertion The assertion call
+     */
+    void addAssertion(AssertionCall assertion) {
+        assertions.add(assertion);
+    }
+
+    /**
+     * @return The trimmed text of the line comments
+     */
+    List<String> getComments() {
+        return Collections.unmodifiableList(comments);
+    }
+
+    /**
+     * @return The assertion calls, excluding assertions nested in the arguments of another assertion
+     */
+    List<AssertionCall> getAssertions() {
+        return Collections.unmodifiableList(assertions);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof MethodLogic)) {
+            return false;
+        }
+        MethodLogic other = (MethodLogic) o;
+        return comments.equals(other.comments) && assertions.equals(other.assertions);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * comments.hashCode() + assertions.hashCode();
+    }
+}
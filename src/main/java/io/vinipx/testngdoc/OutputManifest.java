@@ -0,0 +1,216 @@
+package io.vinipx.testngdoc;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The files written to the output directory by the previous run, with the SHA-256 hash of their content,
+ * stored next to the source cache. A file is only written again when its rendered bytes differ from the recorded
+ * hash, or when it was changed or removed since; files recorded by the previous run but not produced by this one,
+ * such as pages of deleted classes, are removed. Files the generator never wrote are left alone.
+ * <p>
+ * A disabled manifest writes every file and records nothing. Files can be written from several threads.
+ */
+class OutputManifest {
+
+    /**
+     * Bump this whenever the manifest layout changes
+     */
+    static final int FORMAT_VERSION = 1;
+
+    private static final String MANIFEST_FILE = "output-manifest.bin";
+
+    private final Path outputDir;
+    private final Path manifestFile;
+    private final Map<String, Entry> previousEntries = new ConcurrentHashMap<>();
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicInteger written = new AtomicInteger();
+    private final AtomicInteger unchanged = new AtomicInteger();
+    private int deleted;
+
+    private OutputManifest(Path outputDir, Path manifestFile) {
+        this.outputDir = outputDir;
+        this.manifestFile = manifestFile;
+    }
+
+    /**
+     * Returns a manifest that writes every file and keeps no record
+     *
+     * @param outputDir The documentation output directory
+     * @return The manifest
+     */
+    static OutputManifest disabled(Path outputDir) {
+        return new OutputManifest(outputDir, null);
+    }
+
+    /**
+     * Loads the manifest of the previous run from the output directory, starting empty if it is missing or
+     * unreadable, in which case every file is written
+     *
+     * @param outputDir The documentation output directory
+     * @return The loaded manifest
+     */
+    static OutputManifest load(Path outputDir) {
+        OutputManifest manifest = new OutputManifest(outputDir,
+                outputDir.resolve(SourceScanCache.CACHE_DIR).resolve(MANIFEST_FILE));
+        if (!Files.exists(manifest.manifestFile)) {
+            return manifest;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(manifest.manifestFile)))) {
+            if (in.readInt() != FORMAT_VERSION) {
+                System.out.println("Output manifest is out of date, writing all files: " + manifest.manifestFile);
+                return manifest;
+            }
+            int entryCount = in.readInt();
+            for (int i = 0; i < entryCount; i++) {
+                String path = in.readUTF();
+                manifest.previousEntries.put(path, new Entry(in.readLong(), in.readLong(), in.readUTF()));
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Could not read output manifest " + manifest.manifestFile + ": " + e.getMessage());
+            manifest.previousEntries.clear();
+        }
+        return manifest;
+    }
+
+    /**
+     * Writes a file to the output directory, unless it already has this content
+     *
+     * @param relativePath The path of the file in the output directory, with / as separator
+     * @param content      The content of the file
+     * @throws IOException If the file cannot be written
+     */
+    void write(String relativePath, byte[] content) throws IOException {
+        Path file = outputDir.resolve(relativePath);
+        if (manifestFile == null) {
+            Files.createDirectories(file.getParent());
+            Files.write(file, content);
+            written.incrementAndGet();
+            return;
+        }
+
+        String hash = hash(content);
+        Entry previous = previousEntries.get(relativePath);
+        if (previous != null && previous.hash.equals(hash) && previous.matches(file)) {
+            entries.put(relativePath, previous);
+            unchanged.incrementAndGet();
+            return;
+        }
+
+        Files.createDirectories(file.getParent());
+        Files.write(file, content);
+        BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+        entries.put(relativePath, new Entry(attrs.size(), attrs.lastModifiedTime().toMillis(), hash));
+        written.incrementAndGet();
+    }
+
+    /**
+     * Ends a run that produced the complete output: removes the files of the previous run that were not
+     * produced again, saves the manifest and reports what was written
+     */
+    void complete() {
+        if (manifestFile == null) {
+            return;
+        }
+        for (String relativePath : previousEntries.keySet()) {
+            if (!entries.containsKey(relativePath)) {
+                try {
+                    if (Files.deleteIfExists(outputDir.resolve(relativePath))) {
+                        System.out.println("Removed stale output file: " + relativePath);
+                        deleted++;
+                    }
+                } catch (IOException e) {
+                    System.err.println("Could not remove stale output file " + relativePath + ": " + e.getMessage());
+                }
+            }
+        }
+        previousEntries.clear();
+        save();
+        System.out.println("Output files: " + written.get() + " written, " + unchanged.get() + " unchanged, "
+                + deleted + " deleted");
+    }
+
+    /**
+     * Saves the manifest after a run that only produced part of the output, keeping the records of the other files
+     */
+    void save() {
+        if (manifestFile == null) {
+            return;
+        }
+        Map<String, Entry> retained = new TreeMap<>(previousEntries);
+        retained.putAll(entries);
+        try {
+            Files.createDirectories(manifestFile.getParent());
+            Path tempFile = manifestFile.resolveSibling(MANIFEST_FILE + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(tempFile)))) {
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(retained.size());
+                for (Map.Entry<String, Entry> entry : retained.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeLong(entry.getValue().size);
+                    out.writeLong(entry.getValue().mtime);
+                    out.writeUTF(entry.getValue().hash);
+                }
+            }
+            Files.move(tempFile, manifestFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Could not write output manifest " + manifestFile + ": " + e.getMessage());
+        }
+    }
+
+    private static String hash(byte[] content) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(content);
+            StringBuilder hex = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * The size, modification time and content hash of a file when it was written
+     */
+    private static final class Entry {
+        private final long size;
+        private final long mtime;
+        private final String hash;
+
+        private Entry(long size, long mtime, String hash) {
+            this.size = size;
+            this.mtime = mtime;
+            this.hash = hash;
+        }
+
+        /**
+         * @return Whether the file is still as it was written, judged by its size and modification time
+         */
+        private boolean matches(Path file) {
+            try {
+                BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+                return attrs.size() == size && attrs.lastModifiedTime().toMillis() == mtime;
+            } catch (IOException e) {
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,352 @@
+package io.vinipx.testngdoc;
+
+import io.vinipx.testngdoc.TestNGDocGenerator.TestClassInfo;
+import io.vinipx.testngdoc.TestNGDocGenerator.TestMethodInfo;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.text.NumberFormat;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A built-in page template compiled to plain Java, which writes a page without interpreting the template or
+ * wrapping the data model. The control flow of each built-in template is written out in Java below; its static text
+ * is cut from the template source at the template's directives and interpolations, with the same white-space
+ * stripping FreeMarker applies to lines that only hold directives. The output is therefore byte-identical to
+ * rendering the template with FreeMarker.
+ * <p>
+ * A template can only be compiled if it has exactly the expected directives and interpolations, in order, and no
+ * other FreeMarker syntax; custom templates are rendered by FreeMarker. Pages whose data model holds values that
+ * FreeMarker would reject or print differently, such as missing values, are left to FreeMarker as well, so that
+ * errors are reported the usual way.
+ */
+abstract class PrecompiledPage {
+
+    // FreeMarker syntax that static text of a compiled template must not contain
+    private static final String[] FREEMARKER_SYNTAX = {"<#", "</#", "<@", "</@", "${", "#{"};
+
+    protected final String[] text;
+
+    private PrecompiledPage(String[] text) {
+        this.text = text;
+    }
+
+    /**
+     * Compiles a built-in template
+     *
+     * @param templateName The template name
+     * @param source       The template source, as FreeMarker would load it
+     * @return The compiled page, or null if there is no Java renderer for the template or the source does not
+     * have the structure it expects
+     */
+    static PrecompiledPage compile(String templateName, String source) {
+        if (templateName.equals("class.ftl")) {
+            String[] text = split(source, ClassPage.TOKENS);
+            return text == null ? null : new ClassPage(text);
+        } else if (templateName.equals("index.ftl")) {
+            String[] text = split(source, IndexPage.TOKENS);
+            return text == null || !IndexPage.hasSilentTagCount(text) ? null : new IndexPage(text);
+        }
+        return null;
+    }
+
+    /**
+     * Renders a page
+     *
+     * @param model  The data model, as given to FreeMarker
+     * @param locale The locale numbers are formatted in, as FreeMarker's default number format does
+     * @param out    The writer to write the page to
+     * @return False, with nothing written, if the page must be rendered by FreeMarker instead
+     * @throws IOException If the page cannot be written
+     */
+    final boolean render(Map<String, Object> model, Locale locale, Writer out) throws IOException {
+        if (!supports(model)) {
+            return false;
+        }
+        write(model, NumberFormat.getNumberInstance(locale), out);
+        return true;
+    }
+
+    protected abstract boolean supports(Map<String, Object> model);
+
+    protected abstract void write(Map<String, Object> model, NumberFormat numbers, Writer out) throws IOException;
+
+    /**
+     * Cuts a template source into the static text between the given directives and interpolations.
+     * Lines that hold nothing but directives are removed entirely, including their indentation and line break.
+     *
+     * @param source The template source
+     * @param tokens The directives and interpolations of the template, in order
+     * @return The static text before, between and after the tokens, or null if the source has other tokens
+     */
+    static String[] split(String source, String... tokens) {
+        int[] starts = new int[tokens.length];
+        int from = 0;
+        for (int i = 0; i < tokens.length; i++) {
+            starts[i] = source.indexOf(tokens[i], from);
+            if (starts[i] < 0) {
+                return null;
+            }
+            from = starts[i] + tokens[i].length();
+        }
+
+        // Mark the lines that only hold directives
+        BitSet stripped = new BitSet(source.length());
+        int token = 0;
+        for (int lineStart = 0; lineStart < source.length(); ) {
+            int newline = source.indexOf('\n', lineStart);
+            int lineEnd = newline < 0 ? source.length() : newline + 1;
+            int firstToken = token;
+            while (token < tokens.length && starts[token] < lineEnd) {
+                token++;
+            }
+            boolean directivesOnly = token > firstToken;
+            int position = lineStart;
+            for (int t = firstToken; t < token && directivesOnly; t++) {
+                directivesOnly = !tokens[t].startsWith("${") && source.substring(position, starts[t]).isBlank();
+                position = starts[t] + tokens[t].length();
+            }
+            if (directivesOnly && source.substring(position, lineEnd).isBlank()) {
+                stripped.set(lineStart, lineEnd);
+            }
+            lineStart = lineEnd;
+        }
+
+        String[] text = new String[tokens.length + 1];
+        for (int i = 0; i <= tokens.length; i++) {
+            int start = i == 0 ? 0 : starts[i - 1] + tokens[i - 1].length();
+            int end = i == tokens.length ? source.length() : starts[i];
+            StringBuilder segment = new StringBuilder(end - start);
+            for (int c = start; c < end; c++) {
+                if (!stripped.get(c)) {
+                    segment.append(source.charAt(c));
+                }
+            }
+            for (String syntax : FREEMARKER_SYNTAX) {
+                if (segment.indexOf(syntax) >= 0) {
+                    return null;
+                }
+            }
+            text[i] = segment.toString();
+        }
+        return text;
+    }
+
+    private static boolean isStringOrNull(Object value) {
+        return value == null || value instanceof String;
+    }
+
+    private static boolean hasTestMethods(Object testMethods) {
+        if (!(testMethods instanceof List)) {
+            return false;
+        }
+        for (Object method : (List<?>) testMethods) {
+            if (!(method instanceof TestMethodInfo)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean hasTags(TestMethodInfo method) {
+        if (method.getTags() == null) {
+            return false;
+        }
+        for (Object tag : method.getTags()) {
+            if (!(tag instanceof String)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The page of one test class, compiled from class.ftl
+     */
+    private static final class ClassPage extends PrecompiledPage {
+
+        static final String[] TOKENS = {
+                "${className}", "${reportTitle}", "<#if darkMode>", "</#if>", "${className}", "${packageName}",
+                "${testMethods?size}", "${percentage}", "<#list testMethods as method>", "${method.name}",
+                "${method.description}", "<#if method.tags?? && method.tags?size gt 0>", "<#list method.tags as tag>",
+                "${tag}", "</#list>", "</#if>", "</#list>"
+        };
+
+        private ClassPage(String[] text) {
+            super(text);
+        }
+
+        @Override
+        protected boolean supports(Map<String, Object> model) {
+            if (!(model.get("className") instanceof String) || !(model.get("reportTitle") instanceof String)
+                    || !(model.get("darkMode") instanceof Boolean) || !(model.get("packageName") instanceof String)
+                    || !(model.get("percentage") instanceof String) || !hasTestMethods(model.get("testMethods"))) {
+                return false;
+            }
+            for (Object item : (List<?>) model.get("testMethods")) {
+                TestMethodInfo method = (TestMethodInfo) item;
+                if (method.getName() == null || method.getDescription() == null
+                        || method.getTags() != null && !hasTags(method)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        protected void write(Map<String, Object> model, NumberFormat numbers, Writer out) throws IOException {
+            List<?> testMethods = (List<?>) model.get("testMethods");
+            out.write(text[0]);
+            out.write((String) model.get("className"));
+            out.write(text[1]);
+            out.write((String) model.get("reportTitle"));
+            out.write(text[2]);
+            if ((Boolean) model.get("darkMode")) {
+                out.write(text[3]);
+            }
+            out.write(text[4]);
+            out.write((String) model.get("className"));
+            out.write(text[5]);
+            out.write((String) model.get("packageName"));
+            out.write(text[6]);
+            out.write(numbers.format(testMethods.size()));
+            out.write(text[7]);
+            out.write((String) model.get("percentage"));
+            out.write(text[8]);
+            for (Object item : testMethods) {
+                TestMethodInfo method = (TestMethodInfo) item;
+                out.write(text[9]);
+                out.write(method.getName());
+                out.write(text[10]);
+                out.write(method.getDescription());
+                out.write(text[11]);
+                if (method.getTags() != null && !method.getTags().isEmpty()) {
+                    out.write(text[12]);
+                    for (String tag : method.getTags()) {
+                        out.write(text[13]);
+                        out.write(tag);
+                        out.write(text[14]);
+                    }
+                    out.write(text[15]);
+                }
+                out.write(text[16]);
+            }
+            out.write(text[17]);
+        }
+    }
+
+    /**
+     * The index page, compiled from index.ftl
+     */
+    private static final class IndexPage extends PrecompiledPage {
+
+        static final String[] TOKENS = {
+                "${reportTitle}",
+                // Counts tags into a variable the template does not print; it has no output
+                "<#if displayTagsChart>", "<#assign tagCounts = {}>", "<#list testClasses as class>",
+                "<#list class.testMethods as method>", "<#list method.tags as tag>", "<#if tagCounts[tag]??>",
+                "<#assign tagCounts = tagCounts + {tag: tagCounts[tag] + 1}>", "<#else>",
+                "<#assign tagCounts = tagCounts + {tag: 1}>", "</#if>", "</#list>", "</#list>", "</#list>", "</#if>",
+                "<#if darkMode>", "</#if>", "${reportTitle}", "<#if reportHeader??>", "${reportHeader}", "</#if>",
+                "${testClasses?size}", "${totalMethods}", "<#if displayTagsChart && svgChart??>", "${svgChart}",
+                "</#if>", "<#list testClasses as class>", "${class.className}", "${class.className}",
+                "${class.packageName}", "${class.testMethods?size}", "${class.percentage}", "</#list>"
+        };
+
+        private IndexPage(String[] text) {
+            super(text);
+        }
+
+        /**
+         * @return Whether the tag counting block only holds directives, so skipping it leaves the output unchanged
+         */
+        static boolean hasSilentTagCount(String[] text) {
+            for (int i = 2; i <= 14; i++) {
+                if (!text[i].isEmpty()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        protected boolean supports(Map<String, Object> model) {
+            if (!(model.get("reportTitle") instanceof String) || !(model.get("displayTagsChart") instanceof Boolean)
+                    || !(model.get("darkMode") instanceof Boolean) || !isStringOrNull(model.get("reportHeader"))
+                    || !(model.get("totalMethods") instanceof Integer) || !isStringOrNull(model.get("svgChart"))
+                    || !(model.get("testClasses") instanceof List)) {
+                return false;
+            }
+            for (Object item : (List<?>) model.get("testClasses")) {
+                if (!(item instanceof TestClassInfo)) {
+                    return false;
+                }
+                TestClassInfo testClass = (TestClassInfo) item;
+                if (testClass.getClassName() == null || testClass.getPackageName() == null
+                        || testClass.getPercentage() == null || !hasTestMethods(testClass.getTestMethods())) {
+                    return false;
+                }
+                // Counting tags fails for missing tags in FreeMarker
+                if ((Boolean) model.get("displayTagsChart")) {
+                    for (TestMethodInfo method : testClass.getTestMethods()) {
+                        if (!hasTags(method)) {
+                            return false;
+                        }
+                    }
+                }
+            }
+            return true;
+        }
+
+        @Override
+        protected void write(Map<String, Object> model, NumberFormat numbers, Writer out) throws IOException {
+            List<?> testClasses = (List<?>) model.get("testClasses");
+            String reportHeader = (String) model.get("reportHeader");
+            String svgChart = (String) model.get("svgChart");
+            out.write(text[0]);
+            out.write((String) model.get("reportTitle"));
+            out.write(text[1]);
+            out.write(text[15]);
+            if ((Boolean) model.get("darkMode")) {
+                out.write(text[16]);
+            }
+            out.write(text[17]);
+            out.write((String) model.get("reportTitle"));
+            out.write(text[18]);
+            if (reportHeader != null) {
+                out.write(text[19]);
+                out.write(reportHeader);
+                out.write(text[20]);
+            }
+            out.write(text[21]);
+            out.write(numbers.format(testClasses.size()));
+            out.write(text[22]);
+            out.write(numbers.format(model.get("totalMethods")));
+            out.write(text[23]);
+            if ((Boolean) model.get("displayTagsChart") && svgChart != null) {
+                out.write(text[24]);
+                out.write(svgChart);
+                out.write(text[25]);
+            }
+            out.write(text[26]);
+            for (Object item : testClasses) {
+                TestClassInfo testClass = (TestClassInfo) item;
+                out.write(text[27]);
+                out.write(testClass.getClassName());
+                out.write(text[28]);
+                out.write(testClass.getClassName());
+                out.write(text[29]);
+                out.write(testClass.getPackageName());
+                out.write(text[30]);
+                out.write(numbers.format(testClass.getTestMethods().size()));
+                out.write(text[31]);
+                out.write(testClass.getPercentage());
+                out.write(text[32]);
+            }
+            out.write(text[33]);
+        }
+    }
+}
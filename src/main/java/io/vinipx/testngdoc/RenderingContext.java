@@ -0,0 +1,108 @@
+package io.vinipx.testngdoc;
+
+import freemarker.template.Configuration;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * The FreeMarker configurations of a generator, kept for its lifetime so that repeated generations reuse the
+ * parsed templates instead of setting up FreeMarker and parsing every template again.
+ * <p>
+ * Templates are loaded by a {@link LayeredTemplateLoader}: from override directories when they hold the template,
+ * otherwise from the built-in templates, which are looked up and preprocessed once and then kept in memory.
+ * There is one configuration per list of override directories. FreeMarker caches each template it parses, checks
+ * it for changes at most once per update delay and parses it again only when it changed. Configurations are safe
+ * to use from several threads once built, so one context also serves parallel rendering.
+ * <p>
+ * The built-in page templates can also be rendered by {@link PrecompiledPage}s, compiled once per context.
+ */
+class RenderingContext {
+
+    private final Function<String, String> builtInTemplateSource;
+    private final BiFunction<String, String, String> preprocessor;
+    private final Map<String, Optional<String>> builtInTemplates = new ConcurrentHashMap<>();
+    private final Map<List<Path>, Configuration> configurations = new ConcurrentHashMap<>();
+    private final Map<String, Optional<PrecompiledPage>> precompiledPages = new ConcurrentHashMap<>();
+    private volatile long templateUpdateDelay;
+
+    /**
+     * @param templateUpdateDelay   How long a parsed template is used before its source is checked for changes,
+     *                              in milliseconds
+     * @param builtInTemplateSource The unprocessed built-in template of a name, or null if there is none
+     * @param preprocessor          Prepares the content of a template for rendering, given its name
+     */
+    RenderingContext(long templateUpdateDelay, Function<String, String> builtInTemplateSource,
+                     BiFunction<String, String, String> preprocessor) {
+        this.templateUpdateDelay = templateUpdateDelay;
+        this.builtInTemplateSource = builtInTemplateSource;
+        this.preprocessor = preprocessor;
+    }
+
+    /**
+     * Sets how long a parsed template is used before its source is checked for changes, for all configurations
+     *
+     * @param templateUpdateDelay The delay in milliseconds; 0 checks the source on every use
+     */
+    void setTemplateUpdateDelay(long templateUpdateDelay) {
+        this.templateUpdateDelay = templateUpdateDelay;
+        configurations.values().forEach(cfg -> cfg.setTemplateUpdateDelayMilliseconds(templateUpdateDelay));
+    }
+
+    /**
+     * Returns the configuration that loads templates from the given override directories first, building it on
+     * first use. The directories do not need to exist.
+     *
+     * @param overrideDirectories The directories whose templates override the built-in ones, in lookup order
+     * @return The configuration
+     */
+    Configuration forOverrideDirectories(List<Path> overrideDirectories) {
+        List<Path> key = new ArrayList<>();
+        for (Path directory : overrideDirectories) {
+            key.add(directory.toAbsolutePath().normalize());
+        }
+        return configurations.computeIfAbsent(key, directories -> {
+            Configuration cfg = new Configuration(Configuration.VERSION_2_3_32);
+            cfg.setDefaultEncoding("UTF-8");
+            cfg.setTemplateUpdateDelayMilliseconds(templateUpdateDelay);
+            cfg.setTemplateLoader(new LayeredTemplateLoader(directories, this::getBuiltInTemplate, preprocessor));
+            return cfg;
+        });
+    }
+
+    /**
+     * Returns a built-in template, preprocessed for rendering. Each template is looked up and preprocessed once.
+     *
+     * @param name The template name, e.g. class.ftl
+     * @return The template content, or null if there is no built-in template with that name
+     */
+    String getBuiltInTemplate(String name) {
+        return builtInTemplates.computeIfAbsent(name, templateName -> Optional.ofNullable(
+                builtInTemplateSource.apply(templateName)).map(content -> preprocessor.apply(templateName, content)))
+                .orElse(null);
+    }
+
+    /**
+     * Returns the Java renderer of a built-in template, for configurations that render the built-in template
+     *
+     * @param cfg  The configuration of the current generation
+     * @param name The template name, e.g. class.ftl
+     * @return The renderer, or null if the template is overridden, the configuration formats numbers differently
+     * or there is no renderer for the template
+     */
+    PrecompiledPage getPrecompiledPage(Configuration cfg, String name) {
+        if (!"number".equals(cfg.getNumberFormat())
+                || ((LayeredTemplateLoader) cfg.getTemplateLoader()).isOverridden(name)) {
+            return null;
+        }
+        return precompiledPages.computeIfAbsent(name, templateName -> Optional.ofNullable(
+                getBuiltInTemplate(templateName)).map(source -> PrecompiledPage.compile(templateName, source)))
+                .orElse(null);
+    }
+}
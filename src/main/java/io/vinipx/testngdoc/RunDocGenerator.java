@@ -2,12 +2,13 @@ package io.vinipx.testngdoc;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.regex.PatternSyntaxException;
 
 /**
  * Simple class to run the TestNGDocGenerator
  * 
  * Usage:
- * java -jar testng-doc-generator.jar &lt;source-directory&gt; [&lt;additional-source-directory&gt;...] [--package &lt;package-name&gt;...] [--output &lt;output-directory&gt;] [--include-method &lt;pattern&gt;...] [--exclude-method &lt;pattern&gt;...] [--include-tag &lt;pattern&gt;...] [--exclude-tag &lt;pattern&gt;...]
+ * java -jar testng-doc-generator.jar &lt;source-directory&gt; [&lt;additional-source-directory&gt;...] [--package &lt;package-name&gt;...] [--output &lt;output-directory&gt;] [--include-method &lt;pattern&gt;...] [--exclude-method &lt;pattern&gt;...] [--include-tag &lt;pattern&gt;...] [--exclude-tag &lt;pattern&gt;...] [--threads &lt;count&gt;] [--render-threads &lt;count&gt;] [--exclude-dir &lt;name&gt;...] [--cache] [--fast-extraction] [--incremental-output] [--precompiled-templates] [--source-root &lt;directory&gt;...] [--bytecode] [--classpath &lt;entries&gt;] [--jar-cache] [--test-index] [--glossary &lt;file&gt;] [--detail &lt;level&gt;] [--max-file-size &lt;bytes&gt;] [--max-file-time &lt;ms&gt;] [--over-budget &lt;action&gt;]
  * 
  * Options:
  * --package &lt;package-name&gt;     Specify a package to scan for TestNG classes
@@ -16,6 +17,23 @@ import java.util.List;
  * --exclude-method &lt;pattern&gt;   Exclude test methods whose names match the regex pattern
  * --include-tag &lt;pattern&gt;      Include only test methods with tags matching the regex pattern
  * --exclude-tag &lt;pattern&gt;      Exclude test methods with tags matching the regex pattern
+ * --threads &lt;count&gt;           Number of worker threads used to parse source files (default: 1)
+ * --render-threads &lt;count&gt;    Number of worker threads used to render class pages (default: 1)
+ * --exclude-dir &lt;name&gt;         Skip directories with this name when scanning source directories; /name only directly under them
+ * --cache                      Reuse results for unchanged source files from the previous run
+ * --fast-extraction            Read source files with the tokenizer-based extractor, without syntax validation
+ * --incremental-output         Only write output files whose content changed, and remove pages of deleted classes
+ * --precompiled-templates      Render the built-in templates with Java renderers instead of FreeMarker
+ * --source-root &lt;directory&gt;   Source root searched for the sources of classes found with --package
+ * --bytecode                   Find test classes for --package by reading class files instead of loading classes
+ * --classpath &lt;entries&gt;       Class directories and jars read with --bytecode (default: the current classpath)
+ * --jar-cache                  Index each jar read with --bytecode once and reuse the index while the jar is unchanged
+ * --test-index                 Read --package classes from the compile-time test index when it lists the package
+ * --glossary &lt;file&gt;            Replace the terms of a glossary file (one term=replacement per line) in descriptions
+ * --detail &lt;level&gt;             How much of each test method is described: names, prose or full (default: full)
+ * --max-file-size &lt;bytes&gt;      Source files larger than this are quarantined instead of scanned in full
+ * --max-file-time &lt;ms&gt;         Source files that take longer than this to scan are quarantined
+ * --over-budget &lt;action&gt;       What happens to quarantined files: names (document method names only) or skip (default: names)
  */
 public class RunDocGenerator {
     
@@ -35,6 +53,7 @@ public class RunDocGenerator {
             // Parse arguments to separate source directories and packages
             List<String> sourceDirectories = new ArrayList<>();
             List<String> packages = new ArrayList<>();
+            List<String> sourceRoots = new ArrayList<>();
             String outputDir = "testng-docs"; // Default output directory
             
             for (int i = 0; i < args.length; i++) {
@@ -50,6 +69,40 @@ public class RunDocGenerator {
                     generator.includeTagPattern(args[++i]);
                 } else if (args[i].equals("--exclude-tag") && i + 1 < args.length) {
                     generator.excludeTagPattern(args[++i]);
+                } else if (args[i].equals("--threads") && i + 1 < args.length) {
+                    generator.useParallelScanning(Integer.parseInt(args[++i]));
+                } else if (args[i].equals("--render-threads") && i + 1 < args.length) {
+                    generator.useParallelRendering(Integer.parseInt(args[++i]));
+                } else if (args[i].equals("--exclude-dir") && i + 1 < args.length) {
+                    generator.excludeSourceDirectory(args[++i]);
+                } else if (args[i].equals("--cache")) {
+                    generator.useSourceCache();
+                } else if (args[i].equals("--fast-extraction")) {
+                    generator.useFastSourceExtraction();
+                } else if (args[i].equals("--incremental-output")) {
+                    generator.useOutputManifest();
+                } else if (args[i].equals("--precompiled-templates")) {
+                    generator.usePrecompiledTemplates();
+                } else if (args[i].equals("--source-root") && i + 1 < args.length) {
+                    sourceRoots.add(args[++i]);
+                } else if (args[i].equals("--bytecode")) {
+                    generator.useBytecodeScanning();
+                } else if (args[i].equals("--classpath") && i + 1 < args.length) {
+                    generator.setClasspath(args[++i].split(java.io.File.pathSeparator));
+                } else if (args[i].equals("--jar-cache")) {
+                    generator.useJarIndexCache();
+                } else if (args[i].equals("--test-index")) {
+                    generator.useTestIndex();
+                } else if (args[i].equals("--glossary") && i + 1 < args.length) {
+                    generator.loadPatternReplacements(args[++i]);
+                } else if (args[i].equals("--detail") && i + 1 < args.length) {
+                    generator.setDetailLevel(parseDetailLevel(args[++i]));
+                } else if (args[i].equals("--max-file-size") && i + 1 < args.length) {
+                    generator.setSourceFileSizeBudget(Long.parseLong(args[++i]));
+                } else if (args[i].equals("--max-file-time") && i + 1 < args.length) {
+                    generator.setSourceFileTimeBudget(Long.parseLong(args[++i]));
+                } else if (args[i].equals("--over-budget") && i + 1 < args.length) {
+                    generator.setOverBudgetAction(parseOverBudgetAction(args[++i]));
                 } else {
                     sourceDirectories.add(args[i]);
                 }
@@ -57,6 +110,9 @@ public class RunDocGenerator {
             
             // Set the output directory
             generator.setOutputDirectory(outputDir);
+            if (!sourceRoots.isEmpty()) {
+                generator.setSourceRoots(sourceRoots.toArray(new String[0]));
+            }
             
             // Convert lists to arrays
             String[] sourceDirectoriesArray = sourceDirectories.toArray(new String[0]);
@@ -97,6 +153,9 @@ public class RunDocGenerator {
             }
             
             System.out.println("Documentation generated successfully!");
+        } catch (PatternSyntaxException e) {
+            System.err.println("Invalid method or tag filter pattern: " + e.getMessage());
+            System.exit(1);
         } catch (Exception e) {
             System.err.println("Error generating documentation: " + e.getMessage());
             e.printStackTrace();
@@ -104,7 +163,7 @@ public class RunDocGenerator {
     }
     
     private static void printUsage() {
-        System.out.println("Usage: java -jar testng-doc-generator.jar <source-directory> [<additional-source-directory>...] [--package <package-name>...] [--output <output-directory>] [--include-method <pattern>...] [--exclude-method <pattern>...] [--include-tag <pattern>...] [--exclude-tag <pattern>...]");
+        System.out.println("Usage: java -jar testng-doc-generator.jar <source-directory> [<additional-source-directory>...] [--package <package-name>...] [--output <output-directory>] [--include-method <pattern>...] [--exclude-method <pattern>...] [--include-tag <pattern>...] [--exclude-tag <pattern>...] [--threads <count>] [--render-threads <count>] [--exclude-dir <name>...] [--cache] [--fast-extraction] [--incremental-output] [--precompiled-templates] [--source-root <directory>...] [--bytecode] [--classpath <entries>] [--jar-cache] [--test-index] [--glossary <file>] [--detail <level>] [--max-file-size <bytes>] [--max-file-time <ms>] [--over-budget <action>]");
         System.out.println("Options:");
         System.out.println("  --package <package-name>     Specify a package to scan for TestNG classes");
         System.out.println("  --output <output-directory>  Specify the output directory for the generated documentation");
@@ -112,5 +171,38 @@ public class RunDocGenerator {
         System.out.println("  --exclude-method <pattern>   Exclude test methods whose names match the regex pattern");
         System.out.println("  --include-tag <pattern>      Include only test methods with tags matching the regex pattern");
         System.out.println("  --exclude-tag <pattern>      Exclude test methods with tags matching the regex pattern");
+        System.out.println("  --threads <count>            Number of worker threads used to parse source files");
+        System.out.println("  --render-threads <count>     Number of worker threads used to render class pages");
+        System.out.println("  --exclude-dir <name>         Skip directories with this name when scanning source directories; /name only directly under them");
+        System.out.println("  --cache                      Reuse results for unchanged source files from the previous run");
+        System.out.println("  --fast-extraction            Read source files with the tokenizer-based extractor, without syntax validation");
+        System.out.println("  --incremental-output         Only write output files whose content changed, and remove pages of deleted classes");
+        System.out.println("  --precompiled-templates      Render the built-in templates with Java renderers instead of FreeMarker");
+        System.out.println("  --source-root <directory>    Source root searched for the sources of classes found with --package");
+        System.out.println("  --bytecode                   Find test classes for --package by reading class files instead of loading classes");
+        System.out.println("  --classpath <entries>        Class directories and jars read with --bytecode");
+        System.out.println("  --jar-cache                  Index each jar read with --bytecode once and reuse the index while the jar is unchanged");
+        System.out.println("  --test-index                 Read --package classes from the compile-time test index when it lists the package");
+        System.out.println("  --glossary <file>            Replace the terms of a glossary file (one term=replacement per line) in descriptions");
+        System.out.println("  --detail <level>             How much of each test method is described: names, prose or full (default: full)");
+        System.out.println("  --max-file-size <bytes>      Source files larger than this are quarantined instead of scanned in full");
+        System.out.println("  --max-file-time <ms>         Source files that take longer than this to scan are quarantined");
+        System.out.println("  --over-budget <action>       What happens to quarantined files: names (document method names only) or skip (default: names)");
+    }
+
+    private static TestNGDocGenerator.DetailLevel parseDetailLevel(String level) {
+        try {
+            return TestNGDocGenerator.DetailLevel.valueOf(level.toUpperCase(java.util.Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown detail level '" + level + "', expected names, prose or full");
+        }
+    }
+
+    private static TestNGDocGenerator.OverBudgetAction parseOverBudgetAction(String action) {
+        try {
+            return TestNGDocGenerator.OverBudgetAction.valueOf(action.toUpperCase(java.util.Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown over-budget action '" + action + "', expected names or skip");
+        }
     }
 }
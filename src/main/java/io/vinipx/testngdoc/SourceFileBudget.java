@@ -0,0 +1,91 @@
+package io.vinipx.testngdoc;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * The time allowed for scanning one source file. The scanners check the budget as they read tokens and
+ * declarations, so a pathological file is abandoned once its time is spent instead of stalling the whole run.
+ */
+class SourceFileBudget {
+
+    static final SourceFileBudget UNLIMITED = new SourceFileBudget(false, 0);
+
+    private final boolean limited;
+    private final long deadline;
+    private boolean exceeded;
+
+    private SourceFileBudget(boolean limited, long deadline) {
+        this.limited = limited;
+        this.deadline = deadline;
+    }
+
+    /**
+     * Starts the budget of a file
+     *
+     * @param maxMillis The time allowed in milliseconds, or 0 for no limit
+     * @return The budget
+     */
+    static SourceFileBudget start(long maxMillis) {
+        return maxMillis <= 0 ? UNLIMITED : new SourceFileBudget(true, System.nanoTime() + maxMillis * 1_000_000);
+    }
+
+    /**
+     * @throws ExceededException If the time of the file is spent
+     */
+    void check() {
+        if (limited && System.nanoTime() - deadline > 0) {
+            exceeded = true;
+            throw new ExceededException();
+        }
+    }
+
+    /**
+     * Rethrows a budget exceeded earlier, for parsers that catch all exceptions and report them differently
+     *
+     * @throws ExceededException If {@link #check()} failed before
+     */
+    void rethrowIfExceeded() {
+        if (exceeded) {
+            throw new ExceededException();
+        }
+    }
+
+    boolean isLimited() {
+        return limited;
+    }
+
+    /**
+     * Checks the budget whenever characters are read, for parsers that cannot check it themselves
+     *
+     * @param reader The reader of the file
+     * @return A reader that throws {@link ExceededException} once the time is spent
+     */
+    Reader limit(Reader reader) {
+        return new FilterReader(reader) {
+            @Override
+            public int read() throws IOException {
+                check();
+                return super.read();
+            }
+
+            @Override
+            public int read(char[] buffer, int offset, int length) throws IOException {
+                check();
+                return super.read(buffer, offset, length);
+            }
+        };
+    }
+
+    /**
+     * Thrown when a file takes longer to scan than its budget allows
+     */
+    static final class ExceededException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private ExceededException() {
+            super("Time budget exceeded", null, false, false);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package io.vinipx.testngdoc;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
+import io.vinipx.testngdoc.assertions.AssertionTranslators;
+import io.vinipx.testngdoc.util.SourceTreeWalker;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Resolves the source files of classes found through reflection, for the duration of a single run.
+ * The configured source roots are indexed once, and each source file is read and parsed at most once;
+ * the logic of its method bodies is kept so that every test method of a class can be explained from one parse.
+ * <p>
+ * Descriptions are resolved lazily, possibly while class pages are rendered in parallel, so the resolver can be
+ * used from several threads.
+ */
+class SourceResolver {
+
+    private final List<String> sourceRoots;
+    private final AssertionTranslators translators;
+    private final ThreadLocal<JavaParser> javaParser = ThreadLocal.withInitial(JavaParser::new);
+
+    // Relative source path (e.g. com/example/LoginTests.java) to the file in the first root that contains it
+    private Map<String, Path> sourceIndex;
+    private final Map<Class<?>, Path> resolvedClasses = Collections.synchronizedMap(new HashMap<>());
+    private final Map<Path, ParsedSource> parsedSources = new ConcurrentHashMap<>();
+    private final AtomicInteger parsedFiles = new AtomicInteger();
+
+    /**
+     * Creates a resolver for the given source roots
+     *
+     * @param sourceRoots Source roots in lookup order
+     * @param translators The translators that tell which calls are assertions
+     */
+    SourceResolver(List<String> sourceRoots, AssertionTranslators translators) {
+        this.sourceRoots = new ArrayList<>(sourceRoots);
+        this.translators = translators;
+    }
+
+    /**
+     * Finds the source file of a class
+     *
+     * @param clazz The class to find the source for
+     * @return The path of the source file, or null if it could not be found
+     */
+    Path findSource(Class<?> clazz) {
+        if (resolvedClasses.containsKey(clazz)) {
+            return resolvedClasses.get(clazz);
+        }
+
+        String className = clazz.getSimpleName();
+        String packagePath = clazz.getPackage().getName().replace('.', '/');
+        String relativePath = packagePath.isEmpty() ? className + ".java" : packagePath + "/" + className + ".java";
+
+        Path sourcePath = getSourceIndex().get(relativePath);
+        if (sourcePath == null) {
+            // If source file not found in the source roots, try to find it using the class location
+            URL classUrl = clazz.getResource(className + ".class");
+            if (classUrl != null) {
+                sourcePath = findSourceNextToClassFile(classUrl.getPath());
+            }
+        }
+
+        resolvedClasses.put(clazz, sourcePath);
+        return sourcePath;
+    }
+
+    /**
+     * Finds the source file of a class that was read from a class file without loading it
+     *
+     * @param packageName    The package of the class
+     * @param sourceFileName The source file name, e.g. LoginTests.java
+     * @param classFilePath  The path of the class file, or null if it was not read from a directory
+     * @return The path of the source file, or null if it could not be found
+     */
+    Path findSource(String packageName, String sourceFileName, String classFilePath) {
+        String packagePath = packageName.replace('.', '/');
+        String relativePath = packagePath.isEmpty() ? sourceFileName : packagePath + "/" + sourceFileName;
+
+        Path sourcePath = getSourceIndex().get(relativePath);
+        if (sourcePath == null && classFilePath != null) {
+            String classDir = classFilePath.substring(0, classFilePath.lastIndexOf(File.separatorChar) + 1);
+            sourcePath = findSourceNextToClassFile(classDir + sourceFileName.replace(".java", ".class"));
+        }
+        return sourcePath;
+    }
+
+    private Path findSourceNextToClassFile(String classPath) {
+        // Convert from class file to potential source file location
+        String sourcePotentialPath = classPath.replace("target/classes", "src/main/java")
+                .replace("target/test-classes", "src/test/java")
+                .replace(".class", ".java");
+
+        try {
+            Path potentialSourcePath = Paths.get(sourcePotentialPath);
+            if (Files.exists(potentialSourcePath)) {
+                return potentialSourcePath;
+            }
+        } catch (RuntimeException e) {
+            // Not a valid path on this file system
+        }
+        return null;
+    }
+
+    /**
+     * Returns the logic of the bodies of all methods with the given name in a source file, in declaration order.
+     * The file is parsed on first access only; threads that ask for it at the same time wait for that parse.
+     *
+     * @param sourcePath The source file
+     * @param methodName The method name
+     * @return The comments and assertions of each method body
+     * @throws IOException If the file cannot be read
+     */
+    List<MethodLogic> getMethodLogic(Path sourcePath, String methodName) throws IOException {
+        return parsedSources.computeIfAbsent(sourcePath, ParsedSource::new).getMethodBodies()
+                .getOrDefault(methodName, Collections.emptyList());
+    }
+
+    /**
+     * @return The number of source files parsed so far
+     */
+    int getParsedFileCount() {
+        return parsedFiles.get();
+    }
+
+    private Map<String, List<MethodLogic>> parseMethodBodies(Path sourcePath) throws IOException {
+        parsedFiles.incrementAndGet();
+        String source = new String(Files.readAllBytes(sourcePath));
+        CompilationUnit cu = javaParser.get().parse(source).getResult().orElseThrow();
+
+        Map<String, List<MethodLogic>> bodies = new HashMap<>();
+        cu.accept(new VoidVisitorAdapter<Void>() {
+            @Override
+            public void visit(MethodDeclaration md, Void arg) {
+                if (md.getBody().isPresent()) {
+                    bodies.computeIfAbsent(md.getNameAsString(), name -> new ArrayList<>())
+                            .add(MethodLogic.of(md.getBody().get(), translators));
+                }
+                super.visit(md, arg);
+            }
+        }, null);
+        return bodies;
+    }
+
+    private synchronized Map<String, Path> getSourceIndex() {
+        if (sourceIndex == null) {
+            sourceIndex = new HashMap<>();
+            // Package directories must not be pruned here, so no directories are excluded
+            SourceTreeWalker walker = new SourceTreeWalker(Collections.emptySet());
+            for (String sourceRoot : sourceRoots) {
+                Path root = Paths.get(sourceRoot);
+                if (!Files.isDirectory(root)) {
+                    continue;
+                }
+                try {
+                    walker.walk(root, file -> sourceIndex.putIfAbsent(
+                            root.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/"), file));
+                } catch (IOException e) {
+                    System.err.println("Could not index source root " + sourceRoot + ": " + e.getMessage());
+                }
+            }
+            System.out.println("Indexed " + sourceIndex.size() + " source files in " + sourceRoots);
+        }
+        return sourceIndex;
+    }
+
+    /**
+     * The method bodies of one source file, parsed on first use. A file that cannot be parsed fails the same way
+     * on every use; a file that cannot be read is read again on the next use.
+     */
+    private final class ParsedSource {
+        private final Path sourcePath;
+        private Map<String, List<MethodLogic>> methodBodies;
+        private RuntimeException failure;
+
+        private ParsedSource(Path sourcePath) {
+            this.sourcePath = sourcePath;
+        }
+
+        private synchronized Map<String, List<MethodLogic>> getMethodBodies() throws IOException {
+            if (failure != null) {
+                throw failure;
+            }
+            if (methodBodies == null) {
+                try {
+                    methodBodies = parseMethodBodies(sourcePath);
+                } catch (RuntimeException e) {
+                    failure = e;
+                    throw e;
+                }
+            }
+            return methodBodies;
+        }
+    }
+}
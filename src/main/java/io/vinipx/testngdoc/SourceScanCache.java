@@ -0,0 +1,411 @@
+package io.vinipx.testngdoc;
+
+import io.vinipx.testngdoc.TestNGDocGenerator.TestClassInfo;
+import io.vinipx.testngdoc.TestNGDocGenerator.TestMethodInfo;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Persistent cache of the test classes extracted from source files, stored under the output directory.
+ * Entries are keyed by path and validated by size, modification time and a SHA-256 hash of the file content.
+ * An entry also records the other source files looked at to resolve constants in @Docs tags, including paths
+ * where no file existed, and is only valid while they are unchanged and still missing respectively.
+ * Method descriptions are stored once they have been generated; files with descriptions that were never used are
+ * not stored, so they are scanned and explained again on the next run.
+ * The whole cache is discarded when the cache format, generator version or explanation settings change.
+ */
+class SourceScanCache {
+
+    /**
+     * Bump this whenever the cache layout or the way explanations are generated changes
+     */
+    static final int FORMAT_VERSION = 6;
+
+    static final String CACHE_DIR = ".testng-doc-cache";
+    private static final String CACHE_FILE = "source-cache.bin";
+
+    // Files modified this close to the time the cache was written are always re-hashed,
+    // because file systems with coarse timestamps could hide a later edit
+    private static final long MTIME_SAFETY_MILLIS = 2000;
+
+    private final Path cacheFile;
+    private final String fingerprint;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Entry> usedEntries = new ConcurrentHashMap<>();
+    // Whether each dependency is unchanged, checked once per run however many files use it
+    private final Map<String, Boolean> unchangedDependencies = new ConcurrentHashMap<>();
+    private long writtenAt;
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+
+    private SourceScanCache(Path cacheFile, String fingerprint) {
+        this.cacheFile = cacheFile;
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * Loads the cache from the output directory, starting empty if it is missing, unreadable or stale
+     *
+     * @param outputDir   The documentation output directory
+     * @param fingerprint Generator version and settings that affect the cached results
+     * @return The loaded cache
+     */
+    static SourceScanCache load(Path outputDir, String fingerprint) {
+        SourceScanCache cache = new SourceScanCache(outputDir.resolve(CACHE_DIR).resolve(CACHE_FILE), fingerprint);
+        if (!Files.exists(cache.cacheFile)) {
+            return cache;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(cache.cacheFile)))) {
+            if (in.readInt() != FORMAT_VERSION || !fingerprint.equals(readString(in))) {
+                System.out.println("Source cache is out of date, rebuilding: " + cache.cacheFile);
+                return cache;
+            }
+            cache.writtenAt = in.readLong();
+            int entryCount = in.readInt();
+            for (int i = 0; i < entryCount; i++) {
+                Entry entry = Entry.read(in);
+                cache.entries.put(entry.stamp.path, entry);
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Could not read source cache " + cache.cacheFile + ": " + e.getMessage());
+            cache.entries.clear();
+        }
+        return cache;
+    }
+
+    /**
+     * Looks up the test classes previously extracted from a source file
+     *
+     * @param javaFile The source file
+     * @return Fresh copies of the cached test classes, or null if the file or one of its dependencies changed
+     * since it was cached
+     */
+    List<TestClassInfo> get(Path javaFile) {
+        String key = javaFile.toAbsolutePath().normalize().toString();
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            try {
+                FileStamp stamp = check(javaFile, entry.stamp);
+                if (stamp != null && dependenciesUnchanged(entry)) {
+                    if (stamp != entry.stamp) {
+                        entry = new Entry(stamp, entry.dependencies, entry.classes);
+                    }
+                    usedEntries.put(key, entry);
+                    hits.incrementAndGet();
+                    return copy(entry.classes);
+                }
+            } catch (IOException e) {
+                // Treat as a miss and let the parser report the problem
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Checks whether a file still has the content it had when it was stamped
+     *
+     * @return The stamp, refreshed if only the modification time changed, or null if the content changed
+     */
+    private FileStamp check(Path file, FileStamp stamp) throws IOException {
+        if (stamp.isMissing()) {
+            return Files.exists(file) ? null : stamp;
+        }
+        BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+        long mtime = attrs.lastModifiedTime().toMillis();
+        if (attrs.size() != stamp.size) {
+            return null;
+        }
+        if (mtime == stamp.mtime && mtime < writtenAt - MTIME_SAFETY_MILLIS) {
+            return stamp;
+        }
+        if (hash(file).equals(stamp.hash)) {
+            // Same content with a new timestamp, e.g. after a fresh checkout
+            return new FileStamp(stamp.path, attrs.size(), mtime, stamp.hash);
+        }
+        return null;
+    }
+
+    private boolean dependenciesUnchanged(Entry entry) {
+        for (FileStamp dependency : entry.dependencies) {
+            boolean unchanged = unchangedDependencies.computeIfAbsent(dependency.path + "#" + dependency.hash, key -> {
+                try {
+                    return check(Path.of(dependency.path), dependency) != null;
+                } catch (IOException e) {
+                    return false;
+                }
+            });
+            if (!unchanged) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stores the test classes extracted from a source file. The cache keeps the given classes, so their
+     * descriptions are only generated when the returned copies are used.
+     *
+     * @param javaFile     The source file
+     * @param classes      The test classes extracted from the file
+     * @param dependencies The other source files looked at to resolve tags, which need not exist
+     * @return Fresh copies of the test classes
+     */
+    List<TestClassInfo> put(Path javaFile, List<TestClassInfo> classes, Collection<Path> dependencies) {
+        try {
+            List<FileStamp> dependencyStamps = new ArrayList<>(dependencies.size());
+            for (Path dependency : dependencies) {
+                dependencyStamps.add(FileStamp.of(dependency));
+            }
+            Entry entry = new Entry(FileStamp.of(javaFile), dependencyStamps, classes);
+            entries.put(entry.stamp.path, entry);
+            usedEntries.put(entry.stamp.path, entry);
+        } catch (IOException e) {
+            System.err.println("Could not cache results for " + javaFile + ": " + e.getMessage());
+        }
+        return copy(classes);
+    }
+
+    /**
+     * Writes the cache back to disk. Entries for files that no longer exist are dropped, and so are entries with
+     * descriptions that have not been generated yet, which are never generated here.
+     */
+    void save() {
+        try {
+            Files.createDirectories(cacheFile.getParent());
+            Path tempFile = cacheFile.resolveSibling(CACHE_FILE + ".tmp");
+
+            // Keep entries from other source directories as long as their files still exist
+            Map<String, Entry> retained = new ConcurrentHashMap<>(usedEntries);
+            for (Entry entry : entries.values()) {
+                if (!retained.containsKey(entry.stamp.path) && Files.exists(Path.of(entry.stamp.path))) {
+                    retained.put(entry.stamp.path, entry);
+                }
+            }
+
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                out.writeInt(FORMAT_VERSION);
+                writeString(out, fingerprint);
+                out.writeLong(System.currentTimeMillis());
+                retained.values().removeIf(Entry::hasPendingDescriptions);
+                out.writeInt(retained.size());
+                for (Entry entry : retained.values()) {
+                    entry.write(out);
+                }
+            }
+            Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            System.out.println("Source cache: " + hits.get() + " hits, " + misses.get() + " misses");
+        } catch (IOException e) {
+            System.err.println("Could not write source cache " + cacheFile + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return The number of files found unchanged in the cache
+     */
+    int getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return The number of files that were not in the cache or changed
+     */
+    int getMisses() {
+        return misses.get();
+    }
+
+    private static String hash(Path file) throws IOException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(Files.readAllBytes(file));
+            StringBuilder hex = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static List<TestClassInfo> copy(List<TestClassInfo> classes) {
+        List<TestClassInfo> copies = new ArrayList<>(classes.size());
+        for (TestClassInfo classInfo : classes) {
+            List<TestMethodInfo> methods = new ArrayList<>(classInfo.getTestMethods().size());
+            for (TestMethodInfo method : classInfo.getTestMethods()) {
+                // The copy shares a pending description, which is generated once when either is used
+                TestMethodInfo methodCopy = new TestMethodInfo();
+                methodCopy.setName(method.getName());
+                if (method.isDescriptionPending()) {
+                    methodCopy.setDescriptionSupplier(method::getDescription);
+                } else {
+                    methodCopy.setDescription(method.getDescription());
+                }
+                methodCopy.setTags(new ArrayList<>(method.getTags()));
+                methods.add(methodCopy);
+            }
+            copies.add(new TestClassInfo(classInfo.getClassName(), classInfo.getPackageName(), methods));
+        }
+        return copies;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The path, size, modification time and content hash of a file when it was read
+     */
+    private static final class FileStamp {
+        private final String path;
+        private final long size;
+        private final long mtime;
+        private final String hash;
+
+        private FileStamp(String path, long size, long mtime, String hash) {
+            this.path = path;
+            this.size = size;
+            this.mtime = mtime;
+            this.hash = hash;
+        }
+
+        private static FileStamp of(Path file) throws IOException {
+            if (!Files.exists(file)) {
+                return new FileStamp(file.toAbsolutePath().normalize().toString(), -1, 0, null);
+            }
+            BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            return new FileStamp(file.toAbsolutePath().normalize().toString(), attrs.size(),
+                    attrs.lastModifiedTime().toMillis(), hash(file));
+        }
+
+        /**
+         * @return Whether the file did not exist when it was stamped
+         */
+        private boolean isMissing() {
+            return size < 0;
+        }
+
+        private void write(DataOutputStream out) throws IOException {
+            writeString(out, path);
+            out.writeLong(size);
+            out.writeLong(mtime);
+            writeString(out, hash);
+        }
+
+        private static FileStamp read(DataInputStream in) throws IOException {
+            return new FileStamp(readString(in), in.readLong(), in.readLong(), readString(in));
+        }
+    }
+
+    /**
+     * A cached source file, the files it depends on and the test classes extracted from it
+     */
+    private static final class Entry {
+        private final FileStamp stamp;
+        private final List<FileStamp> dependencies;
+        private final List<TestClassInfo> classes;
+
+        private Entry(FileStamp stamp, List<FileStamp> dependencies, List<TestClassInfo> classes) {
+            this.stamp = stamp;
+            this.dependencies = dependencies;
+            this.classes = classes;
+        }
+
+        /**
+         * @return Whether a description of the cached methods has not been generated yet
+         */
+        private boolean hasPendingDescriptions() {
+            for (TestClassInfo classInfo : classes) {
+                for (TestMethodInfo method : classInfo.getTestMethods()) {
+                    if (method.isDescriptionPending()) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        private void write(DataOutputStream out) throws IOException {
+            stamp.write(out);
+            out.writeInt(dependencies.size());
+            for (FileStamp dependency : dependencies) {
+                dependency.write(out);
+            }
+            out.writeInt(classes.size());
+            for (TestClassInfo classInfo : classes) {
+                writeString(out, classInfo.getClassName());
+                writeString(out, classInfo.getPackageName());
+                out.writeInt(classInfo.getTestMethods().size());
+                for (TestMethodInfo method : classInfo.getTestMethods()) {
+                    writeString(out, method.getName());
+                    writeString(out, method.getDescription());
+                    out.writeInt(method.getTags().size());
+                    for (String tag : method.getTags()) {
+                        writeString(out, tag);
+                    }
+                }
+            }
+        }
+
+        private static Entry read(DataInputStream in) throws IOException {
+            FileStamp stamp = FileStamp.read(in);
+            int dependencyCount = in.readInt();
+            List<FileStamp> dependencies = new ArrayList<>(dependencyCount);
+            for (int d = 0; d < dependencyCount; d++) {
+                dependencies.add(FileStamp.read(in));
+            }
+            int classCount = in.readInt();
+            List<TestClassInfo> classes = new ArrayList<>(classCount);
+            for (int c = 0; c < classCount; c++) {
+                String className = readString(in);
+                String packageName = readString(in);
+                int methodCount = in.readInt();
+                List<TestMethodInfo> methods = new ArrayList<>(methodCount);
+                for (int m = 0; m < methodCount; m++) {
+                    TestMethodInfo method = new TestMethodInfo(readString(in), readString(in));
+                    int tagCount = in.readInt();
+                    for (int t = 0; t < tagCount; t++) {
+                        method.addTag(readString(in));
+                    }
+                    methods.add(method);
+                }
+                classes.add(new TestClassInfo(className, packageName, methods));
+            }
+            return new Entry(stamp, dependencies, classes);
+        }
+    }
+}
@@ -1,18 +1,37 @@
 package io.vinipx.testngdoc;
 
 import com.github.javaparser.JavaParser;
-import com.github.javaparser.StaticJavaParser;
+import com.github.javaparser.ParseProblemException;
+import com.github.javaparser.ParseResult;
+import com.github.javaparser.ParseStart;
+import com.github.javaparser.Providers;
 import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.ImportDeclaration;
+import com.github.javaparser.ast.body.AnnotationDeclaration;
 import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.EnumDeclaration;
+import com.github.javaparser.ast.body.FieldDeclaration;
 import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.RecordDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
 import com.github.javaparser.ast.expr.ArrayInitializerExpr;
+import com.github.javaparser.ast.expr.Expression;
 import com.github.javaparser.ast.expr.MemberValuePair;
-import com.github.javaparser.ast.expr.StringLiteralExpr;
 import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
+import freemarker.cache.TemplateLoader;
 import freemarker.template.Configuration;
 import freemarker.template.Template;
 import freemarker.template.TemplateException;
+import io.vinipx.testngdoc.assertions.AssertionTranslator;
+import io.vinipx.testngdoc.assertions.AssertionTranslators;
+import io.vinipx.testngdoc.util.ClassFileTestScanner;
+import io.vinipx.testngdoc.util.Glossary;
+import io.vinipx.testngdoc.util.JarIndexCache;
+import io.vinipx.testngdoc.util.MethodFilter;
+import io.vinipx.testngdoc.util.SourceTreeWalker;
 import io.vinipx.testngdoc.util.TemplateSync;
+import io.vinipx.testngdoc.util.TestAnnotationPreFilter;
+import io.vinipx.testngdoc.util.TestIndex;
 import org.reflections.Reflections;
 import org.reflections.scanners.SubTypesScanner;
 import org.reflections.scanners.TypeAnnotationsScanner;
@@ -22,20 +41,34 @@ import org.testng.annotations.Test;
 
 import java.io.*;
 import java.lang.reflect.Method;
-import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 public class TestNGDocGenerator {
 
     private static String OUTPUT_DIR = "testng-docs";
     private static final String TEMPLATE_DIR = "templates";
+    // Script tags that load Chart.js, which are removed from index templates
+    private static final Pattern CHART_JS_SCRIPT = Pattern.compile("<script[^>]*chart\\.js[^>]*></script>");
     // Map for custom pattern replacements
-    private Map<String, String> patternReplacements = new HashMap<>();
+    private Map<String, String> patternReplacements = new LinkedHashMap<>();
+    private final ExplanationEngine explanationEngine = new ExplanationEngine(patternReplacements);
+    // FreeMarker configurations and parsed templates, reused by every generation of this generator
+    private final RenderingContext renderingContext = new RenderingContext(0, this::loadBuiltInTemplate,
+            TestNGDocGenerator::preprocessTemplate);
     private boolean displayTagsChart = false;
     private boolean darkMode = false;
     private String reportTitle = "TestNG Documentation";
@@ -46,6 +79,45 @@ public class TestNGDocGenerator {
     private List<String> excludeMethodPatterns = new ArrayList<>();
     private List<String> includeTagPatterns = new ArrayList<>();
     private List<String> excludeTagPatterns = new ArrayList<>();
+    // The patterns above, compiled whenever they change
+    private MethodFilter methodFilter = MethodFilter.all();
+    // How much of each test method is described
+    private DetailLevel detailLevel = DetailLevel.FULL;
+    // Number of worker threads used to parse source files (1 = sequential)
+    private int scanThreads = 1;
+    // Number of worker threads used to render class pages (1 = sequential)
+    private int renderThreads = 1;
+    // Directory names that are not descended into when scanning source directories
+    private Set<String> excludedSourceDirectories = new LinkedHashSet<>(SourceTreeWalker.DEFAULT_EXCLUDED_DIRECTORIES);
+    // Whether source files without a @Test annotation are skipped before parsing
+    private boolean sourcePreFilter = true;
+    // Whether source files are first read with the tokenizer-based extractor before falling back to JavaParser
+    private boolean fastSourceExtraction = false;
+    // Whether results extracted from source files are cached under the output directory
+    private boolean sourceCache = false;
+    // Whether output files are only written when their content changed, tracked by a manifest in the output directory
+    private boolean outputManifest = false;
+    // Whether the built-in page templates are rendered by precompiled Java renderers instead of FreeMarker
+    private boolean precompiledTemplates = false;
+    // Largest source file in bytes and longest scan time per file in milliseconds; 0 means no limit
+    private long sourceFileSizeBudget = 0;
+    private long sourceFileTimeBudget = 0;
+    // What happens to source files over their size or time budget
+    private OverBudgetAction overBudgetAction = OverBudgetAction.NAMES;
+    // Source files skipped or degraded during the current or last run, kept until the next run starts
+    private final List<QuarantinedFile> quarantinedFiles = Collections.synchronizedList(new ArrayList<>());
+    // Source cache of the current run, shared by its source directories and saved once its pages are rendered
+    private SourceScanCache runSourceCache;
+    // Source roots searched for the source files of classes found through reflection
+    private List<String> sourceRoots = new ArrayList<>(Arrays.asList("src/main/java", "src/test/java", "src"));
+    // Whether package scanning reads class files directly instead of loading classes
+    private boolean bytecodeScanning = false;
+    // Class directories and jars read by bytecode scanning; empty means the current classpath
+    private List<String> classpathEntries = new ArrayList<>();
+    // Whether bytecode scanning keeps a persistent index per jar, keyed by the jar checksum
+    private boolean jarIndexCache = false;
+    // Whether package scanning uses the compile-time test index when one is on the classpath
+    private boolean testIndex = false;
 
     public static void main(String[] args) {
         if (args.length < 1) {
@@ -76,7 +148,8 @@ public class TestNGDocGenerator {
 
         // Initialize FreeMarker
         Configuration cfg = initializeFreemarker();
-        removeChartJsReferences();
+        OutputManifest manifest = openOutputManifest();
+        quarantinedFiles.clear();
 
         // Validate templates
         validateTemplates(cfg);
@@ -85,10 +158,13 @@ public class TestNGDocGenerator {
         List<TestClassInfo> testClasses = scanForTestClasses(packageToScan);
 
         // Generate documentation
-        generateClassDocumentation(testClasses, cfg);
-        generateIndexPage(testClasses, cfg);
+        generateClassDocumentation(testClasses, cfg, manifest);
+        generateIndexPage(testClasses, cfg, manifest);
 
+        manifest.complete();
         System.out.println("Documentation generated in: " + OUTPUT_DIR);
+        reportExplanationMemo();
+        writeQuarantineReport();
     }
 
     /**
@@ -107,9 +183,11 @@ public class TestNGDocGenerator {
 
             // Initialize FreeMarker
             Configuration cfg = initializeFreemarker();
-            removeChartJsReferences();
+            OutputManifest manifest = openOutputManifest();
+            quarantinedFiles.clear();
 
             List<TestClassInfo> classInfos = new ArrayList<>();
+            SourceResolver sourceResolver = new SourceResolver(sourceRoots, explanationEngine.getTranslators());
 
             for (Class<?> testClass : testClasses) {
                 // Create test class info
@@ -118,10 +196,14 @@ public class TestNGDocGenerator {
                 // Check each method for @Test annotation
                 for (Method method : testClass.getDeclaredMethods()) {
                     if (method.isAnnotationPresent(Test.class)) {
-                        String methodDescription = extractMethodLogic(testClass, method.getName());
-                        TestMethodInfo methodInfo = new TestMethodInfo(method.getName(), methodDescription);
+                        TestMethodInfo methodInfo = new TestMethodInfo();
+                        methodInfo.setName(method.getName());
                         extractTagsFromMethod(method, methodInfo);
-                        testMethods.add(methodInfo);
+                        if (includesTestMethod(methodInfo)) {
+                            methodInfo.setDescriptionSupplier(describeAtDetailLevel(method.getName(), () ->
+                                    extractMethodLogic(testClass, method.getName(), sourceResolver)));
+                            testMethods.add(methodInfo);
+                        }
                     }
                 }
 
@@ -141,10 +223,13 @@ public class TestNGDocGenerator {
             }
 
             // Generate documentation
-            generateClassDocumentation(classInfos, cfg);
-            generateIndexPage(classInfos, cfg);
+            generateClassDocumentation(classInfos, cfg, manifest);
+            generateIndexPage(classInfos, cfg, manifest);
 
+            manifest.complete();
             System.out.println("Documentation generated in: " + OUTPUT_DIR);
+            reportExplanationMemo();
+            writeQuarantineReport();
 
         } catch (Exception e) {
             System.err.println("Error generating documentation: " + e.getMessage());
@@ -165,16 +250,21 @@ public class TestNGDocGenerator {
 
         // Initialize FreeMarker
         Configuration cfg = initializeFreemarker();
-        removeChartJsReferences();
+        OutputManifest manifest = openOutputManifest();
+        quarantinedFiles.clear();
 
         // Scan for TestNG classes
         List<TestClassInfo> testClasses = scanForTestClassesFromSource(sourceDirectory);
 
         // Generate documentation
-        generateClassDocumentation(testClasses, cfg);
-        generateIndexPage(testClasses, cfg);
+        generateClassDocumentation(testClasses, cfg, manifest);
+        generateIndexPage(testClasses, cfg, manifest);
 
+        manifest.complete();
+        saveSourceCache();
         System.out.println("Documentation generated in: " + OUTPUT_DIR);
+        reportExplanationMemo();
+        writeQuarantineReport();
     }
 
     /**
@@ -190,7 +280,8 @@ public class TestNGDocGenerator {
 
         // Initialize FreeMarker
         Configuration cfg = initializeFreemarker();
-        removeChartJsReferences();
+        OutputManifest manifest = openOutputManifest();
+        quarantinedFiles.clear();
 
         // Scan for TestNG classes in all source directories
         List<TestClassInfo> allTestClasses = new ArrayList<>();
@@ -213,10 +304,14 @@ public class TestNGDocGenerator {
         }
 
         // Generate documentation
-        generateClassDocumentation(allTestClasses, cfg);
-        generateIndexPage(allTestClasses, cfg);
+        generateClassDocumentation(allTestClasses, cfg, manifest);
+        generateIndexPage(allTestClasses, cfg, manifest);
 
+        manifest.complete();
+        saveSourceCache();
         System.out.println("Documentation generated in: " + OUTPUT_DIR);
+        reportExplanationMemo();
+        writeQuarantineReport();
     }
 
     /**
@@ -234,7 +329,8 @@ public class TestNGDocGenerator {
 
         // Initialize FreeMarker
         Configuration cfg = initializeFreemarker();
-        removeChartJsReferences();
+        OutputManifest manifest = openOutputManifest();
+        quarantinedFiles.clear();
 
         // Scan for TestNG classes in all source directories and packages
         List<TestClassInfo> allTestClasses = new ArrayList<>();
@@ -268,10 +364,31 @@ public class TestNGDocGenerator {
         }
 
         // Generate documentation
-        generateClassDocumentation(allTestClasses, cfg);
-        generateIndexPage(allTestClasses, cfg);
+        generateClassDocumentation(allTestClasses, cfg, manifest);
+        generateIndexPage(allTestClasses, cfg, manifest);
 
+        manifest.complete();
+        saveSourceCache();
         System.out.println("Documentation generated in: " + OUTPUT_DIR);
+        reportExplanationMemo();
+        writeQuarantineReport();
+    }
+
+    private OutputManifest openOutputManifest() {
+        Path outputPath = Paths.get(OUTPUT_DIR);
+        return outputManifest ? OutputManifest.load(outputPath) : OutputManifest.disabled(outputPath);
+    }
+
+    /**
+     * Saves the source cache opened by the source scans of the current run, if any, and closes it. The
+     * descriptions of the scanned methods are generated lazily, mostly on the render threads, so this is called
+     * once the pages are rendered rather than after each scan.
+     */
+    void saveSourceCache() {
+        if (runSourceCache != null) {
+            runSourceCache.save();
+            runSourceCache = null;
+        }
     }
 
     private void createOutputDirectory() throws IOException {
@@ -281,60 +398,60 @@ public class TestNGDocGenerator {
         }
     }
 
-    private Configuration initializeFreemarker() throws IOException {
-        Configuration cfg = new Configuration(Configuration.VERSION_2_3_32);
-
-        // Always ensure templates exist before trying to load them
-        ensureTemplateFilesExist();
+    /**
+     * Returns the FreeMarker configuration for the templates in use. Templates in the template directory, then in
+     * the templates directory of the output directory, override the built-in templates one by one; nothing is
+     * written to disk. Configurations are kept in the rendering context, so templates are only parsed again by
+     * later generations if they changed.
+     */
+    private Configuration initializeFreemarker() {
+        return renderingContext.forOverrideDirectories(Arrays.asList(Paths.get(TEMPLATE_DIR),
+                Paths.get(OUTPUT_DIR, "templates")));
+    }
 
-        // First check if templates exist in the template directory (TEMPLATE_DIR)
-        Path templatePath = Paths.get(TEMPLATE_DIR);
-        if (Files.exists(templatePath) &&
-                Files.exists(templatePath.resolve("class.ftl")) &&
-                Files.exists(templatePath.resolve("index.ftl"))) {
-            // Template directory exists with required templates, use it
-            cfg.setDirectoryForTemplateLoading(new File(TEMPLATE_DIR));
-            System.out.println("Using templates from directory: " + templatePath.toAbsolutePath());
-            return cfg;
+    /**
+     * Loads a built-in template from the classpath, or the default template if the classpath does not have it
+     *
+     * @param templateName The template name, e.g. class.ftl
+     * @return The template content, or null if there is no built-in template with that name
+     */
+    private String loadBuiltInTemplate(String templateName) {
+        try (InputStream is = openTemplateResource(templateName)) {
+            if (is != null) {
+                return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+            }
+        } catch (IOException e) {
+            System.err.println("Could not read template resource " + templateName + ": " + e.getMessage());
         }
-
-        // Then check for templates in the output directory
-        Path outputTemplatePath = Paths.get(OUTPUT_DIR, "templates");
-        if (Files.exists(outputTemplatePath) &&
-                Files.exists(outputTemplatePath.resolve("class.ftl")) &&
-                Files.exists(outputTemplatePath.resolve("index.ftl"))) {
-            // Template directory exists in output directory with required templates, use it
-            cfg.setDirectoryForTemplateLoading(outputTemplatePath.toFile());
-            System.out.println("Using templates from output directory: " + outputTemplatePath.toAbsolutePath());
-            return cfg;
+        if (templateName.equals("class.ftl")) {
+            System.err.println("Could not find template resource: " + templateName + ", using the default template");
+            return defaultClassTemplate();
+        } else if (templateName.equals("index.ftl")) {
+            System.err.println("Could not find template resource: " + templateName + ", using the default template");
+            return defaultIndexTemplate();
         }
+        return null;
+    }
 
-        // Then try to use templates from the classpath resources
-        try {
-            // Check if templates exist in classpath resources
-            InputStream classTemplateStream = getClass().getClassLoader().getResourceAsStream("templates/class.ftl");
-            InputStream indexTemplateStream = getClass().getClassLoader().getResourceAsStream("templates/index.ftl");
-
-            if (classTemplateStream != null && indexTemplateStream != null) {
-                // Templates exist in classpath, use them
-                classTemplateStream.close();
-                indexTemplateStream.close();
-                cfg.setClassLoaderForTemplateLoading(getClass().getClassLoader(), "");
-                System.out.println("Using templates from classpath resources");
-                return cfg;
-            }
-        } catch (Exception e) {
-            System.out.println("Could not load templates from classpath: " + e.getMessage());
-        }
+    private InputStream openTemplateResource(String templateFile) {
+        // First try to load from direct classpath resources
+        InputStream is = getClass().getClassLoader().getResourceAsStream("templates/" + templateFile);
 
-        // If we got here, something went wrong with template loading
-        System.err.println("WARNING: Could not find templates in any location. Using fallback configuration.");
+        // If not found, try with different paths
+        if (is == null) {
+            is = getClass().getResourceAsStream("/templates/" + templateFile);
+        }
 
-        // Last resort: use classpath resources with default templates
-        cfg.setClassLoaderForTemplateLoading(getClass().getClassLoader(), "");
+        // If still not found, try without templates/ prefix (for flat classpath structure)
+        if (is == null) {
+            is = getClass().getClassLoader().getResourceAsStream(templateFile);
+        }
 
-        cfg.setDefaultEncoding("UTF-8");
-        return cfg;
+        // If still not found, try with absolute path
+        if (is == null) {
+            is = getClass().getResourceAsStream("/" + templateFile);
+        }
+        return is;
     }
 
     private String generateStaticTagsChart(Map<String, Integer> tagCounts) {
@@ -808,6 +925,15 @@ public class TestNGDocGenerator {
     }
 
     private List<TestClassInfo> scanForTestClasses(String packageToScan) {
+        if (testIndex) {
+            List<TestClassInfo> indexedClasses = scanForTestClassesFromIndex(packageToScan);
+            if (indexedClasses != null) {
+                return indexedClasses;
+            }
+        }
+        if (bytecodeScanning) {
+            return scanForTestClassesFromBytecode(packageToScan);
+        }
         System.out.println("Scanning for TestNG classes in package: " + packageToScan);
 
         List<TestClassInfo> testClasses = new ArrayList<>();
@@ -858,6 +984,7 @@ public class TestNGDocGenerator {
             }
 
             System.out.println("Found " + allClasses.size() + " classes in package");
+            SourceResolver sourceResolver = new SourceResolver(sourceRoots, explanationEngine.getTranslators());
 
             for (Class<?> clazz : allClasses) {
                 List<TestMethodInfo> testMethods = new ArrayList<>();
@@ -868,10 +995,16 @@ public class TestNGDocGenerator {
                     System.out.println("  Checking method: " + method.getName());
                     if (method.isAnnotationPresent(Test.class)) {
                         System.out.println("  Method " + method.getName() + " has @Test annotation");
-                        String methodDescription = extractMethodLogic(clazz, method.getName());
-                        TestMethodInfo methodInfo = new TestMethodInfo(method.getName(), methodDescription);
+                        TestMethodInfo methodInfo = new TestMethodInfo();
+                        methodInfo.setName(method.getName());
                         extractTagsFromMethod(method, methodInfo);
-                        testMethods.add(methodInfo);
+                        if (includesTestMethod(methodInfo)) {
+                            methodInfo.setDescriptionSupplier(describeAtDetailLevel(method.getName(), () ->
+                                    extractMethodLogic(clazz, method.getName(), sourceResolver)));
+                            testMethods.add(methodInfo);
+                        } else {
+                            System.out.println("  Method " + method.getName() + " is filtered out");
+                        }
                     } else {
                         System.out.println("  Method " + method.getName() + " does not have @Test annotation");
                     }
@@ -907,13 +1040,183 @@ public class TestNGDocGenerator {
         return testClasses;
     }
 
+    /**
+     * Scan for TestNG test classes in the specified package by reading class files directly.
+     * No classes are loaded, so static initializers of the scanned classes never run.
+     *
+     * @param packageToScan The package to scan, including its sub-packages
+     * @return List of TestClassInfo objects
+     */
+    private List<TestClassInfo> scanForTestClassesFromBytecode(String packageToScan) {
+        System.out.println("Scanning class files for TestNG classes in package: " + packageToScan);
+
+        List<Path> classpath = new ArrayList<>();
+        if (classpathEntries.isEmpty()) {
+            classpath.addAll(ClassFileTestScanner.currentClasspath());
+        } else {
+            for (String entry : classpathEntries) {
+                classpath.add(Paths.get(entry));
+            }
+        }
+
+        List<TestClassInfo> testClasses = new ArrayList<>();
+        SourceResolver sourceResolver = new SourceResolver(sourceRoots, explanationEngine.getTranslators());
+
+        ClassFileTestScanner scanner = new ClassFileTestScanner(classpath, scanThreads);
+        JarIndexCache jarCache = null;
+        if (jarIndexCache) {
+            jarCache = new JarIndexCache(Paths.get(OUTPUT_DIR, SourceScanCache.CACHE_DIR, "jars"));
+            scanner.setJarIndexCache(jarCache);
+        }
+        List<ClassFileTestScanner.ScannedClass> scannedClasses = scanner.scan(packageToScan);
+        if (jarCache != null) {
+            System.out.println("Jar index cache: " + jarCache.getHits() + " hits, " + jarCache.getMisses() + " misses");
+        }
+
+        for (ClassFileTestScanner.ScannedClass scannedClass : scannedClasses) {
+            // Class files compiled without debug information have no SourceFile attribute
+            String sourceFile = scannedClass.getSourceFile() != null
+                    ? scannedClass.getSourceFile()
+                    : scannedClass.getSimpleName() + ".java";
+            String classFilePath = scannedClass.getLocation().startsWith("jar:") ? null : scannedClass.getLocation();
+            // Sources are only needed to describe method bodies
+            Path sourcePath = detailLevel == DetailLevel.FULL
+                    ? sourceResolver.findSource(scannedClass.getPackageName(), sourceFile, classFilePath)
+                    : null;
+
+            List<TestMethodInfo> testMethods = new ArrayList<>();
+            for (ClassFileTestScanner.ScannedMethod method : scannedClass.getTestMethods()) {
+                TestMethodInfo methodInfo = new TestMethodInfo();
+                methodInfo.setName(method.getName());
+                method.getTags().forEach(methodInfo::addTag);
+                if (includesTestMethod(methodInfo)) {
+                    methodInfo.setDescriptionSupplier(describeAtDetailLevel(method.getName(), () ->
+                            describeTestMethod(sourcePath, method.getName(), sourceResolver, method.getReturnTypeName(),
+                                    method.getParameterTypeNames(), method.getAnnotationNames())));
+                    testMethods.add(methodInfo);
+                }
+            }
+            if (testMethods.isEmpty()) {
+                continue;
+            }
+
+            testClasses.add(new TestClassInfo(scannedClass.getSimpleName(), scannedClass.getPackageName(), testMethods));
+            System.out.println("Added class " + scannedClass.getName() + " with " + testMethods.size() + " test methods");
+        }
+
+        calculatePercentages(testClasses);
+        return testClasses;
+    }
+
+    /**
+     * Build the test classes of a package from the compile-time test index written by TestIndexProcessor
+     *
+     * @param packageToScan The package to document, including its sub-packages
+     * @return List of TestClassInfo objects, or null if no index lists classes in the package
+     */
+    private List<TestClassInfo> scanForTestClassesFromIndex(String packageToScan) {
+        List<TestIndex.IndexedClass> index = TestIndex.load(Thread.currentThread().getContextClassLoader());
+        if (index == null) {
+            return null;
+        }
+
+        List<TestIndex.IndexedClass> packageClasses = new ArrayList<>();
+        for (TestIndex.IndexedClass indexedClass : index) {
+            String packageName = indexedClass.getPackageName();
+            if (packageToScan.isEmpty() || packageName.equals(packageToScan) || packageName.startsWith(packageToScan + ".")) {
+                packageClasses.add(indexedClass);
+            }
+        }
+        if (packageClasses.isEmpty()) {
+            // The package may be compiled without the processor, so fall back to scanning
+            System.out.println("Test index lists no classes in package " + packageToScan + ", scanning instead");
+            return null;
+        }
+        System.out.println("Using test index for package " + packageToScan + ": " + packageClasses.size()
+                + " classes; classes compiled without the index processor are not documented");
+
+        List<TestClassInfo> testClasses = new ArrayList<>();
+        SourceResolver sourceResolver = new SourceResolver(sourceRoots, explanationEngine.getTranslators());
+
+        for (TestIndex.IndexedClass indexedClass : packageClasses) {
+            Path sourcePath = detailLevel == DetailLevel.FULL
+                    ? sourceResolver.findSource(indexedClass.getPackageName(), indexedClass.getSourceFile(), null)
+                    : null;
+
+            List<TestMethodInfo> testMethods = new ArrayList<>();
+            for (TestIndex.IndexedMethod method : indexedClass.getMethods()) {
+                TestMethodInfo methodInfo = new TestMethodInfo();
+                methodInfo.setName(method.getName());
+                method.getTags().forEach(methodInfo::addTag);
+                if (includesTestMethod(methodInfo)) {
+                    methodInfo.setDescriptionSupplier(describeAtDetailLevel(method.getName(), () ->
+                            describeTestMethod(sourcePath, method.getName(), sourceResolver,
+                                    method.getReturnType(), method.getParameterTypes(), method.getAnnotations())));
+                    testMethods.add(methodInfo);
+                }
+            }
+            if (testMethods.isEmpty()) {
+                continue;
+            }
+
+            testClasses.add(new TestClassInfo(indexedClass.getSimpleName(), indexedClass.getPackageName(), testMethods));
+        }
+
+        calculatePercentages(testClasses);
+        return testClasses;
+    }
+
+    /**
+     * Describes a test method from its source file, or from its signature when the source file cannot be found
+     *
+     * @param sourcePath     The source file of the class, or null if it was not found
+     * @param methodName     The method name
+     * @param sourceResolver The resolver that parses source files
+     * @param returnType     The simple name of the return type
+     * @param parameterTypes The simple names of the parameter types
+     * @param annotations    The simple names of the runtime annotations
+     * @return The method description
+     */
+    private String describeTestMethod(Path sourcePath, String methodName, SourceResolver sourceResolver,
+                                      String returnType, List<String> parameterTypes, List<String> annotations) {
+        if (sourcePath == null) {
+            return "Method: " + methodName + "\n" +
+                    "Return type: " + returnType + "\n" +
+                    "Parameters: " + (parameterTypes.isEmpty() ? "None" : String.join(", ", parameterTypes)) + "\n" +
+                    "Annotations: " + (annotations.isEmpty() ? "None" : String.join(", ", annotations));
+        }
+        try {
+            return extractMethodLogicFromFile(sourcePath, methodName, sourceResolver);
+        } catch (Exception e) {
+            return "Error extracting method logic: " + e.getMessage();
+        }
+    }
+
+    /**
+     * Sets the share of all test methods that each class accounts for
+     *
+     * @param testClasses The test classes
+     */
+    private void calculatePercentages(List<TestClassInfo> testClasses) {
+        int totalTestMethods = 0;
+        for (TestClassInfo classInfo : testClasses) {
+            totalTestMethods += classInfo.getTestMethods().size();
+        }
+        if (totalTestMethods > 0) {
+            for (TestClassInfo classInfo : testClasses) {
+                double percentage = (double) classInfo.getTestMethods().size() / totalTestMethods * 100;
+                classInfo.setPercentage(String.format("%.1f", percentage));
+            }
+        }
+    }
+
     /**
      * Scan for TestNG test classes in the specified source directory
      *
      * @param sourceDirectory Directory containing Java source files
      * @return List of TestClassInfo objects
      */
-    private List<TestClassInfo> scanForTestClassesFromSource(String sourceDirectory) {
+    List<TestClassInfo> scanForTestClassesFromSource(String sourceDirectory) {
         System.out.println("Scanning for TestNG classes in directory: " + sourceDirectory);
 
         List<TestClassInfo> testClasses = new ArrayList<>();
@@ -926,53 +1229,25 @@ public class TestNGDocGenerator {
                 return testClasses;
             }
 
-            List<File> javaFiles = findJavaFiles(sourceDir);
-            System.out.println("Found " + javaFiles.size() + " Java files");
-
-            // Process each Java file
-            for (File javaFile : javaFiles) {
-                System.out.println("Processing Java file: " + javaFile.getAbsolutePath());
-
-                try {
-                    // Parse the Java file
-                    CompilationUnit cu = StaticJavaParser.parse(javaFile);
-
-                    // Extract package name
-                    String packageName = "";
-                    if (cu.getPackageDeclaration().isPresent()) {
-                        packageName = cu.getPackageDeclaration().get().getNameAsString();
-                        System.out.println("Package name: " + packageName);
-                    } else {
-                        System.out.println("No package declaration found");
-                    }
-
-                    // Extract class name
-                    List<ClassOrInterfaceDeclaration> classDeclarations = cu.findAll(ClassOrInterfaceDeclaration.class);
-                    System.out.println("Found " + classDeclarations.size() + " class declarations");
-
-                    for (ClassOrInterfaceDeclaration classDeclaration : classDeclarations) {
-                        String className = classDeclaration.getNameAsString();
-                        System.out.println("Processing class: " + className);
-
-                        // Check if this is a test class (has methods with @Test annotation)
-                        TestMethodVisitor methodVisitor = new TestMethodVisitor();
-                        classDeclaration.accept(methodVisitor, null);
-
-                        List<TestMethodInfo> testMethods = methodVisitor.getTestMethods();
-                        System.out.println("Found " + testMethods.size() + " test methods in class " + className);
-
-                        if (!testMethods.isEmpty()) {
-                            TestClassInfo classInfo = new TestClassInfo(className, packageName, testMethods);
-                            testClasses.add(classInfo);
-                            System.out.println("Added test class: " + className + " with " + testMethods.size() + " test methods");
-                        } else {
-                            System.out.println("No test methods found in class: " + className);
-                        }
-                    }
-                } catch (Exception e) {
-                    System.err.println("Error processing Java file " + javaFile.getAbsolutePath() + ": " + e.getMessage());
-                    e.printStackTrace();
-                }
+            // Stream Java files from the source tree straight into the parsing stage,
+            // either on the calling thread or on the worker pool
+            SourceTreeWalker walker = new SourceTreeWalker(excludedSourceDirectories);
+            // Source directories of the same run share one cache, which is saved by saveSourceCache()
+            if (runSourceCache == null && sourceCache) {
+                runSourceCache = SourceScanCache.load(Paths.get(OUTPUT_DIR), sourceCacheFingerprint());
+            }
+            SourceScanCache cache = sourceCache ? runSourceCache : null;
+            // Constants used in @Docs tags are looked up in the scanned directory and the source roots
+            List<String> constantRoots = new ArrayList<>(sourceRoots);
+            constantRoots.add(0, sourceDirectory);
+            ConstantIndex constantIndex = new ConstantIndex(constantRoots);
+            if (scanThreads > 1) {
+                testClasses.addAll(parseJavaFilesInParallel(sourceDir.toPath(), walker, cache, constantIndex));
+            } else {
+                JavaParser javaParser = new JavaParser();
+                int fileCount = walker.walk(sourceDir.toPath(),
+                        javaFile -> testClasses.addAll(scanSourceFile(javaFile, javaParser, cache, constantIndex)));
+                System.out.println("Found " + fileCount + " Java files");
             }
 
             // Calculate percentages
@@ -996,19 +1271,235 @@ public class TestNGDocGenerator {
         return testClasses;
     }
 
-    private List<File> findJavaFiles(File sourceDir) {
-        List<File> javaFiles = new ArrayList<>();
-        File[] files = sourceDir.listFiles();
-        if (files != null) {
-            for (File file : files) {
-                if (file.isDirectory()) {
-                    javaFiles.addAll(findJavaFiles(file));
-                } else if (file.getName().endsWith(".java")) {
-                    javaFiles.add(file);
+    /**
+     * Parse the Java files of a source tree on a fixed pool of worker threads.
+     * Files are submitted as soon as the walker finds them, each worker owns its own JavaParser instance,
+     * and results are merged in the order the files were found, so the output is identical to a sequential scan.
+     *
+     * @param sourceRoot The root directory of the source tree
+     * @param walker     The walker used to find Java files
+     * @param cache      The source cache, or null if caching is disabled
+     * @param constantIndex The index of the constants of other source files, shared by the workers
+     * @return List of TestClassInfo objects in file discovery order
+     * @throws IOException If the source tree cannot be read
+     */
+    private List<TestClassInfo> parseJavaFilesInParallel(Path sourceRoot, SourceTreeWalker walker, SourceScanCache cache,
+                                                         ConstantIndex constantIndex) throws IOException {
+        System.out.println("Parsing Java files using " + scanThreads + " worker threads");
+
+        ThreadLocal<JavaParser> workerParser = ThreadLocal.withInitial(JavaParser::new);
+        ExecutorService executor = Executors.newFixedThreadPool(scanThreads);
+        List<TestClassInfo> testClasses = new ArrayList<>();
+
+        try {
+            List<Path> javaFiles = new ArrayList<>();
+            List<Future<List<TestClassInfo>>> results = new ArrayList<>();
+            walker.walk(sourceRoot, javaFile -> {
+                javaFiles.add(javaFile);
+                results.add(executor.submit(() -> scanSourceFile(javaFile, workerParser.get(), cache,
+                        constantIndex)));
+            });
+            System.out.println("Found " + javaFiles.size() + " Java files");
+
+            // Collect results in submission order to keep the output deterministic
+            for (int i = 0; i < results.size(); i++) {
+                try {
+                    testClasses.addAll(results.get(i).get());
+                } catch (ExecutionException e) {
+                    System.err.println("Error processing Java file " + javaFiles.get(i).toAbsolutePath() + ": "
+                            + e.getCause().getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Interrupted while scanning for test classes");
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return testClasses;
+    }
+
+    /**
+     * Extract the TestNG test classes of a single Java file, reusing cached results when the file is unchanged
+     *
+     * @param javaFile   The Java source file to scan
+     * @param javaParser The parser to use; must not be shared between threads
+     * @param cache      The source cache, or null if caching is disabled
+     * @param constantIndex The index of the constants of other source files
+     * @return List of TestClassInfo objects found in the file
+     */
+    private List<TestClassInfo> scanSourceFile(Path javaFile, JavaParser javaParser, SourceScanCache cache,
+                                               ConstantIndex constantIndex) {
+        if (cache != null) {
+            List<TestClassInfo> cachedClasses = cache.get(javaFile);
+            if (cachedClasses != null) {
+                System.out.println("Using cached results for Java file: " + javaFile.toAbsolutePath());
+                return cachedClasses;
+            }
+        }
+
+        if (sourceFileSizeBudget > 0) {
+            try {
+                long size = Files.size(javaFile);
+                if (size > sourceFileSizeBudget) {
+                    return quarantine(javaFile, size + " bytes is over the size budget of " + sourceFileSizeBudget
+                            + " bytes", constantIndex);
                 }
+            } catch (IOException e) {
+                // Let the parser report the problem
+            }
+        }
+
+        List<TestClassInfo> testClasses;
+        Set<Path> dependencies = new LinkedHashSet<>();
+        if (sourcePreFilter && !TestAnnotationPreFilter.mayContainTests(javaFile)) {
+            // Skip the full parse for files that cannot contain test methods
+            System.out.println("Skipping Java file without test annotations: " + javaFile.toAbsolutePath());
+            testClasses = new ArrayList<>();
+        } else {
+            try {
+                testClasses = parseTestClassesFromFile(javaFile, javaParser, constantIndex, dependencies,
+                        SourceFileBudget.start(sourceFileTimeBudget));
+            } catch (SourceFileBudget.ExceededException e) {
+                return quarantine(javaFile, "scanning took longer than the time budget of " + sourceFileTimeBudget
+                        + " ms", constantIndex);
+            } catch (Exception e) {
+                // Failed files are not cached, so the error is reported again on the next run.
+                // Parse problems list every error, so only the first line is printed
+                String message = String.valueOf(e.getMessage()).split("\\R", 2)[0];
+                System.err.println("Error processing Java file " + javaFile.toAbsolutePath() + ": " + message);
+                quarantinedFiles.add(new QuarantinedFile(javaFile.toAbsolutePath().toString(),
+                        "could not be parsed: " + message, false));
+                return new ArrayList<>();
+            }
+        }
+
+        if (cache != null) {
+            return cache.put(javaFile, testClasses, dependencies);
+        }
+        return testClasses;
+    }
+
+    /**
+     * Records a source file over its size or time budget in the quarantine report, and documents only the names
+     * and tags of its test methods if the {@link OverBudgetAction} allows it. Quarantined files are not cached,
+     * so they are checked against the budgets again on the next run.
+     *
+     * @param javaFile      The source file
+     * @param reason        Why the file is quarantined
+     * @param constantIndex The index of the constants of other source files
+     * @return The test classes documented by name only, or an empty list if the file is skipped
+     */
+    private List<TestClassInfo> quarantine(Path javaFile, String reason, ConstantIndex constantIndex) {
+        List<TestClassInfo> testClasses = null;
+        if (overBudgetAction == OverBudgetAction.NAMES) {
+            // Without method bodies the fast extractor reads a file in a single linear pass
+            try {
+                String source = new String(Files.readAllBytes(javaFile), StandardCharsets.UTF_8);
+                testClasses = FastSourceExtractor.extract(source, explanationEngine.getTranslators(), false,
+                        this::includesTestMethod, (methodLogic, methodName) -> "",
+                        new ConstantTable(javaFile, constantIndex), SourceFileBudget.UNLIMITED);
+            } catch (IOException e) {
+                System.err.println("Could not read Java file " + javaFile.toAbsolutePath() + ": " + e.getMessage());
+            }
+        }
+
+        boolean degraded = testClasses != null;
+        quarantinedFiles.add(new QuarantinedFile(javaFile.toAbsolutePath().toString(), reason, degraded));
+        System.out.println("Quarantined Java file " + javaFile.toAbsolutePath() + ": " + reason
+                + (degraded ? ", documenting test method names only" : ", skipping it"));
+        if (!degraded) {
+            return new ArrayList<>();
+        }
+        testClasses.removeIf(classInfo -> classInfo.getTestMethods().isEmpty());
+        return testClasses;
+    }
+
+    /**
+     * Parse a single Java file and extract its TestNG test classes
+     *
+     * @param javaFile   The Java source file to parse
+     * @param javaParser The parser to use; must not be shared between threads
+     * @param constantIndex The index of the constants of other source files
+     * @param dependencies Receives the other source files looked at to resolve tags
+     * @param budget     The time allowed for the file
+     * @return List of TestClassInfo objects found in the file
+     * @throws IOException If the file cannot be read
+     * @throws SourceFileBudget.ExceededException If the file takes longer than its budget allows
+     */
+    private List<TestClassInfo> parseTestClassesFromFile(Path javaFile, JavaParser javaParser,
+                                                         ConstantIndex constantIndex, Set<Path> dependencies,
+                                                         SourceFileBudget budget) throws IOException {
+        System.out.println("Processing Java file: " + javaFile.toAbsolutePath());
+
+        // Without method bodies the fast extractor only skips over them, so names-only scans always use it
+        if (fastSourceExtraction || detailLevel == DetailLevel.NAMES) {
+            String source = new String(Files.readAllBytes(javaFile), StandardCharsets.UTF_8);
+            ConstantTable constants = new ConstantTable(javaFile, constantIndex);
+            List<TestClassInfo> extractedClasses = FastSourceExtractor.extract(source, explanationEngine.getTranslators(),
+                    detailLevel == DetailLevel.FULL, this::includesTestMethod, sourceExplainer(), constants, budget);
+            if (extractedClasses != null) {
+                constantIndex.register(constants);
+                dependencies.addAll(constants.getDependencies());
+                extractedClasses.removeIf(classInfo -> classInfo.getTestMethods().isEmpty());
+                System.out.println("Extracted " + extractedClasses.size() + " test classes without a full parse");
+                return extractedClasses;
+            }
+            System.out.println("Falling back to JavaParser for " + javaFile.getFileName());
+        }
+
+        List<TestClassInfo> testClasses = new ArrayList<>();
+
+        // Parse the Java file
+        ParseResult<CompilationUnit> parseResult;
+        if (budget.isLimited()) {
+            // JavaParser reads the file as it parses, so the budget is checked on every read
+            try (Reader reader = budget.limit(Files.newBufferedReader(javaFile, StandardCharsets.UTF_8))) {
+                parseResult = javaParser.parse(ParseStart.COMPILATION_UNIT, Providers.provider(reader));
+            }
+        } else {
+            parseResult = javaParser.parse(javaFile);
+        }
+        if (!parseResult.isSuccessful() || !parseResult.getResult().isPresent()) {
+            // A budget exceeded while reading is reported by JavaParser as some parse problem
+            budget.rethrowIfExceeded();
+            throw new ParseProblemException(parseResult.getProblems());
+        }
+        CompilationUnit cu = parseResult.getResult().get();
+
+        // Extract package name
+        String packageName = "";
+        if (cu.getPackageDeclaration().isPresent()) {
+            packageName = cu.getPackageDeclaration().get().getNameAsString();
+            System.out.println("Package name: " + packageName);
+        } else {
+            System.out.println("No package declaration found");
+        }
+
+        // Walk the compilation unit once; each test method is attributed to its innermost class
+        ConstantTable constants = new ConstantTable(javaFile, constantIndex);
+        TestMethodVisitor methodVisitor = new TestMethodVisitor(packageName, constants, budget);
+        cu.accept(methodVisitor, null);
+        methodVisitor.resolvePendingMethods();
+        constantIndex.register(constants);
+        dependencies.addAll(constants.getDependencies());
+        System.out.println("Found " + methodVisitor.getClasses().size() + " class declarations");
+
+        for (TestClassInfo classInfo : methodVisitor.getClasses()) {
+            String className = classInfo.getClassName();
+            List<TestMethodInfo> testMethods = classInfo.getTestMethods();
+            System.out.println("Found " + testMethods.size() + " test methods in class " + className);
+
+            if (!testMethods.isEmpty()) {
+                testClasses.add(classInfo);
+                System.out.println("Added test class: " + className + " with " + testMethods.size() + " test methods");
+            } else {
+                System.out.println("No test methods found in class: " + className);
             }
         }
-        return javaFiles;
+
+        return testClasses;
     }
 
     /**
@@ -1039,48 +1530,12 @@ public class TestNGDocGenerator {
         }
     }
 
-    private String extractMethodLogic(Class<?> clazz, String methodName) {
+    private String extractMethodLogic(Class<?> clazz, String methodName, SourceResolver sourceResolver) {
         try {
-            // Try to find the source file
-            String className = clazz.getSimpleName();
-            String packageName = clazz.getPackage().getName();
-            String packagePath = packageName.replace('.', '/');
-
-            // Look for the source file in common source directories
-            List<String> possibleSourceDirs = Arrays.asList(
-                    "src/main/java",
-                    "src/test/java",
-                    "src"
-            );
-
-            Path sourcePath = null;
-            for (String sourceDir : possibleSourceDirs) {
-                Path path = Paths.get(sourceDir, packagePath, className + ".java");
-                if (Files.exists(path)) {
-                    sourcePath = path;
-                    break;
-                }
-            }
-
-            if (sourcePath == null) {
-                // If source file not found in standard locations, try to find it using the class location
-                URL classUrl = clazz.getResource(className + ".class");
-                if (classUrl != null) {
-                    String classPath = classUrl.getPath();
-                    // Convert from class file to potential source file location
-                    String sourcePotentialPath = classPath.replace("target/classes", "src/main/java")
-                            .replace("target/test-classes", "src/test/java")
-                            .replace(".class", ".java");
-
-                    Path potentialSourcePath = Paths.get(sourcePotentialPath);
-                    if (Files.exists(potentialSourcePath)) {
-                        sourcePath = potentialSourcePath;
-                    }
-                }
-            }
-
+            // Try to find the source file in the indexed source roots or next to the class file
+            Path sourcePath = sourceResolver.findSource(clazz);
             if (sourcePath != null) {
-                return extractMethodLogicFromFile(sourcePath, methodName);
+                return extractMethodLogicFromFile(sourcePath, methodName, sourceResolver);
             }
 
             // If we can't find the source file, try to extract method information from the class itself
@@ -1122,26 +1577,15 @@ public class TestNGDocGenerator {
         }
     }
 
-    private String extractMethodLogicFromFile(Path sourcePath, String methodName) throws IOException {
-        String source = new String(Files.readAllBytes(sourcePath));
+    private String extractMethodLogicFromFile(Path sourcePath, String methodName, SourceResolver sourceResolver)
+            throws IOException {
         final StringBuilder methodLogic = new StringBuilder();
 
-        JavaParser javaParser = new JavaParser();
-        CompilationUnit cu = javaParser.parse(source).getResult().orElseThrow();
-
-        cu.accept(new VoidVisitorAdapter<Void>() {
-            @Override
-            public void visit(MethodDeclaration md, Void arg) {
-                if (md.getNameAsString().equals(methodName)) {
-                    if (md.getBody().isPresent()) {
-                        // Instead of copying the raw code, generate a human-readable explanation
-                        String rawCode = md.getBody().get().toString();
-                        methodLogic.append(generateHumanReadableExplanation(rawCode, methodName));
-                    }
-                }
-                super.visit(md, arg);
-            }
-        }, null);
+        // The resolver parses each source file only once per run
+        for (MethodLogic bodyLogic : sourceResolver.getMethodLogic(sourcePath, methodName)) {
+            // Instead of copying the raw code, generate a human-readable explanation
+            methodLogic.append(generateHumanReadableExplanation(bodyLogic, methodName));
+        }
 
         String logic = methodLogic.toString();
 
@@ -1183,15 +1627,107 @@ public class TestNGDocGenerator {
         }
     }
 
+    /**
+     * Visits a compilation unit in a single pass and collects its test methods.
+     * A stack of the enclosing class declarations is kept, so that each test method is attributed
+     * to its innermost class and methods of nested classes are visited only once.
+     * Imports, supertypes and string constants are recorded in the constant table of the file on the way,
+     * and test methods with constant tags are filtered and described once the whole file has been visited.
+     */
     private class TestMethodVisitor extends VoidVisitorAdapter<Void> {
-        private final List<TestMethodInfo> testMethods = new ArrayList<>();
+        private final String packageName;
+        private final ConstantTable constants;
+        private final SourceFileBudget budget;
+        // Classes in the order their declarations start, each holding only its own test methods
+        private final List<TestClassInfo> classes = new ArrayList<>();
+        private final Deque<TestClassInfo> classScopes = new ArrayDeque<>();
+        // Names within the file of the enclosing types, innermost first
+        private final Deque<String> typeNames = new ArrayDeque<>();
+        private final List<Runnable> pendingMethods = new ArrayList<>();
+
+        TestMethodVisitor(String packageName, ConstantTable constants, SourceFileBudget budget) {
+            this.packageName = packageName;
+            this.constants = constants;
+            this.budget = budget;
+            constants.setPackageName(packageName);
+        }
 
-        public List<TestMethodInfo> getTestMethods() {
-            return testMethods;
+        public List<TestClassInfo> getClasses() {
+            return classes;
+        }
+
+        /**
+         * Resolves the constant tags of test methods, now that all constants of the file are known, and then
+         * filters and describes the methods
+         */
+        void resolvePendingMethods() {
+            pendingMethods.forEach(Runnable::run);
+            pendingMethods.clear();
+        }
+
+        @Override
+        public void visit(ImportDeclaration n, Void arg) {
+            constants.addImport(n);
+        }
+
+        @Override
+        public void visit(FieldDeclaration n, Void arg) {
+            constants.addFields(typeNames.peek(), n);
+            super.visit(n, arg);
+        }
+
+        @Override
+        public void visit(ClassOrInterfaceDeclaration n, Void arg) {
+            enterClass(n);
+            super.visit(n, arg);
+            exitClass();
+        }
+
+        @Override
+        public void visit(EnumDeclaration n, Void arg) {
+            enterClass(n);
+            super.visit(n, arg);
+            exitClass();
+        }
+
+        @Override
+        public void visit(RecordDeclaration n, Void arg) {
+            enterClass(n);
+            super.visit(n, arg);
+            exitClass();
+        }
+
+        @Override
+        public void visit(AnnotationDeclaration n, Void arg) {
+            // Annotation types hold no test methods, but may declare constants
+            enterType(n);
+            super.visit(n, arg);
+            typeNames.pop();
+        }
+
+        private void enterType(TypeDeclaration<?> type) {
+            String typeName = ConstantTable.nestedName(typeNames.peek(), type.getNameAsString());
+            constants.addType(typeName, ConstantTable.supertypesOf(type));
+            typeNames.push(typeName);
+        }
+
+        private void enterClass(TypeDeclaration<?> type) {
+            String className = type.getNameAsString();
+            System.out.println("Processing class: " + className);
+            TestClassInfo classInfo = new TestClassInfo(className, packageName, new ArrayList<>());
+            classes.add(classInfo);
+            classScopes.push(classInfo);
+            enterType(type);
+        }
+
+        private void exitClass() {
+            classScopes.pop();
+            typeNames.pop();
         }
 
         @Override
         public void visit(MethodDeclaration n, Void arg) {
+            budget.check();
             System.out.println("  Examining method: " + n.getNameAsString());
             System.out.println("  Annotations: " + n.getAnnotations());
 
@@ -1209,6 +1745,7 @@ public class TestNGDocGenerator {
                 TestMethodInfo methodInfo = new TestMethodInfo();
                 String methodName = n.getNameAsString();
                 methodInfo.setName(methodName);
+                List<ConstantTable.Concatenation> tags = new ArrayList<>();
 
                 // Check for documentation tags in @Docs annotation
                 n.getAnnotations().stream()
@@ -1226,31 +1763,72 @@ public class TestNGDocGenerator {
                                     .findFirst()
                                     .ifPresent(tagsPair -> {
                                         System.out.println("  Found tags in @Docs annotation");
-                                        if (tagsPair.getValue() instanceof ArrayInitializerExpr) {
-                                            ArrayInitializerExpr arrayExpr = (ArrayInitializerExpr) tagsPair.getValue();
-                                            arrayExpr.getValues().stream()
-                                                    .filter(value -> value instanceof StringLiteralExpr)
-                                                    .map(value -> {
-                                                        String tag = ((StringLiteralExpr) value).getValue();
-                                                        System.out.println("    Adding tag: " + tag);
-                                                        return tag;
-                                                    })
-                                                    .forEach(methodInfo::addTag);
+                                        // Each element of an array initializer, or the single value
+                                        List<Expression> values = tagsPair.getValue() instanceof ArrayInitializerExpr
+                                                ? ((ArrayInitializerExpr) tagsPair.getValue()).getValues()
+                                                : Collections.singletonList(tagsPair.getValue());
+                                        for (Expression value : values) {
+                                            // Other expressions cannot be constants
+                                            ConstantTable.Concatenation tag = ConstantTable.concatenationOf(value);
+                                            if (tag != null) {
+                                                tags.add(tag);
+                                            }
                                         }
                                     });
                         });
 
-                // Get method body to extract JavaDoc comment and method body
-                if (n.getBody().isPresent()) {
-                    String methodBody = n.getBody().get().toString();
-                    methodInfo.setDescription(generateHumanReadableExplanation(methodBody, methodName));
+                // Methods outside any class declaration cannot occur in valid Java
+                TestClassInfo scope = classScopes.peek();
+                String typeName = typeNames.peek();
+                if (tags.stream().allMatch(ConstantTable.Concatenation::isLiteral)) {
+                    for (ConstantTable.Concatenation tag : tags) {
+                        addTag(methodInfo, constants.resolve(tag, typeName));
+                    }
+                    addTestMethod(scope, methodInfo, n, false);
+                } else if (scope != null) {
+                    // Keep the place of the method in its class until its tags can be resolved
+                    scope.getTestMethods().add(methodInfo);
+                    pendingMethods.add(() -> {
+                        for (String tag : constants.resolveTags(tags, typeName, methodName)) {
+                            addTag(methodInfo, tag);
+                        }
+                        addTestMethod(scope, methodInfo, n, true);
+                    });
                 }
-
-                testMethods.add(methodInfo);
-                System.out.println("  Added test method: " + methodName + " with " + methodInfo.getTags().size() + " tags");
             }
             super.visit(n, arg);
         }
+
+        private void addTag(TestMethodInfo methodInfo, String tag) {
+            System.out.println("    Adding tag: " + tag);
+            methodInfo.addTag(tag);
+        }
+
+        private void addTestMethod(TestClassInfo scope, TestMethodInfo methodInfo, MethodDeclaration n,
+                                   boolean alreadyAdded) {
+            String methodName = methodInfo.getName();
+            if (!includesTestMethod(methodInfo)) {
+                System.out.println("  Method " + methodName + " is filtered out");
+                if (alreadyAdded) {
+                    scope.getTestMethods().remove(methodInfo);
+                }
+                return;
+            }
+
+            // Read the comments and assertions of the body now, and explain them when the description is used
+            if (n.getBody().isPresent()) {
+                MethodLogic methodLogic = detailLevel == DetailLevel.FULL
+                        ? MethodLogic.of(n.getBody().get(), explanationEngine.getTranslators())
+                        : null;
+                BiFunction<MethodLogic, String, String> explainer = sourceExplainer();
+                methodInfo.setDescriptionSupplier(() -> explainer.apply(methodLogic, methodName));
+            }
+
+            if (scope != null && !alreadyAdded) {
+                scope.getTestMethods().add(methodInfo);
+            }
+            System.out.println("  Added test method: " + methodName + " with " + methodInfo.getTags().size() + " tags");
+        }
     }
 
     /**
@@ -1261,147 +1839,55 @@ public class TestNGDocGenerator {
      * @return A human-readable explanation of the test method logic
      */
     String generateHumanReadableExplanation(String rawCode, String methodName) {
-        // Remove braces and trim
-        String cleanCode = rawCode.replaceAll("^\\{\\s*", "").replaceAll("\\s*\\}$", "").trim();
-
-        // Split the code into lines
-        String[] lines = cleanCode.split("\\n");
+        return explanationEngine.explain(rawCode, methodName);
+    }
 
-        StringBuilder explanation = new StringBuilder();
+    /**
+     * Generates a human-readable explanation of the test method logic read from its syntax tree
+     *
+     * @param methodLogic The comments and assertion calls of the test method
+     * @param methodName  The name of the test method
+     * @return A human-readable explanation of the test method logic
+     */
+    String generateHumanReadableExplanation(MethodLogic methodLogic, String methodName) {
+        return explanationEngine.explain(methodLogic, methodName);
+    }
 
-        // Extract comments as they often contain useful information
-        for (String line : lines) {
-            line = line.trim();
-            if (line.startsWith("//")) {
-                // Add comments directly as they are often already human-readable
-                explanation.append(line.substring(2).trim()).append("\n");
-            }
+    /**
+     * Returns how test methods read from source files are explained at the configured detail level. The level is
+     * bound when the method is scanned, since its description is only generated when it is first used.
+     *
+     * @return Explains a test method from its comments and assertion calls, which are null if its body was not
+     * read, and its name
+     */
+    private BiFunction<MethodLogic, String, String> sourceExplainer() {
+        switch (detailLevel) {
+            case NAMES:
+                return (methodLogic, methodName) -> "";
+            case PROSE:
+                return (methodLogic, methodName) -> explanationEngine.explainName(methodName);
+            default:
+                return this::generateHumanReadableExplanation;
         }
+    }
 
-        // If there were no comments, or we want to add more information
-        if (explanation.length() == 0 || true) {
-            // Check for test case ID pattern (e.g., TC01_, TC02_, etc.)
-            String testCaseId = null;
-            String originalMethodName = methodName; // Store the original method name
-            java.util.regex.Pattern tcPattern = java.util.regex.Pattern.compile("^(TC\\d+)_(.*)$");
-            java.util.regex.Matcher matcher = tcPattern.matcher(methodName);
-
-            if (matcher.find()) {
-                testCaseId = matcher.group(1);
-                methodName = matcher.group(2); // Use the rest of the method name without the TC prefix
-            }
-
-            // Convert camelCase method name to readable format
-            String readableMethodName = methodName.replace("test", "").replaceAll("([A-Z])", " $1").toLowerCase().trim();
-
-            // Handle Gherkin-style method names (given/when/then)
-            if (readableMethodName.contains("given") && readableMethodName.contains("when") && readableMethodName.contains("then")) {
-                // Replace the standard format with a more structured Gherkin format
-                readableMethodName = readableMethodName
-                        .replaceAll("given", "\nGiven ")
-                        .replaceAll("when", "\nWhen ")
-                        .replaceAll("then", "\nThen ")
-                        .replaceAll("test", "")
-                        .replaceAll("_", " ") // Replace underscores with spaces
-                        .trim();
-
-                explanation = new StringBuilder();
-                // Add original method name as title for reference
-                explanation.append("Method: ").append(originalMethodName).append("\n\n");
-
-                if (testCaseId != null) {
-                    explanation.append(testCaseId).append("\n");
-                }
-                explanation.append(readableMethodName).append("\n\n");
-            } else {
-                // Add a general description based on the method name
-                explanation.append("This test ");
-
-                // If a test case ID was found, include it
-                if (testCaseId != null) {
-                    explanation.append("(").append(testCaseId).append(") ");
-                }
-
-                // For non-Gherkin style, also replace underscores with spaces
-                readableMethodName = readableMethodName.replaceAll("_", " ");
-                explanation.append(readableMethodName).append(".\n\n");
-            }
-
-            // Look for assertions to understand what's being tested
-            for (String line : lines) {
-                line = line.trim();
-                if (line.contains("assert") || line.contains("Assert.")) {
-                    String assertDescription = translateAssertToHumanReadable(line);
-                    if (!assertDescription.isEmpty()) {
-                        explanation.append("- ").append(assertDescription).append("\n");
-                    }
-                }
-            }
-        }
-
-        // Apply pattern replacements to make the explanation more readable
-        String result = explanation.toString();
-        for (Map.Entry<String, String> entry : patternReplacements.entrySet()) {
-            result = result.replace(entry.getKey(), entry.getValue());
-        }
-
-        return result;
-    }
-
-    /**
-     * Translates an assertion statement to human-readable text
-     *
-     * @param assertLine The assertion line of code
-     * @return A human-readable explanation of the assertion
-     */
-    private String translateAssertToHumanReadable(String assertLine) {
-        assertLine = assertLine.trim();
-
-        // Handle different types of assertions
-        if (assertLine.contains("assertEquals")) {
-            return "Verifies that " + extractAssertionDetails(assertLine, "assertEquals");
-        } else if (assertLine.contains("assertTrue")) {
-            return "Confirms that " + extractAssertionDetails(assertLine, "assertTrue");
-        } else if (assertLine.contains("assertFalse")) {
-            return "Ensures that " + extractAssertionDetails(assertLine, "assertFalse");
-        } else if (assertLine.contains("assertNotNull")) {
-            return "Validates that " + extractAssertionDetails(assertLine, "assertNotNull");
-        } else if (assertLine.contains("assertNull")) {
-            return "Checks that " + extractAssertionDetails(assertLine, "assertNull");
-        }
-
-        return "";
-    }
-
-    /**
-     * Extracts details from an assertion statement
-     *
-     * @param assertLine The assertion line of code
-     * @param assertType The type of assertion
-     * @return Details extracted from the assertion
-     */
-    private String extractAssertionDetails(String assertLine, String assertType) {
-        // Extract the message if it exists (often contains good explanation)
-        int messageStart = assertLine.indexOf('"');
-        if (messageStart != -1) {
-            int messageEnd = assertLine.indexOf('"', messageStart + 1);
-            if (messageEnd != -1) {
-                return assertLine.substring(messageStart + 1, messageEnd);
-            }
-        }
-
-        // If no message, try to extract the variables being compared
-        int paramsStart = assertLine.indexOf('(');
-        if (paramsStart != -1) {
-            int paramsEnd = assertLine.lastIndexOf(')');
-            if (paramsEnd != -1) {
-                String params = assertLine.substring(paramsStart + 1, paramsEnd);
-                return "the test condition is validated: " + params;
-            }
-        }
-
-        return "the test condition is validated";
-    }
+    /**
+     * Describes a test method found through reflection or class files at the configured detail level
+     *
+     * @param methodName      The name of the test method
+     * @param fullDescription Generates the full description from the source file of the method
+     * @return Generates the description of the test method
+     */
+    private Supplier<String> describeAtDetailLevel(String methodName, Supplier<String> fullDescription) {
+        switch (detailLevel) {
+            case NAMES:
+                return () -> "";
+            case PROSE:
+                return () -> explanationEngine.explainName(methodName);
+            default:
+                return fullDescription;
+        }
+    }
 
     private void validateTemplates(Configuration cfg) throws IOException {
         try {
@@ -1442,36 +1928,20 @@ public class TestNGDocGenerator {
      */
     private String loadTemplateContent(String templateName, Configuration cfg) {
         try {
-            // Try to load from classpath first
-            InputStream is = getClass().getClassLoader().getResourceAsStream("templates/" + templateName);
-
-            // If not found, try with different paths
-            if (is == null) {
-                is = getClass().getResourceAsStream("/templates/" + templateName);
-            }
-
-            // If still not found, try without templates/ prefix (for flat classpath structure)
-            if (is == null) {
-                is = getClass().getClassLoader().getResourceAsStream(templateName);
-            }
-
-            // If still not found, try with absolute path
-            if (is == null) {
-                is = getClass().getResourceAsStream("/" + templateName);
-            }
-
-            if (is == null) {
-                System.err.println("Could not find template resource: " + templateName + " in any location");
-                // Create default template content based on template name
-                if (templateName.equals("class.ftl")) {
-                    createDefaultClassTemplate(new File(TEMPLATE_DIR, templateName));
-                } else if (templateName.equals("index.ftl")) {
-                    createDefaultIndexTemplate(new File(TEMPLATE_DIR, templateName));
-                }
+            // Read the template the configuration renders, whether it is an override or a built-in template
+            TemplateLoader loader = cfg.getTemplateLoader();
+            Object source = loader.findTemplateSource(templateName);
+            if (source == null) {
+                System.err.println("Could not find template: " + templateName);
                 return "";
             }
-
-            return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+            try (Reader reader = loader.getReader(source, "UTF-8")) {
+                StringWriter content = new StringWriter();
+                reader.transferTo(content);
+                return content.toString();
+            } finally {
+                loader.closeTemplateSource(source);
+            }
         } catch (Exception e) {
             System.err.println("Could not load template content: " + e.getMessage());
             return "";
@@ -1549,7 +2019,8 @@ public class TestNGDocGenerator {
 
             // Initialize FreeMarker
             Configuration cfg = initializeFreemarker();
-            removeChartJsReferences();
+            OutputManifest manifest = openOutputManifest();
+            quarantinedFiles.clear();
 
             // Determine if packageOrPath is a package name or a file path
             List<TestClassInfo> testClasses;
@@ -1598,12 +2069,16 @@ public class TestNGDocGenerator {
             }
 
             // Generate index page
-            generatePage("index", indexModel, outputDir + "/index.html");
+            generatePage(cfg, "index", indexModel, "index.html", manifest);
 
             // Generate individual class pages
-            generateClassDocumentation(testClasses, cfg);
+            generateClassDocumentation(testClasses, cfg, manifest);
 
+            manifest.complete();
+            saveSourceCache();
             System.out.println("Documentation generated in: " + outputDir);
+            reportExplanationMemo();
+            writeQuarantineReport();
         } catch (Exception e) {
             System.err.println("Error generating documentation: " + e.getMessage());
             e.printStackTrace();
@@ -1613,69 +2088,162 @@ public class TestNGDocGenerator {
     /**
      * Helper method to generate a page using a FreeMarker template
      *
+     * @param cfg The FreeMarker configuration of the current generation
      * @param templateName Name of the template to use
      * @param model Data model to populate the template
-     * @param outputFile Path to the output file
+     * @param outputFile Path of the output file in the output directory
+     * @param manifest The manifest that writes the output files
      * @throws IOException If an I/O error occurs
      * @throws TemplateException If a template error occurs
      */
-    private void generatePage(String templateName, Map<String, Object> model, String outputFile)
-            throws IOException, TemplateException {
-        // Initialize FreeMarker configuration
-        Configuration cfg = initializeFreemarker();
-
+    private void generatePage(Configuration cfg, String templateName, Map<String, Object> model, String outputFile,
+                              OutputManifest manifest) throws IOException, TemplateException {
         // Get the template
         Template template = cfg.getTemplate(templateName + ".ftl");
 
-        // Create output directory if it doesn't exist
-        File outputFileObj = new File(outputFile);
-        outputFileObj.getParentFile().mkdirs();
+        // Process template with model data; the manifest creates missing directories
+        manifest.write(outputFile, render(template, model));
+    }
 
-        // Create writer for output file
-        try (Writer out = new FileWriter(outputFile)) {
-            // Process template with model data
-            template.process(model, out);
+    /**
+     * Render a template into memory as UTF-8, the charset the pages declare, so that unchanged pages can be
+     * recognized before they are written. Built-in templates are rendered by their precompiled renderer when
+     * enabled and it supports the model, and by FreeMarker otherwise.
+     */
+    private byte[] render(Template template, Map<String, Object> model) throws IOException, TemplateException {
+        PrecompiledPage page = precompiledTemplates
+                ? renderingContext.getPrecompiledPage(template.getConfiguration(), template.getName()) : null;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(bytes, StandardCharsets.UTF_8))) {
+            if (page == null || !page.render(model, template.getLocale(), out)) {
+                template.process(model, out);
+            }
         }
+        return bytes.toByteArray();
     }
 
-    private void generateClassDocumentation(List<TestClassInfo> testClasses, Configuration cfg)
-            throws IOException, TemplateException {
+    private void generateClassDocumentation(List<TestClassInfo> testClasses, Configuration cfg,
+                                            OutputManifest manifest) throws IOException, TemplateException {
         Template template = cfg.getTemplate("class.ftl");
 
-        for (TestClassInfo testClass : testClasses) {
-            Map<String, Object> dataModel = new HashMap<>();
-            dataModel.put("className", testClass.getClassName());
-            dataModel.put("packageName", testClass.getPackageName());
-            dataModel.put("testMethods", testClass.getTestMethods());
-            dataModel.put("percentage", testClass.getPercentage());
-
-            // Add global template parameters
-            dataModel.put("darkMode", darkMode);
-            dataModel.put("reportTitle", reportTitle);
-            dataModel.put("reportHeader", reportHeader);
-            dataModel.put("displayTagsChart", displayTagsChart);
-
-            try (Writer out = new FileWriter(new File(OUTPUT_DIR, testClass.getClassName() + ".html"))) {
-                template.process(dataModel, out);
+        if (renderThreads > 1 && testClasses.size() > 1) {
+            renderClassPagesInParallel(testClasses, template, manifest);
+        } else {
+            for (TestClassInfo testClass : testClasses) {
+                renderClassPage(testClass, template, manifest);
             }
         }
 
         // Copy CSS to ensure styles are properly loaded when used as a dependency
         try {
-            Path cssDir = Paths.get(OUTPUT_DIR, "css");
-            if (!Files.exists(cssDir)) {
-                Files.createDirectories(cssDir);
-            }
-
             // Create a comprehensive CSS file with all styles
             String cssContent = generateComprehensiveCSS();
-            Files.write(cssDir.resolve("styles.css"), cssContent.getBytes());
+            manifest.write("css/styles.css", cssContent.getBytes(StandardCharsets.UTF_8));
         } catch (IOException e) {
             System.out.println("Warning: Could not create CSS file: " + e.getMessage());
         }
     }
 
-    private void generateIndexPage(List<TestClassInfo> testClasses, Configuration cfg) throws IOException, TemplateException {
+    /**
+     * Render the page of one test class. The data model is built for this page alone, so pages can be rendered
+     * on several threads at once.
+     *
+     * @param testClass The test class to render
+     * @param template  The class page template
+     * @param manifest  The manifest that writes the output files
+     * @throws IOException       If the page cannot be written
+     * @throws TemplateException If the template fails
+     */
+    private void renderClassPage(TestClassInfo testClass, Template template, OutputManifest manifest)
+            throws IOException, TemplateException {
+        Map<String, Object> dataModel = new HashMap<>();
+        dataModel.put("className", testClass.getClassName());
+        dataModel.put("packageName", testClass.getPackageName());
+        dataModel.put("testMethods", testClass.getTestMethods());
+        dataModel.put("percentage", testClass.getPercentage());
+
+        // Add global template parameters
+        dataModel.put("darkMode", darkMode);
+        dataModel.put("reportTitle", reportTitle);
+        dataModel.put("reportHeader", reportHeader);
+        dataModel.put("displayTagsChart", displayTagsChart);
+
+        manifest.write(testClass.getClassName() + ".html", render(template, dataModel));
+    }
+
+    /**
+     * Render the class pages on a fixed pool of worker threads.
+     * Each page is written as soon as it is rendered, and at most two pages per worker are queued or in
+     * progress at any time, so memory does not grow with the number of classes. A page that fails does not stop
+     * the others; once all pages are done, the failures are reported in class order and the first one is thrown
+     * with the others attached as suppressed exceptions.
+     *
+     * @param testClasses The test classes to render
+     * @param template    The class page template, which FreeMarker allows to be shared between threads
+     * @param manifest    The manifest that writes the output files
+     * @throws IOException       If a page cannot be written
+     * @throws TemplateException If the template fails for a page
+     */
+    private void renderClassPagesInParallel(List<TestClassInfo> testClasses, Template template,
+                                            OutputManifest manifest) throws IOException, TemplateException {
+        System.out.println("Rendering " + testClasses.size() + " class pages using " + renderThreads
+                + " worker threads");
+
+        ExecutorService executor = Executors.newFixedThreadPool(renderThreads);
+        int maxInFlight = renderThreads * 2;
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        Throwable[] failures = new Throwable[testClasses.size()];
+
+        try {
+            for (int i = 0; i < testClasses.size(); i++) {
+                TestClassInfo testClass = testClasses.get(i);
+                int index = i;
+                inFlight.acquire();
+                executor.execute(() -> {
+                    try {
+                        renderClassPage(testClass, template, manifest);
+                    } catch (Throwable e) {
+                        failures[index] = e;
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+            // All permits are back once the last page is done, which also makes the failures visible here
+            inFlight.acquire(maxInFlight);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while rendering class pages");
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Throwable firstFailure = null;
+        for (int i = 0; i < failures.length; i++) {
+            if (failures[i] == null) {
+                continue;
+            }
+            System.err.println("Error rendering class page " + testClasses.get(i).getClassName() + ": "
+                    + failures[i].getMessage());
+            if (firstFailure == null) {
+                firstFailure = failures[i];
+            } else {
+                firstFailure.addSuppressed(failures[i]);
+            }
+        }
+        if (firstFailure instanceof IOException) {
+            throw (IOException) firstFailure;
+        } else if (firstFailure instanceof TemplateException) {
+            throw (TemplateException) firstFailure;
+        } else if (firstFailure instanceof RuntimeException) {
+            throw (RuntimeException) firstFailure;
+        } else if (firstFailure != null) {
+            throw (Error) firstFailure;
+        }
+    }
+
+    private void generateIndexPage(List<TestClassInfo> testClasses, Configuration cfg, OutputManifest manifest)
+            throws IOException, TemplateException {
         // Calculate total methods
         int totalMethods = testClasses.stream()
                 .mapToInt(tc -> tc.getTestMethods().size())
@@ -1736,9 +2304,7 @@ public class TestNGDocGenerator {
 
         // Process the template
         Template template = cfg.getTemplate("index.ftl");
-        try (Writer out = new FileWriter(new File(OUTPUT_DIR, "index.html"))) {
-            template.process(dataModel, out);
-        }
+        manifest.write("index.html", render(template, dataModel));
     }
 
     /**
@@ -1848,81 +2414,15 @@ public class TestNGDocGenerator {
     }
 
     /**
-     * Filter test methods based on include/exclude patterns
+     * Tells whether a test method passes the include/exclude patterns for method names and tags.
+     * Scanners check each method as soon as its name and tags are known, before it is explained,
+     * so methods that are filtered out never pay for their description.
      *
-     * @param methods List of test methods to filter
-     * @return Filtered list of test methods
+     * @param method The test method, with its name and tags
+     * @return Whether the method is documented
      */
-    private List<TestMethodInfo> filterTestMethods(List<TestMethodInfo> methods) {
-        if (methods == null || methods.isEmpty()) {
-            return methods;
-        }
-
-        // If no include/exclude patterns are specified, return all methods
-        if (includeMethodPatterns.isEmpty() && excludeMethodPatterns.isEmpty() &&
-                includeTagPatterns.isEmpty() && excludeTagPatterns.isEmpty()) {
-            return methods;
-        }
-
-        List<TestMethodInfo> filteredMethods = new ArrayList<>();
-
-        for (TestMethodInfo method : methods) {
-            boolean include = true;
-
-            // Check method name patterns
-            if (!includeMethodPatterns.isEmpty()) {
-                boolean matchesInclude = false;
-                for (String pattern : includeMethodPatterns) {
-                    if (method.getName().matches(pattern)) {
-                        matchesInclude = true;
-                        break;
-                    }
-                }
-                include = matchesInclude;
-            }
-
-            if (include && !excludeMethodPatterns.isEmpty()) {
-                for (String pattern : excludeMethodPatterns) {
-                    if (method.getName().matches(pattern)) {
-                        include = false;
-                        break;
-                    }
-                }
-            }
-
-            // Check tag patterns
-            if (include && !includeTagPatterns.isEmpty() && !method.getTags().isEmpty()) {
-                boolean matchesIncludeTag = false;
-                for (String tag : method.getTags()) {
-                    for (String pattern : includeTagPatterns) {
-                        if (tag.matches(pattern)) {
-                            matchesIncludeTag = true;
-                            break;
-                        }
-                    }
-                    if (matchesIncludeTag) break;
-                }
-                include = matchesIncludeTag;
-            }
-
-            if (include && !excludeTagPatterns.isEmpty() && !method.getTags().isEmpty()) {
-                for (String tag : method.getTags()) {
-                    for (String pattern : excludeTagPatterns) {
-                        if (tag.matches(pattern)) {
-                            include = false;
-                            break;
-                        }
-                    }
-                    if (!include) break;
-                }
-            }
-
-            if (include) {
-                filteredMethods.add(method);
-            }
-        }
-
-        return filteredMethods;
+    private boolean includesTestMethod(TestMethodInfo method) {
+        return methodFilter.accepts(method.getName(), method.getTags());
     }
 
     /**
@@ -1961,7 +2461,9 @@ public class TestNGDocGenerator {
     }
 
     /**
-     * Ensures that template files exist, creating them from classpath resources if they don't
+     * Ensures that template files exist, creating them from classpath resources if they don't.
+     * Generating documentation does not need template files; this exports the built-in templates as a starting
+     * point for customizing them, since templates in the output directory's templates directory override them
      *
      * @return this TestNGDocGenerator instance for method chaining
      */
@@ -2006,60 +2508,12 @@ public class TestNGDocGenerator {
             File file = new File(templateDir, templateFile);
             if (!file.exists()) {
                 System.out.println("Template file does not exist. Creating: " + file.getAbsolutePath());
-
                 try {
-                    // First try to load from direct classpath resources
-                    InputStream is = getClass().getClassLoader().getResourceAsStream("templates/" + templateFile);
-
-                    // If not found, try with different paths
-                    if (is == null) {
-                        is = getClass().getResourceAsStream("/templates/" + templateFile);
-                    }
-
-                    // If still not found, try without templates/ prefix (for flat classpath structure)
-                    if (is == null) {
-                        is = getClass().getClassLoader().getResourceAsStream(templateFile);
-                    }
-
-                    // If still not found, try with absolute path
-                    if (is == null) {
-                        is = getClass().getResourceAsStream("/" + templateFile);
-                    }
-
-                    if (is == null) {
-                        System.err.println("Could not find template resource: " + templateFile + " in any location");
-                        // Create default template content based on template name
-                        if (templateFile.equals("class.ftl")) {
-                            createDefaultClassTemplate(file);
-                        } else if (templateFile.equals("index.ftl")) {
-                            createDefaultIndexTemplate(file);
-                        }
-                        continue;
-                    }
-
-                    try (FileOutputStream fos = new FileOutputStream(file)) {
-                        byte[] buffer = new byte[1024];
-                        int bytesRead;
-                        while ((bytesRead = is.read(buffer)) != -1) {
-                            fos.write(buffer, 0, bytesRead);
-                        }
-
-                        System.out.println("Created template file: " + file.getAbsolutePath());
-                    } finally {
-                        is.close();
-                    }
+                    Files.write(file.toPath(), renderingContext.getBuiltInTemplate(templateFile)
+                            .getBytes(StandardCharsets.UTF_8));
+                    System.out.println("Created template file: " + file.getAbsolutePath());
                 } catch (IOException e) {
                     System.err.println("Error creating template file: " + file.getAbsolutePath() + " - " + e.getMessage());
-                    // Create default template as fallback
-                    try {
-                        if (templateFile.equals("class.ftl")) {
-                            createDefaultClassTemplate(file);
-                        } else if (templateFile.equals("index.ftl")) {
-                            createDefaultIndexTemplate(file);
-                        }
-                    } catch (IOException ex) {
-                        System.err.println("Failed to create default template: " + ex.getMessage());
-                    }
                 }
             } else {
                 System.out.println("Template file already exists: " + file.getAbsolutePath());
@@ -2069,8 +2523,8 @@ public class TestNGDocGenerator {
         return this;
     }
 
-    private void createDefaultClassTemplate(File file) throws IOException {
-        String classTemplate =
+    private String defaultClassTemplate() {
+        return
                 "<!DOCTYPE html>\n" +
                         "<html>\n" +
                         "<head>\n" +
@@ -2120,13 +2574,10 @@ public class TestNGDocGenerator {
                         "    </div>\n" +
                         "</body>\n" +
                         "</html>";
-
-        Files.write(file.toPath(), classTemplate.getBytes());
-        System.out.println("Created default class template: " + file.getAbsolutePath());
     }
 
-    private void createDefaultIndexTemplate(File file) throws IOException {
-        String indexTemplate =
+    private String defaultIndexTemplate() {
+        return
                 "<!DOCTYPE html>\n" +
                         "<html>\n" +
                         "<head>\n" +
@@ -2184,40 +2635,17 @@ public class TestNGDocGenerator {
                         "    </div>\n" +
                         "</body>\n" +
                         "</html>";
-
-        Files.write(file.toPath(), indexTemplate.getBytes());
-        System.out.println("Created default index template: " + file.getAbsolutePath());
-    }
-
-    private void removeChartJsReferences() {
-        try {
-            // Check both possible template locations
-            Path outputTemplateDir = Paths.get(OUTPUT_DIR, "templates");
-            Path mainTemplateDir = Paths.get(TEMPLATE_DIR);
-
-            // Process template files in both directories
-            removeChartJsFromFile(outputTemplateDir.resolve("index.ftl"));
-            removeChartJsFromFile(mainTemplateDir.resolve("index.ftl"));
-        } catch (Exception e) {
-            System.err.println("Error removing Chart.js references: " + e.getMessage());
-        }
     }
 
     /**
-     * Removes Chart.js references from a specific file
+     * Prepares a template for rendering; the index page no longer loads Chart.js, as tag charts are static SVG
+     *
+     * @param templateName The template name
+     * @param content      The template content
+     * @return The content to render
      */
-    private void removeChartJsFromFile(Path filePath) {
-        try {
-            if (Files.exists(filePath)) {
-                String content = Files.readString(filePath);
-                // Remove any script tag that references chart.js
-                content = content.replaceAll("<script[^>]*chart\\.js[^>]*></script>", "");
-                Files.writeString(filePath, content);
-                System.out.println("Removed Chart.js references from: " + filePath);
-            }
-        } catch (Exception e) {
-            System.err.println("Error processing file " + filePath + ": " + e.getMessage());
-        }
+    private static String preprocessTemplate(String templateName, String content) {
+        return templateName.equals("index.ftl") ? CHART_JS_SCRIPT.matcher(content).replaceAll("") : content;
     }
 
     /**
@@ -2516,7 +2944,7 @@ public class TestNGDocGenerator {
 
         // Initialize FreeMarker
         Configuration cfg = initializeFreemarker();
-        removeChartJsReferences();
+        OutputManifest manifest = openOutputManifest();
 
         // Load existing test classes if available
         List<TestClassInfo> testClasses = new ArrayList<>();
@@ -2532,11 +2960,48 @@ public class TestNGDocGenerator {
             }
         }
 
-        // Generate the index page
-        generateIndexPage(testClasses, cfg);
+        // Generate the index page; the class pages are kept, so the manifest is saved without removing them
+        generateIndexPage(testClasses, cfg, manifest);
+        manifest.save();
         return this;
     }
 
+    /**
+     * How much of each test method is described in the documentation. Lower levels skip the work that
+     * higher levels need, so a catalogue of test names is generated without analysing method bodies.
+     */
+    public enum DetailLevel {
+        /**
+         * Only class names, method names and tags; method bodies are not read
+         */
+        NAMES,
+        /**
+         * A description derived from each method name, including Gherkin-style formatting;
+         * method bodies are not read
+         */
+        PROSE,
+        /**
+         * The full description from the method name and the comments and assertions of the method body
+         */
+        FULL
+    }
+
+    /**
+     * What happens to a source file that is larger than the size budget or takes longer to scan than the time
+     * budget. Either way the file is listed in the quarantine report.
+     */
+    public enum OverBudgetAction {
+        /**
+         * The file is left out of the documentation
+         */
+        SKIP,
+        /**
+         * The names and tags of its test methods are documented without descriptions, as with
+         * {@link DetailLevel#NAMES}, if the file can be read without a full parse
+         */
+        NAMES
+    }
+
     /**
      * Inner classes for storing test information
      */
@@ -2577,6 +3042,8 @@ public class TestNGDocGenerator {
     public static class TestMethodInfo {
         private String name;
         private String description;
+        // Generates the description on first access, so methods that are never rendered are never explained
+        private volatile Supplier<String> pendingDescription;
         private List<String> tags = new ArrayList<>();
 
         public TestMethodInfo(String name, String description) {
@@ -2597,11 +3064,36 @@ public class TestNGDocGenerator {
         }
 
         public String getDescription() {
+            if (pendingDescription != null) {
+                synchronized (this) {
+                    if (pendingDescription != null) {
+                        description = pendingDescription.get();
+                        pendingDescription = null;
+                    }
+                }
+            }
             return description;
         }
 
         public void setDescription(String description) {
             this.description = description;
+            this.pendingDescription = null;
+        }
+
+        /**
+         * Sets a description that is generated on first access and then kept
+         *
+         * @param description Generates the description
+         */
+        public void setDescriptionSupplier(Supplier<String> description) {
+            this.pendingDescription = description;
+        }
+
+        /**
+         * @return Whether the description is generated on first access and has not been accessed yet
+         */
+        boolean isDescriptionPending() {
+            return pendingDescription != null;
         }
 
         public List<String> getTags() {
@@ -2617,6 +3109,36 @@ public class TestNGDocGenerator {
         }
     }
 
+    /**
+     * A source file that was skipped or only partly documented, and why
+     */
+    public static class QuarantinedFile {
+        private final String path;
+        private final String reason;
+        private final boolean degraded;
+
+        public QuarantinedFile(String path, String reason, boolean degraded) {
+            this.path = path;
+            this.reason = reason;
+            this.degraded = degraded;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        /**
+         * @return Whether the names of its test methods were documented, rather than the file being skipped
+         */
+        public boolean isDegraded() {
+            return degraded;
+        }
+    }
+
     /**
      * Sets the output directory for the generated documentation
      *
@@ -2678,7 +3200,7 @@ public class TestNGDocGenerator {
      */
     public TestNGDocGenerator includeMethodPattern(String pattern) {
         this.includeMethodPatterns.add(pattern);
-        return this;
+        return compileMethodFilter(includeMethodPatterns);
     }
 
     /**
@@ -2689,7 +3211,7 @@ public class TestNGDocGenerator {
      */
     public TestNGDocGenerator excludeMethodPattern(String pattern) {
         this.excludeMethodPatterns.add(pattern);
-        return this;
+        return compileMethodFilter(excludeMethodPatterns);
     }
 
     /**
@@ -2700,7 +3222,7 @@ public class TestNGDocGenerator {
      */
     public TestNGDocGenerator includeTagPattern(String pattern) {
         this.includeTagPatterns.add(pattern);
-        return this;
+        return compileMethodFilter(includeTagPatterns);
     }
 
     /**
@@ -2711,9 +3233,473 @@ public class TestNGDocGenerator {
      */
     public TestNGDocGenerator excludeTagPattern(String pattern) {
         this.excludeTagPatterns.add(pattern);
+        return compileMethodFilter(excludeTagPatterns);
+    }
+
+    /**
+     * Removes all include and exclude patterns for method names and tags
+     *
+     * @return this TestNGDocGenerator instance for method chaining
+     */
+    public TestNGDocGenerator clearMethodFilters() {
+        includeMethodPatterns.clear();
+        excludeMethodPatterns.clear();
+        includeTagPatterns.clear();
+        excludeTagPatterns.clear();
+        methodFilter = MethodFilter.all();
         return this;
     }
 
+    /**
+     * Sets how much of each test method is described. {@link DetailLevel#NAMES} only lists classes, methods and
+     * tags, {@link DetailLevel#PROSE} describes each method from its name, and {@link DetailLevel#FULL} (the
+     * default) also describes the comments and assertions of its body. Method bodies are only read at the full
+     * level, and at the names level they are skipped by the fast extractor without being parsed.
+     *
+     * @param detailLevel The detail level
+     * @return this TestNGDocGenerator instance for method chaining
+     */
+    public TestNGDocGenerator setDetailLevel(DetailLevel detailLevel) {
+        this.detailLevel = detailLevel;
+        return this;
+    }
+
+    /**
+     * Sets the largest source file that is scanned in full. Larger files are handled according to the
+     * {@link OverBudgetAction} and listed in the quarantine report.
+     *
+     * @param maxBytes The size budget in bytes, or 0 for no limit (the default)
+     * @return this TestNGDocGenerator instance for method chaining
+     */
+    public TestNGDocGenerator setSourceFileSizeBudget(long maxBytes) {
+        this.sourceFileSizeBudget = maxBytes;
+        return this;
+    }
+
+    /**
+     * Sets the longest time spent scanning one source file. A file that takes longer is abandoned, handled
+     * according to the {@link OverBudgetAction} and listed in the quarantine report.
+     *
+     * @param maxMillis The time budget in milliseconds, or 0 for no limit (the default)
+     * @return this TestNGDocGenerator instance for method chaining
+     */
+    public TestNGDocGenerator setSourceFileTimeBudget(long maxMillis) {
+        this.sourceFileTimeBudget = maxMillis;
+        return this;
+    }
+
+    /**
+     * Sets how long a parsed template is reused before its file is checked for changes.
+     * Templates are parsed once per generator and only parsed again when their file changed; with the default of 0,
+     * the file is checked on every generation, so edited templates are picked up right away.
+     *
+     * @param delayMillis The delay in milliseconds
+     * @return this TestNGDocGenerator instance for method chaining
+     */
+    public TestNGDocGenerator setTemplateUpdateDelay(long delayMillis) {
+        if (delayMillis < 0) {
+            throw new IllegalArgumentException("Template update delay must not be negative: " + delayMillis);
+        }
+        renderingContext.setTemplateUpdateDelay(delayMillis);
+        return this;
+    }
+
+    /**
+     * Sets what happens to source files over their size or time budget: {@link OverBudgetAction#NAMES} (the
+     * default) documents the names and tags of their test methods, {@link OverBudgetAction#SKIP} leaves them out.
+     *
+     * @param action The action for files over budget
+     * @return this TestNGDocGenerator instance for method chaining
+     */
+    public TestNGDocGenerator setOverBudgetAction(OverBudgetAction action) {
+        this.overBudgetAction = action;
+        return this;
+    }
+
+    /**
+     * Returns the source files quarantined during the current or last run: files over their size or time budget,
+     * and files that could not be parsed. The list is kept until the next run starts.
+     *
+     * @return The quarantined files in the order they were found
+     */
+    public List<QuarantinedFile> getQuarantinedFiles() {
+        synchronized (quarantinedFiles) {
+            return new ArrayList<>(quarantinedFiles);
+        }
+    }
+
+    /**
+     * Compiles the method and tag patterns after one was added. An invalid pattern is removed again and reported
+     * right away, rather than while scanning.
+     */
+    private TestNGDocGenerator compileMethodFilter(List<String> changedPatterns) {
+        try {
+            methodFilter = MethodFilter.compile(includeMethodPatterns, excludeMethodPatterns,
+                    includeTagPatterns, excludeTagPatterns);
+        } catch (PatternSyntaxException e) {
+            changedPatterns.remove(changedPatterns.size() - 1);
+            throw e;
+        }
+        return this;
+    }
+
+    /**
+     * Enables parallel parsing of source files when scanning source directories
+     *
+     * @param threads The number of worker threads to use (1 disables parallel scanning)
+     * @return this TestNGDocGenerator instance for method chaining
+     */
+    public TestNGDocGenerator useParallelScanning(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Number of scan threads must be at least 1: " + threads);
+        }
+        this.scanThreads = threads;
+        return this;
+    }
+
+    /**
+     * Enables parallel parsing of source files using one worker thread per available processor
+     *
+     * @return this TestNGDocGenerator instance for method chaining
+     */
+    public TestNGDocGenerator useParallelScanning() {
+        return useParallelScanning(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Enables parallel rendering of the class pages
+     *
+     * @param threads The number of worker threads to use (1 disables parallel rendering)
+     * @return this TestNGDocGenerator instance for method chaining
+     */
+    public TestNGDocGenerator useParallelRendering(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Number of render threads must be at least 1: " + threads);
+        }
+        this.renderThreads = threads;
+        return this;
+    }
+
+    /**
+     * Enables parallel rendering of the class pages using one worker thread per available processor
+     *
+     * @return this TestNGDocGenerator instance for method chaining
+     */
+    public TestNGDocGenerator useParallelRendering() {
+        return useParallelRendering(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Excludes directories with the given name from source directory scanning, at any depth, or only directly
+     * under the scanned directory if the name starts with /.
+     * By default, build, out and generated directly under the scanned directory and node_modules anywhere are
+     * excluded
+     *
+     * @param directoryName The name of the directory to skip, e.g. fixtures or /fixtures
+     * @return this TestNGDocGenerator instance for method chaining
+     */
+    public TestNGDocGenerator excludeSourceDirectory(String directoryName) {
+        this.excludedSourceDirectories.add(directoryName);
+        return this;
+    }
+
+    /**
+     * Replaces the set of directory names excluded from source directory scanning
+     *
+     * @param directoryNames The names of the directories to skip; pass none to scan every directory
+     * @return this TestNGDocGenerator instance for method chaining
+     */
+    public TestNGDocGenerator setExcludedSourceDirectories(String... directoryNames) {
+        this.excludedSourceDirectories = new LinkedHashSet<>(Arrays.asList(directoryNames));
+        return this;
+    }
+
+    /**
+     * Enables or disables the lexical pre-filter that skips source files without a @Test annotation
+     * before they are parsed. Enabled by default.
+     *
+     * @param enabled Whether to pre-filter source files
+     * @return this TestNGDocGenerator instance for method chaining
+     */
+    public TestNGDocGenerator useSourcePreFilter(boolean enabled) {
+        this.sourcePreFilter = enabled;
+        return this;
+    }
+
+    /**
+     * Enables or disables the tokenizer-based fast extractor for source files. When enabled, source files are
+     * read without building a full syntax tree, and only files that use constructs the extractor does not handle
+     * are parsed with JavaParser. Both paths produce the same documentation for valid sources, but the extractor
+     * does not validate the syntax, so some malformed files are documented instead of being reported as
+     * unparseable. At {@link DetailLevel#NAMES} the extractor is used even when this is disabled, so that method
+     * bodies are skipped without being parsed.
+     *
+     * @param enabled Whether to use the fast extractor
+     * @return this TestNGDocGenerator instance for method chaining
+     */
+    public TestNGDocGenerator useFastSourceExtraction(boolean enabled) {
+        this.fastSourceExtraction = enabled;
+        return this;
+    }
+
+    /**
+     * Enables the tokenizer-based fast extractor for source files
+     *
+     * @return this TestNGDocGenerator instance for method chaining
+     */
+    public TestNGDocGenerator useFastSourceExtraction() {
+        return useFastSourceExtraction(true);
+    }
+
+    /**
+     * Adds a translator that describes calls to assertion methods in test method descriptions. Translators
+     * can also be registered through {@link java.util.ServiceLoader}; see {@link AssertionTranslator}.
+     * Added translators are asked before the registered and built-in ones.
+     *
+     * @param translator The assertion translator
+     * @return this TestNGDocGenerator instance for method chaining
+     */
+    public TestNGDocGenerator addAssertionTranslator(AssertionTranslator translator) {
+        explanationEngine.setTranslators(explanationEngine.getTranslators().with(translator));
+        return this;
+    }
+
+    /**
+     * Enables or disables memoization of test method explanations. When enabled (the default), methods whose
+     * bodies have the same comments and assertions and whose names give the same description share one
+     * explanation, which is built only once per run. Hits and misses are reported at the end of each run.
+     *
+     * @param enabled Whether to memoize explanations
+     * @return this TestNGDocGenerator instance for method chaining
+     */
+    public TestNGDocGenerator useExplanationMemo(boolean enabled) {
+        explanationEngine.setMemoize(enabled);
+        return this;
+    }
+
+    /**
+     * Sets the source roots that are searched, in order, for the source files of classes
+     * found through package scanning. Defaults to src/main/java, src/test/java and src.
+     *
+     * @param roots The source root directories
+     * @return this TestNGDocGenerator instance for method chaining
+     */
+    public TestNGDocGenerator setSourceRoots(String... roots) {
+        this.sourceRoots = new ArrayList<>(Arrays.asList(roots));
+        return this;
+    }
+
+    /**
+     * Enables or disables the persistent source cache. When enabled, the test classes extracted from each
+     * source file are stored under the output directory and reused on the next run if the file is unchanged.
+     *
+     * @param enabled Whether to cache source scanning results
+     * @return this TestNGDocGenerator instance for method chaining
+     */
+    public TestNGDocGenerator useSourceCache(boolean enabled) {
+        this.sourceCache = enabled;
+        return this;
+    }
+
+    /**
+     * Enables the persistent source cache
+     *
+     * @return this TestNGDocGenerator instance for method chaining
+     */
+    public TestNGDocGenerator useSourceCache() {
+        return useSourceCache(true);
+    }
+
+    /**
+     * Enables or disables the output manifest. When enabled, the content hash of each generated file is recorded
+     * under the output directory; later runs only write files whose content changed, and remove the files of
+     * classes that are no longer documented.
+     *
+     * @param enabled Whether to write only changed output files
+     * @return this TestNGDocGenerator instance for method chaining
+     */
+    public TestNGDocGenerator useOutputManifest(boolean enabled) {
+        this.outputManifest = enabled;
+        return this;
+    }
+
+    /**
+     * Enables the output manifest
+     *
+     * @return this TestNGDocGenerator instance for method chaining
+     */
+    public TestNGDocGenerator useOutputManifest() {
+        return useOutputManifest(true);
+    }
+
+    /**
+     * Enables or disables the precompiled renderers of the built-in class and index templates. When enabled,
+     * pages that use a built-in template are written by plain Java code instead of FreeMarker, with byte-identical
+     * output. Custom templates are always rendered by FreeMarker.
+     *
+     * @param enabled Whether to render the built-in templates with the precompiled renderers
+     * @return this TestNGDocGenerator instance for method chaining
+     */
+    public TestNGDocGenerator usePrecompiledTemplates(boolean enabled) {
+        this.precompiledTemplates = enabled;
+        return this;
+    }
+
+    /**
+     * Enables the precompiled renderers of the built-in templates
+     *
+     * @return this TestNGDocGenerator instance for method chaining
+     */
+    public TestNGDocGenerator usePrecompiledTemplates() {
+        return usePrecompiledTemplates(true);
+    }
+
+    /**
+     * Enables or disables bytecode scanning for package scanning. When enabled, test classes are found by
+     * reading class files directly instead of loading them, so static initializers never run.
+     *
+     * @param enabled Whether to scan class files
+     * @return this TestNGDocGenerator instance for method chaining
+     */
+    public TestNGDocGenerator useBytecodeScanning(boolean enabled) {
+        this.bytecodeScanning = enabled;
+        return this;
+    }
+
+    /**
+     * Enables bytecode scanning for package scanning
+     *
+     * @return this TestNGDocGenerator instance for method chaining
+     */
+    public TestNGDocGenerator useBytecodeScanning() {
+        return useBytecodeScanning(true);
+    }
+
+    /**
+     * Enables or disables the persistent jar index cache used by bytecode scanning. When enabled, the test classes
+     * of each jar on the scanned classpath are indexed once and stored under the output directory, keyed by the
+     * checksum of the jar, so unchanged jars are not read again on later runs.
+     *
+     * @param enabled Whether to cache jar indexes
+     * @return this TestNGDocGenerator instance for method chaining
+     */
+    public TestNGDocGenerator useJarIndexCache(boolean enabled) {
+        this.jarIndexCache = enabled;
+        return this;
+    }
+
+    /**
+     * Enables the persistent jar index cache used by bytecode scanning
+     *
+     * @return this TestNGDocGenerator instance for method chaining
+     */
+    public TestNGDocGenerator useJarIndexCache() {
+        return useJarIndexCache(true);
+    }
+
+    /**
+     * Enables or disables the compile-time test index. When enabled and the classpath contains an index written
+     * by TestIndexProcessor that lists classes in the scanned package, package scanning reads the index instead
+     * of scanning the classpath. Classes compiled without the processor are then not documented, so only enable
+     * the index when every test class of the package is compiled with it.
+     *
+     * @param enabled Whether to use the test index
+     * @return this TestNGDocGenerator instance for method chaining
+     */
+    public TestNGDocGenerator useTestIndex(boolean enabled) {
+        this.testIndex = enabled;
+        return this;
+    }
+
+    /**
+     * Enables the compile-time test index
+     *
+     * @return this TestNGDocGenerator instance for method chaining
+     */
+    public TestNGDocGenerator useTestIndex() {
+        return useTestIndex(true);
+    }
+
+    /**
+     * Sets the class directories and jar files read by bytecode scanning.
+     * Defaults to the classpath of the current JVM.
+     *
+     * @param entries The class directories and jar files
+     * @return this TestNGDocGenerator instance for method chaining
+     */
+    public TestNGDocGenerator setClasspath(String... entries) {
+        this.classpathEntries = new ArrayList<>(Arrays.asList(entries));
+        return this;
+    }
+
+    /**
+     * Prints how many explanations were reused during the run, and discards the memoized explanations
+     */
+    private void reportExplanationMemo() {
+        if (explanationEngine.isMemoized() && explanationEngine.getHits() + explanationEngine.getMisses() > 0) {
+            System.out.println("Explanation memo: " + explanationEngine.getHits() + " hits, "
+                    + explanationEngine.getMisses() + " misses, " + explanationEngine.getDistinctBodies()
+                    + " distinct bodies");
+        }
+        explanationEngine.clearMemo();
+    }
+
+    /**
+     * Writes the source files quarantined during this run to quarantine.txt in the output directory,
+     * one tab-separated line per file, or removes the report of an earlier run if there are none
+     */
+    private void writeQuarantineReport() {
+        Path reportFile = Paths.get(OUTPUT_DIR, "quarantine.txt");
+        List<QuarantinedFile> files = getQuarantinedFiles();
+        try {
+            if (files.isEmpty()) {
+                Files.deleteIfExists(reportFile);
+                return;
+            }
+            List<String> lines = new ArrayList<>();
+            lines.add("# Source files skipped or documented by name only: path, action, reason");
+            for (QuarantinedFile file : files) {
+                lines.add(file.getPath() + "\t" + (file.isDegraded() ? "names only" : "skipped") + "\t"
+                        + file.getReason());
+            }
+            Files.write(reportFile, lines, StandardCharsets.UTF_8);
+            System.out.println("Quarantined " + files.size() + " source files, see " + reportFile);
+        } catch (IOException e) {
+            System.err.println("Could not write quarantine report " + reportFile + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Builds a fingerprint of everything besides the source file itself that affects the extracted results,
+     * so that cached results are discarded when the generator or its settings change
+     *
+     * @return The fingerprint string
+     */
+    String sourceCacheFingerprint() {
+        String version = TestNGDocGenerator.class.getPackage().getImplementationVersion();
+        StringBuilder fingerprint = new StringBuilder("version=").append(version != null ? version : "dev");
+
+        // Assertion translators and pattern replacements change the generated explanations
+        fingerprint.append(";translators=");
+        for (AssertionTranslator translator : explanationEngine.getTranslators().getTranslators()) {
+            fingerprint.append(translator.getClass().getName()).append(',');
+        }
+        fingerprint.append(";replacements=");
+        new TreeMap<>(patternReplacements).forEach((pattern, replacement) ->
+                fingerprint.append(pattern.length()).append(':').append(pattern)
+                        .append(replacement.length()).append(':').append(replacement));
+
+        fingerprint.append(";detail=").append(detailLevel);
+
+        // Filtered methods are left out of the cached results
+        fingerprint.append(";includeMethods=").append(includeMethodPatterns)
+                .append(";excludeMethods=").append(excludeMethodPatterns)
+                .append(";includeTags=").append(includeTagPatterns)
+                .append(";excludeTags=").append(excludeTagPatterns);
+
+        return fingerprint.toString();
+    }
+
     /**
      * Checks if the templates in the project directory are synchronized with the library templates
      *
@@ -2755,16 +3741,35 @@ public class TestNGDocGenerator {
     }
 
     /**
-     * Adds a pattern replacement for technical terms
+     * Adds a pattern replacement for technical terms. Every occurrence of the pattern in a test method
+     * description is replaced; see {@link Glossary} for how overlapping patterns are resolved.
      *
      * @param pattern     The pattern to replace
      * @param replacement The replacement text
      * @return this TestNGDocGenerator instance for method chaining
      */
     public TestNGDocGenerator addPatternReplacement(String pattern, String replacement) {
-        // This is a placeholder implementation since we don't have the actual pattern replacement logic
-        // In a real implementation, this would store the pattern and replacement for use during documentation generation
-        System.out.println("Adding pattern replacement: " + pattern + " -> " + replacement);
+        if (pattern == null || pattern.isEmpty() || replacement == null) {
+            throw new IllegalArgumentException("A pattern replacement needs a non-empty pattern and a replacement");
+        }
+        patternReplacements.put(pattern, replacement);
+        explanationEngine.replacementsChanged();
+        return this;
+    }
+
+    /**
+     * Adds the pattern replacements of a glossary file, with one {@code term=replacement} entry per line.
+     * Blank lines and lines starting with {@code #} are ignored.
+     *
+     * @param glossaryFile The glossary file, encoded in UTF-8
+     * @return this TestNGDocGenerator instance for method chaining
+     * @throws IOException If the file cannot be read or contains an invalid entry
+     */
+    public TestNGDocGenerator loadPatternReplacements(String glossaryFile) throws IOException {
+        Map<String, String> entries = Glossary.readEntries(Paths.get(glossaryFile));
+        patternReplacements.putAll(entries);
+        explanationEngine.replacementsChanged();
+        System.out.println("Loaded " + entries.size() + " pattern replacements from " + glossaryFile);
         return this;
     }
 }
@@ -0,0 +1,84 @@
+package io.vinipx.testngdoc.assertions;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Describes AssertJ assertion chains such as {@code assertThat(total).isPositive().isLessThan(100)}, from the
+ * subject of the assertion and the checks chained on it. A description given with {@code as} or
+ * {@code describedAs} is used instead when present.
+ */
+class AssertJAssertionTranslator implements AssertionTranslator {
+
+    // Subjects of the entry points whose argument is not the value under test
+    private static final Map<String, String> SUBJECTS = new HashMap<>();
+
+    static {
+        SUBJECTS.put("assertThatThrownBy", "the thrown exception");
+        SUBJECTS.put("assertThatCode", "the code");
+        SUBJECTS.put("assertThatException", "the exception");
+        SUBJECTS.put("assertThatNoException", "the code");
+        SUBJECTS.put("assertThatIllegalArgumentException", "an IllegalArgumentException");
+        SUBJECTS.put("assertThatIllegalStateException", "an IllegalStateException");
+        SUBJECTS.put("assertThatNullPointerException", "a NullPointerException");
+        SUBJECTS.put("assertThatIOException", "an IOException");
+    }
+
+    private static final Set<String> ENTRY_POINTS = new HashSet<>(Arrays.asList(
+            "assertThat", "assertThatObject", "assertThatExceptionOfType"));
+
+    // Chained calls that describe the assertion instead of checking something
+    private static final Set<String> DESCRIPTIONS = new HashSet<>(Arrays.asList("as", "describedAs"));
+
+    // Chained calls that only configure how failures are reported
+    private static final Set<String> SETTINGS = new HashSet<>(Arrays.asList(
+            "withFailMessage", "overridingErrorMessage", "withRepresentation", "withThreadDumpOnError"));
+
+    @Override
+    public Collection<String> getMethodNames() {
+        Set<String> methodNames = new HashSet<>(ENTRY_POINTS);
+        methodNames.addAll(SUBJECTS.keySet());
+        return methodNames;
+    }
+
+    @Override
+    public String translate(AssertionCall call) {
+        List<AssertionCall> chain = call.getChain();
+        if (chain.isEmpty() || (call.getName().equals("assertThat") && call.getArguments().size() != 1)) {
+            // Without chained checks the call asserts nothing, and Hamcrest's assertThat takes more arguments
+            return null;
+        }
+
+        StringBuilder checks = new StringBuilder();
+        for (AssertionCall check : chain) {
+            if (DESCRIPTIONS.contains(check.getName()) && check.getMessage() != null) {
+                return "Verifies that " + check.getMessage();
+            }
+            if (SETTINGS.contains(check.getName()) || DESCRIPTIONS.contains(check.getName())) {
+                continue;
+            }
+            if (checks.length() > 0) {
+                checks.append(" and ");
+            }
+            checks.append(AssertionTranslators.withArguments(AssertionTranslators.words(check.getName()), check));
+        }
+        if (checks.length() == 0) {
+            return null;
+        }
+
+        String subject = SUBJECTS.get(call.getName());
+        if (subject == null) {
+            if (call.getName().equals("assertThatExceptionOfType")) {
+                subject = "an exception of type " + call.getArgumentText();
+            } else {
+                subject = call.getArgumentText();
+            }
+        }
+        return "Verifies that " + subject + " " + checks;
+    }
+}
@@ -0,0 +1,112 @@
+package io.vinipx.testngdoc.assertions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A call to an assertion method in a test method body, as read from its source code. Besides the printed
+ * arguments, it keeps the arguments that are method calls themselves, such as Hamcrest matchers, and the calls
+ * chained on the assertion, such as the AssertJ checks following {@code assertThat(actual)}.
+ */
+public final class AssertionCall {
+
+    private final String name;
+    private final String message;
+    private final List<String> arguments;
+    private final List<AssertionCall> argumentCalls;
+    private final List<AssertionCall> chain;
+
+    /**
+     * Creates an assertion call
+     *
+     * @param name          The name of the called method, e.g. assertEquals
+     * @param message       The first string literal in the arguments, unescaped, or null if there is none
+     * @param arguments     The printed arguments
+     * @param argumentCalls For each argument, the argument as a method call, or null if it is not a method call
+     * @param chain         The calls chained on this call, in order
+     */
+    public AssertionCall(String name, String message, List<String> arguments, List<AssertionCall> argumentCalls,
+                         List<AssertionCall> chain) {
+        if (arguments.size() != argumentCalls.size()) {
+            throw new IllegalArgumentException("Each argument needs an argument call or null");
+        }
+        this.name = name;
+        this.message = message;
+        this.arguments = Collections.unmodifiableList(new ArrayList<>(arguments));
+        this.argumentCalls = Collections.unmodifiableList(new ArrayList<>(argumentCalls));
+        this.chain = Collections.unmodifiableList(new ArrayList<>(chain));
+    }
+
+    /**
+     * @return The name of the called method, e.g. assertEquals
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return The first string literal in the arguments, often the assertion message, or null
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * @return The printed arguments
+     */
+    public List<String> getArguments() {
+        return arguments;
+    }
+
+    /**
+     * @return The printed arguments, separated by commas
+     */
+    public String getArgumentText() {
+        return String.join(", ", arguments);
+    }
+
+    /**
+     * @param index The index of the argument
+     * @return The argument as a method call, or null if it is not a method call
+     */
+    public AssertionCall getArgumentCall(int index) {
+        return argumentCalls.get(index);
+    }
+
+    /**
+     * @return The calls chained on this call, in order, e.g. isEqualTo in {@code assertThat(actual).isEqualTo(1)}
+     */
+    public List<AssertionCall> getChain() {
+        return chain;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof AssertionCall)) {
+            return false;
+        }
+        AssertionCall other = (AssertionCall) o;
+        return name.equals(other.name) && Objects.equals(message, other.message)
+                && arguments.equals(other.arguments) && argumentCalls.equals(other.argumentCalls)
+                && chain.equals(other.chain);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, message, arguments, argumentCalls, chain);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder printed = new StringBuilder(name).append('(').append(getArgumentText()).append(')');
+        for (AssertionCall call : chain) {
+            printed.append('.').append(call);
+        }
+        return printed.toString();
+    }
+}
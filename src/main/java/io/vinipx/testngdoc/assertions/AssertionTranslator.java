@@ -0,0 +1,28 @@
+package io.vinipx.testngdoc.assertions;
+
+import java.util.Collection;
+
+/**
+ * Describes calls to assertion methods in test method documentation.
+ * <p>
+ * Translators are looked up by the name of the called method, so each translator declares the method names
+ * it describes. Additional translators are registered through {@link java.util.ServiceLoader}, by listing
+ * their class names in {@code META-INF/services/io.vinipx.testngdoc.assertions.AssertionTranslator}. Registered
+ * translators are asked before the built-in translators for TestNG, AssertJ and Hamcrest.
+ */
+public interface AssertionTranslator {
+
+    /**
+     * @return The names of the assertion methods this translator describes, e.g. assertEquals
+     */
+    Collection<String> getMethodNames();
+
+    /**
+     * Describes an assertion call
+     *
+     * @param call A call to one of the methods returned by {@link #getMethodNames()}
+     * @return The description, e.g. "Verifies that the total is 100", or null to leave the call to the next
+     * translator for the method name
+     */
+    String translate(AssertionCall call);
+}
@@ -0,0 +1,160 @@
+package io.vinipx.testngdoc.assertions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.Set;
+
+/**
+ * The assertion translators used to describe assertion calls, indexed by method name.
+ * <p>
+ * The index is built once, so finding the translators of a call is a single hash lookup, however many
+ * translators are registered. Translators registered through {@link java.util.ServiceLoader} and added with
+ * {@link #with(AssertionTranslator)} come before the built-in translators, so they can replace the built-in
+ * description of a method.
+ */
+public final class AssertionTranslators {
+
+    private static final AssertionTranslator[] NONE = new AssertionTranslator[0];
+
+    private final List<AssertionTranslator> translators;
+    // The translators for each method name, in the order they are asked
+    private final Map<String, AssertionTranslator[]> byMethodName = new HashMap<>();
+
+    private AssertionTranslators(List<AssertionTranslator> translators) {
+        this.translators = Collections.unmodifiableList(new ArrayList<>(translators));
+        Map<String, List<AssertionTranslator>> index = new LinkedHashMap<>();
+        for (AssertionTranslator translator : translators) {
+            for (String methodName : translator.getMethodNames()) {
+                index.computeIfAbsent(methodName, name -> new ArrayList<>()).add(translator);
+            }
+        }
+        index.forEach((methodName, candidates) ->
+                byMethodName.put(methodName, candidates.toArray(new AssertionTranslator[0])));
+    }
+
+    /**
+     * Loads the translators registered with {@link java.util.ServiceLoader} from the context class loader,
+     * followed by the built-in translators
+     *
+     * @return The translators
+     */
+    public static AssertionTranslators load() {
+        return load(Thread.currentThread().getContextClassLoader());
+    }
+
+    /**
+     * Loads the translators registered with {@link java.util.ServiceLoader} from a class loader,
+     * followed by the built-in translators
+     *
+     * @param classLoader The class loader to find registered translators with
+     * @return The translators
+     */
+    public static AssertionTranslators load(ClassLoader classLoader) {
+        List<AssertionTranslator> translators = new ArrayList<>();
+        for (AssertionTranslator translator : ServiceLoader.load(AssertionTranslator.class, classLoader)) {
+            translators.add(translator);
+        }
+        translators.addAll(builtIn());
+        return new AssertionTranslators(translators);
+    }
+
+    /**
+     * @return Only the built-in translators for TestNG, AssertJ and Hamcrest
+     */
+    public static AssertionTranslators builtInOnly() {
+        return new AssertionTranslators(builtIn());
+    }
+
+    private static List<AssertionTranslator> builtIn() {
+        return Arrays.asList(new TestNGAssertionTranslator(), new AssertJAssertionTranslator(),
+                new HamcrestAssertionTranslator());
+    }
+
+    /**
+     * Adds a translator that is asked before the current ones
+     *
+     * @param translator The translator
+     * @return The translators including the added one
+     */
+    public AssertionTranslators with(AssertionTranslator translator) {
+        List<AssertionTranslator> combined = new ArrayList<>();
+        combined.add(translator);
+        combined.addAll(translators);
+        return new AssertionTranslators(combined);
+    }
+
+    /**
+     * @return The translators, in the order they are asked
+     */
+    public List<AssertionTranslator> getTranslators() {
+        return translators;
+    }
+
+    /**
+     * @return The names of all methods that are described as assertions
+     */
+    public Set<String> getMethodNames() {
+        return Collections.unmodifiableSet(byMethodName.keySet());
+    }
+
+    /**
+     * Tells whether calls to a method are assertions that a translator describes
+     *
+     * @param methodName The name of the called method
+     * @return Whether a translator is registered for the method name
+     */
+    public boolean isAssertion(String methodName) {
+        return byMethodName.containsKey(methodName);
+    }
+
+    /**
+     * Describes an assertion call with the first translator for its method name that describes it
+     *
+     * @param call The assertion call
+     * @return The description, or null if no translator describes the call
+     */
+    public String translate(AssertionCall call) {
+        for (AssertionTranslator translator : byMethodName.getOrDefault(call.getName(), NONE)) {
+            String description = translator.translate(call);
+            if (description != null) {
+                return description;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Turns a camel case method name into lower case words, e.g. isEqualTo into "is equal to"
+     *
+     * @param methodName The method name
+     * @return The words
+     */
+    static String words(String methodName) {
+        StringBuilder words = new StringBuilder(methodName.length() + 4);
+        for (int i = 0; i < methodName.length(); i++) {
+            char c = methodName.charAt(i);
+            if (Character.isUpperCase(c)) {
+                if (i > 0) {
+                    words.append(' ');
+                }
+                words.append(Character.toLowerCase(c));
+            } else {
+                words.append(c);
+            }
+        }
+        return words.toString();
+    }
+
+    /**
+     * Appends the printed arguments of a call after a phrase
+     */
+    static String withArguments(String phrase, AssertionCall call) {
+        return call.getArguments().isEmpty() ? phrase : phrase + " " + call.getArgumentText();
+    }
+}
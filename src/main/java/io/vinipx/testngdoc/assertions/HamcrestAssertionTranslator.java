@@ -0,0 +1,93 @@
+package io.vinipx.testngdoc.assertions;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Describes Hamcrest assertions such as {@code assertThat(total, is(greaterThan(0)))}, from the value under test
+ * and its matcher. A reason given as the first argument is used instead when present.
+ */
+class HamcrestAssertionTranslator implements AssertionTranslator {
+
+    // Matchers that combine other matchers, and the word that joins their descriptions
+    private static final Map<String, String> COMBINERS = new HashMap<>();
+
+    static {
+        COMBINERS.put("allOf", " and ");
+        COMBINERS.put("both", " and ");
+        COMBINERS.put("and", " and ");
+        COMBINERS.put("anyOf", " or ");
+        COMBINERS.put("either", " or ");
+        COMBINERS.put("or", " or ");
+    }
+
+    // First words of matcher names that read as a predicate on their own, unlike equalTo or greaterThan
+    private static final Set<String> VERBS = new HashSet<>(Arrays.asList(
+            "is", "has", "contains", "starts", "ends", "matches", "every", "can", "any"));
+
+    @Override
+    public Collection<String> getMethodNames() {
+        return Collections.singleton("assertThat");
+    }
+
+    @Override
+    public String translate(AssertionCall call) {
+        int arguments = call.getArguments().size();
+        if (arguments < 2 || arguments > 3 || !call.getChain().isEmpty()) {
+            return null;
+        }
+
+        // assertThat(reason, actual, matcher) and assertThat(reason, condition)
+        boolean hasReason = arguments == 3 || call.getArgumentCall(1) == null;
+        if (hasReason && call.getArguments().get(0).startsWith("\"") && call.getMessage() != null) {
+            return "Verifies that " + call.getMessage();
+        }
+
+        AssertionCall matcher = call.getArgumentCall(arguments - 1);
+        if (matcher == null) {
+            return "Verifies that the test condition is validated: " + call.getArgumentText();
+        }
+        return "Verifies that " + call.getArguments().get(arguments - 2) + " " + describe(matcher);
+    }
+
+    /**
+     * Describes a matcher as a predicate, e.g. equalTo(5) as "is equal to 5"
+     */
+    private static String describe(AssertionCall matcher) {
+        String name = matcher.getName();
+        AssertionCall inner = matcher.getArguments().size() == 1 ? matcher.getArgumentCall(0) : null;
+
+        if (name.equals("is") && inner != null) {
+            return describe(inner);
+        }
+        if (name.equals("not") && inner != null) {
+            String negated = describe(inner);
+            return negated.startsWith("is ") ? "is not " + negated.substring(3) : "not " + negated;
+        }
+        String joiner = COMBINERS.get(name);
+        if (joiner != null && !matcher.getArguments().isEmpty()) {
+            StringBuilder combined = new StringBuilder();
+            for (int i = 0; i < matcher.getArguments().size(); i++) {
+                if (i > 0) {
+                    combined.append(joiner);
+                }
+                AssertionCall part = matcher.getArgumentCall(i);
+                combined.append(part != null ? describe(part) : matcher.getArguments().get(i));
+            }
+            return combined.toString();
+        }
+
+        String words = AssertionTranslators.words(name);
+        int firstSpace = words.indexOf(' ');
+        String firstWord = firstSpace < 0 ? words : words.substring(0, firstSpace);
+        if (!VERBS.contains(firstWord)) {
+            words = "is " + words;
+        }
+        return AssertionTranslators.withArguments(words, matcher);
+    }
+}
@@ -0,0 +1,49 @@
+package io.vinipx.testngdoc.assertions;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Describes the assertions of TestNG's {@code Assert} and {@code SoftAssert}, by their message if they have one
+ * and otherwise by their arguments
+ */
+class TestNGAssertionTranslator implements AssertionTranslator {
+
+    // How the description of each assertion starts
+    private static final Map<String, String> PREFIXES = new LinkedHashMap<>();
+
+    static {
+        PREFIXES.put("assertEquals", "Verifies that ");
+        PREFIXES.put("assertEqualsNoOrder", "Verifies that ");
+        PREFIXES.put("assertEqualsDeep", "Verifies that ");
+        PREFIXES.put("assertSame", "Verifies that ");
+        PREFIXES.put("assertTrue", "Confirms that ");
+        PREFIXES.put("assertThrows", "Confirms that ");
+        PREFIXES.put("expectThrows", "Confirms that ");
+        PREFIXES.put("assertFalse", "Ensures that ");
+        PREFIXES.put("assertNotEquals", "Ensures that ");
+        PREFIXES.put("assertNotEqualsDeep", "Ensures that ");
+        PREFIXES.put("assertNotSame", "Ensures that ");
+        PREFIXES.put("assertNotNull", "Validates that ");
+        PREFIXES.put("assertNull", "Checks that ");
+    }
+
+    @Override
+    public Collection<String> getMethodNames() {
+        return PREFIXES.keySet();
+    }
+
+    @Override
+    public String translate(AssertionCall call) {
+        String prefix = PREFIXES.get(call.getName());
+        if (prefix == null) {
+            return null;
+        }
+        // The message, if any, often contains a good explanation
+        if (call.getMessage() != null) {
+            return prefix + call.getMessage();
+        }
+        return prefix + "the test condition is validated: " + call.getArgumentText();
+    }
+}
@@ -0,0 +1,158 @@
+package io.vinipx.testngdoc.processor;
+
+import io.vinipx.testngdoc.annotations.Docs;
+import io.vinipx.testngdoc.util.TestIndex;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Annotation processor that records every TestNG test method, with its @Docs tags, into the
+ * {@link TestIndex#RESOURCE} index while the test sources are compiled. The generator reads this index
+ * instead of scanning the classpath when documenting a package.
+ * <p>
+ * Register it on the annotation processor path of the test sources, for example with Gradle:
+ * {@code testAnnotationProcessor 'io.vinipx:testng-doc-generator:<version>'}
+ */
+@SupportedAnnotationTypes({TestIndexProcessor.TEST_ANNOTATION, TestIndexProcessor.DOCS_ANNOTATION})
+public class TestIndexProcessor extends AbstractProcessor {
+
+    static final String TEST_ANNOTATION = "org.testng.annotations.Test";
+    static final String DOCS_ANNOTATION = "io.vinipx.testngdoc.annotations.Docs";
+
+    // Classes from all rounds, sorted by binary name so the index does not depend on compilation order
+    private final Map<String, TestIndex.IndexedClass> indexedClasses = new TreeMap<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement testAnnotation = processingEnv.getElementUtils().getTypeElement(TEST_ANNOTATION);
+        if (testAnnotation != null) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(testAnnotation)) {
+                if (element instanceof ExecutableElement && element.getEnclosingElement() instanceof TypeElement) {
+                    indexClass((TypeElement) element.getEnclosingElement());
+                }
+            }
+        }
+
+        if (roundEnv.processingOver() && !indexedClasses.isEmpty()) {
+            writeIndex();
+        }
+
+        // Other processors may also be interested in @Test and @Docs
+        return false;
+    }
+
+    private void indexClass(TypeElement type) {
+        String className = processingEnv.getElementUtils().getBinaryName(type).toString();
+        if (indexedClasses.containsKey(className)) {
+            return;
+        }
+
+        TestIndex.IndexedClass indexedClass = new TestIndex.IndexedClass(className, sourceFileName(type));
+        // Enclosed elements are returned in declaration order
+        for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+            if (hasAnnotation(method, TEST_ANNOTATION)) {
+                indexedClass.getMethods().add(indexMethod(method));
+            }
+        }
+        indexedClasses.put(className, indexedClass);
+    }
+
+    private TestIndex.IndexedMethod indexMethod(ExecutableElement method) {
+        List<String> parameterTypes = new ArrayList<>();
+        for (VariableElement parameter : method.getParameters()) {
+            parameterTypes.add(simpleTypeName(parameter.asType()));
+        }
+
+        // Only runtime annotations are visible to reflection, which the descriptions are modelled on
+        List<String> annotations = new ArrayList<>();
+        for (AnnotationMirror mirror : method.getAnnotationMirrors()) {
+            Element annotationType = mirror.getAnnotationType().asElement();
+            Retention retention = annotationType.getAnnotation(Retention.class);
+            if (retention != null && retention.value() == RetentionPolicy.RUNTIME) {
+                annotations.add(annotationType.getSimpleName().toString());
+            }
+        }
+
+        Docs docs = method.getAnnotation(Docs.class);
+        List<String> tags = docs != null ? Arrays.asList(docs.tags()) : new ArrayList<>();
+
+        return new TestIndex.IndexedMethod(method.getSimpleName().toString(),
+                simpleTypeName(method.getReturnType()), parameterTypes, annotations, tags);
+    }
+
+    private boolean hasAnnotation(Element element, String annotationName) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeElement annotationType = (TypeElement) mirror.getAnnotationType().asElement();
+            if (annotationType.getQualifiedName().contentEquals(annotationName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String simpleTypeName(TypeMirror type) {
+        TypeMirror erased = processingEnv.getTypeUtils().erasure(type);
+        if (erased.getKind() == TypeKind.ARRAY) {
+            return simpleTypeName(((ArrayType) erased).getComponentType()) + "[]";
+        }
+        if (erased.getKind() == TypeKind.DECLARED) {
+            return ((DeclaredType) erased).asElement().getSimpleName().toString();
+        }
+        return erased.toString();
+    }
+
+    private String sourceFileName(TypeElement type) {
+        // Nested classes are declared in the source file of their top-level class
+        Element topLevel = type;
+        while (topLevel.getEnclosingElement() instanceof TypeElement) {
+            topLevel = topLevel.getEnclosingElement();
+        }
+        return topLevel.getSimpleName() + ".java";
+    }
+
+    private void writeIndex() {
+        try {
+            FileObject resource = processingEnv.getFiler()
+                    .createResource(StandardLocation.CLASS_OUTPUT, "", TestIndex.RESOURCE);
+            try (Writer writer = new OutputStreamWriter(resource.openOutputStream(), StandardCharsets.UTF_8)) {
+                TestIndex.write(writer, indexedClasses.values());
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                    "Could not write test index " + TestIndex.RESOURCE + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,645 @@
+package io.vinipx.testngdoc.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Discovers TestNG test methods by reading class files directly, from directories and jars.
+ * Classes are never loaded or initialized, so static initializers do not run and the scanned
+ * classpath does not have to be on the classpath of the generator.
+ */
+public class ClassFileTestScanner {
+
+    /**
+     * Descriptor of the TestNG test annotation
+     */
+    public static final String TEST_ANNOTATION = "Lorg/testng/annotations/Test;";
+
+    /**
+     * Descriptor of the documentation tags annotation
+     */
+    public static final String DOCS_ANNOTATION = "Lio/vinipx/testngdoc/annotations/Docs;";
+
+    private final List<Path> classpath;
+    private final int threads;
+    private JarIndexCache jarIndexCache;
+
+    /**
+     * Creates a scanner for the given classpath
+     *
+     * @param classpath Class directories and jar files to scan
+     * @param threads   Number of worker threads used to read class files
+     */
+    public ClassFileTestScanner(List<Path> classpath, int threads) {
+        this.classpath = new ArrayList<>(classpath);
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Returns the entries of the classpath of the current JVM
+     *
+     * @return Class directories and jar files from the java.class.path system property
+     */
+    public static List<Path> currentClasspath() {
+        return Stream.of(System.getProperty("java.class.path", "").split(File.pathSeparator))
+                .filter(entry -> !entry.isEmpty())
+                .map(Paths::get)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Sets a persistent index cache for jar files. Jars found in the cache are not read again,
+     * and jars that are read are indexed as a whole and added to the cache.
+     *
+     * @param jarIndexCache The cache, or null to read jars on every scan
+     * @return this scanner
+     */
+    public ClassFileTestScanner setJarIndexCache(JarIndexCache jarIndexCache) {
+        this.jarIndexCache = jarIndexCache;
+        return this;
+    }
+
+    /**
+     * Scans the classpath for classes in a package (including sub-packages) that declare test methods
+     *
+     * @param packageName The package to scan
+     * @return Classes with at least one test method, sorted by class name
+     */
+    public List<ScannedClass> scan(String packageName) {
+        String packagePath = packageName.isEmpty() ? "" : packageName.replace('.', '/') + "/";
+        List<Callable<List<ScannedClass>>> tasks = new ArrayList<>();
+        List<JarFile> openJars = new ArrayList<>();
+
+        try {
+            for (Path entry : classpath) {
+                if (Files.isDirectory(entry)) {
+                    collectDirectoryTasks(entry, packagePath, tasks);
+                } else if (Files.isRegularFile(entry) && entry.toString().endsWith(".jar")) {
+                    if (jarIndexCache != null) {
+                        // One task per jar, so that the jars of a classpath are indexed concurrently
+                        tasks.add(() -> inPackage(jarIndexCache.getOrIndex(entry, this::readJar), packagePath));
+                    } else {
+                        JarFile jar = new JarFile(entry.toFile());
+                        openJars.add(jar);
+                        collectJarTasks(entry, jar, packagePath, tasks);
+                    }
+                }
+            }
+            System.out.println("Reading " + tasks.size() + " class files and jars using " + threads + " worker threads");
+            return runTasks(tasks);
+        } catch (IOException e) {
+            System.err.println("Error scanning class files for package " + packageName + ": " + e.getMessage());
+            return Collections.emptyList();
+        } finally {
+            for (JarFile jar : openJars) {
+                try {
+                    jar.close();
+                } catch (IOException e) {
+                    // Ignore, the jar was only read
+                }
+            }
+        }
+    }
+
+    private void collectDirectoryTasks(Path root, String packagePath, List<Callable<List<ScannedClass>>> tasks)
+            throws IOException {
+        Path packageDir = packagePath.isEmpty() ? root : root.resolve(packagePath);
+        if (!Files.isDirectory(packageDir)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(packageDir)) {
+            files.filter(file -> file.toString().endsWith(".class"))
+                    .forEach(file -> tasks.add(() -> {
+                        ScannedClass scannedClass = read(Files.readAllBytes(file));
+                        scannedClass.location = file.toAbsolutePath().toString();
+                        return Collections.singletonList(scannedClass);
+                    }));
+        }
+    }
+
+    private void collectJarTasks(Path jarPath, JarFile jar, String packagePath,
+                                 List<Callable<List<ScannedClass>>> tasks) {
+        Enumeration<JarEntry> entries = jar.entries();
+        while (entries.hasMoreElements()) {
+            JarEntry entry = entries.nextElement();
+            String name = entry.getName();
+            if (name.startsWith(packagePath) && name.endsWith(".class") && !name.startsWith("META-INF/")) {
+                tasks.add(() -> Collections.singletonList(readJarEntry(jarPath, jar, entry)));
+            }
+        }
+    }
+
+    /**
+     * Reads every class in a jar and keeps the ones with test methods
+     *
+     * @param jarPath The jar file
+     * @return The classes with test methods, in jar order
+     * @throws IOException If the jar cannot be read
+     */
+    private List<ScannedClass> readJar(Path jarPath) throws IOException {
+        List<ScannedClass> classes = new ArrayList<>();
+        try (JarFile jar = new JarFile(jarPath.toFile())) {
+            Enumeration<JarEntry> entries = jar.entries();
+            while (entries.hasMoreElements()) {
+                JarEntry entry = entries.nextElement();
+                if (entry.getName().endsWith(".class") && !entry.getName().startsWith("META-INF/")) {
+                    ScannedClass scannedClass = readJarEntry(jarPath, jar, entry);
+                    if (!scannedClass.getTestMethods().isEmpty()) {
+                        classes.add(scannedClass);
+                    }
+                }
+            }
+        }
+        return classes;
+    }
+
+    private static ScannedClass readJarEntry(Path jarPath, JarFile jar, JarEntry entry) throws IOException {
+        try (InputStream in = jar.getInputStream(entry)) {
+            ScannedClass scannedClass = read(in.readAllBytes());
+            scannedClass.location = jarLocation(jarPath, entry.getName());
+            return scannedClass;
+        }
+    }
+
+    private static String jarLocation(Path jarPath, String entryName) {
+        return "jar:" + jarPath.toUri() + "!/" + entryName;
+    }
+
+    private static List<ScannedClass> inPackage(List<ScannedClass> classes, String packagePath) {
+        String packagePrefix = packagePath.replace('/', '.');
+        List<ScannedClass> matching = new ArrayList<>();
+        for (ScannedClass scannedClass : classes) {
+            if (scannedClass.getName().startsWith(packagePrefix)) {
+                matching.add(scannedClass);
+            }
+        }
+        return matching;
+    }
+
+    private List<ScannedClass> runTasks(List<Callable<List<ScannedClass>>> tasks) {
+        List<ScannedClass> classes = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<List<ScannedClass>>> results = executor.invokeAll(tasks);
+            for (Future<List<ScannedClass>> result : results) {
+                try {
+                    for (ScannedClass scannedClass : result.get()) {
+                        if (!scannedClass.getTestMethods().isEmpty()) {
+                            classes.add(scannedClass);
+                        }
+                    }
+                } catch (ExecutionException e) {
+                    System.err.println("Error reading class file: " + e.getCause().getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Interrupted while reading class files");
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Sort by name so the result does not depend on classpath or thread order
+        classes.sort(Comparator.comparing(ScannedClass::getName));
+        return classes;
+    }
+
+    /**
+     * Writes scanned classes in the binary format used by {@link JarIndexCache}
+     *
+     * @param out     The destination
+     * @param classes The classes to write
+     * @throws IOException If the classes cannot be written
+     */
+    static void writeClasses(DataOutputStream out, List<ScannedClass> classes) throws IOException {
+        out.writeInt(classes.size());
+        for (ScannedClass scannedClass : classes) {
+            out.writeUTF(scannedClass.name);
+            out.writeBoolean(scannedClass.sourceFile != null);
+            if (scannedClass.sourceFile != null) {
+                out.writeUTF(scannedClass.sourceFile);
+            }
+            // Store the entry name only, the jar may be found at a different path next time
+            String location = scannedClass.location;
+            out.writeUTF(location.substring(location.indexOf("!/") + 2));
+            out.writeInt(scannedClass.testMethods.size());
+            for (ScannedMethod method : scannedClass.testMethods) {
+                out.writeUTF(method.name);
+                out.writeUTF(method.descriptor);
+                writeStrings(out, method.annotations);
+                writeStrings(out, method.tags);
+            }
+        }
+    }
+
+    /**
+     * Reads scanned classes written by {@link #writeClasses(DataOutputStream, List)}
+     *
+     * @param in      The source
+     * @param jarPath The jar the classes were read from
+     * @return The classes
+     * @throws IOException If the classes cannot be read
+     */
+    static List<ScannedClass> readClasses(DataInputStream in, Path jarPath) throws IOException {
+        int classCount = in.readInt();
+        List<ScannedClass> classes = new ArrayList<>(classCount);
+        for (int c = 0; c < classCount; c++) {
+            ScannedClass scannedClass = new ScannedClass(in.readUTF());
+            scannedClass.sourceFile = in.readBoolean() ? in.readUTF() : null;
+            scannedClass.location = jarLocation(jarPath, in.readUTF());
+            int methodCount = in.readInt();
+            for (int m = 0; m < methodCount; m++) {
+                ScannedMethod method = new ScannedMethod(in.readUTF(), in.readUTF());
+                readStrings(in, method.annotations);
+                readStrings(in, method.tags);
+                scannedClass.testMethods.add(method);
+            }
+            classes.add(scannedClass);
+        }
+        return classes;
+    }
+
+    private static void writeStrings(DataOutputStream out, List<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static void readStrings(DataInputStream in, List<String> values) throws IOException {
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            values.add(in.readUTF());
+        }
+    }
+
+    /**
+     * Reads the test-related parts of a class file
+     *
+     * @param bytes The class file content
+     * @return The scanned class
+     * @throws IOException If the class file is malformed
+     */
+    public static ScannedClass read(byte[] bytes) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        if (in.readInt() != 0xCAFEBABE) {
+            throw new IOException("Not a class file");
+        }
+        in.readUnsignedShort(); // minor version
+        in.readUnsignedShort(); // major version
+
+        ConstantPool pool = ConstantPool.read(in);
+
+        in.readUnsignedShort(); // access flags
+        ScannedClass scannedClass = new ScannedClass(pool.className(in.readUnsignedShort()).replace('/', '.'));
+        in.readUnsignedShort(); // super class
+        int interfaceCount = in.readUnsignedShort();
+        in.skipBytes(interfaceCount * 2);
+
+        int fieldCount = in.readUnsignedShort();
+        for (int i = 0; i < fieldCount; i++) {
+            in.skipBytes(6);
+            skipAttributes(in);
+        }
+
+        int methodCount = in.readUnsignedShort();
+        for (int i = 0; i < methodCount; i++) {
+            in.readUnsignedShort(); // access flags
+            ScannedMethod method = new ScannedMethod(pool.utf8(in.readUnsignedShort()), pool.utf8(in.readUnsignedShort()));
+            int attributeCount = in.readUnsignedShort();
+            for (int a = 0; a < attributeCount; a++) {
+                String attributeName = pool.utf8(in.readUnsignedShort());
+                int length = in.readInt();
+                if (attributeName.equals("RuntimeVisibleAnnotations")) {
+                    readAnnotations(in, pool, method);
+                } else {
+                    in.skipBytes(length);
+                }
+            }
+            if (method.annotations.contains(TEST_ANNOTATION)) {
+                scannedClass.testMethods.add(method);
+            }
+        }
+
+        int attributeCount = in.readUnsignedShort();
+        for (int a = 0; a < attributeCount; a++) {
+            String attributeName = pool.utf8(in.readUnsignedShort());
+            int length = in.readInt();
+            if (attributeName.equals("SourceFile")) {
+                scannedClass.sourceFile = pool.utf8(in.readUnsignedShort());
+            } else {
+                in.skipBytes(length);
+            }
+        }
+
+        return scannedClass;
+    }
+
+    private static void skipAttributes(DataInputStream in) throws IOException {
+        int attributeCount = in.readUnsignedShort();
+        for (int a = 0; a < attributeCount; a++) {
+            in.readUnsignedShort();
+            in.skipBytes(in.readInt());
+        }
+    }
+
+    private static void readAnnotations(DataInputStream in, ConstantPool pool, ScannedMethod method) throws IOException {
+        int annotationCount = in.readUnsignedShort();
+        for (int i = 0; i < annotationCount; i++) {
+            String type = pool.utf8(in.readUnsignedShort());
+            method.annotations.add(type);
+            int pairCount = in.readUnsignedShort();
+            for (int p = 0; p < pairCount; p++) {
+                String elementName = pool.utf8(in.readUnsignedShort());
+                if (type.equals(DOCS_ANNOTATION) && elementName.equals("tags")) {
+                    readStringValues(in, pool, method.tags);
+                } else {
+                    skipElementValue(in);
+                }
+            }
+        }
+    }
+
+    private static void readStringValues(DataInputStream in, ConstantPool pool, List<String> values) throws IOException {
+        int tag = in.readUnsignedByte();
+        if (tag == 's') {
+            values.add(pool.utf8(in.readUnsignedShort()));
+        } else if (tag == '[') {
+            int count = in.readUnsignedShort();
+            for (int i = 0; i < count; i++) {
+                readStringValues(in, pool, values);
+            }
+        } else {
+            skipElementValue(in, tag);
+        }
+    }
+
+    private static void skipElementValue(DataInputStream in) throws IOException {
+        skipElementValue(in, in.readUnsignedByte());
+    }
+
+    private static void skipElementValue(DataInputStream in, int tag) throws IOException {
+        switch (tag) {
+            case 'e':
+                in.skipBytes(4);
+                break;
+            case '@':
+                in.readUnsignedShort();
+                int pairCount = in.readUnsignedShort();
+                for (int p = 0; p < pairCount; p++) {
+                    in.readUnsignedShort();
+                    skipElementValue(in);
+                }
+                break;
+            case '[':
+                int count = in.readUnsignedShort();
+                for (int i = 0; i < count; i++) {
+                    skipElementValue(in);
+                }
+                break;
+            default:
+                // Constants and class literals reference a single constant pool entry
+                in.skipBytes(2);
+        }
+    }
+
+    /**
+     * The constant pool entries needed to resolve names and string values
+     */
+    private static final class ConstantPool {
+        private final String[] utf8;
+        private final int[] classNameIndex;
+
+        private ConstantPool(int size) {
+            this.utf8 = new String[size];
+            this.classNameIndex = new int[size];
+        }
+
+        static ConstantPool read(DataInputStream in) throws IOException {
+            int count = in.readUnsignedShort();
+            ConstantPool pool = new ConstantPool(count);
+            for (int i = 1; i < count; i++) {
+                int tag = in.readUnsignedByte();
+                switch (tag) {
+                    case 1: // Utf8
+                        pool.utf8[i] = in.readUTF();
+                        break;
+                    case 7: // Class
+                        pool.classNameIndex[i] = in.readUnsignedShort();
+                        break;
+                    case 8: case 16: case 19: case 20: // String, MethodType, Module, Package
+                        in.skipBytes(2);
+                        break;
+                    case 15: // MethodHandle
+                        in.skipBytes(3);
+                        break;
+                    case 3: case 4: case 9: case 10: case 11: case 12: case 17: case 18:
+                        in.skipBytes(4);
+                        break;
+                    case 5: case 6: // Long and Double take two entries
+                        in.skipBytes(8);
+                        i++;
+                        break;
+                    default:
+                        throw new IOException("Unknown constant pool tag " + tag);
+                }
+            }
+            return pool;
+        }
+
+        String utf8(int index) {
+            return utf8[index];
+        }
+
+        String className(int index) {
+            return utf8[classNameIndex[index]];
+        }
+    }
+
+    /**
+     * A class read from a class file
+     */
+    public static final class ScannedClass {
+        private final String name;
+        private final List<ScannedMethod> testMethods = new ArrayList<>();
+        private String sourceFile;
+        private String location;
+
+        private ScannedClass(String name) {
+            this.name = name;
+        }
+
+        /**
+         * @return The fully qualified binary name, e.g. com.example.Outer$Inner
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return The package name, or an empty string for the default package
+         */
+        public String getPackageName() {
+            int lastDot = name.lastIndexOf('.');
+            return lastDot < 0 ? "" : name.substring(0, lastDot);
+        }
+
+        /**
+         * @return The simple name, e.g. Inner for com.example.Outer$Inner
+         */
+        public String getSimpleName() {
+            String binaryName = name.substring(name.lastIndexOf('.') + 1);
+            return binaryName.substring(binaryName.lastIndexOf('$') + 1);
+        }
+
+        /**
+         * @return The name of the source file from the SourceFile attribute, or null if it was not compiled in
+         */
+        public String getSourceFile() {
+            return sourceFile;
+        }
+
+        /**
+         * @return The path of the class file the class was read from, or a jar URL for classes read from jars
+         */
+        public String getLocation() {
+            return location;
+        }
+
+        /**
+         * @return The methods annotated with the TestNG test annotation, in declaration order
+         */
+        public List<ScannedMethod> getTestMethods() {
+            return testMethods;
+        }
+    }
+
+    /**
+     * A test method read from a class file
+     */
+    public static final class ScannedMethod {
+        private final String name;
+        private final String descriptor;
+        private final List<String> annotations = new ArrayList<>();
+        private final List<String> tags = new ArrayList<>();
+
+        private ScannedMethod(String name, String descriptor) {
+            this.name = name;
+            this.descriptor = descriptor;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return The JVM method descriptor, e.g. (Ljava/lang/String;)V
+         */
+        public String getDescriptor() {
+            return descriptor;
+        }
+
+        /**
+         * @return Descriptors of the runtime-visible annotations on the method
+         */
+        public List<String> getAnnotations() {
+            return annotations;
+        }
+
+        /**
+         * @return The tags of the Docs annotation on the method
+         */
+        public List<String> getTags() {
+            return tags;
+        }
+
+        /**
+         * @return The simple name of the return type, e.g. void or String
+         */
+        public String getReturnTypeName() {
+            return typeNames(descriptor.substring(descriptor.indexOf(')') + 1)).get(0);
+        }
+
+        /**
+         * @return The simple names of the parameter types, e.g. [String, int[]]
+         */
+        public List<String> getParameterTypeNames() {
+            return typeNames(descriptor.substring(1, descriptor.indexOf(')')));
+        }
+
+        /**
+         * @return The simple names of the runtime-visible annotations, e.g. [Test, Docs]
+         */
+        public List<String> getAnnotationNames() {
+            List<String> names = new ArrayList<>();
+            for (String annotation : annotations) {
+                names.addAll(typeNames(annotation));
+            }
+            return names;
+        }
+
+        private static List<String> typeNames(String descriptors) {
+            List<String> names = new ArrayList<>();
+            int i = 0;
+            while (i < descriptors.length()) {
+                int dimensions = 0;
+                while (descriptors.charAt(i) == '[') {
+                    dimensions++;
+                    i++;
+                }
+                String name;
+                char type = descriptors.charAt(i);
+                if (type == 'L') {
+                    int end = descriptors.indexOf(';', i);
+                    String className = descriptors.substring(i + 1, end);
+                    name = className.substring(Math.max(className.lastIndexOf('/'), className.lastIndexOf('$')) + 1);
+                    i = end + 1;
+                } else {
+                    name = primitiveName(type);
+                    i++;
+                }
+                StringBuilder typeName = new StringBuilder(name);
+                for (int d = 0; d < dimensions; d++) {
+                    typeName.append("[]");
+                }
+                names.add(typeName.toString());
+            }
+            return names;
+        }
+
+        private static String primitiveName(char type) {
+            switch (type) {
+                case 'B': return "byte";
+                case 'C': return "char";
+                case 'D': return "double";
+                case 'F': return "float";
+                case 'I': return "int";
+                case 'J': return "long";
+                case 'S': return "short";
+                case 'Z': return "boolean";
+                default: return "void";
+            }
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package io.vinipx.testngdoc.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A set of term replacements compiled into an Aho-Corasick automaton, so that every term is replaced in a single
+ * pass over the text, whatever the number of terms.
+ * <p>
+ * Terms are matched as plain, case-sensitive substrings. Where terms overlap, the match that starts first wins,
+ * and of the matches starting at the same position the longest one. Replaced text is not searched again.
+ */
+public class Glossary {
+
+    private static final Glossary EMPTY = new Glossary(new LinkedHashMap<>());
+
+    // Transitions from the start state are looked up in a table for characters below this value
+    private static final int ROOT_TABLE_SIZE = 128;
+
+    // Transitions of each state, sorted by character
+    private final char[][] transitionChars;
+    private final int[][] transitionTargets;
+    private final int[] rootTransitions = new int[ROOT_TABLE_SIZE];
+    // Failure link of each state: the state of its longest proper suffix that is also a term prefix
+    private final int[] failure;
+    // Length of the term prefix that each state represents
+    private final int[] depth;
+    // Length of the longest term ending in each state, or 0
+    private final int[] matchLength;
+    // Replacement of the longest term ending in each state, or null
+    private final String[] replacement;
+    private final int size;
+
+    private Glossary(Map<String, String> replacements) {
+        List<StringBuilder> chars = new ArrayList<>();
+        List<List<Integer>> targets = new ArrayList<>();
+        List<Integer> depths = new ArrayList<>();
+        List<String> terminals = new ArrayList<>();
+        chars.add(new StringBuilder());
+        targets.add(new ArrayList<>());
+        depths.add(0);
+        terminals.add(null);
+
+        // Build the trie of all terms
+        for (Map.Entry<String, String> entry : replacements.entrySet()) {
+            String term = entry.getKey();
+            if (term.isEmpty() || entry.getValue() == null) {
+                throw new IllegalArgumentException("Glossary terms must not be empty and must have a replacement");
+            }
+            int state = 0;
+            for (int i = 0; i < term.length(); i++) {
+                int index = chars.get(state).indexOf(String.valueOf(term.charAt(i)));
+                if (index >= 0) {
+                    state = targets.get(state).get(index);
+                } else {
+                    int next = chars.size();
+                    chars.add(new StringBuilder());
+                    targets.add(new ArrayList<>());
+                    depths.add(i + 1);
+                    terminals.add(null);
+                    chars.get(state).append(term.charAt(i));
+                    targets.get(state).add(next);
+                    state = next;
+                }
+            }
+            terminals.set(state, entry.getValue());
+        }
+
+        int states = chars.size();
+        transitionChars = new char[states][];
+        transitionTargets = new int[states][];
+        depth = new int[states];
+        replacement = new String[states];
+        for (int state = 0; state < states; state++) {
+            char[] stateChars = chars.get(state).toString().toCharArray();
+            int[] stateTargets = new int[stateChars.length];
+            Integer[] order = new Integer[stateChars.length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Character.compare(stateChars[a], stateChars[b]));
+            char[] sortedChars = new char[stateChars.length];
+            for (int i = 0; i < order.length; i++) {
+                sortedChars[i] = stateChars[order[i]];
+                stateTargets[i] = targets.get(state).get(order[i]);
+            }
+            transitionChars[state] = sortedChars;
+            transitionTargets[state] = stateTargets;
+            depth[state] = depths.get(state);
+        }
+
+        for (int i = 0; i < transitionChars[0].length; i++) {
+            if (transitionChars[0][i] < ROOT_TABLE_SIZE) {
+                rootTransitions[transitionChars[0][i]] = transitionTargets[0][i];
+            }
+        }
+
+        // Link each state to its longest suffix state, breadth first so that shorter states are linked first
+        failure = new int[states];
+        matchLength = new int[states];
+        Deque<Integer> queue = new ArrayDeque<>();
+        queue.add(0);
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            if (terminals.get(state) != null) {
+                // A term ending here is longer than any term ending in the suffix states
+                matchLength[state] = depth[state];
+                replacement[state] = terminals.get(state);
+            } else if (state != 0) {
+                matchLength[state] = matchLength[failure[state]];
+                replacement[state] = replacement[failure[state]];
+            }
+            for (int i = 0; i < transitionChars[state].length; i++) {
+                int child = transitionTargets[state][i];
+                failure[child] = state == 0 ? 0 : next(failure[state], transitionChars[state][i]);
+                queue.add(child);
+            }
+        }
+        size = replacements.size();
+    }
+
+    /**
+     * Compiles a set of term replacements
+     *
+     * @param replacements The replacement of each term
+     * @return The compiled glossary
+     * @throws IllegalArgumentException If a term is empty or has no replacement
+     */
+    public static Glossary compile(Map<String, String> replacements) {
+        return replacements.isEmpty() ? EMPTY : new Glossary(replacements);
+    }
+
+    /**
+     * Reads term replacements from a UTF-8 text file with one {@code term=replacement} entry per line.
+     * Blank lines and lines starting with {@code #} are skipped, and terms and replacements are trimmed.
+     *
+     * @param file The glossary file
+     * @return The replacement of each term, in file order
+     * @throws IOException If the file cannot be read or a line is not a valid entry
+     */
+    public static Map<String, String> readEntries(Path file) throws IOException {
+        Map<String, String> entries = new LinkedHashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                    continue;
+                }
+                int separator = trimmed.indexOf('=');
+                String term = separator >= 0 ? trimmed.substring(0, separator).trim() : "";
+                if (term.isEmpty()) {
+                    throw new IOException("Invalid glossary entry at " + file + ":" + lineNumber
+                            + ", expected term=replacement");
+                }
+                entries.put(term, trimmed.substring(separator + 1).trim());
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * @return The number of terms
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Replaces every term in a text
+     *
+     * @param text The text
+     * @return The text with all terms replaced, or the text itself if it contains none
+     */
+    public String replaceAll(String text) {
+        if (size == 0) {
+            return text;
+        }
+
+        StringBuilder result = null;
+        int copied = 0;
+        int state = 0;
+        int bestStart = -1;
+        int bestLength = 0;
+        String bestReplacement = null;
+        int i = 0;
+        while (i <= text.length()) {
+            if (i < text.length()) {
+                state = next(state, text.charAt(i));
+                int length = matchLength[state];
+                if (length > 0) {
+                    // A later match starting at the same position is longer
+                    int start = i - length + 1;
+                    if (bestStart < 0 || start <= bestStart) {
+                        bestStart = start;
+                        bestLength = length;
+                        bestReplacement = replacement[state];
+                    }
+                }
+                // The best match is final once the current prefix cannot extend a match that starts as early
+                if (bestStart < 0 || i - depth[state] + 1 <= bestStart) {
+                    i++;
+                    continue;
+                }
+            } else if (bestStart < 0) {
+                break;
+            }
+
+            if (result == null) {
+                result = new StringBuilder(text.length() + 16);
+            }
+            int end = bestStart + bestLength;
+            result.append(text, copied, bestStart).append(bestReplacement);
+            copied = end;
+            // Continue right after the match, as replaced text is never part of another match
+            i = end;
+            state = 0;
+            bestStart = -1;
+        }
+
+        if (result == null) {
+            return text;
+        }
+        return result.append(text, copied, text.length()).toString();
+    }
+
+    private int next(int state, char c) {
+        while (state != 0) {
+            int target = transition(state, c);
+            if (target >= 0) {
+                return target;
+            }
+            state = failure[state];
+        }
+        if (c < ROOT_TABLE_SIZE) {
+            return rootTransitions[c];
+        }
+        return Math.max(transition(0, c), 0);
+    }
+
+    /**
+     * @return The state reached from the given state with the character, or -1 if the trie has no such edge
+     */
+    private int transition(int state, char c) {
+        char[] chars = transitionChars[state];
+        int index = Arrays.binarySearch(chars, c);
+        return index >= 0 ? transitionTargets[state][index] : -1;
+    }
+}
@@ -0,0 +1,198 @@
+package io.vinipx.testngdoc.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Persistent index of the test classes in jar files, with one index file per jar named after the
+ * SHA-256 checksum of the jar. A jar is read once per version; afterwards its index is found
+ * by checksum alone, regardless of where the jar is on disk.
+ * <p>
+ * The checksum of a jar is recorded with its location, size and modification time, so an unchanged jar
+ * is not read again just to compute its checksum. Jars are only hashed when they are new or have changed.
+ */
+public class JarIndexCache {
+
+    /**
+     * Bump this whenever the index layout or the information read from class files changes
+     */
+    static final int FORMAT_VERSION = 1;
+
+    private static final String INDEX_EXTENSION = ".idx";
+    private static final String LOCATION_EXTENSION = ".loc";
+
+    private final Path directory;
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+    private final AtomicInteger checksums = new AtomicInteger();
+
+    /**
+     * Creates a cache that stores its index files in the given directory
+     *
+     * @param directory The cache directory, created on first write
+     */
+    public JarIndexCache(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Reads and indexes the classes of a jar
+     */
+    interface JarIndexer {
+        List<ClassFileTestScanner.ScannedClass> index(Path jar) throws IOException;
+    }
+
+    /**
+     * Returns the indexed test classes of a jar, indexing the jar if it is not in the cache yet
+     *
+     * @param jar     The jar file
+     * @param indexer Reads the test classes of the jar on a cache miss
+     * @return The test classes in the jar
+     * @throws IOException If the jar cannot be read
+     */
+    List<ClassFileTestScanner.ScannedClass> getOrIndex(Path jar, JarIndexer indexer) throws IOException {
+        Path indexFile = directory.resolve(checksumOf(jar) + INDEX_EXTENSION);
+
+        if (Files.exists(indexFile)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+                if (in.readInt() == FORMAT_VERSION) {
+                    List<ClassFileTestScanner.ScannedClass> classes = ClassFileTestScanner.readClasses(in, jar);
+                    hits.incrementAndGet();
+                    return classes;
+                }
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Could not read jar index " + indexFile + ", indexing again: " + e.getMessage());
+            }
+        }
+
+        misses.incrementAndGet();
+        List<ClassFileTestScanner.ScannedClass> classes = indexer.index(jar);
+        write(indexFile, classes);
+        return classes;
+    }
+
+    private void write(Path indexFile, List<ClassFileTestScanner.ScannedClass> classes) {
+        try {
+            Files.createDirectories(directory);
+            // A unique temporary file, as the same jar may be indexed by two workers at once
+            Path tempFile = Files.createTempFile(directory, "jar-index", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                out.writeInt(FORMAT_VERSION);
+                ClassFileTestScanner.writeClasses(out, classes);
+            }
+            Files.move(tempFile, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Could not write jar index " + indexFile + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the checksum of a jar, from the record of its location if the jar has the recorded size and
+     * modification time, and by reading the jar otherwise
+     */
+    private String checksumOf(Path jar) throws IOException {
+        Path absoluteJar = jar.toAbsolutePath().normalize();
+        Path locationFile = directory.resolve(recordName(absoluteJar) + LOCATION_EXTENSION);
+        BasicFileAttributes attrs = Files.readAttributes(absoluteJar, BasicFileAttributes.class);
+        long size = attrs.size();
+        long mtime = attrs.lastModifiedTime().toMillis();
+
+        if (Files.exists(locationFile)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(locationFile)))) {
+                if (in.readInt() == FORMAT_VERSION && in.readUTF().equals(absoluteJar.toString())
+                        && in.readLong() == size && in.readLong() == mtime) {
+                    return in.readUTF();
+                }
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Could not read jar location " + locationFile + ", reading the jar: " + e.getMessage());
+            }
+        }
+
+        String checksum = checksum(absoluteJar);
+        try {
+            Files.createDirectories(directory);
+            Path tempFile = Files.createTempFile(directory, "jar-location", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(absoluteJar.toString());
+                out.writeLong(size);
+                out.writeLong(mtime);
+                out.writeUTF(checksum);
+            }
+            Files.move(tempFile, locationFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Could not write jar location " + locationFile + ": " + e.getMessage());
+        }
+        return checksum;
+    }
+
+    private String checksum(Path jar) throws IOException {
+        checksums.incrementAndGet();
+        MessageDigest digest = sha256();
+        try (InputStream in = new DigestInputStream(Files.newInputStream(jar), digest)) {
+            byte[] buffer = new byte[64 * 1024];
+            while (in.read(buffer) != -1) {
+                // The digest is updated as the jar is read
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * The name of the record of a jar location: the SHA-256 of its path
+     */
+    private static String recordName(Path absoluteJar) {
+        return toHex(sha256().digest(absoluteJar.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String toHex(byte[] hash) {
+        StringBuilder hex = new StringBuilder(hash.length * 2);
+        for (byte b : hash) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * @return The number of jars found in the cache
+     */
+    public int getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return The number of jars that had to be read
+     */
+    public int getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return The number of jars that were read to compute their checksum, because they were new or changed
+     */
+    public int getChecksums() {
+        return checksums.get();
+    }
+}
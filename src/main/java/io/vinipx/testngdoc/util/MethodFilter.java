@@ -0,0 +1,171 @@
+package io.vinipx.testngdoc.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Decides which test methods are documented, from include and exclude patterns for method names and tags.
+ * <p>
+ * Each set of patterns is compiled once into a single alternation, so a name is matched against all patterns of
+ * the set in one pass. Tags recur on many methods, so the verdict for each distinct tag is computed once and kept
+ * in a dictionary for the lifetime of the filter. Patterns must match the whole name or tag, as with
+ * {@link String#matches(String)}.
+ * <p>
+ * A method is documented when its name matches an include pattern, if there are any, and no exclude pattern.
+ * Methods with tags must also have a tag matching an include tag pattern, if there are any, and no tag matching an
+ * exclude tag pattern. Methods without tags are not filtered by tag patterns.
+ */
+public final class MethodFilter {
+
+    private static final MethodFilter ALL = new MethodFilter(null, null, null, null);
+
+    // Verdicts kept in the tag dictionary
+    private static final int INCLUDED = 1;
+    private static final int EXCLUDED = 2;
+
+    private final PatternSet includeMethods;
+    private final PatternSet excludeMethods;
+    private final PatternSet includeTags;
+    private final PatternSet excludeTags;
+    private final ConcurrentHashMap<String, Integer> tagVerdicts = new ConcurrentHashMap<>();
+
+    private MethodFilter(PatternSet includeMethods, PatternSet excludeMethods,
+                         PatternSet includeTags, PatternSet excludeTags) {
+        this.includeMethods = includeMethods;
+        this.excludeMethods = excludeMethods;
+        this.includeTags = includeTags;
+        this.excludeTags = excludeTags;
+    }
+
+    /**
+     * Compiles the patterns of a filter
+     *
+     * @param includeMethodPatterns Regular expressions for the names of documented methods
+     * @param excludeMethodPatterns Regular expressions for the names of methods left out
+     * @param includeTagPatterns    Regular expressions for the tags of documented methods
+     * @param excludeTagPatterns    Regular expressions for the tags of methods left out
+     * @return The filter
+     * @throws PatternSyntaxException If a pattern is not a valid regular expression
+     */
+    public static MethodFilter compile(List<String> includeMethodPatterns, List<String> excludeMethodPatterns,
+                                       List<String> includeTagPatterns, List<String> excludeTagPatterns) {
+        if (includeMethodPatterns.isEmpty() && excludeMethodPatterns.isEmpty()
+                && includeTagPatterns.isEmpty() && excludeTagPatterns.isEmpty()) {
+            return ALL;
+        }
+        return new MethodFilter(PatternSet.compile(includeMethodPatterns), PatternSet.compile(excludeMethodPatterns),
+                PatternSet.compile(includeTagPatterns), PatternSet.compile(excludeTagPatterns));
+    }
+
+    /**
+     * @return A filter that documents every method
+     */
+    public static MethodFilter all() {
+        return ALL;
+    }
+
+    /**
+     * @return Whether the filter documents every method, because it has no patterns
+     */
+    public boolean acceptsAll() {
+        return this == ALL;
+    }
+
+    /**
+     * Tells whether a test method is documented
+     *
+     * @param methodName The method name
+     * @param tags       The tags of the method
+     * @return Whether the method passes the filter
+     */
+    public boolean accepts(String methodName, List<String> tags) {
+        if (includeMethods != null && !includeMethods.matches(methodName)) {
+            return false;
+        }
+        if (excludeMethods != null && excludeMethods.matches(methodName)) {
+            return false;
+        }
+        if (includeTags == null && excludeTags == null) {
+            return true;
+        }
+
+        boolean included = includeTags == null || tags.isEmpty();
+        for (String tag : tags) {
+            int verdict = tagVerdicts.computeIfAbsent(tag, this::judgeTag);
+            if ((verdict & EXCLUDED) != 0) {
+                return false;
+            }
+            if ((verdict & INCLUDED) != 0) {
+                included = true;
+            }
+        }
+        return included;
+    }
+
+    /**
+     * @return The number of distinct tags checked against the tag patterns so far
+     */
+    public int getDistinctTags() {
+        return tagVerdicts.size();
+    }
+
+    private int judgeTag(String tag) {
+        int verdict = 0;
+        if (includeTags != null && includeTags.matches(tag)) {
+            verdict |= INCLUDED;
+        }
+        if (excludeTags != null && excludeTags.matches(tag)) {
+            verdict |= EXCLUDED;
+        }
+        return verdict;
+    }
+
+    /**
+     * A set of patterns matched as one alternation. Some patterns do not keep their meaning inside an
+     * alternation: back references, because groups are numbered differently, and quotes and comments, which
+     * can run past the end of the pattern. Sets with such patterns are matched one pattern at a time instead.
+     */
+    private static final class PatternSet {
+        private static final Pattern NOT_COMBINABLE = Pattern.compile("\\\\(?:[1-9]|k<|Q)|\\(\\?[a-zA-Z-]*x");
+
+        private final Pattern[] patterns;
+
+        private PatternSet(Pattern[] patterns) {
+            this.patterns = patterns;
+        }
+
+        private static PatternSet compile(List<String> regexes) {
+            if (regexes.isEmpty()) {
+                return null;
+            }
+            List<Pattern> separate = new ArrayList<>(regexes.size());
+            boolean combinable = true;
+            StringBuilder alternation = new StringBuilder();
+            for (String regex : regexes) {
+                // Compiling each pattern on its own reports an invalid pattern as it was given
+                separate.add(Pattern.compile(regex));
+                combinable &= !NOT_COMBINABLE.matcher(regex).find();
+                if (alternation.length() > 0) {
+                    alternation.append('|');
+                }
+                alternation.append("(?:").append(regex).append(')');
+            }
+            if (combinable && regexes.size() > 1) {
+                return new PatternSet(new Pattern[]{Pattern.compile(alternation.toString())});
+            }
+            return new PatternSet(separate.toArray(new Pattern[0]));
+        }
+
+        private boolean matches(String input) {
+            for (Pattern pattern : patterns) {
+                if (pattern.matcher(input).matches()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
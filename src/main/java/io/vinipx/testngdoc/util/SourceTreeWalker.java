@@ -0,0 +1,105 @@
+package io.vinipx.testngdoc.util;
+
+import java.io.IOException;
+import java.nio.file.FileSystemLoopException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Walks a source tree and hands each Java source file to a consumer as soon as it is found.
+ * Excluded directories are pruned before they are descended into, and symbolic link loops are skipped.
+ * <p>
+ * An excluded name matches directories at any depth, so it also matches package directories of that name.
+ * A name that starts with {@code /}, such as {@code /build}, only matches a directory directly under the root.
+ */
+public class SourceTreeWalker {
+
+    /**
+     * Directories that are skipped by default because they only contain build output or dependencies.
+     * Build output directories are only skipped directly under the root, since packages may have the same names.
+     */
+    public static final Set<String> DEFAULT_EXCLUDED_DIRECTORIES = Collections.unmodifiableSet(
+            new LinkedHashSet<>(Arrays.asList("/build", "/out", "node_modules", "/generated")));
+
+    private final Set<String> excludedDirectories;
+
+    /**
+     * Creates a walker that skips the default excluded directories
+     */
+    public SourceTreeWalker() {
+        this(DEFAULT_EXCLUDED_DIRECTORIES);
+    }
+
+    /**
+     * Creates a walker that skips directories with the given names
+     *
+     * @param excludedDirectories Names of directories that should not be descended into; names that start with /
+     *                            only match directly under the root
+     */
+    public SourceTreeWalker(Collection<String> excludedDirectories) {
+        this.excludedDirectories = new LinkedHashSet<>(excludedDirectories);
+    }
+
+    /**
+     * Walks the source tree rooted at the given directory
+     *
+     * @param root     The root directory of the source tree
+     * @param consumer Receives each Java source file as it is found
+     * @return The number of Java source files found
+     * @throws IOException If the root directory cannot be read
+     */
+    public int walk(Path root, Consumer<Path> consumer) throws IOException {
+        int[] fileCount = {0};
+
+        Files.walkFileTree(root, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE,
+                new SimpleFileVisitor<Path>() {
+                    @Override
+                    public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                        // Never prune the root itself, even if its name matches an excluded directory
+                        if (!dir.equals(root) && dir.getFileName() != null && isExcluded(root, dir)) {
+                            System.out.println("Skipping excluded directory: " + dir);
+                            return FileVisitResult.SKIP_SUBTREE;
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                        if (attrs.isRegularFile() && file.getFileName().toString().endsWith(".java")) {
+                            fileCount[0]++;
+                            consumer.accept(file);
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFileFailed(Path file, IOException e) {
+                        if (e instanceof FileSystemLoopException) {
+                            System.err.println("Skipping symbolic link loop: " + file);
+                        } else {
+                            System.err.println("Could not read " + file + ": " + e.getMessage());
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+
+        return fileCount[0];
+    }
+
+    private boolean isExcluded(Path root, Path dir) {
+        String name = dir.getFileName().toString();
+        return excludedDirectories.contains(name)
+                || excludedDirectories.contains("/" + name) && root.equals(dir.getParent());
+    }
+}
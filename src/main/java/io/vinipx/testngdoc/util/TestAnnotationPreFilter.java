@@ -0,0 +1,96 @@
+package io.vinipx.testngdoc.util;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Lexical pre-filter that decides whether a Java source file can contain TestNG test methods
+ * without parsing it. The file is memory-mapped and its raw bytes are scanned for a {@code @Test}
+ * annotation, either by simple name or fully qualified.
+ * The filter may report false positives (for example an annotation inside a comment), but never false negatives
+ * for annotations the source scanner recognizes.
+ */
+public class TestAnnotationPreFilter {
+
+    private static final byte[] SIMPLE_NAME = "Test".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] QUALIFIED_NAME = "org.testng.annotations.Test".getBytes(StandardCharsets.US_ASCII);
+
+    private TestAnnotationPreFilter() {
+    }
+
+    /**
+     * Checks if a Java source file may contain TestNG test methods
+     *
+     * @param javaFile The Java source file to check
+     * @return true if the file contains a test annotation marker or could not be checked
+     */
+    public static boolean mayContainTests(Path javaFile) {
+        try (FileChannel channel = FileChannel.open(javaFile, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                // Too large to map in one piece; let the parser decide
+                return true;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return containsTestAnnotation(buffer, (int) size);
+        } catch (IOException e) {
+            // Let the parser report the problem
+            return true;
+        }
+    }
+
+    /**
+     * Scans the bytes of a source file for an {@code @Test} or {@code @org.testng.annotations.Test} annotation
+     *
+     * @param buffer The source bytes
+     * @param length The number of bytes to scan
+     * @return true if a test annotation marker was found
+     */
+    static boolean containsTestAnnotation(MappedByteBuffer buffer, int length) {
+        for (int i = 0; i < length; i++) {
+            if (buffer.get(i) != '@') {
+                continue;
+            }
+
+            // Java allows whitespace between '@' and the annotation name
+            int nameStart = i + 1;
+            while (nameStart < length && isWhitespace(buffer.get(nameStart))) {
+                nameStart++;
+            }
+
+            if (matchesName(buffer, length, nameStart, SIMPLE_NAME)
+                    || matchesName(buffer, length, nameStart, QUALIFIED_NAME)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matchesName(MappedByteBuffer buffer, int length, int offset, byte[] name) {
+        int end = offset + name.length;
+        if (end > length) {
+            return false;
+        }
+        for (int j = 0; j < name.length; j++) {
+            if (buffer.get(offset + j) != name[j]) {
+                return false;
+            }
+        }
+        // The name must not continue, otherwise this is a different annotation such as @TestInstance
+        return end == length || !isIdentifierPart(buffer.get(end));
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == '\r' || b == '\f';
+    }
+
+    private static boolean isIdentifierPart(byte b) {
+        // Non-ASCII bytes may be part of a Unicode identifier
+        return (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z') || (b >= '0' && b <= '9')
+                || b == '_' || b == '$' || b < 0;
+    }
+}
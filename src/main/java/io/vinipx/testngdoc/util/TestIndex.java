@@ -0,0 +1,300 @@
+package io.vinipx.testngdoc.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compact index of test classes and test methods, written at compile time by the
+ * {@code TestIndexProcessor} annotation processor and read by the generator instead of scanning the classpath.
+ * <p>
+ * The index is a UTF-8 text resource with one tab-separated record per line:
+ * <pre>
+ * testng-doc-index	1
+ * C	com.example.LoginTests	LoginTests.java
+ * M	testLogin	void	String,int	Test,Docs	Feature: Login	Smoke
+ * </pre>
+ * Each {@code C} record is followed by the {@code M} records of its test methods in declaration order:
+ * name, return type, parameter types, runtime annotations and the tags of the Docs annotation.
+ * Tabs, line breaks and backslashes inside values are escaped with a backslash.
+ */
+public class TestIndex {
+
+    /**
+     * Location of the index resource in compiled output and jars
+     */
+    public static final String RESOURCE = "META-INF/testng-doc/test-index";
+
+    private static final String HEADER = "testng-doc-index";
+    private static final int VERSION = 1;
+
+    private TestIndex() {
+    }
+
+    /**
+     * Loads and merges every index resource visible to a class loader
+     *
+     * @param classLoader The class loader to search
+     * @return The indexed classes sorted by name, or null if no index resource was found
+     */
+    public static List<IndexedClass> load(ClassLoader classLoader) {
+        Map<String, IndexedClass> classes = new TreeMap<>();
+        boolean found = false;
+        try {
+            Enumeration<URL> resources = classLoader.getResources(RESOURCE);
+            while (resources.hasMoreElements()) {
+                URL resource = resources.nextElement();
+                try (InputStream in = resource.openStream()) {
+                    for (IndexedClass indexedClass : read(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+                        // The first classpath entry wins, like class loading
+                        classes.putIfAbsent(indexedClass.getName(), indexedClass);
+                    }
+                    found = true;
+                } catch (IOException e) {
+                    System.err.println("Could not read test index " + resource + ": " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Could not look up test index resources: " + e.getMessage());
+        }
+        return found ? new ArrayList<>(classes.values()) : null;
+    }
+
+    /**
+     * Reads an index
+     *
+     * @param reader The index content
+     * @return The indexed classes in index order
+     * @throws IOException If the index cannot be read or has an unsupported format
+     */
+    public static List<IndexedClass> read(Reader reader) throws IOException {
+        BufferedReader in = new BufferedReader(reader);
+        String header = in.readLine();
+        if (header == null || !header.equals(HEADER + "\t" + VERSION)) {
+            throw new IOException("Unsupported test index format: " + header);
+        }
+
+        List<IndexedClass> classes = new ArrayList<>();
+        IndexedClass current = null;
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            String[] fields = line.split("\t", -1);
+            if (fields[0].equals("C") && fields.length == 3) {
+                current = new IndexedClass(unescape(fields[1]), unescape(fields[2]));
+                classes.add(current);
+            } else if (fields[0].equals("M") && fields.length >= 5 && current != null) {
+                List<String> tags = new ArrayList<>();
+                for (int i = 5; i < fields.length; i++) {
+                    tags.add(unescape(fields[i]));
+                }
+                current.methods.add(new IndexedMethod(unescape(fields[1]), unescape(fields[2]),
+                        splitList(fields[3]), splitList(fields[4]), tags));
+            } else {
+                throw new IOException("Malformed test index record: " + line);
+            }
+        }
+        return classes;
+    }
+
+    /**
+     * Writes an index
+     *
+     * @param writer  The destination
+     * @param classes The classes to write, in the order they should appear
+     * @throws IOException If the index cannot be written
+     */
+    public static void write(Writer writer, Collection<IndexedClass> classes) throws IOException {
+        writer.write(HEADER + "\t" + VERSION + "\n");
+        for (IndexedClass indexedClass : classes) {
+            writer.write("C\t" + escape(indexedClass.getName()) + "\t" + escape(indexedClass.getSourceFile()) + "\n");
+            for (IndexedMethod method : indexedClass.getMethods()) {
+                StringBuilder line = new StringBuilder("M\t")
+                        .append(escape(method.getName())).append('\t')
+                        .append(escape(method.getReturnType())).append('\t')
+                        .append(joinList(method.getParameterTypes())).append('\t')
+                        .append(joinList(method.getAnnotations()));
+                for (String tag : method.getTags()) {
+                    line.append('\t').append(escape(tag));
+                }
+                writer.write(line.append('\n').toString());
+            }
+        }
+        writer.flush();
+    }
+
+    // Type and annotation simple names never contain commas or tabs, so lists need no escaping
+    private static String joinList(List<String> values) {
+        return String.join(",", values);
+    }
+
+    private static List<String> splitList(String field) {
+        return field.isEmpty() ? new ArrayList<>() : new ArrayList<>(Arrays.asList(field.split(",")));
+    }
+
+    private static String escape(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '\\': escaped.append("\\\\"); break;
+                case '\t': escaped.append("\\t"); break;
+                case '\n': escaped.append("\\n"); break;
+                case '\r': escaped.append("\\r"); break;
+                default: escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    private static String unescape(String value) {
+        if (value.indexOf('\\') < 0) {
+            return value;
+        }
+        StringBuilder unescaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                unescaped.append(next == 't' ? '\t' : next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+            } else {
+                unescaped.append(c);
+            }
+        }
+        return unescaped.toString();
+    }
+
+    /**
+     * A test class in the index
+     */
+    public static class IndexedClass {
+        private final String name;
+        private final String sourceFile;
+        private final List<IndexedMethod> methods = new ArrayList<>();
+
+        /**
+         * Creates an indexed class without methods
+         *
+         * @param name       The binary class name, e.g. com.example.Outer$Inner
+         * @param sourceFile The name of the source file that declares the class, e.g. Outer.java
+         */
+        public IndexedClass(String name, String sourceFile) {
+            this.name = name;
+            this.sourceFile = sourceFile;
+        }
+
+        /**
+         * @return The binary class name
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return The package name, empty for the default package
+         */
+        public String getPackageName() {
+            int lastDot = name.lastIndexOf('.');
+            return lastDot < 0 ? "" : name.substring(0, lastDot);
+        }
+
+        /**
+         * @return The simple class name, e.g. Inner for com.example.Outer$Inner
+         */
+        public String getSimpleName() {
+            return name.substring(Math.max(name.lastIndexOf('.'), name.lastIndexOf('$')) + 1);
+        }
+
+        /**
+         * @return The name of the source file that declares the class
+         */
+        public String getSourceFile() {
+            return sourceFile;
+        }
+
+        /**
+         * @return The test methods of the class in declaration order
+         */
+        public List<IndexedMethod> getMethods() {
+            return methods;
+        }
+    }
+
+    /**
+     * A test method in the index
+     */
+    public static class IndexedMethod {
+        private final String name;
+        private final String returnType;
+        private final List<String> parameterTypes;
+        private final List<String> annotations;
+        private final List<String> tags;
+
+        /**
+         * Creates an indexed method
+         *
+         * @param name           The method name
+         * @param returnType     The simple name of the return type
+         * @param parameterTypes The simple names of the parameter types
+         * @param annotations    The simple names of the runtime annotations
+         * @param tags           The tags of the Docs annotation
+         */
+        public IndexedMethod(String name, String returnType, List<String> parameterTypes,
+                             List<String> annotations, List<String> tags) {
+            this.name = name;
+            this.returnType = returnType;
+            this.parameterTypes = Collections.unmodifiableList(new ArrayList<>(parameterTypes));
+            this.annotations = Collections.unmodifiableList(new ArrayList<>(annotations));
+            this.tags = Collections.unmodifiableList(new ArrayList<>(tags));
+        }
+
+        /**
+         * @return The method name
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return The simple name of the return type
+         */
+        public String getReturnType() {
+            return returnType;
+        }
+
+        /**
+         * @return The simple names of the parameter types
+         */
+        public List<String> getParameterTypes() {
+            return parameterTypes;
+        }
+
+        /**
+         * @return The simple names of the runtime annotations
+         */
+        public List<String> getAnnotations() {
+            return annotations;
+        }
+
+        /**
+         * @return The tags of the Docs annotation
+         */
+        public List<String> getTags() {
+            return tags;
+        }
+    }
+}
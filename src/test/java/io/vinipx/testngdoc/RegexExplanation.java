@@ -0,0 +1,164 @@
+package io.vinipx.testngdoc;
+
+import java.util.Map;
+
+/**
+ * The original explanation implementation based on chained regular expression replacements, kept as the
+ * reference that {@link ExplanationEngine} must match byte for byte and as the baseline of its benchmark
+ */
+class RegexExplanation {
+
+    private RegexExplanation() {
+    }
+
+    /**
+     * Generates a human-readable explanation of the test method logic
+     *
+     * @param rawCode             The raw code of the test method
+     * @param methodName          The name of the test method
+     * @param patternReplacements Replacements applied to the explanation
+     * @return A human-readable explanation of the test method logic
+     */
+    static String explain(String rawCode, String methodName, Map<String, String> patternReplacements) {
+        // Remove braces and trim
+        String cleanCode = rawCode.replaceAll("^\\{\\s*", "").replaceAll("\\s*\\}$", "").trim();
+
+        // Split the code into lines
+        String[] lines = cleanCode.split("\\n");
+
+        StringBuilder explanation = new StringBuilder();
+
+        // Extract comments as they often contain useful information
+        for (String line : lines) {
+            line = line.trim();
+            if (line.startsWith("//")) {
+                // Add comments directly as they are often already human-readable
+                explanation.append(line.substring(2).trim()).append("\n");
+            }
+        }
+
+        // If there were no comments, or we want to add more information
+        if (explanation.length() == 0 || true) {
+            // Check for test case ID pattern (e.g., TC01_, TC02_, etc.)
+            String testCaseId = null;
+            String originalMethodName = methodName; // Store the original method name
+            java.util.regex.Pattern tcPattern = java.util.regex.Pattern.compile("^(TC\\d+)_(.*)$");
+            java.util.regex.Matcher matcher = tcPattern.matcher(methodName);
+
+            if (matcher.find()) {
+                testCaseId = matcher.group(1);
+                methodName = matcher.group(2); // Use the rest of the method name without the TC prefix
+            }
+
+            // Convert camelCase method name to readable format
+            String readableMethodName = methodName.replace("test", "").replaceAll("([A-Z])", " $1").toLowerCase().trim();
+
+            // Handle Gherkin-style method names (given/when/then)
+            if (readableMethodName.contains("given") && readableMethodName.contains("when") && readableMethodName.contains("then")) {
+                // Replace the standard format with a more structured Gherkin format
+                readableMethodName = readableMethodName
+                        .replaceAll("given", "\nGiven ")
+                        .replaceAll("when", "\nWhen ")
+                        .replaceAll("then", "\nThen ")
+                        .replaceAll("test", "")
+                        .replaceAll("_", " ") // Replace underscores with spaces
+                        .trim();
+
+                explanation = new StringBuilder();
+                // Add original method name as title for reference
+                explanation.append("Method: ").append(originalMethodName).append("\n\n");
+
+                if (testCaseId != null) {
+                    explanation.append(testCaseId).append("\n");
+                }
+                explanation.append(readableMethodName).append("\n\n");
+            } else {
+                // Add a general description based on the method name
+                explanation.append("This test ");
+
+                // If a test case ID was found, include it
+                if (testCaseId != null) {
+                    explanation.append("(").append(testCaseId).append(") ");
+                }
+
+                // For non-Gherkin style, also replace underscores with spaces
+                readableMethodName = readableMethodName.replaceAll("_", " ");
+                explanation.append(readableMethodName).append(".\n\n");
+            }
+
+            // Look for assertions to understand what's being tested
+            for (String line : lines) {
+                line = line.trim();
+                if (line.contains("assert") || line.contains("Assert.")) {
+                    String assertDescription = translateAssertToHumanReadable(line);
+                    if (!assertDescription.isEmpty()) {
+                        explanation.append("- ").append(assertDescription).append("\n");
+                    }
+                }
+            }
+        }
+
+        // Apply pattern replacements to make the explanation more readable
+        String result = explanation.toString();
+        for (Map.Entry<String, String> entry : patternReplacements.entrySet()) {
+            result = result.replace(entry.getKey(), entry.getValue());
+        }
+
+        return result;
+    }
+
+    /**
+     * Translates an assertion statement to human-readable text
+     *
+     * @param assertLine The assertion line of code
+     * @return A human-readable explanation of the assertion
+     */
+    private static String translateAssertToHumanReadable(String assertLine) {
+        assertLine = assertLine.trim();
+
+        // Handle different types of assertions
+        if (assertLine.contains("assertEquals")) {
+            return "Verifies that " + extractAssertionDetails(assertLine, "assertEquals");
+        } else if (assertLine.contains("assertTrue")) {
+            return "Confirms that " + extractAssertionDetails(assertLine, "assertTrue");
+        } else if (assertLine.contains("assertFalse")) {
+            return "Ensures that " + extractAssertionDetails(assertLine, "assertFalse");
+        } else if (assertLine.contains("assertNotNull")) {
+            return "Validates that " + extractAssertionDetails(assertLine, "assertNotNull");
+        } else if (assertLine.contains("assertNull")) {
+            return "Checks that " + extractAssertionDetails(assertLine, "assertNull");
+        }
+
+        return "";
+    }
+
+    /**
+     * Extracts details from an assertion statement
+     *
+     * @param assertLine The assertion line of code
+     * @param assertType The type of assertion
+     * @return Details extracted from the assertion
+     */
+    private static String extractAssertionDetails(String assertLine, String assertType) {
+        // Extract the message if it exists (often contains good explanation)
+        int messageStart = assertLine.indexOf('"');
+        if (messageStart != -1) {
+            int messageEnd = assertLine.indexOf('"', messageStart + 1);
+            if (messageEnd != -1) {
+                return assertLine.substring(messageStart + 1, messageEnd);
+            }
+        }
+
+        // If no message, try to extract the variables being compared
+        int paramsStart = assertLine.indexOf('(');
+        if (paramsStart != -1) {
+            int paramsEnd = assertLine.lastIndexOf(')');
+            if (paramsEnd != -1) {
+                String params = assertLine.substring(paramsStart + 1, paramsEnd);
+                return "the test condition is validated: " + params;
+            }
+        }
+
+        return "the test condition is validated";
+    }
+}
@@ -1,8 +1,58 @@
 package io.vinipx.testngdoc;
 
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+import io.vinipx.testngdoc.assertions.AssertionCall;
+import io.vinipx.testngdoc.assertions.AssertionTranslator;
+import io.vinipx.testngdoc.assertions.AssertionTranslators;
+import io.vinipx.testngdoc.processor.TestIndexProcessor;
+import io.vinipx.testngdoc.util.ClassFileTestScanner;
+import io.vinipx.testngdoc.util.JarIndexCache;
+import io.vinipx.testngdoc.util.MethodFilter;
+import io.vinipx.testngdoc.util.SourceTreeWalker;
+import io.vinipx.testngdoc.util.TestAnnotationPreFilter;
+import io.vinipx.testngdoc.util.TestIndex;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.regex.PatternSyntaxException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
 import static org.junit.Assert.*;
+import static org.junit.Assume.assumeNotNull;
 
 /**
  * Unit tests for the TestNGDocGenerator class
@@ -11,6 +61,9 @@ import static org.junit.Assert.*;
 public class TestNGDocGeneratorUnitTest {
     
     private TestNGDocGenerator generator;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
     
     @Before
     public void setUp() {
@@ -108,4 +161,1264 @@ public class TestNGDocGeneratorUnitTest {
         assertTrue("Should format with Then", 
             result.contains("Then "));
     }
+
+    /**
+     * Test that parallel source scanning produces the same classes and methods, in the same order, as a sequential scan
+     */
+    @Test
+    public void testParallelScanMatchesSequentialScan() {
+        String sourceDir = "src/test/java/com/testngdoc/sample";
+        List<TestNGDocGenerator.TestClassInfo> sequential = generator.scanForTestClassesFromSource(sourceDir);
+        List<TestNGDocGenerator.TestClassInfo> parallel = new TestNGDocGenerator()
+            .useParallelScanning(4)
+            .scanForTestClassesFromSource(sourceDir);
+
+        assertFalse("Should find test classes", sequential.isEmpty());
+        assertEquals("Should find the same number of classes", sequential.size(), parallel.size());
+        for (int i = 0; i < sequential.size(); i++) {
+            TestNGDocGenerator.TestClassInfo expected = sequential.get(i);
+            TestNGDocGenerator.TestClassInfo actual = parallel.get(i);
+            assertEquals(expected.getClassName(), actual.getClassName());
+            assertEquals(expected.getTestMethods().size(), actual.getTestMethods().size());
+            for (int j = 0; j < expected.getTestMethods().size(); j++) {
+                assertEquals(expected.getTestMethods().get(j).getName(), actual.getTestMethods().get(j).getName());
+                assertEquals(expected.getTestMethods().get(j).getDescription(), actual.getTestMethods().get(j).getDescription());
+            }
+        }
+    }
+
+    /**
+     * Test that the source tree walker prunes excluded directories, but not packages named like build output
+     * directories, and survives symbolic link loops
+     */
+    @Test
+    public void testSourceTreeWalkerPrunesExcludedDirectoriesAndLinkLoops() throws IOException {
+        Path root = temporaryFolder.getRoot().toPath();
+        Files.createDirectories(root.resolve("com/example"));
+        Files.createDirectories(root.resolve("build/generated"));
+        Files.createDirectories(root.resolve("com/acme/build"));
+        Files.createDirectories(root.resolve("web/node_modules/lib"));
+        Files.write(root.resolve("com/example/ExampleTest.java"), "class ExampleTest {}".getBytes());
+        Files.write(root.resolve("com/acme/build/BuildTest.java"), "class BuildTest {}".getBytes());
+        Files.write(root.resolve("build/generated/GeneratedTest.java"), "class GeneratedTest {}".getBytes());
+        Files.write(root.resolve("web/node_modules/lib/Vendored.java"), "class Vendored {}".getBytes());
+        try {
+            Files.createSymbolicLink(root.resolve("com/example/loop"), root.resolve("com"));
+        } catch (UnsupportedOperationException | IOException e) {
+            // Symbolic links are not supported on every platform
+        }
+
+        List<String> found = new ArrayList<>();
+        int count = new SourceTreeWalker().walk(root, file -> found.add(file.getFileName().toString()));
+
+        Collections.sort(found);
+        assertEquals("Should only find the files outside excluded directories", 2, count);
+        assertEquals(Arrays.asList("BuildTest.java", "ExampleTest.java"), found);
+    }
+
+    /**
+     * Test that test methods and their tags are read from a class file without loading the class
+     */
+    @Test
+    public void testClassFileTestScannerReadsTestMethodsAndTags() throws IOException {
+        byte[] bytes;
+        try (InputStream in = getClass().getResourceAsStream("/com/testngdoc/sample/TaggedTests.class")) {
+            assertNotNull("Compiled sample class should be on the test classpath", in);
+            bytes = in.readAllBytes();
+        }
+
+        ClassFileTestScanner.ScannedClass scannedClass = ClassFileTestScanner.read(bytes);
+
+        assertEquals("com.testngdoc.sample.TaggedTests", scannedClass.getName());
+        assertEquals("TaggedTests.java", scannedClass.getSourceFile());
+        ClassFileTestScanner.ScannedMethod method = scannedClass.getTestMethods().get(0);
+        assertEquals("testLoginWithValidCredentials", method.getName());
+        assertEquals("void", method.getReturnTypeName());
+        assertEquals(Arrays.asList("Feature: Authentication", "Capability: Security", "UI"), method.getTags());
+        assertEquals(Arrays.asList("Test", "Docs"), method.getAnnotationNames());
+    }
+
+    /**
+     * Test that the annotation processor records test methods and tags in the test index during compilation
+     */
+    @Test
+    public void testIndexProcessorWritesTestIndex() throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assumeNotNull("Compiling requires a JDK", compiler);
+
+        Path source = temporaryFolder.newFolder("com", "example").toPath().resolve("IndexedTests.java");
+        Files.write(source, ("package com.example;\n" +
+                "import io.vinipx.testngdoc.annotations.Docs;\n" +
+                "import org.testng.annotations.Test;\n" +
+                "public class IndexedTests {\n" +
+                "    @Test @Docs(tags = {\"Feature: Login\", \"UI\"}) public void userCanLogin() {}\n" +
+                "    public void helper() {}\n" +
+                "    public static class Nested { @Test public void nestedTest(String value) {} }\n" +
+                "}\n").getBytes());
+
+        Path output = temporaryFolder.newFolder("classes").toPath();
+        int result = compiler.run(null, null, null,
+                "-proc:only", "-processor", TestIndexProcessor.class.getName(),
+                "-cp", System.getProperty("java.class.path"), "-d", output.toString(),
+                source.toString());
+        assertEquals("Compilation should succeed", 0, result);
+
+        List<TestIndex.IndexedClass> index;
+        try (Reader reader = Files.newBufferedReader(output.resolve(TestIndex.RESOURCE))) {
+            index = TestIndex.read(reader);
+        }
+
+        assertEquals(2, index.size());
+        TestIndex.IndexedClass indexedClass = index.get(0);
+        assertEquals("com.example.IndexedTests", indexedClass.getName());
+        assertEquals(1, indexedClass.getMethods().size());
+        TestIndex.IndexedMethod method = indexedClass.getMethods().get(0);
+        assertEquals("userCanLogin", method.getName());
+        assertEquals(Arrays.asList("Test", "Docs"), method.getAnnotations());
+        assertEquals(Arrays.asList("Feature: Login", "UI"), method.getTags());
+
+        TestIndex.IndexedClass nestedClass = index.get(1);
+        assertEquals("Nested", nestedClass.getSimpleName());
+        assertEquals("IndexedTests.java", nestedClass.getSourceFile());
+        assertEquals(Arrays.asList("String"), nestedClass.getMethods().get(0).getParameterTypes());
+    }
+
+    /**
+     * Test that a jar is read once and found by checksum in the jar index cache afterwards
+     */
+    @Test
+    public void testJarIndexCacheReusesIndexOfUnchangedJar() throws IOException {
+        Path jar = temporaryFolder.getRoot().toPath().resolve("fixtures.jar");
+        try (InputStream in = getClass().getResourceAsStream("/com/testngdoc/sample/TaggedTests.class");
+             JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+            out.putNextEntry(new JarEntry("com/testngdoc/sample/TaggedTests.class"));
+            out.write(in.readAllBytes());
+            out.closeEntry();
+        }
+
+        JarIndexCache cache = new JarIndexCache(temporaryFolder.newFolder("jar-cache").toPath());
+        ClassFileTestScanner scanner = new ClassFileTestScanner(Arrays.asList(jar), 2).setJarIndexCache(cache);
+        List<ClassFileTestScanner.ScannedClass> firstScan = scanner.scan("com.testngdoc");
+        List<ClassFileTestScanner.ScannedClass> secondScan = scanner.scan("com.testngdoc.sample");
+
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, secondScan.size());
+        assertEquals(firstScan.get(0).getLocation(), secondScan.get(0).getLocation());
+        assertEquals(firstScan.get(0).getTestMethods().get(0).getTags(), secondScan.get(0).getTestMethods().get(0).getTags());
+        assertTrue("Other packages should be filtered out", scanner.scan("com.other").isEmpty());
+        assertEquals("An unchanged jar is hashed once", 1, cache.getChecksums());
+    }
+
+    /**
+     * Test that a later run finds the index of an unchanged jar by its location, size and modification time
+     * without reading the jar, and reads the jar again once it changed
+     */
+    @Test
+    public void testJarIndexCacheDoesNotReadUnchangedJar() throws IOException {
+        Path jar = temporaryFolder.getRoot().toPath().resolve("unchanged.jar");
+        try (InputStream in = getClass().getResourceAsStream("/com/testngdoc/sample/TaggedTests.class");
+             JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+            out.putNextEntry(new JarEntry("com/testngdoc/sample/TaggedTests.class"));
+            out.write(in.readAllBytes());
+            out.closeEntry();
+        }
+        Path cacheDir = temporaryFolder.newFolder("jar-location-cache").toPath();
+        new ClassFileTestScanner(Arrays.asList(jar), 1).setJarIndexCache(new JarIndexCache(cacheDir))
+                .scan("com.testngdoc");
+
+        JarIndexCache nextRun = new JarIndexCache(cacheDir);
+        assertEquals(1, new ClassFileTestScanner(Arrays.asList(jar), 1).setJarIndexCache(nextRun)
+                .scan("com.testngdoc").size());
+        assertEquals(1, nextRun.getHits());
+        assertEquals("The unchanged jar is not read", 0, nextRun.getChecksums());
+
+        // A touched jar is read to compute its checksum, and its content is still found in the cache
+        Files.setLastModifiedTime(jar, FileTime.fromMillis(Files.getLastModifiedTime(jar).toMillis() + 10_000));
+        JarIndexCache touched = new JarIndexCache(cacheDir);
+        new ClassFileTestScanner(Arrays.asList(jar), 1).setJarIndexCache(touched).scan("com.testngdoc");
+        assertEquals(1, touched.getChecksums());
+        assertEquals(1, touched.getHits());
+        assertEquals(0, touched.getMisses());
+    }
+
+    /**
+     * Test that the pre-filter keeps files with a simple or fully qualified test annotation, including ones only
+     * mentioned in comments or strings, and skips files without one
+     */
+    @Test
+    public void testAnnotationPreFilter() throws IOException {
+        Path dir = temporaryFolder.newFolder("pre-filter").toPath();
+        Map<String, String> kept = new HashMap<>();
+        kept.put("Simple.java", "class Simple {\n    @Test public void testA() {}\n}\n");
+        kept.put("Qualified.java", "class Qualified {\n    @org.testng.annotations.Test\n    public void testA() {}\n}\n");
+        kept.put("Spaced.java", "class Spaced {\n    @ Test public void testA() {}\n}\n");
+        kept.put("InComment.java", "class InComment {\n    // Not a test yet: @Test\n}\n");
+        kept.put("InString.java", "class InString {\n    String marker = \"@Test\";\n}\n");
+        Map<String, String> skipped = new HashMap<>();
+        skipped.put("Empty.java", "");
+        skipped.put("Plain.java", "package com.example;\nclass Plain {\n    void test() {}\n}\n");
+        skipped.put("OtherAnnotations.java", "class OtherAnnotations {\n    @TestInstance @Override @Tested\n" +
+                "    public String toString() { return \"Test\"; }\n}\n");
+
+        for (Map.Entry<String, String> file : kept.entrySet()) {
+            Path javaFile = Files.write(dir.resolve(file.getKey()), file.getValue().getBytes(StandardCharsets.UTF_8));
+            assertTrue(file.getKey() + " should be kept", TestAnnotationPreFilter.mayContainTests(javaFile));
+        }
+        for (Map.Entry<String, String> file : skipped.entrySet()) {
+            Path javaFile = Files.write(dir.resolve(file.getKey()), file.getValue().getBytes(StandardCharsets.UTF_8));
+            assertFalse(file.getKey() + " should be skipped", TestAnnotationPreFilter.mayContainTests(javaFile));
+        }
+        assertTrue("Unreadable files are left to the parser",
+                TestAnnotationPreFilter.mayContainTests(dir.resolve("Missing.java")));
+    }
+
+    /**
+     * Test that the source resolver indexes its roots once and parses each source file once, also when several
+     * threads ask for the same file at the same time
+     */
+    @Test
+    public void testSourceResolverIndexesRootsAndParsesFilesOnce() throws Exception {
+        Path root = temporaryFolder.newFolder("resolver-root").toPath();
+        Path packageDir = Files.createDirectories(root.resolve("com/example"));
+        Files.write(packageDir.resolve("LoginTests.java"), ("package com.example;\n" +
+                "public class LoginTests {\n" +
+                "    public void testLogin() { assertTrue(loggedIn); }\n" +
+                "    public void testLogout() { assertFalse(loggedIn); }\n" +
+                "}\n").getBytes());
+        SourceResolver resolver = new SourceResolver(Collections.singletonList(root.toString()),
+                AssertionTranslators.load());
+
+        Path source = resolver.findSource("com.example", "LoginTests.java", null);
+        assertEquals(packageDir.resolve("LoginTests.java"), source);
+        Files.write(packageDir.resolve("LaterTests.java"), "package com.example;\nclass LaterTests {}\n".getBytes());
+        assertNull("The roots are indexed once per run", resolver.findSource("com.example", "LaterTests.java", null));
+
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<List<MethodLogic>>> results = new ArrayList<>();
+            for (int i = 0; i < threads * 4; i++) {
+                String methodName = i % 2 == 0 ? "testLogin" : "testLogout";
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return resolver.getMethodLogic(source, methodName);
+                }));
+            }
+            start.countDown();
+            List<MethodLogic> login = results.get(0).get();
+            assertEquals(1, login.size());
+            for (int i = 0; i < results.size(); i += 2) {
+                assertSame(login, results.get(i).get());
+                assertEquals(1, results.get(i + 1).get().size());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, resolver.getParsedFileCount());
+        assertTrue(resolver.getMethodLogic(source, "testMissing").isEmpty());
+        assertEquals(1, resolver.getParsedFileCount());
+    }
+
+    /**
+     * Test that test methods of nested classes are attributed to their innermost class and listed only once
+     */
+    @Test
+    public void testNestedClassMethodsAreAttributedToInnermostClass() throws IOException {
+        Path sourceDir = temporaryFolder.newFolder("nested").toPath();
+        Files.write(sourceDir.resolve("OuterTests.java"), ("package com.example;\n" +
+                "import org.testng.annotations.Test;\n" +
+                "public class OuterTests {\n" +
+                "    @Test public void outerTest() {}\n" +
+                "    public class Inner {\n" +
+                "        @Test public void innerTest() {}\n" +
+                "        public class Deepest { @Test public void deepestTest() {} }\n" +
+                "    }\n" +
+                "    @Test public void secondOuterTest() {}\n" +
+                "}\n").getBytes());
+
+        List<TestNGDocGenerator.TestClassInfo> classes = generator.scanForTestClassesFromSource(sourceDir.toString());
+
+        assertEquals(3, classes.size());
+        assertEquals("OuterTests", classes.get(0).getClassName());
+        assertEquals(2, classes.get(0).getTestMethods().size());
+        assertEquals("secondOuterTest", classes.get(0).getTestMethods().get(1).getName());
+        assertEquals("Inner", classes.get(1).getClassName());
+        assertEquals(1, classes.get(1).getTestMethods().size());
+        assertEquals("Deepest", classes.get(2).getClassName());
+        assertEquals("deepestTest", classes.get(2).getTestMethods().get(0).getName());
+    }
+
+    /**
+     * Test that the fast source extractor handles the sample tests and documents them exactly like JavaParser,
+     * and that it leaves constructs it does not support to JavaParser
+     */
+    @Test
+    public void testFastSourceExtractionMatchesJavaParser() throws IOException {
+        String sourceDir = "src/test/java/com/testngdoc/sample";
+        List<Path> sampleFiles;
+        try (Stream<Path> files = Files.list(Paths.get(sourceDir))) {
+            sampleFiles = files.filter(file -> file.toString().endsWith(".java")).collect(Collectors.toList());
+        }
+        for (Path file : sampleFiles) {
+            String source = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+            assertNotNull("Should not fall back for " + file,
+                    FastSourceExtractor.extract(source, AssertionTranslators.load(), true, method -> true,
+                            generator::generateHumanReadableExplanation, new ConstantTable(null, null),
+                            SourceFileBudget.UNLIMITED));
+        }
+
+        List<TestNGDocGenerator.TestClassInfo> fast = new TestNGDocGenerator()
+            .useFastSourceExtraction()
+            .scanForTestClassesFromSource(sourceDir);
+        List<TestNGDocGenerator.TestClassInfo> parsed = new TestNGDocGenerator()
+            .useFastSourceExtraction(false)
+            .scanForTestClassesFromSource(sourceDir);
+
+        assertFalse("Should find test classes", fast.isEmpty());
+        assertEquals(parsed.size(), fast.size());
+        for (int i = 0; i < parsed.size(); i++) {
+            assertEquals(parsed.get(i).getClassName(), fast.get(i).getClassName());
+            assertEquals(parsed.get(i).getPackageName(), fast.get(i).getPackageName());
+            assertEquals(parsed.get(i).getTestMethods().size(), fast.get(i).getTestMethods().size());
+            for (int j = 0; j < parsed.get(i).getTestMethods().size(); j++) {
+                TestNGDocGenerator.TestMethodInfo expected = parsed.get(i).getTestMethods().get(j);
+                TestNGDocGenerator.TestMethodInfo actual = fast.get(i).getTestMethods().get(j);
+                assertEquals(expected.getName(), actual.getName());
+                assertEquals(expected.getDescription(), actual.getDescription());
+                assertEquals(expected.getTags(), actual.getTags());
+            }
+        }
+
+        assertNull("Enums should be left to JavaParser", FastSourceExtractor.extract(
+                "package com.example;\npublic enum Mode { A, B }\n", AssertionTranslators.load(), true, method -> true,
+                generator::generateHumanReadableExplanation, new ConstantTable(null, null), SourceFileBudget.UNLIMITED));
+    }
+
+    /**
+     * Test that the explanation engine produces exactly the output of the original regular expression implementation
+     */
+    @Test
+    public void testExplanationEngineMatchesRegexImplementation() throws IOException {
+        Map<String, String> patternReplacements = new HashMap<>();
+        patternReplacements.put("login", "sign-in");
+        ExplanationEngine engine = new ExplanationEngine(patternReplacements);
+
+        List<String[]> inputs = new ArrayList<>();
+        List<Path> sampleFiles;
+        try (Stream<Path> files = Files.list(Paths.get("src/test/java/com/testngdoc/sample"))) {
+            sampleFiles = files.filter(file -> file.toString().endsWith(".java")).collect(Collectors.toList());
+        }
+        for (Path file : sampleFiles) {
+            new JavaParser().parse(file).getResult().orElseThrow().findAll(MethodDeclaration.class)
+                    .forEach(method -> method.getBody().ifPresent(body ->
+                            inputs.add(new String[]{body.toString(), method.getNameAsString()})));
+        }
+        inputs.add(new String[]{"{\r\n    // Step 1\r\n    assertNull(user);\r\n}\r\n", "TC07_testUserIsNull"});
+        inputs.add(new String[]{"assertEquals(a, b, \"unterminated);", "givenInput_whenTested_thenLatest"});
+        inputs.add(new String[]{"{ }", "TC1__"});
+
+        assertTrue("Should find method bodies", inputs.size() > 10);
+        for (String[] input : inputs) {
+            assertEquals("Explanation of " + input[1], RegexExplanation.explain(input[0], input[1], patternReplacements),
+                    engine.explain(input[0], input[1]));
+        }
+    }
+
+    /**
+     * Test that an assertion line whose closing parenthesis comes before its opening one is described
+     * without its values
+     */
+    @Test
+    public void testAssertionWithClosingParenthesisFirst() {
+        ExplanationEngine engine = new ExplanationEngine(new HashMap<>());
+        String explanation = engine.explain("{\n    assertTrue) || retry(\n}\n", "testRetry");
+        assertTrue(explanation, explanation.contains("the test condition is validated\n"));
+        assertFalse(explanation, explanation.contains("validated:"));
+    }
+
+    /**
+     * Test that assertions and comments are read from the syntax tree rather than from printed lines
+     */
+    @Test
+    public void testAssertionsAreReadFromSyntaxTree() throws IOException {
+        Path sourceDir = temporaryFolder.newFolder("assertions").toPath();
+        Files.write(sourceDir.resolve("CartTests.java"), ("package com.example;\n" +
+                "import org.testng.Assert;\n" +
+                "import org.testng.annotations.Test;\n" +
+                "public class CartTests {\n" +
+                "    @Test public void totalsAreComputed() {\n" +
+                "        // Compute the totals\n" +
+                "        Assert.assertEquals(\n" +
+                "                cart.total(),\n" +
+                "                100,\n" +
+                "                \"Total of \\\"cart\\\" should match\");\n" +
+                "        items.forEach(item -> {\n" +
+                "            assertNotNull(item.price());\n" +
+                "        });\n" +
+                "        // assertTrue(disabled);\n" +
+                "    }\n" +
+                "}\n").getBytes());
+
+        List<TestNGDocGenerator.TestClassInfo> classes = generator.scanForTestClassesFromSource(sourceDir.toString());
+
+        assertEquals(1, classes.size());
+        assertEquals("Compute the totals\n" +
+                "assertTrue(disabled);\n" +
+                "This test totals are computed.\n\n" +
+                "- Verifies that Total of \"cart\" should match\n" +
+                "- Validates that the test condition is validated: item.price()\n",
+                classes.get(0).getTestMethods().get(0).getDescription());
+    }
+
+    /**
+     * Test that glossary terms loaded from a file are all replaced in a single pass
+     */
+    @Test
+    public void testPatternReplacementsFromGlossaryFile() throws IOException {
+        Path glossaryFile = temporaryFolder.newFile("glossary.txt").toPath();
+        Files.write(glossaryFile, ("# Domain glossary\n" +
+                "API = Application Programming Interface\n" +
+                "API key = access token\n" +
+                "\n" +
+                "UI=User Interface\n").getBytes(StandardCharsets.UTF_8));
+
+        generator.loadPatternReplacements(glossaryFile.toString())
+                .addPatternReplacement("User", "Customer");
+        String result = generator.generateHumanReadableExplanation(
+                "// Open the UI and show the API key of the API\nAssert.assertTrue(true);", "testShowKey");
+
+        // The longest term wins, and replaced text is not replaced again
+        assertTrue(result.startsWith("Open the User Interface and show the access token of the "
+                + "Application Programming Interface\n"));
+    }
+
+    /**
+     * Test that explanations of bodies with the same logic are built once and shared
+     */
+    @Test
+    public void testExplanationsAreMemoizedByBodyLogic() {
+        JavaParser parser = new JavaParser();
+        AssertionTranslators translators = AssertionTranslators.load();
+        MethodLogic first = MethodLogic.of(parser.parseBlock(
+                "{ // Load row\n int row = load(1);\n assertEquals(row, expected, \"Row should match\"); }")
+                .getResult().get(), translators);
+        MethodLogic second = MethodLogic.of(parser.parseBlock(
+                "{ // Load row\n int row = load(2);\n assertEquals(row, expected, \"Row should match\"); }")
+                .getResult().get(), translators);
+        ExplanationEngine engine = new ExplanationEngine(new HashMap<>());
+
+        String explanation = engine.explain(first, "testLoadRow");
+        assertSame(explanation, engine.explain(second, "testLoadRow"));
+        assertSame(explanation, engine.explain(second, "loadRow"));
+        assertNotSame(explanation, engine.explain(second, "testLoadColumn"));
+        assertEquals(2, engine.getHits());
+        assertEquals(2, engine.getMisses());
+        assertEquals(1, engine.getDistinctBodies());
+
+        engine.setMemoize(false);
+        assertEquals(explanation, engine.explain(first, "testLoadRow"));
+        assertEquals(0, engine.getHits() + engine.getMisses());
+    }
+
+    /**
+     * Test that a lazy description is generated once, and that a plain description, including null, replaces it
+     */
+    @Test
+    public void testLazyMethodDescription() {
+        int[] calls = {0};
+        TestNGDocGenerator.TestMethodInfo method = new TestNGDocGenerator.TestMethodInfo("testLazy", null);
+        method.setDescriptionSupplier(() -> "Generated " + ++calls[0]);
+        assertEquals("Generated 1", method.getDescription());
+        assertEquals("Generated 1", method.getDescription());
+
+        method.setDescriptionSupplier(() -> "Generated again");
+        method.setDescription(null);
+        assertNull(method.getDescription());
+        assertEquals(1, calls[0]);
+    }
+
+    /**
+     * Test that AssertJ chains, Hamcrest matchers and registered custom assertions are described by translators
+     */
+    @Test
+    public void testAssertionTranslatorsDescribeAssertJHamcrestAndCustomAssertions() throws IOException {
+        Path sourceDir = temporaryFolder.newFolder("translators").toPath();
+        Files.write(sourceDir.resolve("OrderTests.java"), ("package com.example;\n" +
+                "import org.testng.annotations.Test;\n" +
+                "public class OrderTests {\n" +
+                "    @Test public void ordersAreShipped() {\n" +
+                "        assertThat(order.items()).hasSize(2).contains(book);\n" +
+                "        assertThat(order.total(), is(not(lessThan(100))));\n" +
+                "        assertThat(order).as(\"Order is paid\").isNotNull();\n" +
+                "        verifyShipped(order);\n" +
+                "    }\n" +
+                "}\n").getBytes());
+
+        generator.addAssertionTranslator(new AssertionTranslator() {
+            @Override
+            public Collection<String> getMethodNames() {
+                return Collections.singleton("verifyShipped");
+            }
+
+            @Override
+            public String translate(AssertionCall call) {
+                return "Checks that " + call.getArgumentText() + " was shipped";
+            }
+        });
+        List<TestNGDocGenerator.TestClassInfo> classes = generator.scanForTestClassesFromSource(sourceDir.toString());
+
+        assertEquals(1, classes.size());
+        assertEquals("This test orders are shipped.\n\n" +
+                "- Verifies that order.items() has size 2 and contains book\n" +
+                "- Verifies that order.total() is not less than 100\n" +
+                "- Verifies that Order is paid\n" +
+                "- Checks that order was shipped\n",
+                classes.get(0).getTestMethods().get(0).getDescription());
+    }
+
+    /**
+     * Test that filters are applied while scanning and that only documented methods are explained, on first use
+     */
+    @Test
+    public void testFilteredMethodsAreNeverExplained() throws IOException {
+        Path sourceDir = temporaryFolder.newFolder("lazy").toPath();
+        Files.write(sourceDir.resolve("PaymentTests.java"), ("package com.example;\n" +
+                "import io.vinipx.testngdoc.annotations.Docs;\n" +
+                "import org.testng.annotations.Test;\n" +
+                "public class PaymentTests {\n" +
+                "    @Test @Docs(tags = {\"smoke\"}) public void paymentIsAccepted() { verifyPaid(payment); }\n" +
+                "    @Test @Docs(tags = {\"slow\"}) public void refundIsIssued() { verifyPaid(refund); }\n" +
+                "    @Test public void receiptIsSent() { verifyPaid(receipt); }\n" +
+                "}\n").getBytes());
+
+        // Without the memo each scan explains its methods again
+        List<String> translated = new ArrayList<>();
+        generator.excludeTagPattern("slow").useExplanationMemo(false).addAssertionTranslator(new AssertionTranslator() {
+            @Override
+            public Collection<String> getMethodNames() {
+                return Collections.singleton("verifyPaid");
+            }
+
+            @Override
+            public String translate(AssertionCall call) {
+                translated.add(call.getArgumentText());
+                return "Checks that " + call.getArgumentText() + " is paid";
+            }
+        });
+
+        for (boolean fast : new boolean[]{true, false}) {
+            translated.clear();
+            generator.useFastSourceExtraction(fast);
+            List<TestNGDocGenerator.TestClassInfo> classes = generator.scanForTestClassesFromSource(sourceDir.toString());
+
+            List<TestNGDocGenerator.TestMethodInfo> methods = classes.get(0).getTestMethods();
+            assertEquals(2, methods.size());
+            assertEquals("paymentIsAccepted", methods.get(0).getName());
+            assertEquals("receiptIsSent", methods.get(1).getName());
+            assertTrue("Methods should not be explained while scanning", translated.isEmpty());
+
+            assertTrue(methods.get(1).getDescription().endsWith("- Checks that receipt is paid\n"));
+            methods.get(1).getDescription();
+            assertEquals(Collections.singletonList("receipt"), translated);
+        }
+    }
+
+    /**
+     * Test that the compiled method filter keeps the meaning of each pattern and checks each distinct tag once
+     */
+    @Test
+    public void testCompiledMethodFilter() {
+        MethodFilter filter = MethodFilter.compile(Arrays.asList("test.*", "(a)\\1.*"), Arrays.asList(".*Legacy"),
+                Arrays.asList("smoke", "(?i)FAST"), Arrays.asList("slow"));
+
+        assertTrue(filter.accepts("testLogin", Arrays.asList("smoke")));
+        assertTrue("Back references should keep their group", filter.accepts("aaLogin", Collections.emptyList()));
+        assertTrue("Inline flags should only apply to their pattern", filter.accepts("testLogin", Arrays.asList("fast")));
+        assertFalse(filter.accepts("checkLogin", Collections.emptyList()));
+        assertFalse(filter.accepts("testLoginLegacy", Collections.emptyList()));
+        assertFalse(filter.accepts("testLogin", Arrays.asList("smoke", "slow")));
+        assertFalse(filter.accepts("testLogin", Arrays.asList("nightly")));
+        assertFalse(filter.accepts("testLogout", Arrays.asList("nightly", "SMOKE")));
+        assertEquals(5, filter.getDistinctTags());
+
+        try {
+            generator.includeMethodPattern("test(");
+            fail("Invalid patterns should be rejected when they are added");
+        } catch (PatternSyntaxException e) {
+            // expected
+        }
+        // The invalid pattern is not kept, so later patterns still compile
+        generator.includeMethodPattern("test.*");
+    }
+
+    /**
+     * Test that lower detail levels describe methods without reading their bodies, and that names-only scans skip
+     * bodies without parsing them even when the fast extractor is not enabled
+     */
+    @Test
+    public void testDetailLevels() throws IOException {
+        Path sourceDir = temporaryFolder.newFolder("detail").toPath();
+        Files.write(sourceDir.resolve("CatalogueTests.java"), ("package com.example;\n" +
+                "import io.vinipx.testngdoc.annotations.Docs;\n" +
+                "import org.testng.annotations.Test;\n" +
+                "public class CatalogueTests {\n" +
+                "    @Test @Docs(tags = {\"catalogue\"}) public void givenItems_whenListed_thenSorted() {\n" +
+                "        // List the items\n" +
+                "        assertTrue(items.isSorted());\n" +
+                "    }\n" +
+                "}\n").getBytes());
+
+        for (boolean fast : new boolean[]{true, false}) {
+            generator.useFastSourceExtraction(fast);
+
+            TestNGDocGenerator.TestMethodInfo full = generator.scanForTestClassesFromSource(sourceDir.toString())
+                    .get(0).getTestMethods().get(0);
+            TestNGDocGenerator.TestMethodInfo prose = generator.setDetailLevel(TestNGDocGenerator.DetailLevel.PROSE)
+                    .scanForTestClassesFromSource(sourceDir.toString()).get(0).getTestMethods().get(0);
+            TestNGDocGenerator.TestMethodInfo names = generator.setDetailLevel(TestNGDocGenerator.DetailLevel.NAMES)
+                    .scanForTestClassesFromSource(sourceDir.toString()).get(0).getTestMethods().get(0);
+            generator.setDetailLevel(TestNGDocGenerator.DetailLevel.FULL);
+
+            assertTrue(full.getDescription().contains("- Confirms that the test condition is validated: items.isSorted()"));
+            assertTrue(full.getDescription().startsWith(prose.getDescription()));
+            assertTrue(prose.getDescription().contains("Given  items"));
+            assertFalse(prose.getDescription().contains("Confirms"));
+            assertEquals("", names.getDescription());
+            assertEquals("givenItems_whenListed_thenSorted", names.getName());
+            assertEquals(Collections.singletonList("catalogue"), names.getTags());
+        }
+
+        // With the default settings, names-only scans skip bodies that JavaParser could not parse
+        Files.write(sourceDir.resolve("CatalogueTests.java"), ("package com.example;\n" +
+                "import org.testng.annotations.Test;\n" +
+                "public class CatalogueTests {\n" +
+                "    @Test public void givenItems_whenListed_thenSorted() {\n" +
+                "        assertTrue(items.isSorted();\n" +
+                "    }\n" +
+                "}\n").getBytes());
+        List<TestNGDocGenerator.TestClassInfo> namesOnly = new TestNGDocGenerator()
+                .setDetailLevel(TestNGDocGenerator.DetailLevel.NAMES)
+                .scanForTestClassesFromSource(sourceDir.toString());
+        assertEquals(1, namesOnly.size());
+        assertEquals("givenItems_whenListed_thenSorted", namesOnly.get(0).getTestMethods().get(0).getName());
+    }
+
+    /**
+     * Test that @Docs tags given as constants are resolved from the same file, supertypes, static imports and
+     * other source files, the same way by the fast extractor and JavaParser, before the tag filter is applied
+     */
+    @Test
+    public void testConstantTagsAreResolved() throws IOException {
+        Path sourceDir = temporaryFolder.newFolder("constants").toPath();
+        Path tagsDir = Files.createDirectories(sourceDir.resolve("com/example/tags"));
+        Path testsDir = Files.createDirectories(sourceDir.resolve("com/example/tests"));
+        Files.write(tagsDir.resolve("Tags.java"), ("package com.example.tags;\n" +
+                "public interface Tags {\n" +
+                "    String SMOKE = \"smoke\";\n" +
+                "    String REGRESSION = \"regression\";\n" +
+                "}\n").getBytes());
+        Files.write(tagsDir.resolve("Teams.java"), ("package com.example.tags;\n" +
+                "public final class Teams {\n" +
+                "    private static final String PREFIX = \"team-\";\n" +
+                "    public static final String PAYMENTS = PREFIX + \"payments\";\n" +
+                "}\n").getBytes());
+        Files.write(testsDir.resolve("BaseTests.java"), ("package com.example.tests;\n" +
+                "import com.example.tags.Tags;\n" +
+                "public abstract class BaseTests {\n" +
+                "    protected static final String INHERITED = \"base-\" + Tags.SMOKE;\n" +
+                "}\n").getBytes());
+        Files.write(testsDir.resolve("CheckoutTests.java"), ("package com.example.tests;\n" +
+                "import com.example.tags.Tags;\n" +
+                "import io.vinipx.testngdoc.annotations.Docs;\n" +
+                "import org.testng.annotations.Test;\n" +
+                "import static com.example.tags.Teams.PAYMENTS;\n" +
+                "public class CheckoutTests extends BaseTests {\n" +
+                "    @Test @Docs(tags = {Tags.SMOKE, PAYMENTS, LOCAL, INHERITED, \"literal\"})\n" +
+                "    public void testCheckout() {}\n" +
+                "    @Test @Docs(tags = {Tags.REGRESSION, Missing.TAG})\n" +
+                "    public void testRefund() {}\n" +
+                "    private static final String LOCAL = \"checkout\";\n" +
+                "}\n").getBytes());
+
+        for (boolean fast : new boolean[]{true, false}) {
+            generator.useFastSourceExtraction(fast);
+
+            List<TestNGDocGenerator.TestClassInfo> classes = generator.scanForTestClassesFromSource(sourceDir.toString());
+            assertEquals(1, classes.size());
+            List<TestNGDocGenerator.TestMethodInfo> methods = classes.get(0).getTestMethods();
+            assertEquals(2, methods.size());
+            assertEquals(Arrays.asList("smoke", "team-payments", "checkout", "base-smoke", "literal"),
+                    methods.get(0).getTags());
+            assertEquals("Unresolved constants should be left out",
+                    Collections.singletonList("regression"), methods.get(1).getTags());
+
+            List<TestNGDocGenerator.TestMethodInfo> filtered = generator.excludeTagPattern("team-.*")
+                    .scanForTestClassesFromSource(sourceDir.toString()).get(0).getTestMethods();
+            generator.clearMethodFilters();
+            assertEquals(1, filtered.size());
+            assertEquals("testRefund", filtered.get(0).getName());
+        }
+    }
+
+    /**
+     * Test that the source cache returns the results of an unchanged file after a reload, and misses when the
+     * content changed, even with the same size and modification time, or when the settings changed
+     */
+    @Test
+    public void testSourceScanCacheHitsOnlyUnchangedFiles() throws IOException {
+        Path outputDir = temporaryFolder.newFolder("scan-cache-output").toPath();
+        Path javaFile = temporaryFolder.newFolder("scan-cache-sources").toPath().resolve("CachedTests.java");
+        Files.write(javaFile, "class CachedTests { /* one */ }".getBytes());
+        TestNGDocGenerator.TestMethodInfo method = new TestNGDocGenerator.TestMethodInfo("testCached", "Cached");
+        method.setTags(Collections.singletonList("smoke"));
+
+        SourceScanCache cache = SourceScanCache.load(outputDir, "settings");
+        assertNull(cache.get(javaFile));
+        cache.put(javaFile, Collections.singletonList(new TestNGDocGenerator.TestClassInfo("CachedTests",
+                "com.example", Collections.singletonList(method))), Collections.emptyList());
+        cache.save();
+
+        SourceScanCache reloaded = SourceScanCache.load(outputDir, "settings");
+        List<TestNGDocGenerator.TestClassInfo> cached = reloaded.get(javaFile);
+        assertNotNull(cached);
+        assertEquals(1, reloaded.getHits());
+        assertEquals("CachedTests", cached.get(0).getClassName());
+        assertEquals("com.example", cached.get(0).getPackageName());
+        assertEquals("testCached", cached.get(0).getTestMethods().get(0).getName());
+        assertEquals("Cached", cached.get(0).getTestMethods().get(0).getDescription());
+        assertEquals(Collections.singletonList("smoke"), cached.get(0).getTestMethods().get(0).getTags());
+        assertNull("Other settings discard the cache", SourceScanCache.load(outputDir, "other settings").get(javaFile));
+
+        // A file modified shortly before the cache was written is hashed, so an edit that keeps its size and
+        // modification time is still found
+        FileTime modified = Files.getLastModifiedTime(javaFile);
+        Files.write(javaFile, "class CachedTests { /* two */ }".getBytes());
+        Files.setLastModifiedTime(javaFile, modified);
+        SourceScanCache edited = SourceScanCache.load(outputDir, "settings");
+        assertNull(edited.get(javaFile));
+        assertEquals(1, edited.getMisses());
+    }
+
+    /**
+     * Test that every setting that changes the extracted results changes the source cache fingerprint
+     */
+    @Test
+    public void testSourceCacheFingerprintCoversSettings() {
+        assertEquals(new TestNGDocGenerator().sourceCacheFingerprint(), new TestNGDocGenerator().sourceCacheFingerprint());
+
+        AssertionTranslator translator = new AssertionTranslator() {
+            @Override
+            public Collection<String> getMethodNames() {
+                return Collections.singleton("verifyShipped");
+            }
+
+            @Override
+            public String translate(AssertionCall call) {
+                return "Checks that " + call.getArgumentText() + " was shipped";
+            }
+        };
+        List<TestNGDocGenerator> variants = Arrays.asList(
+                new TestNGDocGenerator(),
+                new TestNGDocGenerator().addPatternReplacement("login", "sign-in"),
+                new TestNGDocGenerator().setDetailLevel(TestNGDocGenerator.DetailLevel.NAMES),
+                new TestNGDocGenerator().addAssertionTranslator(translator),
+                new TestNGDocGenerator().includeMethodPattern("test.*"),
+                new TestNGDocGenerator().excludeMethodPattern("slow.*"),
+                new TestNGDocGenerator().includeTagPattern("smoke"),
+                new TestNGDocGenerator().excludeTagPattern("flaky"));
+        Set<String> fingerprints = new HashSet<>();
+        for (TestNGDocGenerator variant : variants) {
+            assertTrue("Fingerprint should be distinct: " + variant.sourceCacheFingerprint(),
+                    fingerprints.add(variant.sourceCacheFingerprint()));
+        }
+    }
+
+    /**
+     * Test that a cached file whose tag constant could not be resolved is scanned again once the file declaring
+     * the constant is added, and again when that file changes
+     */
+    @Test
+    public void testSourceCacheTracksUnresolvedTagConstants() throws IOException {
+        Path sourceDir = temporaryFolder.newFolder("unresolved-constants").toPath();
+        Path testsDir = Files.createDirectories(sourceDir.resolve("com/example/tests"));
+        Path tagsFile = sourceDir.resolve("com/example/tags/Tags.java");
+        Files.write(testsDir.resolve("CheckoutTests.java"), ("package com.example.tests;\n" +
+                "import com.example.tags.Tags;\n" +
+                "import io.vinipx.testngdoc.annotations.Docs;\n" +
+                "import org.testng.annotations.Test;\n" +
+                "public class CheckoutTests {\n" +
+                "    @Test @Docs(tags = {Tags.SMOKE, \"literal\"})\n" +
+                "    public void testCheckout() {}\n" +
+                "}\n").getBytes());
+        Path outputDir = temporaryFolder.newFolder("unresolved-constants-output").toPath();
+
+        assertEquals(Collections.singletonList("literal"), scanTagsWithCache(sourceDir, outputDir));
+
+        Files.createDirectories(tagsFile.getParent());
+        Files.write(tagsFile, ("package com.example.tags;\n" +
+                "public interface Tags {\n" +
+                "    String SMOKE = \"smoke\";\n" +
+                "}\n").getBytes());
+        assertEquals(Arrays.asList("smoke", "literal"), scanTagsWithCache(sourceDir, outputDir));
+
+        Files.write(tagsFile, ("package com.example.tags;\n" +
+                "public interface Tags {\n" +
+                "    String SMOKE = \"sanity\";\n" +
+                "}\n").getBytes());
+        assertEquals(Arrays.asList("sanity", "literal"), scanTagsWithCache(sourceDir, outputDir));
+    }
+
+    private static List<String> scanTagsWithCache(Path sourceDir, Path outputDir) {
+        TestNGDocGenerator cached = new TestNGDocGenerator().setOutputDirectory(outputDir.toString()).useSourceCache();
+        try {
+            List<TestNGDocGenerator.TestClassInfo> classes = cached.scanForTestClassesFromSource(sourceDir.toString());
+            assertEquals(1, classes.size());
+            // Descriptions are saved once they are generated, as they would be when the pages are rendered
+            classes.get(0).getTestMethods().get(0).getDescription();
+            cached.saveSourceCache();
+            return classes.get(0).getTestMethods().get(0).getTags();
+        } finally {
+            cached.setOutputDirectory("testng-docs");
+        }
+    }
+
+    /**
+     * Test that a scan with the source cache enabled does not explain a method before its description is read,
+     * not even when the cache is saved, and that a description is explained once and then loaded from the cache
+     */
+    @Test
+    public void testSourceCacheDoesNotExplainUnreadDescriptions() throws IOException {
+        Path sourceDir = temporaryFolder.newFolder("lazy-cache").toPath();
+        Files.write(sourceDir.resolve("ShippingTests.java"), ("package com.example;\n" +
+                "import org.testng.annotations.Test;\n" +
+                "public class ShippingTests {\n" +
+                "    @Test public void testShipped() {\n" +
+                "        verifyShipped(order);\n" +
+                "    }\n" +
+                "}\n").getBytes());
+        Path outputDir = temporaryFolder.newFolder("lazy-cache-output").toPath();
+        AtomicInteger translations = new AtomicInteger();
+        AssertionTranslator translator = new AssertionTranslator() {
+            @Override
+            public Collection<String> getMethodNames() {
+                return Collections.singleton("verifyShipped");
+            }
+
+            @Override
+            public String translate(AssertionCall call) {
+                translations.incrementAndGet();
+                return "Checks that " + call.getArgumentText() + " was shipped";
+            }
+        };
+
+        try {
+            TestNGDocGenerator unread = new TestNGDocGenerator().setOutputDirectory(outputDir.toString())
+                    .useSourceCache().addAssertionTranslator(translator);
+            unread.scanForTestClassesFromSource(sourceDir.toString());
+            unread.saveSourceCache();
+            assertEquals("Nothing is explained before a description is read", 0, translations.get());
+
+            // The unread description was not saved, so the file is scanned again
+            TestNGDocGenerator read = new TestNGDocGenerator().setOutputDirectory(outputDir.toString())
+                    .useSourceCache().addAssertionTranslator(translator);
+            TestNGDocGenerator.TestMethodInfo method = read.scanForTestClassesFromSource(sourceDir.toString())
+                    .get(0).getTestMethods().get(0);
+            assertEquals(0, translations.get());
+            assertTrue(method.getDescription().contains("Checks that order was shipped"));
+            assertEquals(1, translations.get());
+            read.saveSourceCache();
+
+            TestNGDocGenerator reloaded = new TestNGDocGenerator().setOutputDirectory(outputDir.toString())
+                    .useSourceCache().addAssertionTranslator(translator);
+            TestNGDocGenerator.TestMethodInfo cached = reloaded.scanForTestClassesFromSource(sourceDir.toString())
+                    .get(0).getTestMethods().get(0);
+            assertEquals(method.getDescription(), cached.getDescription());
+            assertEquals("The saved description is loaded without explaining it again", 1, translations.get());
+        } finally {
+            generator.setOutputDirectory("testng-docs");
+        }
+    }
+
+    /**
+     * Test that files over their size or time budget are documented by name only or skipped, and that they and
+     * malformed files are listed as quarantined
+     */
+    @Test
+    public void testSourceFileBudgetsQuarantineOffendingFiles() throws IOException {
+        Path sourceDir = temporaryFolder.newFolder("budgets").toPath();
+        StringBuilder generated = new StringBuilder("package com.example;\n" +
+                "import org.testng.annotations.Test;\n" +
+                "public class ContractTests {\n");
+        for (int i = 0; i < 5000; i++) {
+            generated.append("    @Test public void testContract").append(i).append("() {\n")
+                    .append("        assertEquals(response").append(i).append(".status(), 200);\n")
+                    .append("    }\n");
+        }
+        Files.write(sourceDir.resolve("ContractTests.java"), generated.append("}\n").toString().getBytes());
+        Files.write(sourceDir.resolve("LoginTests.java"), ("package com.example;\n" +
+                "import org.testng.annotations.Test;\n" +
+                "public class LoginTests {\n" +
+                "    @Test public void testLogin() { assertTrue(loggedIn); }\n" +
+                "}\n").getBytes());
+        Files.write(sourceDir.resolve("Broken.java"), ("package com.example;\n" +
+                "public class Broken {\n" +
+                "    @Test public void testBroken( {}\n").getBytes());
+
+        List<TestNGDocGenerator.TestClassInfo> classes = generator.setSourceFileSizeBudget(10_000)
+                .scanForTestClassesFromSource(sourceDir.toString());
+        Map<String, TestNGDocGenerator.TestClassInfo> byName = new HashMap<>();
+        classes.forEach(classInfo -> byName.put(classInfo.getClassName(), classInfo));
+        assertEquals(5000, byName.get("ContractTests").getTestMethods().size());
+        assertEquals("Oversized files are documented by name only",
+                "", byName.get("ContractTests").getTestMethods().get(0).getDescription());
+        assertFalse(byName.get("LoginTests").getTestMethods().get(0).getDescription().isEmpty());
+
+        Map<String, TestNGDocGenerator.QuarantinedFile> quarantined = new HashMap<>();
+        generator.getQuarantinedFiles().forEach(file -> quarantined.put(Paths.get(file.getPath()).getFileName()
+                .toString(), file));
+        assertEquals(2, quarantined.size());
+        assertTrue(quarantined.get("ContractTests.java").isDegraded());
+        assertTrue(quarantined.get("ContractTests.java").getReason().contains("size budget"));
+        assertFalse(quarantined.get("Broken.java").isDegraded());
+        assertTrue(quarantined.get("Broken.java").getReason().startsWith("could not be parsed"));
+
+        // A budget of one millisecond is spent long before the generated file is read
+        TestNGDocGenerator skipping = new TestNGDocGenerator().setSourceFileTimeBudget(1)
+                .setOverBudgetAction(TestNGDocGenerator.OverBudgetAction.SKIP);
+        for (TestNGDocGenerator.TestClassInfo classInfo : skipping.scanForTestClassesFromSource(sourceDir.toString())) {
+            assertNotEquals("ContractTests", classInfo.getClassName());
+        }
+        assertTrue(skipping.getQuarantinedFiles().stream().anyMatch(file -> file.getPath().endsWith("ContractTests.java")
+                && !file.isDegraded() && file.getReason().contains("time budget")));
+    }
+
+    /**
+     * Test that the files quarantined by a documentation run are still listed after the run, until the next run
+     */
+    @Test
+    public void testQuarantinedFilesAreKeptAfterRun() throws Exception {
+        Path sourceDir = temporaryFolder.newFolder("quarantine-sources").toPath();
+        Files.write(sourceDir.resolve("LoginTests.java"), ("package com.example;\n" +
+                "import org.testng.annotations.Test;\n" +
+                "public class LoginTests {\n" +
+                "    @Test public void testLogin() { assertTrue(loggedIn); }\n" +
+                "}\n").getBytes());
+        Path broken = sourceDir.resolve("Broken.java");
+        Files.write(broken, ("package com.example;\n" +
+                "public class Broken {\n" +
+                "    @Test public void testBroken( {}\n").getBytes());
+        Path outputDir = temporaryFolder.newFolder("quarantine-output").toPath();
+
+        try {
+            generator.setOutputDirectory(outputDir.toString()).generateDocumentationFromSource(sourceDir.toString());
+            List<TestNGDocGenerator.QuarantinedFile> quarantined = generator.getQuarantinedFiles();
+            assertEquals(1, quarantined.size());
+            assertTrue(quarantined.get(0).getPath().endsWith("Broken.java"));
+            assertTrue(Files.isRegularFile(outputDir.resolve("quarantine.txt")));
+
+            // The next run starts with an empty list
+            Files.delete(broken);
+            generator.generateDocumentationFromSource(sourceDir.toString());
+            assertTrue(generator.getQuarantinedFiles().isEmpty());
+            assertFalse(Files.exists(outputDir.resolve("quarantine.txt")));
+        } finally {
+            generator.setOutputDirectory("testng-docs");
+        }
+    }
+
+    /**
+     * Test that class pages rendered in parallel are identical to sequentially rendered ones, and that pages that
+     * cannot be written are reported in class order without stopping the others
+     */
+    @Test
+    public void testParallelRenderingMatchesSequentialRendering() throws Exception {
+        Path sourceDir = temporaryFolder.newFolder("rendering").toPath();
+        List<String> classNames = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            String className = "RenderTests" + i;
+            classNames.add(className);
+            Files.write(sourceDir.resolve(className + ".java"), ("package com.example;\n" +
+                    "import org.testng.annotations.Test;\n" +
+                    "public class " + className + " {\n" +
+                    "    @Test public void testFirst() { assertEquals(total, " + i + "); }\n" +
+                    "    @Test public void testSecond() { assertTrue(ready); }\n" +
+                    "}\n").getBytes());
+        }
+        Path sequentialDir = temporaryFolder.newFolder("sequential").toPath();
+        Path parallelDir = temporaryFolder.newFolder("parallel").toPath();
+        Path failingDir = temporaryFolder.newFolder("failing").toPath();
+
+        try {
+            new TestNGDocGenerator().setOutputDirectory(sequentialDir.toString())
+                    .generateDocumentationFromSource(sourceDir.toString());
+            new TestNGDocGenerator().setOutputDirectory(parallelDir.toString()).useParallelRendering(4)
+                    .generateDocumentationFromSource(sourceDir.toString());
+            for (String className : classNames) {
+                assertArrayEquals(className + ".html", Files.readAllBytes(sequentialDir.resolve(className + ".html")),
+                        Files.readAllBytes(parallelDir.resolve(className + ".html")));
+            }
+
+            // Directories in place of two pages make them fail
+            Files.createDirectories(failingDir.resolve("RenderTests7.html"));
+            Files.createDirectories(failingDir.resolve("RenderTests3.html"));
+            try {
+                new TestNGDocGenerator().setOutputDirectory(failingDir.toString()).useParallelRendering(4)
+                        .generateDocumentationFromSource(sourceDir.toString());
+                fail("Pages that cannot be written should fail the run");
+            } catch (IOException e) {
+                // The failure of the class scanned first is thrown, whichever page failed first
+                List<String> scanOrder = generator.scanForTestClassesFromSource(sourceDir.toString()).stream()
+                        .map(TestNGDocGenerator.TestClassInfo::getClassName).collect(Collectors.toList());
+                String first = scanOrder.indexOf("RenderTests3") < scanOrder.indexOf("RenderTests7")
+                        ? "RenderTests3" : "RenderTests7";
+                String second = first.equals("RenderTests3") ? "RenderTests7" : "RenderTests3";
+                assertTrue(e.getMessage(), e.getMessage().contains(first + ".html"));
+                assertEquals(1, e.getSuppressed().length);
+                assertTrue(e.getSuppressed()[0].getMessage().contains(second + ".html"));
+            }
+            assertTrue(Files.isRegularFile(failingDir.resolve("RenderTests11.html")));
+        } finally {
+            generator.setOutputDirectory("testng-docs");
+        }
+    }
+
+    /**
+     * Test that templates are parsed once per rendering context and parsed again only after they changed
+     */
+    @Test
+    public void testRenderingContextReusesParsedTemplates() throws Exception {
+        Path templateDir = temporaryFolder.newFolder("cached-templates").toPath();
+        Path template = templateDir.resolve("page.ftl");
+        Files.write(template, "Hello ${name}".getBytes(StandardCharsets.UTF_8));
+
+        RenderingContext context = new RenderingContext(0, name -> null, (name, content) -> content);
+        List<Path> overrides = Collections.singletonList(templateDir);
+        Configuration cfg = context.forOverrideDirectories(overrides);
+        assertSame(cfg, context.forOverrideDirectories(Collections.singletonList(
+                templateDir.resolve("..").resolve("cached-templates"))));
+        Template parsed = cfg.getTemplate("page.ftl");
+        assertSame(parsed, context.forOverrideDirectories(overrides).getTemplate("page.ftl"));
+
+        // An edited template is parsed again
+        Files.write(template, "Goodbye ${name}".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(template, FileTime.fromMillis(
+                Files.getLastModifiedTime(template).toMillis() + 10_000));
+        Template edited = context.forOverrideDirectories(overrides).getTemplate("page.ftl");
+        assertNotSame(parsed, edited);
+        StringWriter out = new StringWriter();
+        edited.process(Collections.singletonMap("name", "cache"), out);
+        assertEquals("Goodbye cache", out.toString());
+
+        // With a long delay, the parsed template is used without checking the file
+        context.setTemplateUpdateDelay(60_000);
+        Files.write(template, "Hi ${name}".getBytes(StandardCharsets.UTF_8));
+        assertSame(edited, context.forOverrideDirectories(overrides).getTemplate("page.ftl"));
+    }
+
+    /**
+     * Test that templates are layered file by file over the built-in templates, preprocessed in memory,
+     * and that generating documentation does not write templates to disk
+     */
+    @Test
+    public void testLayeredTemplatesAreNotWrittenToDisk() throws Exception {
+        Path userDir = temporaryFolder.newFolder("user-templates").toPath();
+        Path outputTemplateDir = temporaryFolder.newFolder("output-templates").toPath();
+        Path userIndex = userDir.resolve("index.ftl");
+        String userIndexContent = "<script src=\"chart.js\"></script>User ${title}";
+        Files.write(userIndex, userIndexContent.getBytes(StandardCharsets.UTF_8));
+        Files.write(outputTemplateDir.resolve("index.ftl"), "Output ${title}".getBytes(StandardCharsets.UTF_8));
+        Files.write(outputTemplateDir.resolve("class.ftl"), "Output class ${title}".getBytes(StandardCharsets.UTF_8));
+        FileTime indexModified = Files.getLastModifiedTime(userIndex);
+
+        List<String> builtInLookups = new ArrayList<>();
+        RenderingContext context = new RenderingContext(0, name -> {
+            builtInLookups.add(name);
+            return name.equals("page.ftl") ? "Built-in ${title}" : null;
+        }, (name, content) -> content.replace("<script src=\"chart.js\"></script>", ""));
+        Configuration cfg = context.forOverrideDirectories(Arrays.asList(userDir, outputTemplateDir));
+
+        Map<String, String> model = Collections.singletonMap("title", "report");
+        Map<String, String> rendered = new HashMap<>();
+        for (String name : Arrays.asList("index.ftl", "class.ftl", "page.ftl")) {
+            StringWriter out = new StringWriter();
+            cfg.getTemplate(name).process(model, out);
+            rendered.put(name, out.toString());
+        }
+        assertEquals("User report", rendered.get("index.ftl"));
+        assertEquals("Output class report", rendered.get("class.ftl"));
+        assertEquals("Built-in report", rendered.get("page.ftl"));
+        assertEquals("Override files are preprocessed in memory only", userIndexContent,
+                new String(Files.readAllBytes(userIndex), StandardCharsets.UTF_8));
+        assertEquals(indexModified, Files.getLastModifiedTime(userIndex));
+
+        // Built-in templates are looked up once, however often they are loaded
+        context.forOverrideDirectories(Collections.singletonList(userDir)).getTemplate("page.ftl");
+        assertEquals(1, Collections.frequency(builtInLookups, "page.ftl"));
+
+        Path sourceDir = temporaryFolder.newFolder("template-sources").toPath();
+        Files.write(sourceDir.resolve("LoginTests.java"), ("package com.example;\n" +
+                "import org.testng.annotations.Test;\n" +
+                "public class LoginTests {\n" +
+                "    @Test public void testLogin() { assertTrue(loggedIn); }\n" +
+                "}\n").getBytes());
+        Path outputDir = temporaryFolder.newFolder("template-output").toPath();
+        try {
+            new TestNGDocGenerator().setOutputDirectory(outputDir.toString())
+                    .generateDocumentationFromSource(sourceDir.toString());
+            assertTrue(Files.isRegularFile(outputDir.resolve("LoginTests.html")));
+            assertFalse(Files.exists(outputDir.resolve("templates")));
+        } finally {
+            generator.setOutputDirectory("testng-docs");
+        }
+    }
+
+    /**
+     * Test that with the output manifest, unchanged files are not written again and pages of deleted classes
+     * are removed
+     */
+    @Test
+    public void testOutputManifestWritesOnlyChangedFiles() throws Exception {
+        Path sourceDir = temporaryFolder.newFolder("manifest-sources").toPath();
+        for (String className : Arrays.asList("LoginTests", "LogoutTests", "SearchTests")) {
+            Files.write(sourceDir.resolve(className + ".java"), ("package com.example;\n" +
+                    "import org.testng.annotations.Test;\n" +
+                    "public class " + className + " {\n" +
+                    "    @Test public void testFlow() { assertTrue(done); }\n" +
+                    "}\n").getBytes());
+        }
+        Path outputDir = temporaryFolder.newFolder("manifest-output").toPath();
+        Path notGenerated = outputDir.resolve("notes.txt");
+        Files.write(notGenerated, "kept".getBytes());
+
+        try {
+            TestNGDocGenerator incremental = new TestNGDocGenerator().setOutputDirectory(outputDir.toString())
+                    .useOutputManifest();
+            incremental.generateDocumentationFromSource(sourceDir.toString());
+            Map<String, FileTime> firstRun = new HashMap<>();
+            for (String file : Arrays.asList("LoginTests.html", "LogoutTests.html", "SearchTests.html",
+                    "index.html", "css/styles.css")) {
+                firstRun.put(file, Files.getLastModifiedTime(outputDir.resolve(file)));
+            }
+
+            Files.delete(sourceDir.resolve("LogoutTests.java"));
+            Files.write(sourceDir.resolve("SearchTests.java"), ("package com.example;\n" +
+                    "import org.testng.annotations.Test;\n" +
+                    "public class SearchTests {\n" +
+                    "    @Test public void testFlow() { assertTrue(done); }\n" +
+                    "    @Test public void testEmptySearch() { assertTrue(results.isEmpty()); }\n" +
+                    "}\n").getBytes());
+            byte[] searchPage = Files.readAllBytes(outputDir.resolve("SearchTests.html"));
+            new TestNGDocGenerator().setOutputDirectory(outputDir.toString()).useOutputManifest()
+                    .generateDocumentationFromSource(sourceDir.toString());
+
+            assertEquals(firstRun.get("LoginTests.html"), Files.getLastModifiedTime(outputDir.resolve("LoginTests.html")));
+            assertEquals(firstRun.get("css/styles.css"), Files.getLastModifiedTime(outputDir.resolve("css/styles.css")));
+            assertFalse(Arrays.equals(searchPage, Files.readAllBytes(outputDir.resolve("SearchTests.html"))));
+            assertFalse("Pages of deleted classes are removed", Files.exists(outputDir.resolve("LogoutTests.html")));
+            assertTrue("Files the generator did not write are kept", Files.exists(notGenerated));
+
+            // A page changed or removed outside the generator is written again
+            Files.delete(outputDir.resolve("LoginTests.html"));
+            new TestNGDocGenerator().setOutputDirectory(outputDir.toString()).useOutputManifest()
+                    .generateDocumentationFromSource(sourceDir.toString());
+            assertTrue(Files.isRegularFile(outputDir.resolve("LoginTests.html")));
+        } finally {
+            generator.setOutputDirectory("testng-docs");
+        }
+    }
+
+    /**
+     * Test that the precompiled renderers write the same bytes as FreeMarker for the built-in templates, fall back
+     * to FreeMarker for models they do not support, and are not used for overridden templates
+     */
+    @Test
+    public void testPrecompiledTemplatesMatchFreeMarker() throws Exception {
+        Path emptyOverrides = temporaryFolder.newFolder("no-overrides").toPath();
+        RenderingContext context = new RenderingContext(0, name -> {
+            try (InputStream is = getClass().getClassLoader().getResourceAsStream("templates/" + name)) {
+                return is == null ? null : new String(is.readAllBytes(), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }, (name, content) -> content);
+        Configuration cfg = context.forOverrideDirectories(Collections.singletonList(emptyOverrides));
+        PrecompiledPage classPage = context.getPrecompiledPage(cfg, "class.ftl");
+        PrecompiledPage indexPage = context.getPrecompiledPage(cfg, "index.ftl");
+        assertNotNull(classPage);
+        assertNotNull(indexPage);
+
+        TestNGDocGenerator.TestMethodInfo tagged = new TestNGDocGenerator.TestMethodInfo("testLogin", "Logs <in>");
+        tagged.setTags(Arrays.asList("smoke", "auth"));
+        TestNGDocGenerator.TestMethodInfo untagged = new TestNGDocGenerator.TestMethodInfo("testLogout", "Logs out");
+        untagged.setTags(Collections.emptyList());
+        List<TestNGDocGenerator.TestMethodInfo> manyMethods = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            TestNGDocGenerator.TestMethodInfo method = new TestNGDocGenerator.TestMethodInfo("test" + i, "Step " + i);
+            method.setTags(Collections.singletonList("bulk"));
+            manyMethods.add(method);
+        }
+        List<TestNGDocGenerator.TestClassInfo> testClasses = Arrays.asList(
+                new TestNGDocGenerator.TestClassInfo("LoginTests", "com.example", Arrays.asList(tagged, untagged)),
+                new TestNGDocGenerator.TestClassInfo("BulkTests", "com.example.bulk", manyMethods));
+        testClasses.get(0).setPercentage("0.2");
+        testClasses.get(1).setPercentage("99.8");
+
+        for (boolean darkMode : new boolean[]{false, true}) {
+            for (TestNGDocGenerator.TestClassInfo testClass : testClasses) {
+                Map<String, Object> model = new HashMap<>();
+                model.put("className", testClass.getClassName());
+                model.put("packageName", testClass.getPackageName());
+                model.put("testMethods", testClass.getTestMethods());
+                model.put("percentage", testClass.getPercentage());
+                model.put("darkMode", darkMode);
+                model.put("reportTitle", "Docs & more");
+                model.put("reportHeader", null);
+                model.put("displayTagsChart", true);
+                assertRendersLikeFreeMarker(cfg.getTemplate("class.ftl"), classPage, model);
+            }
+            for (boolean displayTagsChart : new boolean[]{false, true}) {
+                Map<String, Object> model = new HashMap<>();
+                model.put("reportTitle", "Docs & more");
+                model.put("darkMode", darkMode);
+                model.put("displayTagsChart", displayTagsChart);
+                model.put("testClasses", testClasses);
+                model.put("totalMethods", 1202);
+                if (darkMode) {
+                    model.put("reportHeader", "<em>Nightly</em>");
+                    model.put("svgChart", "<svg></svg>");
+                }
+                assertRendersLikeFreeMarker(cfg.getTemplate("index.ftl"), indexPage, model);
+            }
+        }
+
+        // Models FreeMarker would reject are left to FreeMarker
+        Map<String, Object> missingDescription = new HashMap<>();
+        missingDescription.put("className", "LoginTests");
+        missingDescription.put("packageName", "com.example");
+        missingDescription.put("testMethods", Collections.singletonList(new TestNGDocGenerator.TestMethodInfo()));
+        missingDescription.put("percentage", "100.0");
+        missingDescription.put("darkMode", false);
+        missingDescription.put("reportTitle", "Docs");
+        StringWriter out = new StringWriter();
+        assertFalse(classPage.render(missingDescription, cfg.getLocale(), out));
+        assertEquals("", out.toString());
+
+        // Overridden templates are rendered by FreeMarker
+        Path overrideDir = temporaryFolder.newFolder("precompiled-overrides").toPath();
+        Files.write(overrideDir.resolve("class.ftl"), "Custom ${className}".getBytes(StandardCharsets.UTF_8));
+        Configuration overridden = context.forOverrideDirectories(Collections.singletonList(overrideDir));
+        assertNull(context.getPrecompiledPage(overridden, "class.ftl"));
+        assertNotNull(context.getPrecompiledPage(overridden, "index.ftl"));
+    }
+
+    private static void assertRendersLikeFreeMarker(Template template, PrecompiledPage page, Map<String, Object> model)
+            throws Exception {
+        StringWriter expected = new StringWriter();
+        template.process(model, expected);
+        StringWriter actual = new StringWriter();
+        assertTrue(page.render(model, template.getLocale(), actual));
+        assertEquals(expected.toString(), actual.toString());
+    }
 }